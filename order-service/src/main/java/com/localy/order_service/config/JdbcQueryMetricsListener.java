@@ -0,0 +1,46 @@
+package com.localy.order_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// datasource-proxy 리스너: 모든 JDBC 실행 시간을 jdbc.query 타이머로 기록하고 요청별 SQL 개수를 센다
+public class JdbcQueryMetricsListener implements QueryExecutionListener {
+
+    // DataSource 생성 시점에 MeterRegistry 를 미리 만들지 않도록 지연 조회
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final String dataSourceName;
+
+    public JdbcQueryMetricsListener(Supplier<MeterRegistry> meterRegistry, String dataSourceName) {
+        this.meterRegistry = meterRegistry;
+        this.dataSourceName = dataSourceName;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryType type = queryInfoList.isEmpty() ? QueryType.OTHER : QueryUtils.getQueryType(queryInfoList.get(0).getQuery());
+        Timer.builder("jdbc.query")
+                .description("JDBC 문 실행 시간")
+                .tag("datasource", dataSourceName)
+                .tag("type", type.name().toLowerCase())
+                .tag("batch", String.valueOf(execInfo.isBatch()))
+                .tag("success", String.valueOf(execInfo.isSuccess()))
+                .publishPercentileHistogram()
+                .register(meterRegistry.get())
+                .record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+
+        JdbcStatementCounter.increment(execInfo.isBatch() ? Math.max(1, execInfo.getBatchSize()) : queryInfoList.size());
+    }
+}
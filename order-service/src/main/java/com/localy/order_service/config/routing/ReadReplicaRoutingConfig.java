@@ -0,0 +1,107 @@
+package com.localy.order_service.config.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 읽기 복제본 라우팅 설정 (app.datasource.replicas.enabled=true 일 때만 사용, 기본은 단일 primary)
+// - 쓰기/일반 트랜잭션: primary 풀
+// - @Transactional(readOnly = true): LazyConnectionDataSourceProxy 가 readOnly 커넥션 요청을 ReplicaRoutingDataSource 로 보냄
+//   (실제 커넥션은 첫 SQL 실행 시점에 얻으므로 트랜잭션의 readOnly 속성이 이미 반영된 상태)
+// 샤딩(app.sharding.enabled)과 함께 사용하지 않음: 샤딩 시에는 ShardingConfig 의 DataSource 사용
+// 로컬 테스트: localy-deployment/docker/order-payment-test/order-replica-test-database.yml
+@Configuration
+@ConditionalOnExpression("'${app.datasource.replicas.enabled:false}' == 'true' and '${app.sharding.enabled:false}' != 'true'")
+public class ReadReplicaRoutingConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ReplicaRoutingDataSource replicaRouting;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.datasource.replicas.urls}") List<String> replicaUrls,
+                                 @Value("${app.datasource.replicas.username:${spring.datasource.username}}") String replicaUsername,
+                                 @Value("${app.datasource.replicas.password:${spring.datasource.password}}") String replicaPassword,
+                                 @Value("${app.datasource.replicas.max-pool-size:10}") int replicaPoolSize,
+                                 @Value("${app.datasource.replicas.max-lag-ms:1000}") long maxLagMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("order-primary");
+        primary.setMetricRegistry(meterRegistry);
+        pools.add(primary);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = createReplicaPool("order-replica-" + i, properties.getDriverClassName(),
+                    replicaUrls.get(i).trim(), replicaUsername, replicaPassword, replicaPoolSize, meterRegistry);
+            pools.add(replica);
+            replicas.put("replica-" + i, replica);
+        }
+
+        replicaRouting = new ReplicaRoutingDataSource("order", primary, replicas, maxLagMs, meterRegistry);
+        replicaRouting.afterPropertiesSet();
+        replicaRouting.checkReplicas(); // 시작 시 한 번 확인해서 바로 복제본 사용
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaRouting);
+        return dataSource;
+    }
+
+    static HikariDataSource createReplicaPool(String poolName, String driverClassName, String url,
+                                              String username, String password, int maxPoolSize,
+                                              MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(poolName);
+        pool.setDriverClassName(driverClassName);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setMaximumPoolSize(maxPoolSize);
+        pool.setReadOnly(true);
+        pool.setInitializationFailTimeout(-1); // 복제본이 내려가 있어도 애플리케이션은 시작 (헬스 체크에서 제외됨)
+        pool.setConnectionTimeout(2000);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${app.datasource.replicas.read-your-writes-ms:5000}") long windowMs) {
+        return new ReadYourWritesTracker(windowMs);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWritesTracker tracker) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(tracker));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-ms:2000}")
+    public void checkReplicas() {
+        if (replicaRouting != null) {
+            replicaRouting.checkReplicas();
+        }
+    }
+
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
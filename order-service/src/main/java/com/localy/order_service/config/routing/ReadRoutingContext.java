@@ -0,0 +1,22 @@
+package com.localy.order_service.config.routing;
+
+// 현재 스레드(요청)의 읽기를 primary 로 고정할지 여부
+public final class ReadRoutingContext {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private ReadRoutingContext() {
+    }
+
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isForcePrimary() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+    }
+}
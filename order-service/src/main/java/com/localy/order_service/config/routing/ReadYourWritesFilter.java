@@ -0,0 +1,33 @@
+package com.localy.order_service.config.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// X-User-Id 사용자가 방금 주문을 생성/변경했다면 이 요청의 읽기 전용 트랜잭션을 primary 로 고정
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesFilter(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String userId = request.getHeader("X-User-Id");
+        if (userId != null && tracker.recentlyWrote(userId)) {
+            ReadRoutingContext.forcePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRoutingContext.clear();
+        }
+    }
+}
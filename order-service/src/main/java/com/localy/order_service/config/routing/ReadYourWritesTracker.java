@@ -0,0 +1,39 @@
+package com.localy.order_service.config.routing;
+
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 사용자별 마지막 주문 변경 시각을 기억해서, 일정 시간(window) 동안 그 사용자의 조회를 primary 로 보냄
+// 주문을 생성/변경한 인스턴스 기준으로만 기억하므로, 복제 지연 허용치(max-lag-ms)보다 window 를 길게 둠
+public class ReadYourWritesTracker {
+
+    private final long windowMs;
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getUserId() != null) {
+            primaryUntil.put(event.getUserId(), System.currentTimeMillis() + windowMs);
+        }
+    }
+
+    public boolean recentlyWrote(String userId) {
+        Long until = primaryUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.read-your-writes-ms:5000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        primaryUntil.values().removeIf(until -> until <= now);
+    }
+}
@@ -0,0 +1,140 @@
+package com.localy.order_service.config.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 읽기 전용 커넥션을 복제본(replica) 풀 중 하나로 보내는 DataSource
+// - LazyConnectionDataSourceProxy 의 readOnlyDataSource 로 사용되므로 @Transactional(readOnly = true) 에서만 호출됨
+// - 건강하고 지연(lag)이 허용치 이하인 복제본만 라운드로빈으로 사용하고, 없으면 primary 로 대체
+// - 자기 주문 직후의 조회(ReadRoutingContext.forcePrimary)는 primary 로 보내서 read-your-writes 보장
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY_KEY = "primary";
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final String name;
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routedCounters = new HashMap<>();
+
+    public ReplicaRoutingDataSource(String name, DataSource primary, Map<String, DataSource> replicaPools,
+                                    long maxLagMs, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        this.replicas = replicaPools.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY_KEY, primary);
+        replicas.forEach(replica -> targets.put(replica.key, replica.dataSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        for (String reason : List.of("read-your-writes", "no-healthy-replica")) {
+            routedCounters.put(PRIMARY_KEY + ":" + reason, routedCounter(meterRegistry, PRIMARY_KEY, reason));
+        }
+        for (Replica replica : replicas) {
+            routedCounters.put(replica.key, routedCounter(meterRegistry, replica.key, "replica"));
+            Gauge.builder("db.replica.lag", replica, r -> r.lagMs)
+                    .description("복제본 재생 지연 (ms, 마지막 헬스 체크 기준)")
+                    .baseUnit("milliseconds")
+                    .tag("datasource", name).tag("replica", replica.key)
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("복제본 사용 가능 여부 (연결 가능 && 지연 허용치 이하)")
+                    .tag("datasource", name).tag("replica", replica.key)
+                    .register(meterRegistry);
+        }
+    }
+
+    private Counter routedCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("db.reads.routed")
+                .description("읽기 전용 트랜잭션이 사용한 데이터베이스 (primary/복제본 분배)")
+                .tag("datasource", name).tag("target", target).tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadRoutingContext.isForcePrimary()) {
+            routedCounters.get(PRIMARY_KEY + ":read-your-writes").increment();
+            return PRIMARY_KEY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                routedCounters.get(replica.key).increment();
+                return replica.key;
+            }
+        }
+        routedCounters.get(PRIMARY_KEY + ":no-healthy-replica").increment();
+        return PRIMARY_KEY;
+    }
+
+    // 각 복제본에 접속해서 지연을 측정 (ReadReplicaRoutingConfig 에서 주기적으로 호출)
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                    resultSet.next();
+                    replica.lagMs = resultSet.getLong(1);
+                }
+                boolean available = replica.lagMs <= maxLagMs;
+                if (available != replica.available) {
+                    System.out.println(String.format("--- ReplicaRoutingDataSource[%s]: 복제본 %s %s (lag=%dms) ---",
+                            name, replica.key, available ? "사용 재개" : "지연 초과로 제외", replica.lagMs));
+                }
+                replica.available = available;
+            } catch (Exception e) {
+                if (replica.available) {
+                    System.err.println(String.format("--- ReplicaRoutingDataSource[%s]: 복제본 %s 연결 실패로 제외 - %s ---",
+                            name, replica.key, e.getMessage()));
+                }
+                replica.available = false;
+            }
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicaDataSources() {
+        return replicas.stream().map(replica -> replica.dataSource).toList();
+    }
+
+    private static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean available; // 첫 헬스 체크 전까지는 사용하지 않음
+        private volatile long lagMs;
+
+        private Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.localy.order_service.config.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+// 주문 샤딩 키 계산
+// - 사용자 ID -> CRC32 -> 가상 버킷(0 ~ 1023) -> ShardDirectory 의 버킷별 샤드
+// - 주문 ID = (시퀀스 << 10) | 버킷 이므로 주문 ID 만으로도 버킷(=샤드)을 찾을 수 있음
+// - 샤드마다 시퀀스 시작값을 다르게 하고 MAX_SHARDS 만큼 증가시키므로 버킷을 옮겨도 주문 ID 가 겹치지 않음
+// - 샤딩 전에 IDENTITY 로 발급된 주문 ID(FIRST_SHARDED_ORDER_ID 미만)에는 버킷이 없음 -> 항상 샤드 0 (LEGACY_SHARD), 이동 대상 아님
+public final class OrderShardKeys {
+
+    public static final int BUCKET_BITS = 10;
+    public static final int BUCKET_COUNT = 1 << BUCKET_BITS;
+    public static final int MAX_SHARDS = 64;
+    public static final String ORDER_ID_SEQUENCE = "orders_shard_id_seq";
+    // 기존 IDENTITY 로 발급된 주문 ID 와 겹치지 않도록 충분히 큰 값에서 시작
+    public static final long SEQUENCE_START = 64_000_000L;
+    public static final long FIRST_SHARDED_ORDER_ID = SEQUENCE_START << BUCKET_BITS;
+    public static final int LEGACY_SHARD = 0; // 샤딩 전 주문이 남아 있는 샤드 (기존 DB)
+
+    private OrderShardKeys() {
+    }
+
+    public static int bucketOfUser(String userId) {
+        CRC32 crc = new CRC32(); // JVM/인스턴스와 무관하게 항상 같은 값
+        crc.update(userId.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() & (BUCKET_COUNT - 1));
+    }
+
+    public static boolean isLegacyOrderId(long orderId) {
+        return orderId < FIRST_SHARDED_ORDER_ID;
+    }
+
+    // 샤딩 전 주문 ID 의 하위 비트는 버킷이 아니므로 호출 전에 isLegacyOrderId 로 걸러야 함
+    public static int bucketOfOrder(long orderId) {
+        return (int) (orderId & (BUCKET_COUNT - 1));
+    }
+
+    public static long composeOrderId(long sequence, int bucket) {
+        return (sequence << BUCKET_BITS) | bucket;
+    }
+
+    // 샤드별 주문 ID 시퀀스 DDL (샤드 0 은 schema.sql 과 같은 정의)
+    public static String sequenceDdl(int shard) {
+        return "CREATE SEQUENCE IF NOT EXISTS " + ORDER_ID_SEQUENCE
+                + " START WITH " + (SEQUENCE_START + shard) + " INCREMENT BY " + MAX_SHARDS;
+    }
+}
@@ -0,0 +1,187 @@
+package com.localy.order_service.config.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// 주문 데이터가 있는 샤드를 골라 작업을 실행
+// - 사용자 단위 작업(주문 생성, 주문 목록): userId 버킷의 샤드
+// - 주문 단위 작업(상세 조회, 결제 결과, 만료): 주문 ID 에 들어있는 버킷의 샤드 (샤딩 전 주문 ID 는 샤드 0)
+// - 가게 단위 조회: 모든 샤드에 동시에 실행 후 합침 (scatter-gather)
+// 샤딩을 사용하지 않으면(app.sharding.enabled=false) 샤드 0 하나로 동작하며 작업을 그대로 실행
+// 트랜잭션이 샤드 커넥션을 잡기 전에 샤드가 지정되어야 하므로 @Transactional 서비스 바깥(컨트롤러, 컨슈머, 스케줄러)에서 호출
+@Component
+public class OrderShardRouter {
+
+    private final ShardDirectory directory; // 샤딩 미사용 시 null
+
+    @Value("${app.sharding.move-wait-ms:10000}")
+    private long moveWaitMs;
+
+    private final ExecutorService scatterExecutor;
+
+    public OrderShardRouter(ObjectProvider<ShardDirectory> directory,
+                            @Value("${app.sharding.scatter-threads:8}") int scatterThreads) {
+        this.directory = directory.getIfAvailable();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scatterExecutor = this.directory == null ? null : Executors.newFixedThreadPool(scatterThreads, r -> {
+            Thread thread = new Thread(r, "order-shard-scatter-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isSharded() {
+        return directory != null;
+    }
+
+    public int shardCount() {
+        return directory != null ? directory.getShardCount() : 1;
+    }
+
+    public int shardOfUser(String userId) {
+        return directory != null ? directory.shardOf(OrderShardKeys.bucketOfUser(userId)) : 0;
+    }
+
+    public int shardOfOrder(long orderId) {
+        if (directory == null || OrderShardKeys.isLegacyOrderId(orderId)) {
+            return OrderShardKeys.LEGACY_SHARD;
+        }
+        return directory.shardOf(OrderShardKeys.bucketOfOrder(orderId));
+    }
+
+    // 샤딩 전 주문은 버킷이 없어 옮겨지지 않음
+    public boolean isOrderMoving(long orderId) {
+        return directory != null && !OrderShardKeys.isLegacyOrderId(orderId)
+                && directory.isMoving(OrderShardKeys.bucketOfOrder(orderId));
+    }
+
+    // 샤드에 배정되어 있고 이동 중이 아닌 버킷 (샤딩 미사용 시 null = 모든 버킷)
+    public List<Integer> stableBucketsOfShard(int shard) {
+        if (directory == null) {
+            return null;
+        }
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < OrderShardKeys.BUCKET_COUNT; bucket++) {
+            if (directory.shardOf(bucket) == shard && !directory.isMoving(bucket)) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (directory == null) {
+            return action.get();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public void runOnShard(int shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T onUserShard(String userId, Supplier<T> action) {
+        return onShard(shardOfUser(userId), action);
+    }
+
+    // 사용자 주문 목록: 사용자 샤드의 결과 뒤에 샤드 0 의 샤딩 전 주문을 붙임 (샤딩 전 주문이 항상 더 오래됨)
+    public <T> List<T> onUserShardWithLegacy(String userId, Supplier<List<T>> action, ToLongFunction<T> orderIdOf) {
+        int userShard = shardOfUser(userId);
+        List<T> results = onShard(userShard, action);
+        if (userShard == OrderShardKeys.LEGACY_SHARD) {
+            return results;
+        }
+        List<T> merged = new ArrayList<>(results);
+        for (T item : onShard(OrderShardKeys.LEGACY_SHARD, action)) {
+            if (OrderShardKeys.isLegacyOrderId(orderIdOf.applyAsLong(item))) {
+                merged.add(item);
+            }
+        }
+        return merged;
+    }
+
+    // 쓰기: 버킷이 다른 샤드로 이동 중이면 끝날 때까지 잠시 기다린 뒤 새 샤드에서 실행
+    public <T> T onUserShardForWrite(String userId, Supplier<T> action) {
+        awaitWritable(OrderShardKeys.bucketOfUser(userId));
+        return onUserShard(userId, action);
+    }
+
+    public <T> T onOrderShard(long orderId, Supplier<T> action) {
+        return onShard(shardOfOrder(orderId), action);
+    }
+
+    public void runOnOrderShardForWrite(long orderId, Runnable action) {
+        if (!OrderShardKeys.isLegacyOrderId(orderId)) {
+            awaitWritable(OrderShardKeys.bucketOfOrder(orderId));
+        }
+        runOnShard(shardOfOrder(orderId), action);
+    }
+
+    // 모든 샤드에서 동시에 실행 (샤드 번호 순서대로 결과 반환)
+    // 각 샤드 작업은 별도 스레드에서 자기 트랜잭션으로 실행되므로 지연 로딩이 필요 없는 결과를 반환해야 함
+    public <T> List<T> onAllShards(IntFunction<T> action) {
+        if (directory == null) {
+            return List.of(action.apply(0));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (int shard = 0; shard < directory.getShardCount(); shard++) {
+            final int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, () -> action.apply(target)), scatterExecutor));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void awaitWritable(int bucket) {
+        if (directory == null || !directory.isMoving(bucket)) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + moveWaitMs;
+        while (directory.isMoving(bucket)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new ShardMovingException("주문 데이터를 다른 저장소로 옮기는 중입니다. 잠시 후 다시 시도해 주세요.");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ShardMovingException("샤드 이동 대기 중 인터럽트", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.localy.order_service.config.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 가상 버킷 하나를 다른 샤드로 이동 (리밸런싱)
+// 1. 버킷을 moving 으로 표시하고 모든 인스턴스가 알아챌 때까지 대기 (그동안 해당 버킷 쓰기는 OrderShardRouter 에서 대기)
+// 2. 대상 샤드에 버킷 데이터를 한 트랜잭션으로 복사 (재시도해도 되도록 대상의 기존 버킷 데이터는 먼저 삭제)
+// 3. 디렉터리를 대상 샤드로 바꾸고, 이전 매핑으로 읽는 인스턴스가 없어질 때까지 기다린 뒤 원본 샤드에서 삭제
+// 매출 롤업은 가게 단위로 모든 샤드를 합쳐서 조회하므로 옮기지 않음
+@Component
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardBucketMover {
+
+    // 샤딩 전 주문(버킷 없는 ID)은 하위 비트가 같아도 옮기지 않음 (항상 샤드 0)
+    private static final String BUCKET_CONDITION = "order_id >= " + OrderShardKeys.FIRST_SHARDED_ORDER_ID
+            + " AND MOD(order_id, " + OrderShardKeys.BUCKET_COUNT + ") = ?";
+    // 부모 -> 자식 순서 (삭제는 역순). 자식 테이블의 자체 키는 대상 샤드의 시퀀스로 새로 발급
+    private static final List<String> TABLES = List.of("orders", "order_line_items", "archived_orders");
+    private static final Map<String, Map<String, String>> GENERATED_COLUMNS =
+            Map.of("order_line_items", Map.of("order_item_id", "nextval('order_line_items_seq')"));
+    private static final int BATCH_SIZE = 500;
+
+    private final ShardDirectory directory;
+    private final ShardDataSources shardDataSources;
+
+    @Value("${app.sharding.directory-refresh-ms:5000}")
+    private long directoryRefreshMs;
+
+    public ShardBucketMover(ShardDirectory directory, ShardDataSources shardDataSources) {
+        this.directory = directory;
+        this.shardDataSources = shardDataSources;
+    }
+
+    public synchronized Map<String, Object> moveBucket(int bucket, int targetShard) {
+        if (bucket < 0 || bucket >= OrderShardKeys.BUCKET_COUNT) {
+            throw new IllegalArgumentException("버킷 번호는 0 ~ " + (OrderShardKeys.BUCKET_COUNT - 1) + " 사이여야 합니다.");
+        }
+        if (targetShard < 0 || targetShard >= directory.getShardCount()) {
+            throw new IllegalArgumentException("존재하지 않는 샤드입니다: " + targetShard);
+        }
+        directory.refresh();
+        int sourceShard = directory.shardOf(bucket);
+        if (sourceShard == targetShard) {
+            throw new IllegalArgumentException("버킷 " + bucket + " 은(는) 이미 샤드 " + targetShard + " 에 있습니다.");
+        }
+        DataSource source = shardDataSources.shards().get(sourceShard);
+        DataSource target = shardDataSources.shards().get(targetShard);
+
+        System.out.println(String.format("--- ShardBucketMover: 버킷 %d 이동 시작 (샤드 %d -> %d) ---", bucket, sourceShard, targetShard));
+        directory.markMoving(bucket, true);
+        Map<String, Integer> copied;
+        try {
+            waitForInstances();
+            copied = copyBucket(source, target, bucket);
+            directory.assign(bucket, targetShard);
+        } catch (Exception e) {
+            directory.markMoving(bucket, false);
+            System.err.println("--- ShardBucketMover: 버킷 " + bucket + " 이동 실패, 원래 샤드 유지 - " + e.getMessage() + " ---");
+            throw new IllegalStateException("버킷 이동 실패: " + e.getMessage(), e);
+        }
+
+        waitForInstances();
+        int deleted = deleteBucket(source, bucket);
+        System.out.println(String.format("--- ShardBucketMover: 버킷 %d 이동 완료 (복사 %s, 원본 삭제 %d행) ---", bucket, copied, deleted));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("bucket", bucket);
+        result.put("sourceShard", sourceShard);
+        result.put("targetShard", targetShard);
+        result.put("copiedRows", copied);
+        result.put("deletedRows", deleted);
+        return result;
+    }
+
+    private Map<String, Integer> copyBucket(DataSource source, DataSource target, int bucket) throws SQLException {
+        Map<String, Integer> copied = new LinkedHashMap<>();
+        try (Connection from = source.getConnection(); Connection to = target.getConnection()) {
+            from.setReadOnly(true);
+            to.setAutoCommit(false);
+            try {
+                deleteBucket(to, bucket);
+                for (String table : TABLES) {
+                    copied.put(table, copyTable(from, to, table, bucket));
+                }
+                to.commit();
+            } catch (SQLException e) {
+                to.rollback();
+                throw e;
+            }
+        }
+        return copied;
+    }
+
+    private int copyTable(Connection from, Connection to, String table, int bucket) throws SQLException {
+        Map<String, String> generated = GENERATED_COLUMNS.getOrDefault(table, Map.of());
+        int rows = 0;
+        try (PreparedStatement select = from.prepareStatement("SELECT * FROM " + table + " WHERE " + BUCKET_CONDITION)) {
+            select.setFetchSize(BATCH_SIZE);
+            select.setInt(1, bucket);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<Integer> columnIndexes = new ArrayList<>();
+                List<String> columnNames = new ArrayList<>();
+                List<String> values = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    String expression = generated.get(meta.getColumnName(i));
+                    columnNames.add(meta.getColumnName(i));
+                    if (expression != null) {
+                        values.add(expression);
+                    } else {
+                        columnIndexes.add(i);
+                        values.add("?");
+                    }
+                }
+                String insert = "INSERT INTO " + table + " (" + String.join(", ", columnNames) + ") VALUES ("
+                        + String.join(", ", values) + ")";
+                try (PreparedStatement statement = to.prepareStatement(insert)) {
+                    while (rs.next()) {
+                        for (int i = 0; i < columnIndexes.size(); i++) {
+                            statement.setObject(i + 1, rs.getObject(columnIndexes.get(i)));
+                        }
+                        statement.addBatch();
+                        if (++rows % BATCH_SIZE == 0) {
+                            statement.executeBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private int deleteBucket(DataSource dataSource, int bucket) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int deleted = deleteBucket(connection, bucket);
+                connection.commit();
+                return deleted;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            // 원본 정리는 나중에 다시 실행해도 됨 (디렉터리는 이미 대상 샤드를 가리킴)
+            System.err.println("--- ShardBucketMover: 원본 샤드 버킷 " + bucket + " 삭제 실패 - " + e.getMessage() + " ---");
+            return 0;
+        }
+    }
+
+    private int deleteBucket(Connection connection, int bucket) throws SQLException {
+        int deleted = 0;
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + TABLES.get(i) + " WHERE " + BUCKET_CONDITION)) {
+                delete.setInt(1, bucket);
+                deleted += delete.executeUpdate();
+            }
+        }
+        return deleted;
+    }
+
+    // 다른 인스턴스가 디렉터리를 다시 읽을 때까지 (갱신 주기의 2배) 대기
+    private void waitForInstances() {
+        try {
+            Thread.sleep(directoryRefreshMs * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("버킷 이동 대기 중 인터럽트", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.localy.order_service.config.sharding;
+
+// 현재 스레드가 사용할 샤드 (OrderShardRouter 를 통해서만 설정)
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.localy.order_service.config.sharding;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// 샤드별 커넥션 풀 (샤드 번호 순서). 버킷 이동처럼 샤드를 직접 지정해야 하는 작업에서 사용
+public record ShardDataSources(List<DataSource> shards) {
+}
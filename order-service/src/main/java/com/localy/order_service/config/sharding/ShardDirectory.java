@@ -0,0 +1,79 @@
+package com.localy.order_service.config.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+// 가상 버킷 -> 샤드 매핑 (샤드 0 의 order_shard_buckets 테이블이 원본, 인스턴스마다 메모리에 복사해서 사용)
+// - 처음에는 bucket % 샤드 수 로 채우고, 이후 샤드를 추가해도 자동으로 재배치하지 않음 (ShardBucketMover 로 버킷 단위 이동)
+// - moving 버킷은 이동이 끝날 때까지 쓰기를 잠시 막음
+public class ShardDirectory {
+
+    private final JdbcTemplate directoryJdbc;
+    private final int shardCount;
+
+    private volatile int[] bucketToShard = new int[OrderShardKeys.BUCKET_COUNT];
+    private volatile boolean[] moving = new boolean[OrderShardKeys.BUCKET_COUNT];
+
+    public ShardDirectory(JdbcTemplate directoryJdbc, int shardCount) {
+        this.directoryJdbc = directoryJdbc;
+        this.shardCount = shardCount;
+    }
+
+    public void initialize() {
+        directoryJdbc.execute("CREATE TABLE IF NOT EXISTS order_shard_buckets (" +
+                "bucket_id INTEGER PRIMARY KEY, shard_id INTEGER NOT NULL, moving BOOLEAN NOT NULL DEFAULT FALSE)");
+        directoryJdbc.update("INSERT INTO order_shard_buckets (bucket_id, shard_id) " +
+                        "SELECT b, MOD(b, ?) FROM generate_series(0, ?) AS b ON CONFLICT (bucket_id) DO NOTHING",
+                shardCount, OrderShardKeys.BUCKET_COUNT - 1);
+        refresh();
+    }
+
+    public void refresh() {
+        int[] shards = new int[OrderShardKeys.BUCKET_COUNT];
+        boolean[] movingBuckets = new boolean[OrderShardKeys.BUCKET_COUNT];
+        directoryJdbc.query("SELECT bucket_id, shard_id, moving FROM order_shard_buckets", rs -> {
+            int bucket = rs.getInt(1);
+            int shard = rs.getInt(2);
+            if (shard >= shardCount) {
+                throw new IllegalStateException("버킷 " + bucket + " 이(가) 설정되지 않은 샤드 " + shard + " 에 배정되어 있습니다.");
+            }
+            shards[bucket] = shard;
+            movingBuckets[bucket] = rs.getBoolean(3);
+        });
+        this.bucketToShard = shards;
+        this.moving = movingBuckets;
+    }
+
+    public int shardOf(int bucket) {
+        return bucketToShard[bucket];
+    }
+
+    public boolean isMoving(int bucket) {
+        return moving[bucket];
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void markMoving(int bucket, boolean value) {
+        directoryJdbc.update("UPDATE order_shard_buckets SET moving = ? WHERE bucket_id = ?", value, bucket);
+        refresh();
+    }
+
+    public void assign(int bucket, int shard) {
+        directoryJdbc.update("UPDATE order_shard_buckets SET shard_id = ?, moving = FALSE WHERE bucket_id = ?", shard, bucket);
+        refresh();
+    }
+
+    // 샤드별 배정된 버킷 수
+    public List<Integer> bucketsPerShard() {
+        int[] counts = new int[shardCount];
+        for (int shard : bucketToShard) {
+            counts[shard]++;
+        }
+        return Arrays.stream(counts).boxed().toList();
+    }
+}
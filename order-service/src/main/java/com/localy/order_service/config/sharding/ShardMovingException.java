@@ -0,0 +1,13 @@
+package com.localy.order_service.config.sharding;
+
+// 쓰려는 버킷을 다른 샤드로 옮기는 중이라 대기 시간 안에 쓰지 못함 (저장되지 않았으므로 잠시 후 다시 시도해도 됨)
+public class ShardMovingException extends RuntimeException {
+
+    public ShardMovingException(String message) {
+        super(message);
+    }
+
+    public ShardMovingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,29 @@
+package com.localy.order_service.config.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// ShardContext 의 샤드로 커넥션을 보내는 DataSource (지정되지 않으면 샤드 0: 시작 시 DDL, 샤드 디렉터리 등)
+// 커넥션은 트랜잭션 시작 시점에 얻으므로 OrderShardRouter 로 샤드를 먼저 지정한 뒤 트랜잭션을 시작해야 함
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.localy.order_service.config.sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 버킷이 포함된 주문 ID 생성 (ShardedOrderIdGenerator)
+@IdGeneratorType(ShardedOrderIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardedOrderId {
+}
@@ -0,0 +1,22 @@
+package com.localy.order_service.config.sharding;
+
+import com.localy.order_service.order.domain.Order;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+// 현재 샤드의 시퀀스 값과 주문자 버킷으로 주문 ID 생성
+// 시퀀스는 주문이 저장되는 샤드(현재 트랜잭션의 커넥션)에서 가져옴
+public class ShardedOrderIdGenerator implements IdentifierGenerator {
+
+    private static final String NEXT_VALUE_SQL = "SELECT nextval('" + OrderShardKeys.ORDER_ID_SEQUENCE + "')";
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Order order = (Order) object;
+        Long sequence = session.createNativeQuery(NEXT_VALUE_SQL, Long.class)
+                .setHibernateFlushMode(FlushMode.MANUAL) // persist 도중 flush 방지
+                .getSingleResult();
+        return OrderShardKeys.composeOrderId(sequence, OrderShardKeys.bucketOfUser(order.getUserId()));
+    }
+}
@@ -0,0 +1,119 @@
+package com.localy.order_service.config.sharding;
+
+import com.localy.order_service.OrderServiceApplication;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// 주문 데이터 수평 샤딩 설정 (app.sharding.enabled=true 일 때만 사용, 기본은 단일 DB)
+// - app.sharding.urls 의 DB 마다 커넥션 풀을 만들고, ShardRoutingDataSource 로 묶어서 JPA 에 제공
+// - 샤드 0 은 Spring 기본 초기화(ddl-auto, schema.sql)를 그대로 사용하고, 나머지 샤드는 시작 시 같은 스키마를 적용
+// - 샤드 0 의 order_shard_buckets 가 버킷 배정의 원본 (주기적으로 다시 읽어서 다른 인스턴스의 버킷 이동을 반영)
+// 로컬 테스트: localy-deployment/docker/order-payment-test/order-shard-test-database.yml
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ShardDirectory directory;
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties properties,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${app.sharding.urls}") List<String> urls,
+                                             @Value("${app.sharding.max-pool-size:10}") int maxPoolSize) {
+        if (urls.isEmpty() || urls.size() > OrderShardKeys.MAX_SHARDS) {
+            throw new IllegalArgumentException("app.sharding.urls 는 1 ~ " + OrderShardKeys.MAX_SHARDS + "개여야 합니다.");
+        }
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("order-shard-" + shard);
+            pool.setDriverClassName(properties.getDriverClassName());
+            pool.setJdbcUrl(urls.get(shard).trim());
+            pool.setUsername(properties.getUsername());
+            pool.setPassword(properties.getPassword());
+            pool.setMaximumPoolSize(maxPoolSize);
+            pool.setMetricRegistry(meterRegistry);
+            pools.add(pool);
+            shards.add(pool);
+        }
+        return new ShardDataSources(List.copyOf(shards));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource(shardDataSources.shards());
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardDataSources shardDataSources) {
+        directory = new ShardDirectory(new JdbcTemplate(shardDataSources.shards().get(0)),
+                shardDataSources.shards().size());
+        directory.initialize();
+        return directory;
+    }
+
+    // 샤드 1..N 스키마: 같은 엔티티로 임시 EntityManagerFactory 를 만들어 ddl-auto(update) 를 적용하고 닫음
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(ShardDataSources shardDataSources,
+                                                             EntityManagerFactoryBuilder entityManagerFactoryBuilder) {
+        return () -> {
+            List<DataSource> shards = shardDataSources.shards();
+            for (int shard = 0; shard < shards.size(); shard++) {
+                DataSource dataSource = shards.get(shard);
+                if (shard > 0) {
+                    LocalContainerEntityManagerFactoryBean factory = entityManagerFactoryBuilder
+                            .dataSource(dataSource)
+                            .packages(OrderServiceApplication.class)
+                            .persistenceUnit("order-shard-" + shard + "-schema")
+                            .properties(Map.of("hibernate.hbm2ddl.auto", "update"))
+                            .build();
+                    factory.afterPropertiesSet();
+                    factory.destroy();
+                }
+                new JdbcTemplate(dataSource).execute(OrderShardKeys.sequenceDdl(shard));
+                new ResourceDatabasePopulator(false, true, null, new ClassPathResource("schema.sql")).execute(dataSource);
+                System.out.println("--- ShardingConfig: 샤드 " + shard + " 스키마 확인 완료 ---");
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${app.sharding.directory-refresh-ms:5000}")
+    public void refreshDirectory() {
+        if (directory == null) {
+            return;
+        }
+        try {
+            directory.refresh();
+        } catch (Exception e) {
+            System.err.println("--- ShardingConfig: 샤드 디렉터리 갱신 실패 (이전 매핑 유지) - " + e.getMessage() + " ---");
+        }
+    }
+
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
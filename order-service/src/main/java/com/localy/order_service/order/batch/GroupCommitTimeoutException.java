@@ -0,0 +1,9 @@
+package com.localy.order_service.order.batch;
+
+// 그룹 커밋 대기 시간 초과로 주문을 저장하기 전에 취소함 (저장되지 않았으므로 다시 시도해도 됨)
+public class GroupCommitTimeoutException extends RuntimeException {
+
+    public GroupCommitTimeoutException(String message) {
+        super(message);
+    }
+}
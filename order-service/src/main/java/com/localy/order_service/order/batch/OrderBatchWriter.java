@@ -0,0 +1,320 @@
+package com.localy.order_service.order.batch;
+
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.domain.OrderLineItem;
+import com.localy.order_service.order.dto.CreateOrderRequest;
+import com.localy.order_service.order.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 주문 생성 그룹 커밋 (order.group-commit.enabled=true 일 때만 사용, 기본은 요청마다 커밋)
+// - 요청 스레드에서 검증/가격 재계산까지 마친 주문을 큐에 넣고 결과를 기다림
+// - 전용 스레드가 첫 주문 이후 window-ms 동안(또는 max-batch-size 개까지) 모아서 샤드별로 한 트랜잭션에 저장
+//   -> 커밋(fsync)이 주문마다가 아니라 묶음마다 한 번, INSERT 는 JDBC 배치로 실행
+// - 묶음 트랜잭션이 실패하면 그 묶음의 주문을 하나씩 다시 저장해서 실패한 주문만 실패로 응답 (주문별 실패 격리)
+// - 큐가 가득 차면 그룹 커밋 없이 요청 스레드에서 바로 저장
+// - 대기 시간이 지나면 아직 저장을 시작하지 않은 주문만 취소하고 실패로 응답, 저장 중인 주문은 실제 결과를 기다림
+@Component
+public class OrderBatchWriter {
+
+    private final OrderService orderService;
+    private final OrderShardRouter orderShardRouter;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final Counter batchedOrders;
+    private final Counter fallbackOrders;
+    private final Counter bypassedOrders;
+    private final Counter cancelledOrders;
+    private final DistributionSummary batchSize;
+    private final Timer placementLatency;
+    private final Timer commitLatency;
+    private final long windowMs;
+
+    @Value("${order.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${order.group-commit.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${order.group-commit.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public OrderBatchWriter(OrderService orderService,
+                            OrderShardRouter orderShardRouter,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.group-commit.window-ms:5}") long windowMs,
+                            @Value("${order.group-commit.queue-capacity:5000}") int queueCapacity) {
+        this.orderService = orderService;
+        this.orderShardRouter = orderShardRouter;
+        this.windowMs = windowMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        // 배치 창 크기별 처리량/지연을 비교할 수 있도록 window 태그를 붙임
+        String window = String.valueOf(windowMs);
+        this.batchedOrders = Counter.builder("orders.group.commit.orders")
+                .description("그룹 커밋으로 저장된 주문 수 (rate = 초당 주문 수)")
+                .tag("window", window)
+                .register(meterRegistry);
+        this.fallbackOrders = Counter.builder("orders.group.commit.fallbacks")
+                .description("묶음 트랜잭션 실패로 개별 저장을 다시 시도한 주문 수")
+                .tag("window", window)
+                .register(meterRegistry);
+        this.bypassedOrders = Counter.builder("orders.group.commit.bypassed")
+                .description("큐가 가득 차서 그룹 커밋 없이 바로 저장한 주문 수")
+                .tag("window", window)
+                .register(meterRegistry);
+        this.cancelledOrders = Counter.builder("orders.group.commit.cancelled")
+                .description("저장 전에 대기 시간이 지나 취소된 주문 수")
+                .tag("window", window)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("orders.group.commit.batch.size")
+                .description("한 트랜잭션에 저장된 주문 수")
+                .tag("window", window)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.placementLatency = Timer.builder("orders.group.commit.latency")
+                .description("큐에 넣은 뒤 커밋 결과를 받을 때까지 걸린 시간")
+                .tag("window", window)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("orders.group.commit.transaction")
+                .description("묶음 하나를 저장/커밋하는 데 걸린 시간")
+                .tag("window", window)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("orders.group.commit.queue.depth", queue, BlockingQueue::size)
+                .description("저장을 기다리는 주문 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "order-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+        System.out.println("--- OrderBatchWriter: 주문 그룹 커밋 사용 (window " + windowMs + "ms, 최대 " + maxBatchSize + "건) ---");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(waitTimeoutMs);
+        }
+        // 남은 주문은 호출한 스레드에서 처리되도록 각각 바로 저장
+        List<PendingOrder> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingOrder pending : remaining) {
+            saveIndividually(pending);
+        }
+    }
+
+    // 주문 생성 (그룹 커밋 사용 시 같은 창에 들어온 주문들과 함께 커밋된 뒤 반환)
+    // 검증/가격 재계산(store-service 호출 가능)은 트랜잭션 밖에서 먼저 하고, 저장만 쓰기 트랜잭션에서 함
+    public Order placeOrder(CreateOrderRequest createOrderRequest, String userId) {
+        // 검증/가격 재계산 실패는 이 요청만의 실패이므로 큐에 넣기 전에 처리
+        Order order = orderService.prepareOrder(createOrderRequest, userId);
+        if (!enabled) {
+            return orderService.saveNewOrder(order);
+        }
+        PendingOrder pending = new PendingOrder(order, orderShardRouter.shardOfUser(userId), System.nanoTime());
+        if (!queue.offer(pending)) {
+            bypassedOrders.increment();
+            return orderService.saveNewOrder(order);
+        }
+        try {
+            return pending.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 아직 flusher 가 가져가지 않았으면 취소 -> 저장되지 않은 것이 확실하므로 실패로 응답 (같은 키로 재시도 가능)
+            if (pending.cancel()) {
+                cancelledOrders.increment();
+                throw new GroupCommitTimeoutException("주문 저장 대기 시간이 초과되어 주문을 취소했습니다. 다시 시도해 주세요.");
+            }
+            // 이미 저장 중인 주문은 커밋 여부를 모르는 채로 실패를 돌려주면 안 되므로 실제 결과를 기다림
+            return awaitOutcome(pending);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.cancel()) {
+                throw new GroupCommitTimeoutException("주문 저장 대기 중 인터럽트가 발생해 주문을 취소했습니다.");
+            }
+            return awaitOutcome(pending);
+        }
+    }
+
+    // 저장 중인 주문의 결과 (트랜잭션이 끝나면 반드시 완료됨)
+    private Order awaitOutcome(PendingOrder pending) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return pending.future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw unwrap(e);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private void runFlusher() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingOrder first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size()); // 이미 도착한 주문은 창이 끝나도 함께 저장
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 종료 중: 모으던 묶음은 주문별로 바로 저장
+                Thread.currentThread().interrupt();
+                running = false;
+                batch.forEach(this::saveIndividually);
+            } catch (RuntimeException e) {
+                System.err.println("--- OrderBatchWriter: 그룹 커밋 처리 중 예상치 못한 오류 - " + e.getMessage() + " ---");
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            } finally {
+                if (!batch.isEmpty()) {
+                    batch.forEach(this::recordLatency);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void flush(List<PendingOrder> batch) {
+        Map<Integer, List<PendingOrder>> byShard = new LinkedHashMap<>();
+        for (PendingOrder pending : batch) {
+            if (!pending.claim()) {
+                continue; // 대기 시간이 지나 요청 쪽에서 취소한 주문
+            }
+            byShard.computeIfAbsent(pending.shard, shard -> new ArrayList<>()).add(pending);
+        }
+        byShard.forEach((shard, orders) -> {
+            batchSize.record(orders.size());
+            long startedAt = System.nanoTime();
+            try {
+                List<Order> saved = orderShardRouter.onShard(shard,
+                        () -> orderService.saveNewOrders(orders.stream().map(pending -> pending.order).toList()));
+                commitLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                for (int i = 0; i < orders.size(); i++) {
+                    orders.get(i).future.complete(saved.get(i));
+                }
+                batchedOrders.increment(orders.size());
+            } catch (RuntimeException e) {
+                System.err.println("--- OrderBatchWriter: 샤드 " + shard + " 묶음(" + orders.size() + "건) 저장 실패, 주문별로 다시 저장 - " + e.getMessage() + " ---");
+                fallbackOrders.increment(orders.size());
+                orders.forEach(this::saveIndividually);
+            }
+        });
+    }
+
+    private void saveIndividually(PendingOrder pending) {
+        if (pending.future.isDone() || !pending.claim()) {
+            return;
+        }
+        try {
+            resetGeneratedIds(pending.order); // 롤백된 묶음에서 발급된 ID 는 버리고 새로 발급
+            pending.future.complete(orderShardRouter.onShard(pending.shard, () -> orderService.saveNewOrder(pending.order)));
+        } catch (RuntimeException e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private static void resetGeneratedIds(Order order) {
+        order.setOrderId(null);
+        // 이전 세션에 묶인 Hibernate 컬렉션 대신 새 리스트 사용
+        List<OrderLineItem> lineItems = new ArrayList<>(order.getOrderLineItems());
+        for (OrderLineItem lineItem : lineItems) {
+            lineItem.setOrderItemId(null);
+        }
+        order.setOrderLineItems(lineItems);
+    }
+
+    private void recordLatency(PendingOrder pending) {
+        placementLatency.record(System.nanoTime() - pending.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class PendingOrder {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1; // flusher 가 저장을 시작함 (이후에는 취소 불가)
+        private static final int CANCELLED = 2;
+
+        private final Order order;
+        private final int shard;
+        private final long enqueuedAtNanos;
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private PendingOrder(Order order, int shard, long enqueuedAtNanos) {
+            this.order = order;
+            this.shard = shard;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+
+        // flusher 쪽: 취소되지 않았으면 저장 대상으로 확정 (묶음 실패 후 개별 저장에서 다시 호출해도 true)
+        private boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED) || state.get() == CLAIMED;
+        }
+
+        // 요청 쪽: 아직 저장을 시작하지 않았을 때만 취소
+        private boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.localy.order_service.order.cache;
+
+import com.localy.order_service.order.dto.OrderLineItemDto;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// 캐시된 주문 요약 중 생성 후 바뀌지 않는 부분 (주문자, 가게, 금액, 항목)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedOrderBody {
+    private Long orderId;
+    private String userId;
+    private Long storeId;
+    private BigDecimal totalAmount;
+    private LocalDateTime orderDate;
+    private LocalDateTime createdAt;
+    private List<OrderLineItemDto> lineItems;
+}
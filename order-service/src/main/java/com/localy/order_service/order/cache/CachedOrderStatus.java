@@ -0,0 +1,15 @@
+package com.localy.order_service.order.cache;
+
+import lombok.*;
+
+// 캐시된 주문 요약 중 결제 결과에 따라 바뀌는 부분
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedOrderStatus {
+    private String orderStatus;
+    private Long paymentId;
+    private long cachedAtMillis; // 캐시에 기록된 시각 (항목 나이 메트릭용)
+}
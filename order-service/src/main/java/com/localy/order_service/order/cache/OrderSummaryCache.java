@@ -0,0 +1,355 @@
+package com.localy.order_service.order.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.domain.OrderLineItem;
+import com.localy.order_service.order.dto.OrderLineItemDto;
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// 주문 상세 조회용 Redis read-through 캐시 (주문 ID 기준)
+// - 바뀌지 않는 본문(order:summary:{id})과 상태(order:status:{id})를 나눠 저장
+//   상태 변경 이벤트는 커밋 후 상태 키만 덮어쓰고, DB 에서 읽어 채우는 쪽은 SET NX 로만 쓰므로
+//   "읽기 -> (다른 곳에서 상태 변경) -> 이전 상태로 캐시 채우기" 경합에서도 더 최신 상태를 덮어쓰지 않음
+// - 미스 폭주(dogpile) 방지: 인스턴스 안에서는 같은 주문 로딩을 하나로 합치고(single flight),
+//   인스턴스 간에는 짧은 Redis 락을 잡은 한 곳만 DB 를 읽고 나머지는 잠시 캐시가 채워지기를 기다림
+// - Redis 장애 시에는 캐시 없이 DB 조회로 동작
+@Component
+public class OrderSummaryCache {
+
+    private static final String BODY_KEY = "order:summary:";
+    private static final String STATUS_KEY = "order:status:";
+    private static final String LOCK_KEY = "order:summary:lock:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<Order>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+    private final Counter loads;
+    private final Counter coalesced;
+    private final Counter verified;
+    private final Counter stale;
+    private final DistributionSummary entryAge;
+
+    @Value("${order.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${order.cache.lock-ms:2000}")
+    private long lockMs;
+
+    @Value("${order.cache.lock-wait-ms:300}")
+    private long lockWaitMs;
+
+    @Value("${order.cache.verify-sample-rate:0.01}")
+    private double verifySampleRate;
+
+    public OrderSummaryCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.errors = requests(meterRegistry, "error");
+        this.loads = Counter.builder("orders.summary.cache.loads")
+                .description("캐시 미스로 DB 에서 주문을 읽은 횟수")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("orders.summary.cache.coalesced")
+                .description("진행 중인 로딩 결과를 함께 사용한 요청 수 (dogpile 방지)")
+                .register(meterRegistry);
+        this.verified = Counter.builder("orders.summary.cache.verified")
+                .description("표본 검증한 캐시 적중 수")
+                .register(meterRegistry);
+        this.stale = Counter.builder("orders.summary.cache.stale")
+                .description("표본 검증에서 DB 와 상태가 달랐던 캐시 적중 수")
+                .register(meterRegistry);
+        this.entryAge = DistributionSummary.builder("orders.summary.cache.entry.age")
+                .description("캐시 적중 시 상태 항목이 기록된 후 지난 시간")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("orders.summary.cache.hit.ratio", this, cache -> {
+                    double total = cache.hits.count() + cache.misses.count();
+                    return total == 0 ? 0 : cache.hits.count() / total;
+                })
+                .description("주문 요약 캐시 적중률 (시작 이후 누적)")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("orders.summary.cache.requests")
+                .description("주문 요약 캐시 조회 결과")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // 캐시에 있으면 바로 반환, 없으면 loader(DB 조회)로 읽고 캐시에 채움
+    public Order get(Long orderId, String userId, Supplier<Order> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Order cached;
+        try {
+            cached = read(orderId);
+        } catch (RuntimeException e) {
+            errors.increment();
+            System.err.println("--- OrderSummaryCache: Redis 조회 실패, DB 조회로 대체 - " + e.getMessage() + " ---");
+            return loader.get();
+        }
+        if (cached != null) {
+            hits.increment();
+            checkOwner(cached, orderId, userId);
+            if (verifySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < verifySampleRate) {
+                verify(cached, loader);
+            }
+            return cached;
+        }
+        misses.increment();
+        return loadOnce(orderId, userId, loader);
+    }
+
+    // 캐시에서 읽은 주문은 요청한 사용자의 주문일 때만 반환 (DB 조회와 같은 404)
+    private static void checkOwner(Order cached, Long orderId, String userId) {
+        if (!Objects.equals(cached.getUserId(), userId)) {
+            throw new NoSuchElementException("주문 ID " + orderId + "에 해당하는 주문을 찾을 수 없거나 해당 사용자의 주문이 아닙니다.");
+        }
+    }
+
+    private Order loadOnce(Long orderId, String userId, Supplier<Order> loader) {
+        String flightKey = orderId + ":" + userId;
+        CompletableFuture<Order> leader = new CompletableFuture<>();
+        CompletableFuture<Order> existing = inFlight.putIfAbsent(flightKey, leader);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Order order = loadWithLock(orderId, userId, loader);
+            leader.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, leader);
+        }
+    }
+
+    private Order loadWithLock(Long orderId, String userId, Supplier<Order> loader) {
+        boolean locked = false;
+        Order filled = null;
+        try {
+            locked = Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY + orderId, "1", Duration.ofMillis(lockMs)));
+            if (!locked) {
+                // 다른 인스턴스가 로딩 중: 잠시 기다리면서 캐시가 채워지는지 확인
+                long deadline = System.currentTimeMillis() + lockWaitMs;
+                while (filled == null && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                    filled = read(orderId);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            errors.increment();
+        }
+        if (filled != null) {
+            coalesced.increment();
+            checkOwner(filled, orderId, userId); // 다른 사용자의 요청으로 채워진 캐시일 수 있음
+            return filled;
+        }
+
+        loads.increment();
+        Order order = loader.get();
+        try {
+            fill(order);
+        } catch (RuntimeException e) {
+            errors.increment();
+            System.err.println("--- OrderSummaryCache: Redis 저장 실패 - " + e.getMessage() + " ---");
+        } finally {
+            if (locked) {
+                try {
+                    redisTemplate.delete(LOCK_KEY + orderId);
+                } catch (RuntimeException ignored) {
+                    // 락은 lock-ms 후 자동 만료
+                }
+            }
+        }
+        return order;
+    }
+
+    // 표본 검증: DB 를 읽어서 캐시와 상태가 다르면 stale 로 기록하고 캐시 상태를 바로잡음
+    private void verify(Order cached, Supplier<Order> loader) {
+        try {
+            Order actual = loader.get();
+            verified.increment();
+            if (!Objects.equals(actual.getOrderStatus(), cached.getOrderStatus())
+                    || !Objects.equals(actual.getPaymentId(), cached.getPaymentId())) {
+                stale.increment();
+                writeStatus(actual.getOrderId(), actual.getOrderStatus(), actual.getPaymentId(), false);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("--- OrderSummaryCache: 캐시 표본 검증 실패 - " + e.getMessage() + " ---");
+        }
+    }
+
+    // 주문 생성/상태 변경 커밋 후: 신규 주문은 본문과 상태를 모두 기록, 상태 변경은 상태만 덮어씀
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (event.getPreviousStatus() == null && event.getOrderLineItems() != null) {
+                writeBody(CachedOrderBody.builder()
+                        .orderId(event.getOrderId())
+                        .userId(event.getUserId())
+                        .storeId(event.getStoreId())
+                        .totalAmount(event.getTotalAmount())
+                        .orderDate(event.getOrderDate())
+                        .createdAt(event.getCreatedAt())
+                        .lineItems(event.getOrderLineItems())
+                        .build(), true);
+            }
+            writeStatus(event.getOrderId(), event.getOrderStatus(), event.getPaymentId(), true);
+        } catch (RuntimeException e) {
+            // 상태를 갱신하지 못했으면 캐시가 오래된 상태를 돌려주지 않도록 지움
+            System.err.println("--- OrderSummaryCache: 주문 " + event.getOrderId() + " 캐시 갱신 실패 - " + e.getMessage() + " ---");
+            try {
+                redisTemplate.delete(List.of(BODY_KEY + event.getOrderId(), STATUS_KEY + event.getOrderId()));
+            } catch (RuntimeException ignored) {
+                // Redis 장애: TTL 후 만료
+            }
+        }
+    }
+
+    private Order read(Long orderId) {
+        List<String> values = redisTemplate.opsForValue().multiGet(List.of(BODY_KEY + orderId, STATUS_KEY + orderId));
+        if (values == null || values.get(0) == null || values.get(1) == null) {
+            return null;
+        }
+        CachedOrderBody body = fromJson(values.get(0), CachedOrderBody.class);
+        CachedOrderStatus status = fromJson(values.get(1), CachedOrderStatus.class);
+        entryAge.record(Math.max(0, System.currentTimeMillis() - status.getCachedAtMillis()));
+        return toOrder(body, status);
+    }
+
+    // DB 에서 읽은 값은 없을 때만 기록 (이미 있는 값이 더 최신일 수 있음)
+    private void fill(Order order) {
+        writeBody(CachedOrderBody.builder()
+                .orderId(order.getOrderId())
+                .userId(order.getUserId())
+                .storeId(order.getStoreId())
+                .totalAmount(order.getTotalAmount())
+                .orderDate(order.getOrderDate())
+                .createdAt(order.getCreatedAt())
+                .lineItems(order.getOrderLineItems().stream().map(this::toDto).collect(Collectors.toList()))
+                .build(), false);
+        writeStatus(order.getOrderId(), order.getOrderStatus(), order.getPaymentId(), false);
+    }
+
+    private void writeBody(CachedOrderBody body, boolean overwrite) {
+        String key = BODY_KEY + body.getOrderId();
+        String json = toJson(body);
+        if (overwrite) {
+            redisTemplate.opsForValue().set(key, json, Duration.ofSeconds(ttlSeconds));
+        } else {
+            redisTemplate.opsForValue().setIfAbsent(key, json, Duration.ofSeconds(ttlSeconds));
+        }
+    }
+
+    private void writeStatus(Long orderId, String orderStatus, Long paymentId, boolean overwrite) {
+        String key = STATUS_KEY + orderId;
+        String json = toJson(new CachedOrderStatus(orderStatus, paymentId, System.currentTimeMillis()));
+        if (overwrite) {
+            redisTemplate.opsForValue().set(key, json, Duration.ofSeconds(ttlSeconds));
+        } else {
+            redisTemplate.opsForValue().setIfAbsent(key, json, Duration.ofSeconds(ttlSeconds));
+        }
+    }
+
+    // 기존 API 응답 형태(Order 엔티티)로 복원 (영속 상태가 아닌 단순 객체)
+    private Order toOrder(CachedOrderBody body, CachedOrderStatus status) {
+        Order order = Order.builder()
+                .orderId(body.getOrderId())
+                .userId(body.getUserId())
+                .storeId(body.getStoreId())
+                .orderDate(body.getOrderDate())
+                .totalAmount(body.getTotalAmount())
+                .orderStatus(status.getOrderStatus())
+                .paymentId(status.getPaymentId())
+                .createdAt(body.getCreatedAt())
+                .orderLineItems(new ArrayList<>())
+                .build();
+        for (OrderLineItemDto itemDto : body.getLineItems()) {
+            order.getOrderLineItems().add(OrderLineItem.builder()
+                    .orderItemId(itemDto.getOrderLineItemId())
+                    .menuId(itemDto.getMenuId())
+                    .menuName(itemDto.getMenuName())
+                    .quantity(itemDto.getQuantity())
+                    .unitPrice(itemDto.getUnitPrice())
+                    .totalPrice(itemDto.getTotalPrice())
+                    .createdAt(body.getCreatedAt())
+                    .order(order)
+                    .build());
+        }
+        return order;
+    }
+
+    private OrderLineItemDto toDto(OrderLineItem lineItem) {
+        OrderLineItemDto dto = new OrderLineItemDto();
+        dto.setOrderLineItemId(lineItem.getOrderItemId());
+        dto.setMenuId(lineItem.getMenuId());
+        dto.setMenuName(lineItem.getMenuName());
+        dto.setQuantity(lineItem.getQuantity());
+        dto.setUnitPrice(lineItem.getUnitPrice());
+        dto.setTotalPrice(lineItem.getTotalPrice());
+        return dto;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문 캐시 직렬화 실패", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문 캐시 역직렬화 실패", e);
+        }
+    }
+}
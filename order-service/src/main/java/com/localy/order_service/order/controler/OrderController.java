@@ -1,13 +1,22 @@
 // 파일 위치: com.localy.order_service.order.controller.OrderController.java
 package com.localy.order_service.order.controler; // 패키지 이름 확인 필요 (controller 오타 가능성)
 
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import com.localy.order_service.config.sharding.ShardMovingException;
+import com.localy.order_service.order.batch.GroupCommitTimeoutException;
+import com.localy.order_service.order.batch.OrderBatchWriter;
+import com.localy.order_service.order.cache.OrderSummaryCache;
 import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.dto.CartItemDto;
 import com.localy.order_service.order.dto.CreateOrderRequest;
+import com.localy.order_service.order.idempotency.IdempotencyConflictException;
+import com.localy.order_service.order.idempotency.IdempotencyStore;
 import com.localy.order_service.order.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
 import java.util.List; // List 임포트
 import java.util.NoSuchElementException;
 
@@ -17,17 +26,47 @@ import java.util.NoSuchElementException;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderShardRouter orderShardRouter; // 사용자/주문 ID 로 샤드를 정한 뒤 서비스 트랜잭션 실행
+    private final OrderBatchWriter orderBatchWriter; // 주문 생성 (그룹 커밋 사용 시 여러 주문을 한 트랜잭션으로 저장)
+    private final OrderSummaryCache orderSummaryCache; // 주문 상세 조회 Redis 캐시 (미스 시에만 DB 조회)
 
     @PostMapping
     public ResponseEntity<?> placeOrder( // 반환 타입을 ResponseEntity<?> 또는 ResponseEntity<Order>로 명확히
                                          @RequestHeader("X-User-Id") String userId,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                          @RequestBody CreateOrderRequest createOrderRequest) {
-        System.out.println("--- OrderController: POST /api/orders 요청 수신 (UserID from Header: " + userId + ") ---");
+        System.out.println("--- OrderController: POST /api/orders 요청 수신 (UserID from Header: " + userId + ", Idempotency-Key: " + idempotencyKey + ") ---");
         System.out.println("--- OrderController: 수신된 CreateOrderRequest: " + createOrderRequest.toString() + " ---");
         try {
-            Order order = orderService.placeOrder(createOrderRequest, userId);
-            System.out.println("--- OrderController: 주문 생성 성공 (OrderID: " + order.getOrderId() + ") ---");
-            return new ResponseEntity<>(order, HttpStatus.CREATED);
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                Order order = orderShardRouter.onUserShardForWrite(userId, () -> orderBatchWriter.placeOrder(createOrderRequest, userId));
+                System.out.println("--- OrderController: 주문 생성 성공 (OrderID: " + order.getOrderId() + ") ---");
+                return new ResponseEntity<>(order, HttpStatus.CREATED);
+            }
+            // 키는 사용자 단위로 구분 (다른 사용자가 같은 키를 보내도 충돌하지 않도록)
+            IdempotencyStore.IdempotentResult<Order> result = idempotencyStore.execute(
+                    userId + ":" + idempotencyKey,
+                    fingerprint(createOrderRequest),
+                    () -> orderShardRouter.onUserShardForWrite(userId, () -> orderBatchWriter.placeOrder(createOrderRequest, userId)));
+            System.out.println("--- OrderController: 주문 생성 성공 (OrderID: " + result.getValue().getOrderId() + ", 재사용 여부: " + result.isReplayed() + ") ---");
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                    .body(result.getValue());
+        } catch (RestClientException e) {
+            System.err.println("--- OrderController: 메뉴 가격 확인 불가 (store-service 응답 없음) - " + e.getMessage() + " ---");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("메뉴 가격을 확인할 수 없습니다. 잠시 후 다시 시도해 주세요.");
+        } catch (GroupCommitTimeoutException e) {
+            // 저장 전에 취소된 주문 (커밋되지 않음) -> 같은 Idempotency-Key 로 다시 시도 가능
+            System.err.println("--- OrderController: 그룹 커밋 대기 시간 초과로 주문 취소 - " + e.getMessage() + " ---");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (ShardMovingException e) {
+            // 샤드 이동이 끝나지 않아 저장하지 않음 -> 잠시 후 같은 Idempotency-Key 로 다시 시도 가능
+            System.err.println("--- OrderController: 샤드 이동 중 - " + e.getMessage() + " ---");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (IdempotencyConflictException e) {
+            System.err.println("--- OrderController: Idempotency-Key 충돌 - " + e.getMessage() + " ---");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IllegalArgumentException | SecurityException e) {
             System.err.println("--- OrderController: 주문 생성 오류 (잘못된 요청 또는 보안) - " + e.getMessage() + " ---");
             // 클라이언트에게 오류 메시지를 전달하려면 body에 담을 수 있습니다.
@@ -41,10 +80,13 @@ public class OrderController {
     }
 
     @GetMapping("")
-    public ResponseEntity<List<Order>> getUserOrders(@RequestHeader("X-User-Id") String userId) {
-        System.out.println("--- OrderController: GET /api/orders 요청 수신 (UserID from Header: " + userId + ") ---");
+    public ResponseEntity<List<Order>> getUserOrders(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) { // true 이면 보관된 오래된 주문까지 조회
+        System.out.println("--- OrderController: GET /api/orders 요청 수신 (UserID from Header: " + userId + ", includeArchived: " + includeArchived + ") ---");
         try {
-            List<Order> orders = orderService.findOrdersByUserId(userId);
+            List<Order> orders = orderShardRouter.onUserShardWithLegacy(userId,
+                    () -> orderService.findOrdersByUserId(userId, includeArchived), Order::getOrderId);
             return ResponseEntity.ok(orders);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null); // 또는 오류 메시지 body(e.getMessage())
@@ -57,7 +99,8 @@ public class OrderController {
             @PathVariable Long orderId) {
         System.out.println("--- OrderController: GET /api/orders/" + orderId + " 요청 수신 (UserID from Header: " + userId + ") ---");
         try {
-            Order order = orderService.findOrderDetails(orderId, userId);
+            Order order = orderSummaryCache.get(orderId, userId,
+                    () -> orderShardRouter.onOrderShard(orderId, () -> orderService.findOrderDetails(orderId, userId)));
             return ResponseEntity.ok(order);
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
@@ -65,4 +108,17 @@ public class OrderController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    // 같은 Idempotency-Key로 다른 주문 내용이 들어오는 것을 감지하기 위한 요청 지문
+    private String fingerprint(CreateOrderRequest request) {
+        StringBuilder sb = new StringBuilder().append(request.getStoreId());
+        if (request.getCartItems() != null) {
+            for (CartItemDto item : request.getCartItems()) {
+                sb.append('|').append(item.getMenuId())
+                        .append(':').append(item.getQuantity())
+                        .append(':').append(item.getUnitPrice());
+            }
+        }
+        return sb.toString();
+    }
 }
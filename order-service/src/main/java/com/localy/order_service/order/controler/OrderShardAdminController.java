@@ -0,0 +1,63 @@
+package com.localy.order_service.order.controler;
+
+import com.localy.order_service.config.sharding.OrderShardKeys;
+import com.localy.order_service.config.sharding.ShardBucketMover;
+import com.localy.order_service.config.sharding.ShardDirectory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 주문 샤드 운영용 API (샤딩 사용 시에만 등록, Edge 에서 내부/관리자만 접근하도록 제한해야 함)
+@RestController
+@RequestMapping("/api/orders/admin/shards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class OrderShardAdminController {
+
+    private final ShardDirectory shardDirectory;
+    private final ShardBucketMover shardBucketMover;
+
+    // 샤드별 버킷 수, 특정 사용자/주문의 위치
+    // 예: GET /api/orders/admin/shards?userId=user-1
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getShards(@RequestParam(required = false) String userId,
+                                                         @RequestParam(required = false) Long orderId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("shardCount", shardDirectory.getShardCount());
+        body.put("bucketCount", OrderShardKeys.BUCKET_COUNT);
+        body.put("bucketsPerShard", shardDirectory.bucketsPerShard());
+        if (userId != null) {
+            int bucket = OrderShardKeys.bucketOfUser(userId);
+            body.put("userBucket", bucket);
+            body.put("userShard", shardDirectory.shardOf(bucket));
+        }
+        if (orderId != null && OrderShardKeys.isLegacyOrderId(orderId)) {
+            body.put("orderBucket", null); // 샤딩 전 주문
+            body.put("orderShard", OrderShardKeys.LEGACY_SHARD);
+        } else if (orderId != null) {
+            int bucket = OrderShardKeys.bucketOfOrder(orderId);
+            body.put("orderBucket", bucket);
+            body.put("orderShard", shardDirectory.shardOf(bucket));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    // 버킷 하나를 다른 샤드로 이동 (이동이 끝날 때까지 응답하지 않음)
+    // 예: POST /api/orders/admin/shards/buckets/17/move?targetShard=2
+    @PostMapping("/buckets/{bucket}/move")
+    public ResponseEntity<?> moveBucket(@PathVariable int bucket, @RequestParam int targetShard) {
+        System.out.println("--- OrderShardAdminController: 버킷 " + bucket + " -> 샤드 " + targetShard + " 이동 요청 ---");
+        try {
+            return ResponseEntity.ok(shardBucketMover.moveBucket(bucket, targetShard));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.localy.order_service.order.controler;
+
+import com.localy.order_service.order.reconciliation.ReconciliationService;
+import com.localy.order_service.order.reconciliation.ReconciliationSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// 주문 <-> 결제 대사 운영용 API (Edge 에서 내부/관리자만 접근하도록 제한해야 함)
+@RestController
+@RequestMapping("/api/orders/admin/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationAdminController {
+
+    private final ReconciliationService reconciliationService;
+
+    // 마지막 대사 결과 요약 (불일치 목록은 reportFile)
+    @GetMapping
+    public ResponseEntity<ReconciliationSummary> getLastSummary() {
+        ReconciliationSummary summary = reconciliationService.getLastSummary();
+        return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.noContent().build();
+    }
+
+    // 대사 실행 (끝날 때까지 응답하지 않음)
+    @PostMapping("/run")
+    public ResponseEntity<?> run() {
+        System.out.println("--- ReconciliationAdminController: 대사 실행 요청 ---");
+        try {
+            return ResponseEntity.ok(reconciliationService.run());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
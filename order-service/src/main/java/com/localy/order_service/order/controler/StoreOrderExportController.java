@@ -0,0 +1,63 @@
+package com.localy.order_service.order.controler;
+
+import com.localy.order_service.order.export.StoreOrderExportService;
+import com.localy.order_service.order.store.StoreOwnership;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/orders/stores")
+@RequiredArgsConstructor
+public class StoreOrderExportController {
+
+    private final StoreOrderExportService storeOrderExportService;
+    private final StoreOwnership storeOwnership;
+
+    // 가게 주문 내역 CSV(gzip) 다운로드 (from/to 미지정 시 최근 30일)
+    // 예: GET /api/orders/stores/1/orders/export?from=2025-01-01T00:00:00&to=2025-04-01T00:00:00
+    // 응답은 별도 스레드에서 스트리밍되며, 소켓 쓰기가 막히면 DB 커서 읽기도 함께 멈춤
+    // 가게 소유자만 내려받을 수 있음 (아니면 403)
+    @GetMapping("/{storeId}/orders/export")
+    public ResponseEntity<?> exportStoreOrders(
+            @RequestHeader("X-User-Id") String userId,
+            @PathVariable Long storeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "true") boolean includeArchived) {
+        System.out.println("--- StoreOrderExportController: GET /api/orders/stores/" + storeId + "/orders/export 요청 수신 (UserID from Header: " + userId + ", from: " + from + ", to: " + to + ") ---");
+        try {
+            if (!storeOwnership.isOwner(storeId, userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("가게 소유자만 주문 내역을 내려받을 수 있습니다.");
+            }
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RestClientException e) {
+            System.err.println("exportStoreOrders error: 가게 소유자 확인 실패 - " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("가게 정보를 확인할 수 없습니다. 잠시 후 다시 시도해주세요.");
+        }
+        LocalDateTime rangeTo = to != null ? to : LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime rangeFrom = from != null ? from : rangeTo.minusDays(30);
+        if (!rangeFrom.isBefore(rangeTo)) {
+            return ResponseEntity.badRequest().body("from 은 to 보다 이전이어야 합니다.");
+        }
+        String fileName = String.format("store-%d-orders-%s-%s.csv.gz", storeId,
+                rangeFrom.format(DateTimeFormatter.BASIC_ISO_DATE), rangeTo.format(DateTimeFormatter.BASIC_ISO_DATE));
+        StreamingResponseBody body = out -> storeOrderExportService.export(storeId, rangeFrom, rangeTo, includeArchived, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,43 @@
+package com.localy.order_service.order.controler;
+
+import com.localy.order_service.order.feed.StoreOrderFeed;
+import com.localy.order_service.order.store.StoreOwnership;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/orders/stores")
+@RequiredArgsConstructor
+public class StoreOrderFeedController {
+
+    private final StoreOrderFeed storeOrderFeed;
+    private final StoreOwnership storeOwnership;
+
+    // 가게 주인 태블릿용 신규/변경 주문 스트림 (Server-Sent Events)
+    // 브라우저 EventSource는 재연결 시 Last-Event-ID 헤더를 자동으로 보내므로, 놓친 주문을 링 버퍼에서 이어 받습니다.
+    // 가게 소유자만 구독 가능 (아니면 403, 없는 가게 404, store-service 장애 503)
+    @GetMapping(path = "/{storeId}/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamStoreOrders(
+            @RequestHeader("X-User-Id") String userId,
+            @PathVariable Long storeId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        System.out.println("--- StoreOrderFeedController: GET /api/orders/stores/" + storeId + "/feed 요청 수신 (UserID from Header: " + userId + ") ---");
+        try {
+            if (!storeOwnership.isOwner(storeId, userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (RestClientException e) {
+            System.err.println("streamStoreOrders error: 가게 소유자 확인 실패 - " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(storeOrderFeed.subscribe(storeId, lastEventId));
+    }
+}
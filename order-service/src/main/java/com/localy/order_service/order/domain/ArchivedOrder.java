@@ -0,0 +1,53 @@
+package com.localy.order_service.order.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 보관(archive) 처리된 주문
+// 완료/실패 상태로 일정 기간이 지난 주문은 orders/order_line_items 에서 이 테이블로 이동합니다.
+// 주문 항목은 별도 테이블 대신 JSON 문자열 한 컬럼으로 압축 저장합니다.
+@Getter
+@Setter
+@Entity
+@Table(name = "archived_orders", indexes = {
+        @Index(name = "idx_archived_orders_user_id_order_date", columnList = "user_id, order_date"),
+        @Index(name = "idx_archived_orders_store_id_order_date", columnList = "store_id, order_date") // 가게 주문 내보내기용
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+
+    @Id
+    private Long orderId; // 원본 주문 ID 그대로 사용
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private Long storeId;
+
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private String orderStatus;
+
+    private Long paymentId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    // OrderLineItemDto 목록의 JSON 배열
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String lineItems;
+}
@@ -1,6 +1,7 @@
 package com.localy.order_service.order.domain;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.localy.order_service.config.sharding.ShardedOrderId;
 import jakarta.persistence.*;
 import lombok.*; // @Builder.Default 를 위해 lombok.Builder 임포트가 명시적으로 필요할 수 있습니다.
 
@@ -12,13 +13,16 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_order_date", columnList = "order_status, order_date"), // 보관 대상 조회용
+        @Index(name = "idx_orders_store_id_order_date", columnList = "store_id, order_date") // 가게 주문 내보내기용
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedOrderId // (샤드 시퀀스 << 10) | 사용자 버킷 - 주문 ID 만으로 샤드를 찾을 수 있도록
     private Long orderId;
 
     @Column(nullable = false)
@@ -11,14 +11,18 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "order_line_items")
+@Table(name = "order_line_items", indexes = {
+        @Index(name = "idx_order_line_items_order_id", columnList = "order_id") // 주문 -> 항목 조인 (FK 는 자동으로 인덱스가 생기지 않음)
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderLineItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY 는 INSERT 마다 키를 돌려받아야 해서 JDBC 배치가 꺼지므로 시퀀스(50개씩 할당) 사용
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_line_items_seq")
+    @SequenceGenerator(name = "order_line_items_seq", sequenceName = "order_line_items_seq", allocationSize = 50)
     private Long orderItemId;
 
     @ManyToOne
@@ -0,0 +1,25 @@
+package com.localy.order_service.order.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 미결제(PENDING) 주문 만료 처리 구간(range)별 리스
+// 주문 ID % 구간 수 로 나눈 구간마다 한 인스턴스만 재적재/누락 주문 정리를 담당합니다.
+@Getter
+@Setter
+@Entity
+@Table(name = "order_sweep_leases")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSweepLease {
+
+    @Id
+    private Integer rangeId;
+
+    private String owner; // 리스를 가진 인스턴스 ID (없으면 null)
+
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,63 @@
+package com.localy.order_service.order.event;
+
+import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.dto.OrderLineItemDto;
+import lombok.*;
+import org.hibernate.Hibernate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// 주문이 생성되거나 상태가 바뀔 때 발행되는 애플리케이션 내부 이벤트 (Spring ApplicationEvent)
+// 트랜잭션 커밋 이후에 처리하려면 @TransactionalEventListener(phase = AFTER_COMMIT)로 구독합니다.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusChangedEvent {
+    private Long orderId;
+    private String userId;
+    private Long storeId;
+    private String orderStatus;
+    private String previousStatus; // 신규 주문이면 null
+    private BigDecimal totalAmount;
+    private Long paymentId;
+    private LocalDateTime orderDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime changedAt;
+    private List<OrderLineItemDto> orderLineItems; // 이미 로딩된 경우에만 포함 (추가 쿼리 방지), 아니면 null
+
+    public static OrderStatusChangedEvent from(Order order, String previousStatus) {
+        List<OrderLineItemDto> items = null;
+        if (order.getOrderLineItems() != null && Hibernate.isInitialized(order.getOrderLineItems())) {
+            items = order.getOrderLineItems().stream()
+                    .map(lineItem -> {
+                        OrderLineItemDto dto = new OrderLineItemDto();
+                        dto.setOrderLineItemId(lineItem.getOrderItemId());
+                        dto.setMenuId(lineItem.getMenuId());
+                        dto.setMenuName(lineItem.getMenuName());
+                        dto.setQuantity(lineItem.getQuantity());
+                        dto.setUnitPrice(lineItem.getUnitPrice());
+                        dto.setTotalPrice(lineItem.getTotalPrice());
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        }
+        return OrderStatusChangedEvent.builder()
+                .orderId(order.getOrderId())
+                .userId(order.getUserId())
+                .storeId(order.getStoreId())
+                .orderStatus(order.getOrderStatus())
+                .previousStatus(previousStatus)
+                .totalAmount(order.getTotalAmount())
+                .paymentId(order.getPaymentId())
+                .orderDate(order.getOrderDate())
+                .createdAt(order.getCreatedAt())
+                .changedAt(LocalDateTime.now())
+                .orderLineItems(items)
+                .build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.localy.order_service.order.export;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import com.localy.order_service.order.dto.OrderLineItemDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// 가게 주문 내역 CSV(gzip) 내보내기
+// - 주문을 메모리에 모으지 않고 서버 측 커서(읽기 전용 트랜잭션 + fetch size, forward-only)로 읽은 행을 바로 응답 스트림에 씀
+// - 응답 쓰기가 막히면(느린 클라이언트) 다음 fetch 도 멈추므로 메모리는 fetch size + 출력 버퍼 정도로 일정
+// - 주문 항목마다 한 행 (주문 컬럼은 반복). 보관된 주문은 주문일이 더 오래되었으므로 샤드마다 보관 -> hot 순서로 출력
+@Service
+public class StoreOrderExportService {
+
+    private static final String HEADER = "order_id,order_date,order_status,user_id,order_total,payment_id,"
+            + "menu_id,menu_name,quantity,unit_price,line_total,source\n";
+
+    private static final String HOT_ORDERS_SQL =
+            "SELECT o.order_id, o.order_date, o.order_status, o.user_id, o.total_amount, o.payment_id, " +
+            "li.menu_id, li.menu_name, li.quantity, li.unit_price, li.total_price " +
+            "FROM orders o LEFT JOIN order_line_items li ON li.order_id = o.order_id " +
+            "WHERE o.store_id = ? AND o.order_date >= ? AND o.order_date < ? " +
+            "ORDER BY o.order_date, o.order_id, li.order_item_id";
+
+    private static final String ARCHIVED_ORDERS_SQL =
+            "SELECT order_id, order_date, order_status, user_id, total_amount, payment_id, line_items " +
+            "FROM archived_orders WHERE store_id = ? AND order_date >= ? AND order_date < ? " +
+            "ORDER BY order_date, order_id";
+
+    private static final TypeReference<List<OrderLineItemDto>> LINE_ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final OrderShardRouter orderShardRouter;
+    private final ObjectMapper objectMapper;
+    private final Counter exportedRows;
+    private final Timer exportTimer;
+
+    public StoreOrderExportService(DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   OrderShardRouter orderShardRouter,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${order.export.fetch-size:500}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize); // PostgreSQL 은 트랜잭션(autocommit off) 안에서만 커서로 나눠 읽음
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.orderShardRouter = orderShardRouter;
+        this.objectMapper = objectMapper;
+        this.exportedRows = Counter.builder("orders.export.rows")
+                .description("CSV 로 내보낸 주문 항목 행 수")
+                .register(meterRegistry);
+        this.exportTimer = Timer.builder("orders.export.duration")
+                .description("가게 주문 내역 내보내기 한 건의 소요 시간")
+                .register(meterRegistry);
+    }
+
+    public void export(Long storeId, LocalDateTime from, LocalDateTime to, boolean includeArchived, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF'); // 엑셀에서 한글이 깨지지 않도록 UTF-8 BOM
+        writer.write(HEADER);
+        long rows = 0;
+        try {
+            for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+                if (includeArchived) {
+                    rows += orderShardRouter.onShard(shard, () -> streamArchived(storeId, from, to, writer));
+                }
+                rows += orderShardRouter.onShard(shard, () -> streamHot(storeId, from, to, writer));
+            }
+            writer.flush();
+            gzip.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // 클라이언트 연결 끊김 등: 커서/트랜잭션은 이미 정리됨
+        } finally {
+            sample.stop(exportTimer);
+            System.out.println(String.format("--- StoreOrderExportService: 가게 %d 주문 내역 %d행 내보내기 (%s ~ %s) ---", storeId, rows, from, to));
+        }
+    }
+
+    private long streamHot(Long storeId, LocalDateTime from, LocalDateTime to, Writer writer) {
+        return readOnlyTransaction.execute(status -> {
+            long[] count = {0};
+            cursorJdbcTemplate.query(HOT_ORDERS_SQL, rs -> {
+                StringBuilder line = orderColumns(rs);
+                appendCsv(line, rs.getString(7)).append(',');
+                appendCsv(line, rs.getString(8)).append(',');
+                appendCsv(line, rs.getObject(9)).append(',');
+                appendCsv(line, rs.getBigDecimal(10)).append(',');
+                appendCsv(line, rs.getBigDecimal(11)).append(",hot\n");
+                write(writer, line);
+                count[0]++;
+            }, storeId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+            exportedRows.increment(count[0]);
+            return count[0];
+        });
+    }
+
+    private long streamArchived(Long storeId, LocalDateTime from, LocalDateTime to, Writer writer) {
+        return readOnlyTransaction.execute(status -> {
+            long[] count = {0};
+            cursorJdbcTemplate.query(ARCHIVED_ORDERS_SQL, rs -> {
+                String orderColumns = orderColumns(rs).toString();
+                List<OrderLineItemDto> lineItems = readLineItems(rs.getString(7));
+                for (OrderLineItemDto item : lineItems) {
+                    StringBuilder line = new StringBuilder(orderColumns);
+                    appendCsv(line, item.getMenuId()).append(',');
+                    appendCsv(line, item.getMenuName()).append(',');
+                    appendCsv(line, item.getQuantity()).append(',');
+                    appendCsv(line, item.getUnitPrice()).append(',');
+                    appendCsv(line, item.getTotalPrice()).append(",archived\n");
+                    write(writer, line);
+                    count[0]++;
+                }
+            }, storeId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+            exportedRows.increment(count[0]);
+            return count[0];
+        });
+    }
+
+    // 공통 주문 컬럼 (order_id ~ payment_id) + 구분자
+    private StringBuilder orderColumns(ResultSet rs) throws SQLException {
+        StringBuilder line = new StringBuilder(160);
+        line.append(rs.getLong(1)).append(',');
+        Timestamp orderDate = rs.getTimestamp(2);
+        appendCsv(line, orderDate != null ? orderDate.toLocalDateTime() : null).append(',');
+        appendCsv(line, rs.getString(3)).append(',');
+        appendCsv(line, rs.getString(4)).append(',');
+        appendCsv(line, rs.getBigDecimal(5)).append(',');
+        appendCsv(line, rs.getObject(6)).append(',');
+        return line;
+    }
+
+    private List<OrderLineItemDto> readLineItems(String json) {
+        try {
+            return objectMapper.readValue(json, LINE_ITEMS_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("보관 주문 항목 JSON 파싱 실패", e);
+        }
+    }
+
+    private void write(Writer writer, CharSequence line) {
+        try {
+            writer.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static StringBuilder appendCsv(StringBuilder sb, Object value) {
+        if (value == null) {
+            return sb;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return sb.append(text);
+        }
+        return sb.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,220 @@
+package com.localy.order_service.order.feed;
+
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 가게별 신규/변경 주문 스트림 (SSE)
+// 주문 상태 변경 이벤트는 Kafka(order-status-changed)에서 인스턴스마다 받으므로(인스턴스별 컨슈머 그룹)
+// 어느 인스턴스가 주문을 처리했든 구독이 붙은 인스턴스에서 전달됩니다. (StoreOrderFeedConsumerConfig)
+// - 가게별로 최근 N건을 링 버퍼에 보관, 재연결 시 Last-Event-ID 이후의 이벤트를 링 버퍼에서 다시 보냄 (DB 조회 없음)
+// - 이벤트 ID = Kafka 오프셋: 가게 ID 가 메시지 키라 한 가게의 이벤트는 한 파티션에 순서대로 있으므로 인스턴스가 달라도 이어짐
+// - 전송은 가게별로 순서대로, 가게끼리는 dispatch-threads 개 스레드에서 나눠서 (느린 태블릿은 자기 가게만 늦춤)
+// - 구독자마다 마지막으로 보낸 ID 만 기억하고 링 버퍼에서 이어 보내므로 대기열이 쌓이지 않음
+//   링 버퍼에서 밀려난 이벤트까지 못 받은 구독자는 연결을 끊어서 재연결(Last-Event-ID)하게 함
+@Component
+public class StoreOrderFeed {
+
+    @Value("${order.feed.replay-size:50}")
+    private int replaySize;
+
+    @Value("${order.feed.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final Map<Long, StoreChannel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+    private final Counter laggingDisconnects;
+
+    public StoreOrderFeed(MeterRegistry meterRegistry,
+                          @Value("${order.feed.dispatch-threads:4}") int dispatchThreads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, r -> {
+            Thread thread = new Thread(r, "store-order-feed-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("orders.feed.subscribers", channels,
+                        map -> map.values().stream().mapToInt(channel -> channel.subscribers.size()).sum())
+                .description("가게 주문 스트림 구독 연결 수")
+                .register(meterRegistry);
+        this.laggingDisconnects = Counter.builder("orders.feed.lagging.disconnects")
+                .description("링 버퍼보다 뒤처져 연결을 끊은 구독 수 (재연결 후 이어 받음)")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long storeId, Long lastEventId) {
+        StoreChannel channel = channels.computeIfAbsent(storeId, id -> new StoreChannel());
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, channel.startingPoint(lastEventId));
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(e -> channel.subscribers.remove(subscriber));
+
+        // 링 버퍼에서 Last-Event-ID 이후를 보내는 것도 같은 가게 전송 순서 안에서 처리
+        channel.subscribers.add(subscriber);
+        channel.signal();
+        System.out.println("--- StoreOrderFeed: 구독 시작 (StoreID: " + storeId + ", Last-Event-ID: " + lastEventId + ") ---");
+        return emitter;
+    }
+
+    // Kafka 에서 받은 주문 상태 변경 (eventId = 레코드 오프셋)
+    public void publish(OrderStatusChangedEvent event, long eventId) {
+        if (event.getStoreId() == null) {
+            return;
+        }
+        StoreChannel channel = channels.computeIfAbsent(event.getStoreId(), id -> new StoreChannel());
+        if (channel.append(new FeedItem(eventId, event), replaySize)) {
+            channel.signal();
+        }
+    }
+
+    // 프록시/로드밸런서가 유휴 연결을 끊지 않도록 주기적으로 주석 이벤트 전송
+    @Scheduled(fixedDelayString = "${order.feed.heartbeat-ms:25000}")
+    public void heartbeat() {
+        channels.values().forEach(channel -> {
+            if (!channel.subscribers.isEmpty()) {
+                channel.heartbeatRequested = true;
+                channel.signal();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private boolean send(SseEmitter emitter, FeedItem item) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(item.id()))
+                    .name("order")
+                    .data(item.event()));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private record FeedItem(long id, OrderStatusChangedEvent event) {
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private long lastSentId; // 전송 스레드만 바꿈 (가게별로 한 번에 하나의 전송만 실행)
+
+        Subscriber(SseEmitter emitter, long lastSentId) {
+            this.emitter = emitter;
+            this.lastSentId = lastSentId;
+        }
+    }
+
+    private class StoreChannel {
+        private final ArrayDeque<FeedItem> ring = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicInteger signals = new AtomicInteger();
+        private long evictedUpTo = -1; // 링 버퍼에서 밀려난 마지막 이벤트 ID (this 로 동기화)
+        private volatile boolean heartbeatRequested;
+
+        // 같은 오프셋을 다시 받으면(리밸런스 후 재전달) 무시
+        synchronized boolean append(FeedItem item, int capacity) {
+            if (!ring.isEmpty() && item.id() <= ring.peekLast().id()) {
+                return false;
+            }
+            if (ring.size() >= capacity) {
+                evictedUpTo = ring.pollFirst().id();
+            }
+            ring.addLast(item);
+            return true;
+        }
+
+        // Last-Event-ID 가 없거나 링 버퍼보다 오래됐으면 링 버퍼에 남은 것부터
+        synchronized long startingPoint(Long lastEventId) {
+            return lastEventId == null ? evictedUpTo : Math.max(lastEventId, evictedUpTo);
+        }
+
+        synchronized List<FeedItem> itemsAfter(long lastSentId) {
+            List<FeedItem> items = new ArrayList<>();
+            for (FeedItem item : ring) {
+                if (item.id() > lastSentId) {
+                    items.add(item);
+                }
+            }
+            return items;
+        }
+
+        synchronized long evictedUpTo() {
+            return evictedUpTo;
+        }
+
+        // 전송 예약: 이미 예약/실행 중이면 신호만 남기고, 실행 중인 전송이 끝나기 전에 한 번 더 돎
+        void signal() {
+            if (signals.getAndIncrement() == 0) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RuntimeException e) {
+                    signals.set(0); // 종료 중
+                }
+            }
+        }
+
+        private void drain() {
+            int seen;
+            do {
+                seen = signals.get();
+                deliver();
+            } while (!signals.compareAndSet(seen, 0));
+        }
+
+        private void deliver() {
+            boolean heartbeat = heartbeatRequested;
+            heartbeatRequested = false;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.lastSentId < evictedUpTo()) {
+                    // 전송이 밀려 받지 못한 이벤트가 링 버퍼에서 빠짐 -> 재연결해서 남은 것부터 다시 받게 함
+                    laggingDisconnects.increment();
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+                    continue;
+                }
+                boolean alive = true;
+                for (FeedItem item : itemsAfter(subscriber.lastSentId)) {
+                    if (!send(subscriber.emitter, item)) {
+                        alive = false;
+                        break;
+                    }
+                    subscriber.lastSentId = item.id();
+                }
+                if (alive && heartbeat) {
+                    try {
+                        subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } catch (IOException | IllegalStateException e) {
+                        alive = false;
+                    }
+                }
+                if (!alive) {
+                    subscribers.remove(subscriber);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.localy.order_service.order.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import com.localy.order_service.retry.NonBlockingRetryHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// 가게 주문 스트림 컨슈머 (order-status-changed)
+// 바인딩에 group 을 지정하지 않으므로 인스턴스마다 익명 컨슈머 그룹 -> 모든 인스턴스가 모든 변경을 받음
+// 시작한 뒤의 변경만 받으면 되므로 (링 버퍼는 메모리) 재시도/DLT 없이 읽지 못한 레코드는 건너뜀
+@Configuration
+@RequiredArgsConstructor
+public class StoreOrderFeedConsumerConfig {
+
+    private final StoreOrderFeed storeOrderFeed;
+
+    @Bean
+    public Consumer<Message<byte[]>> storeOrderFeedConsumer(ObjectMapper objectMapper) {
+        return message -> {
+            Long offset = NonBlockingRetryHandler.headerAsLong(message, KafkaHeaders.OFFSET);
+            OrderStatusChangedEvent event;
+            try {
+                event = objectMapper.readValue(message.getPayload(), OrderStatusChangedEvent.class);
+            } catch (IOException e) {
+                System.err.println("--- StoreOrderFeedConsumer: 주문 상태 변경 이벤트를 읽지 못해 건너뜀 - " + e.getMessage() + " ---");
+                return;
+            }
+            if (offset != null) {
+                storeOrderFeed.publish(event, offset);
+            }
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.localy.order_service.order.idempotency;
+
+// 같은 Idempotency-Key 로 다른 요청 본문이 들어왔거나, 같은 키의 첫 요청이 아직 처리 중임 (409)
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,126 @@
+package com.localy.order_service.order.idempotency;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Idempotency-Key 별 첫 번째 응답을 보관하는 크기 제한 + TTL 저장소
+// 같은 키로 동시에 들어온 요청은 처리 중인 첫 요청의 결과를 기다렸다가 그대로 돌려받고,
+// 이후 재시도는 저장된 응답을 받기 때문에 DB에 다시 접근하지 않습니다.
+@Component
+public class IdempotencyStore {
+
+    private final long ttlSeconds;
+    private final int maxEntries;
+    private final long waitTimeoutMs;
+
+    // access-order LinkedHashMap: 가장 오래 사용되지 않은 항목부터 제거 (LRU)
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(@Value("${order.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${order.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${order.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.ttlSeconds = ttlSeconds;
+        this.maxEntries = maxEntries;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > IdempotencyStore.this.maxEntries) {
+                    evictCompleted(this);
+                }
+                return false;
+            }
+        };
+    }
+
+    // 최대 개수를 넘으면 오래된 항목부터 처리가 끝난 것만 제거
+    // 처리 중인 항목을 지우면 같은 키의 재시도가 새 요청으로 처리되어 주문이 중복될 수 있으므로 남겨 둠
+    // (처리 중인 항목 수는 동시 요청 수를 넘지 않으므로 잠깐 최대 개수를 넘을 수 있음)
+    private void evictCompleted(Map<String, Entry> map) {
+        Iterator<Entry> iterator = map.values().iterator();
+        while (map.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().future.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> IdempotentResult<T> execute(String key, String fingerprint, Supplier<T> action) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt < now) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint, new CompletableFuture<>(), now + TimeUnit.SECONDS.toMillis(ttlSeconds));
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!entry.fingerprint.equals(fingerprint)) {
+            System.err.println("--- IdempotencyStore: 같은 Idempotency-Key로 다른 요청 본문 수신 (Key: " + key + ") ---");
+            throw new IdempotencyConflictException("Idempotency-Key가 다른 요청에 이미 사용되었습니다.");
+        }
+
+        if (owner) {
+            try {
+                T result = action.get();
+                entry.future.complete(result);
+                return new IdempotentResult<>(result, false);
+            } catch (RuntimeException e) {
+                // 실패한 요청은 저장하지 않음: 같은 키로 다시 시도할 수 있도록 항목 제거
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+                entry.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        System.out.println("--- IdempotencyStore: 중복 요청 감지, 저장된 응답 재사용 (Key: " + key + ") ---");
+        try {
+            return new IdempotentResult<>((T) entry.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS), true);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("같은 Idempotency-Key의 요청이 아직 처리 중입니다.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("같은 Idempotency-Key의 요청 대기 중 인터럽트가 발생했습니다.");
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Object> future;
+        private final long expiresAt;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class IdempotentResult<T> {
+        private final T value;
+        private final boolean replayed; // true 이면 저장된 응답을 재사용한 것
+    }
+}
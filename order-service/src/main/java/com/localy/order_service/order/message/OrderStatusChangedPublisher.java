@@ -0,0 +1,50 @@
+package com.localy.order_service.order.message;
+
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+
+// 커밋된 주문 상태 변경을 Kafka(order-status-changed)로 발행 -> 모든 인스턴스의 가게 주문 스트림이 받음 (feed.StoreOrderFeed)
+// 메시지 키 = 가게 ID (한 가게의 변경은 한 파티션에 순서대로)
+// 발행 실패는 주문 처리에 영향을 주지 않음 (가게 태블릿은 주문 목록 조회로 다시 맞춤)
+@Component
+public class OrderStatusChangedPublisher {
+
+    public static final String BINDING = "orderStatusChanged-out-0";
+
+    private final StreamBridge streamBridge;
+    private final Counter failures;
+
+    public OrderStatusChangedPublisher(StreamBridge streamBridge, MeterRegistry meterRegistry) {
+        this.streamBridge = streamBridge;
+        this.failures = Counter.builder("orders.status.changed.publish.failures")
+                .description("주문 상태 변경 이벤트 발행 실패 수 (가게 주문 스트림에서 빠짐)")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStoreId() == null) {
+            return;
+        }
+        try {
+            boolean sent = streamBridge.send(BINDING, MessageBuilder.withPayload(event)
+                    .setHeader(KafkaHeaders.KEY, String.valueOf(event.getStoreId()).getBytes(StandardCharsets.UTF_8))
+                    .build());
+            if (!sent) {
+                failures.increment();
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.err.println("--- OrderStatusChangedPublisher: 발행 실패 (OrderID: " + event.getOrderId() + ") - " + e.getMessage() + " ---");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.localy.order_service.order.pricing;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// store-service 의 메뉴 가격/판매 여부 (GET /api/menus/prices, /api/menus/prices/changes 응답)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuPrice {
+    private Long menuId;
+    private Long storeId;
+    private String name;
+    private BigDecimal price;
+    private boolean available;
+    private LocalDateTime updatedAt;
+}
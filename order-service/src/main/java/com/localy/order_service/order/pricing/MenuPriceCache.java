@@ -0,0 +1,231 @@
+package com.localy.order_service.order.pricing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 주문 가격 검증용 메뉴 가격/판매 여부 로컬 캐시
+// - 시작 시 store-service 변경 피드를 처음부터 읽어 전체 적재
+// - 이후 sync-ms 마다 (updatedAt, menuId) 커서 이후 변경분만 반영 (시계 차이를 고려해 sync-overlap-ms 만큼 겹쳐서 다시 읽음)
+// - 삭제된 메뉴는 변경 피드에 나타나지 않으므로 full-reload-ms 마다 전체를 다시 적재해서 제거
+// - 변경 피드가 max-age-ms 이상 실패한 상태에서 오래된 항목, 또는 캐시에 없는 메뉴는 주문 한 건당 한 번의 일괄 조회로 확인
+@Component
+public class MenuPriceCache {
+
+    private static final LocalDateTime FEED_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final StoreMenuClient storeMenuClient;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleLookups;
+    private final Counter staleServed;
+    private final Counter fetchSuccess;
+    private final Counter fetchFailure;
+
+    private volatile LocalDateTime cursorTime = FEED_START;
+    private volatile long cursorId = 0;
+    private volatile long lastSyncAtMillis = 0;
+    private volatile long lastFullReloadAtMillis = 0;
+
+    @Value("${order.pricing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.pricing.max-age-ms:60000}")
+    private long maxAgeMs;
+
+    @Value("${order.pricing.sync-overlap-ms:5000}")
+    private long syncOverlapMs;
+
+    @Value("${order.pricing.full-reload-ms:600000}")
+    private long fullReloadMs;
+
+    @Value("${order.pricing.page-size:500}")
+    private int pageSize;
+
+    public MenuPriceCache(StoreMenuClient storeMenuClient, MeterRegistry meterRegistry) {
+        this.storeMenuClient = storeMenuClient;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.staleLookups = lookups(meterRegistry, "stale");
+        this.staleServed = Counter.builder("orders.pricing.cache.stale.served")
+                .description("일괄 조회 실패로 오래된 캐시 가격을 그대로 사용한 메뉴 수")
+                .register(meterRegistry);
+        this.fetchSuccess = fetches(meterRegistry, "success");
+        this.fetchFailure = fetches(meterRegistry, "failure");
+        Gauge.builder("orders.pricing.cache.size", entries, Map::size)
+                .description("캐시된 메뉴 가격 수")
+                .register(meterRegistry);
+        Gauge.builder("orders.pricing.sync.age", this,
+                        cache -> cache.lastSyncAtMillis == 0 ? -1 : System.currentTimeMillis() - cache.lastSyncAtMillis)
+                .description("마지막으로 변경 피드 동기화에 성공한 뒤 지난 시간 (아직 없으면 -1)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("orders.pricing.cache.lookups")
+                .description("주문 항목 가격 조회 시 캐시 결과")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter fetches(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("orders.pricing.batch.fetches")
+                .description("캐시 미스/만료로 store-service 에 보낸 일괄 조회 수")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 요청한 메뉴들의 가격 (store-service 에 없는 메뉴는 결과에서 빠짐)
+    // 캐시에 없거나 오래된 메뉴는 한 번의 일괄 조회로 가져오고, 조회 실패 시 캐시에 없는 메뉴가 있으면 RestClientException
+    public Map<Long, MenuPrice> getPrices(Collection<Long> menuIds) {
+        long now = System.currentTimeMillis();
+        boolean feedHealthy = now - lastSyncAtMillis < maxAgeMs;
+        Map<Long, MenuPrice> result = new HashMap<>();
+        Set<Long> toFetch = new LinkedHashSet<>();
+        for (Long menuId : menuIds) {
+            Entry entry = entries.get(menuId);
+            if (entry == null) {
+                misses.increment();
+                toFetch.add(menuId);
+            } else if (!feedHealthy && now - entry.loadedAtMillis >= maxAgeMs) {
+                staleLookups.increment();
+                toFetch.add(menuId);
+            } else {
+                hits.increment();
+                result.put(menuId, entry.price);
+            }
+        }
+        if (toFetch.isEmpty()) {
+            return result;
+        }
+
+        List<MenuPrice> fetched;
+        try {
+            fetched = storeMenuClient.fetchPrices(toFetch);
+            fetchSuccess.increment();
+        } catch (RestClientException e) {
+            fetchFailure.increment();
+            System.err.println("--- MenuPriceCache: 메뉴 가격 일괄 조회 실패 - " + e.getMessage() + " ---");
+            for (Long menuId : toFetch) {
+                Entry entry = entries.get(menuId);
+                if (entry == null) {
+                    throw e; // 확인할 방법이 없는 메뉴 -> 주문 불가
+                }
+                staleServed.increment();
+                result.put(menuId, entry.price);
+            }
+            return result;
+        }
+
+        long loadedAt = System.currentTimeMillis();
+        for (MenuPrice price : fetched) {
+            entries.put(price.getMenuId(), new Entry(price, loadedAt));
+            result.put(price.getMenuId(), price);
+        }
+        for (Long menuId : toFetch) {
+            if (!result.containsKey(menuId)) {
+                entries.remove(menuId); // 삭제된 메뉴
+            }
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            sync();
+        }
+    }
+
+    // 변경 피드 동기화 (full-reload-ms 가 지났으면 처음부터 다시 적재해서 삭제된 메뉴 제거)
+    @Scheduled(fixedDelayString = "${order.pricing.sync-ms:5000}", initialDelayString = "${order.pricing.sync-ms:5000}")
+    public synchronized void sync() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        boolean fullReload = startedAt - lastFullReloadAtMillis >= fullReloadMs;
+        try {
+            if (fullReload) {
+                reloadAll(startedAt);
+            } else {
+                applyChanges(cursorTime.minusNanos(syncOverlapMs * 1_000_000), 0, startedAt);
+            }
+            lastSyncAtMillis = startedAt;
+        } catch (RestClientException e) {
+            System.err.println("--- MenuPriceCache: 메뉴 가격 변경 피드 동기화 실패 - " + e.getMessage() + " ---");
+        }
+    }
+
+    private void reloadAll(long startedAt) {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        cursorTime = FEED_START;
+        cursorId = 0;
+        applyChanges(FEED_START, 0, startedAt, seen);
+        // 적재 시작 이후 일괄 조회로 들어온 항목은 남기고, 피드에 없던 오래된 항목만 제거
+        entries.entrySet().removeIf(e -> !seen.contains(e.getKey()) && e.getValue().loadedAtMillis < startedAt);
+        lastFullReloadAtMillis = startedAt;
+        System.out.println("--- MenuPriceCache: 메뉴 가격 전체 적재 완료 (" + entries.size() + "개) ---");
+    }
+
+    private void applyChanges(LocalDateTime since, long afterId, long startedAt) {
+        applyChanges(since, afterId, startedAt, null);
+    }
+
+    private void applyChanges(LocalDateTime since, long afterId, long startedAt, Set<Long> seen) {
+        LocalDateTime pageSince = since;
+        long pageAfterId = afterId;
+        while (true) {
+            List<MenuPrice> page = storeMenuClient.fetchChanges(pageSince, pageAfterId, pageSize);
+            for (MenuPrice price : page) {
+                entries.put(price.getMenuId(), new Entry(price, startedAt));
+                if (seen != null) {
+                    seen.add(price.getMenuId());
+                }
+                advanceCursor(price);
+            }
+            if (page.size() < pageSize) {
+                return;
+            }
+            MenuPrice last = page.get(page.size() - 1);
+            pageSince = last.getUpdatedAt();
+            pageAfterId = last.getMenuId();
+        }
+    }
+
+    private void advanceCursor(MenuPrice price) {
+        LocalDateTime updatedAt = price.getUpdatedAt();
+        if (updatedAt == null) {
+            return;
+        }
+        if (updatedAt.isAfter(cursorTime) || (updatedAt.isEqual(cursorTime) && price.getMenuId() > cursorId)) {
+            cursorTime = updatedAt;
+            cursorId = price.getMenuId();
+        }
+    }
+
+    private record Entry(MenuPrice price, long loadedAtMillis) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.localy.order_service.order.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// store-service 메뉴 가격 조회 클라이언트
+// 실패 시 RestClientException 을 그대로 던짐 (호출하는 쪽에서 캐시 값 사용 여부 결정)
+@Component
+public class StoreMenuClient {
+
+    private final RestTemplate restTemplate;
+    private final String storeServiceUrl;
+
+    public StoreMenuClient(RestTemplateBuilder builder,
+                           @Value("${store.service.url:http://localhost:8071}") String storeServiceUrl,
+                           @Value("${order.pricing.timeout-ms:1000}") long timeoutMs) {
+        // 주문 생성 경로에서 호출되므로 짧은 타임아웃
+        this.restTemplate = builder
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .readTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.storeServiceUrl = storeServiceUrl;
+    }
+
+    // 여러 메뉴를 한 번에 조회 (존재하지 않는 메뉴는 결과에서 빠짐)
+    public List<MenuPrice> fetchPrices(Collection<Long> menuIds) {
+        String ids = menuIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String url = UriComponentsBuilder.fromUriString(storeServiceUrl)
+                .path("/api/menus/prices")
+                .queryParam("ids", ids)
+                .toUriString();
+        return toList(restTemplate.getForObject(url, MenuPrice[].class));
+    }
+
+    // (since, afterId) 커서 이후 변경된 메뉴를 (updatedAt, menuId) 순서로 최대 limit 개 조회
+    public List<MenuPrice> fetchChanges(LocalDateTime since, long afterId, int limit) {
+        String url = UriComponentsBuilder.fromUriString(storeServiceUrl)
+                .path("/api/menus/prices/changes")
+                .queryParam("since", since)
+                .queryParam("afterId", afterId)
+                .queryParam("limit", limit)
+                .toUriString();
+        return toList(restTemplate.getForObject(url, MenuPrice[].class));
+    }
+
+    private static List<MenuPrice> toList(MenuPrice[] body) {
+        return body == null ? List.of() : Arrays.asList(body);
+    }
+}
@@ -0,0 +1,18 @@
+package com.localy.order_service.order.reconciliation;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// payment-service 대사용 결제 스트림의 한 줄
+@Getter
+@Setter
+public class PaymentReconciliationRow {
+    private Long orderId;
+    private Long paymentId;
+    private String paymentStatus;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,87 @@
+package com.localy.order_service.order.reconciliation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// payment-service 대사용 결제 스트림 클라이언트
+// 응답을 모으지 않고 한 줄씩 읽는 reader 를 넘겨주므로 호출하는 쪽이 읽는 속도만큼만 받음
+// 실패 시 RestClientException / UncheckedIOException 을 그대로 던짐
+@Component
+public class PaymentStreamClient {
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final String paymentServiceUrl;
+
+    public PaymentStreamClient(RestTemplateBuilder builder,
+                               ObjectMapper objectMapper,
+                               @Value("${payment.service.url:http://localhost:8092}") String paymentServiceUrl,
+                               @Value("${order.reconciliation.timeout-ms:60000}") long timeoutMs) {
+        // 배치 작업이므로 긴 타임아웃 (read timeout 은 한 번의 읽기 대기 시간)
+        this.restTemplate = builder
+                .connectTimeout(Duration.ofMillis(Math.min(timeoutMs, 5000)))
+                .readTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.objectMapper = objectMapper;
+        this.paymentServiceUrl = paymentServiceUrl;
+    }
+
+    // [fromOrderId, toOrderId) 범위의 결제를 order_id 순서로 읽음 (buckets 가 null 이면 모든 버킷)
+    public <T> T stream(long fromOrderId, long toOrderId, Integer bucketCount, List<Integer> buckets,
+                        Function<PaymentRowReader, T> handler) {
+        String url = UriComponentsBuilder.fromUriString(paymentServiceUrl)
+                .path("/api/payments/admin/reconciliation/payments")
+                .toUriString();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("fromOrderId", fromOrderId);
+        body.put("toOrderId", toOrderId);
+        if (buckets != null) {
+            body.put("bucketCount", bucketCount);
+            body.put("buckets", buckets);
+        }
+        return restTemplate.execute(url, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getHeaders().setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+            request.getBody().write(objectMapper.writeValueAsBytes(body));
+        }, response -> handler.apply(new PaymentRowReader(
+                new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8), 64 * 1024))));
+    }
+
+    public class PaymentRowReader {
+        private final BufferedReader reader;
+
+        private PaymentRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // 다음 결제 (끝이면 null)
+        public PaymentReconciliationRow next() {
+            try {
+                String line;
+                do {
+                    line = reader.readLine();
+                } while (line != null && line.isBlank());
+                return line == null ? null : objectMapper.readValue(line, PaymentReconciliationRow.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.localy.order_service.order.reconciliation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// 대사 불일치 한 건 (리포트 파일의 NDJSON 한 줄)
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReconciliationMismatch {
+
+    public enum Type {
+        MISSING_PAYMENT, // 결제 완료 주문인데 결제 기록 없음
+        MISSING_ORDER,   // 승인된 결제인데 주문 없음
+        AMOUNT_MISMATCH, // 주문 금액과 결제 금액이 다름
+        STATUS_DRIFT     // 결제 승인/거절과 주문 상태가 맞지 않음
+    }
+
+    private Type type;
+    private Long orderId;
+    private String orderStatus;
+    private BigDecimal orderAmount;
+    private Long paymentId;
+    private String paymentStatus;
+    private BigDecimal paymentAmount;
+}
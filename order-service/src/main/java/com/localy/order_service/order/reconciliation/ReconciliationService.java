@@ -0,0 +1,438 @@
+package com.localy.order_service.order.reconciliation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.order_service.config.sharding.OrderShardKeys;
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 주문 <-> 결제 대사 (reconciliation)
+// - 주문 ID 공간을 범위로 나누고 (샤드, 범위) 작업을 fork-join 으로 병렬 실행
+// - 작업마다 주문(orders + archived_orders)은 샤드 DB 커서로, 결제는 payment-service 스트림으로 둘 다 order_id 순서로 읽어 merge join
+//   -> 양쪽 테이블을 메모리에 올리지 않고 작업당 행 하나씩만 들고 비교
+// - 샤딩 사용 시 샤드에 배정된 버킷의 결제만 받고, 이동 중인 버킷은 양쪽 모두 제외 (다음 실행에서 확인)
+// - cutoff(지금 - grace) 이후 주문과 결제는 아직 처리 중일 수 있으므로 제외
+// 불일치는 리포트 파일(NDJSON)과 메트릭으로 남김
+@Service
+public class ReconciliationService {
+
+    private static final String ORDERS_SQL =
+            "SELECT order_id, order_status, total_amount FROM orders " +
+            "WHERE order_id >= ? AND order_id < ? AND order_date < ? %1$s " +
+            "UNION ALL " +
+            "SELECT order_id, order_status, total_amount FROM archived_orders " +
+            "WHERE order_id >= ? AND order_id < ? AND order_date < ? %1$s " +
+            "ORDER BY order_id";
+    private static final String BUCKET_FILTER = "AND (order_id % ?) = ANY(?)";
+
+    private final OrderShardRouter orderShardRouter;
+    private final PaymentStreamClient paymentStreamClient;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool pool;
+    private final int rangesPerShard;
+    private final long graceMinutes;
+    private final Path reportDir;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationSummary lastSummary;
+    private final AtomicLong lastMismatches = new AtomicLong();
+    private final AtomicLong lastCompletedEpochSeconds = new AtomicLong();
+
+    private final Map<ReconciliationMismatch.Type, Counter> mismatchCounters = new EnumMap<>(ReconciliationMismatch.Type.class);
+    private final Counter orderRows;
+    private final Counter paymentRows;
+    private final Counter failedTasks;
+    private final Timer runTimer;
+
+    public ReconciliationService(OrderShardRouter orderShardRouter,
+                                 PaymentStreamClient paymentStreamClient,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${order.reconciliation.parallelism:4}") int parallelism,
+                                 @Value("${order.reconciliation.ranges-per-shard:8}") int rangesPerShard,
+                                 @Value("${order.reconciliation.grace-minutes:30}") long graceMinutes,
+                                 @Value("${order.reconciliation.fetch-size:1000}") int fetchSize,
+                                 @Value("${order.reconciliation.report-dir:reconciliation-reports}") String reportDir) {
+        this.orderShardRouter = orderShardRouter;
+        this.paymentStreamClient = paymentStreamClient;
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize); // PostgreSQL 은 트랜잭션(autocommit off) 안에서만 커서로 나눠 읽음
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.pool = new ForkJoinPool(parallelism); // 작업이 DB/HTTP 를 기다리므로 공용 풀과 분리
+        this.rangesPerShard = rangesPerShard;
+        this.graceMinutes = graceMinutes;
+        this.reportDir = Path.of(reportDir);
+        for (ReconciliationMismatch.Type type : ReconciliationMismatch.Type.values()) {
+            mismatchCounters.put(type, Counter.builder("orders.reconciliation.mismatches")
+                    .description("대사에서 발견한 주문/결제 불일치 수")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        this.orderRows = Counter.builder("orders.reconciliation.rows")
+                .description("대사에서 비교한 행 수")
+                .tag("side", "order")
+                .register(meterRegistry);
+        this.paymentRows = Counter.builder("orders.reconciliation.rows")
+                .description("대사에서 비교한 행 수")
+                .tag("side", "payment")
+                .register(meterRegistry);
+        this.failedTasks = Counter.builder("orders.reconciliation.failed.tasks")
+                .description("오류로 끝나지 못한 (샤드, 범위) 작업 수")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("orders.reconciliation.duration")
+                .description("대사 작업 한 번의 소요 시간")
+                .register(meterRegistry);
+        Gauge.builder("orders.reconciliation.last.mismatches", lastMismatches, AtomicLong::get)
+                .description("마지막 대사에서 발견한 불일치 수")
+                .register(meterRegistry);
+        Gauge.builder("orders.reconciliation.last.completed", lastCompletedEpochSeconds, AtomicLong::get)
+                .description("마지막 대사 완료 시각 (epoch seconds)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${order.reconciliation.cron:-}") // 기본값 "-" 는 자동 실행 안 함 (관리자 API 로 실행)
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (IllegalStateException e) {
+            System.out.println("--- ReconciliationService: " + e.getMessage() + " ---");
+        }
+    }
+
+    public ReconciliationSummary getLastSummary() {
+        return lastSummary;
+    }
+
+    // 대사 실행 (끝날 때까지 반환하지 않음, 이미 실행 중이면 IllegalStateException)
+    public ReconciliationSummary run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("대사 작업이 이미 실행 중입니다.");
+        }
+        Timer.Sample sample = Timer.start();
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusMinutes(graceMinutes);
+        try {
+            Files.createDirectories(reportDir);
+            Path reportFile = reportDir.resolve("reconciliation-" + startedAt.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".ndjson");
+            List<RangeTask> tasks = planTasks();
+            Totals totals;
+            try (Writer report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                totals = pool.invoke(new ReconcileTask(tasks, 0, tasks.size(), cutoff, report));
+            }
+            ReconciliationSummary summary = ReconciliationSummary.builder()
+                    .startedAt(startedAt)
+                    .finishedAt(LocalDateTime.now())
+                    .cutoff(cutoff)
+                    .tasks(tasks.size())
+                    .failedTasks(totals.failedTasks)
+                    .ordersChecked(totals.orders)
+                    .paymentsChecked(totals.payments)
+                    .mismatches(totals.mismatchCount())
+                    .mismatchesByType(totals.mismatchesByType())
+                    .reportFile(reportFile.toAbsolutePath().toString())
+                    .build();
+            lastSummary = summary;
+            lastMismatches.set(summary.getMismatches());
+            if (totals.failedTasks == 0) {
+                lastCompletedEpochSeconds.set(System.currentTimeMillis() / 1000);
+            }
+            System.out.println(String.format("--- ReconciliationService: 주문 %d건 / 결제 %d건 대사, 불일치 %d건 %s (실패 작업 %d/%d, 리포트: %s) ---",
+                    totals.orders, totals.payments, summary.getMismatches(), summary.getMismatchesByType(),
+                    totals.failedTasks, tasks.size(), summary.getReportFile()));
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException("대사 리포트 파일을 만들 수 없습니다.", e);
+        } finally {
+            sample.stop(runTimer);
+            running.set(false);
+        }
+    }
+
+    // (샤드, 주문 ID 범위) 작업 목록: 모든 샤드의 주문 ID 최소~최대를 rangesPerShard 개로 나눔 (양 끝 범위는 열려 있음)
+    private List<RangeTask> planTasks() {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long[] bounds : orderShardRouter.onAllShards(shard -> readOnlyTransaction.execute(status -> cursorJdbcTemplate.queryForObject(
+                "SELECT LEAST((SELECT MIN(order_id) FROM orders), (SELECT MIN(order_id) FROM archived_orders)), " +
+                        "GREATEST((SELECT MAX(order_id) FROM orders), (SELECT MAX(order_id) FROM archived_orders))",
+                (rs, rowNum) -> new long[]{rs.getObject(1) != null ? rs.getLong(1) : Long.MAX_VALUE,
+                        rs.getObject(2) != null ? rs.getLong(2) : Long.MIN_VALUE})))) {
+            min = Math.min(min, bounds[0]);
+            max = Math.max(max, bounds[1]);
+        }
+        List<long[]> ranges = new ArrayList<>();
+        if (min > max) {
+            ranges.add(new long[]{Long.MIN_VALUE, Long.MAX_VALUE}); // 주문이 없음 (결제만 있는지 확인)
+        } else {
+            long step = Math.max(1, (max - min) / rangesPerShard + 1);
+            long from = Long.MIN_VALUE;
+            for (long next = min + step; next <= max; next += step) {
+                ranges.add(new long[]{from, next});
+                from = next;
+            }
+            ranges.add(new long[]{from, Long.MAX_VALUE});
+        }
+        List<RangeTask> tasks = new ArrayList<>();
+        List<long[]> shardedRanges = ranges;
+        if (orderShardRouter.isSharded()) {
+            // 샤딩 전 주문 ID 구간은 버킷이 없으므로 샤드 0 에서 버킷 조건 없이, 나머지 구간만 샤드별 버킷으로 나눔
+            long first = OrderShardKeys.FIRST_SHARDED_ORDER_ID;
+            shardedRanges = new ArrayList<>();
+            for (long[] range : ranges) {
+                if (range[0] < first) {
+                    tasks.add(new RangeTask(OrderShardKeys.LEGACY_SHARD, range[0], Math.min(range[1], first), null));
+                }
+                if (range[1] > first) {
+                    shardedRanges.add(new long[]{Math.max(range[0], first), range[1]});
+                }
+            }
+        }
+        for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+            List<Integer> buckets = orderShardRouter.stableBucketsOfShard(shard);
+            if (buckets != null && buckets.isEmpty()) {
+                continue;
+            }
+            for (long[] range : shardedRanges) {
+                tasks.add(new RangeTask(shard, range[0], range[1], buckets));
+            }
+        }
+        return tasks;
+    }
+
+    private Totals reconcile(RangeTask task, LocalDateTime cutoff, Writer report) {
+        try {
+            return paymentStreamClient.stream(task.fromOrderId, task.toOrderId, OrderShardKeys.BUCKET_COUNT, task.buckets,
+                    payments -> orderShardRouter.onShard(task.shard, () -> readOnlyTransaction.execute(status ->
+                            cursorJdbcTemplate.query(connection -> ordersStatement(connection, task, cutoff),
+                                    (ResultSetExtractor<Totals>) orders -> mergeJoin(orders, payments, cutoff, report)))));
+        } catch (RuntimeException e) {
+            System.err.println(String.format("--- ReconciliationService: 샤드 %d 범위 [%d, %d) 대사 실패 - %s ---",
+                    task.shard, task.fromOrderId, task.toOrderId, e.getMessage()));
+            failedTasks.increment();
+            Totals failed = new Totals();
+            failed.failedTasks = 1;
+            return failed;
+        }
+    }
+
+    private PreparedStatement ordersStatement(Connection connection, RangeTask task, LocalDateTime cutoff) throws SQLException {
+        boolean bucketFilter = task.buckets != null;
+        PreparedStatement ps = connection.prepareStatement(String.format(ORDERS_SQL, bucketFilter ? BUCKET_FILTER : ""));
+        int index = 1;
+        for (int table = 0; table < 2; table++) {
+            ps.setLong(index++, task.fromOrderId);
+            ps.setLong(index++, task.toOrderId);
+            ps.setTimestamp(index++, Timestamp.valueOf(cutoff));
+            if (bucketFilter) {
+                ps.setLong(index++, OrderShardKeys.BUCKET_COUNT);
+                ps.setArray(index++, connection.createArrayOf("bigint", task.buckets.stream().map(Integer::longValue).toArray()));
+            }
+        }
+        return ps;
+    }
+
+    // 두 스트림 모두 order_id 오름차순: 작은 쪽을 한 칸씩 진행
+    private Totals mergeJoin(ResultSet orders, PaymentStreamClient.PaymentRowReader payments, LocalDateTime cutoff, Writer report) throws SQLException {
+        Totals totals = new Totals();
+        boolean hasOrder = orders.next();
+        PaymentReconciliationRow payment = payments.next();
+        while (hasOrder || payment != null) {
+            int compare = !hasOrder ? 1 : payment == null ? -1 : Long.compare(orders.getLong(1), payment.getOrderId());
+            if (compare < 0) {
+                checkOrderOnly(orders, totals, report);
+                hasOrder = orders.next();
+            } else if (compare > 0) {
+                checkPaymentOnly(payment, cutoff, totals, report);
+                payment = payments.next();
+            } else {
+                checkPair(orders, payment, totals, report);
+                hasOrder = orders.next();
+                payment = payments.next();
+            }
+        }
+        orderRows.increment(totals.orders);
+        paymentRows.increment(totals.payments);
+        return totals;
+    }
+
+    private void checkOrderOnly(ResultSet orders, Totals totals, Writer report) throws SQLException {
+        totals.orders++;
+        if ("PAYMENT_COMPLETED".equals(orders.getString(2))) {
+            mismatch(totals, report, ReconciliationMismatch.builder()
+                    .type(ReconciliationMismatch.Type.MISSING_PAYMENT)
+                    .orderId(orders.getLong(1))
+                    .orderStatus(orders.getString(2))
+                    .orderAmount(orders.getBigDecimal(3)));
+        }
+    }
+
+    private void checkPaymentOnly(PaymentReconciliationRow payment, LocalDateTime cutoff, Totals totals, Writer report) {
+        totals.payments++;
+        // cutoff 이후 결제는 주문도 cutoff 근처라 주문 쪽에서 제외됐을 수 있음
+        if ("APPROVED".equals(payment.getPaymentStatus())
+                && payment.getCreatedAt() != null && payment.getCreatedAt().isBefore(cutoff)) {
+            mismatch(totals, report, paymentColumns(ReconciliationMismatch.builder()
+                    .type(ReconciliationMismatch.Type.MISSING_ORDER), payment));
+        }
+    }
+
+    private void checkPair(ResultSet orders, PaymentReconciliationRow payment, Totals totals, Writer report) throws SQLException {
+        totals.orders++;
+        totals.payments++;
+        String orderStatus = orders.getString(2);
+        BigDecimal orderAmount = orders.getBigDecimal(3);
+        boolean approved = "APPROVED".equals(payment.getPaymentStatus());
+        boolean completed = "PAYMENT_COMPLETED".equals(orderStatus);
+        ReconciliationMismatch.Type type = null;
+        if (approved != completed) {
+            type = ReconciliationMismatch.Type.STATUS_DRIFT; // 예: 결제는 승인됐는데 주문은 만료됨
+        } else if (orderAmount == null || payment.getTotalAmount() == null || orderAmount.compareTo(payment.getTotalAmount()) != 0) {
+            type = ReconciliationMismatch.Type.AMOUNT_MISMATCH;
+        }
+        if (type != null) {
+            mismatch(totals, report, paymentColumns(ReconciliationMismatch.builder()
+                    .type(type)
+                    .orderId(orders.getLong(1))
+                    .orderStatus(orderStatus)
+                    .orderAmount(orderAmount), payment));
+        }
+    }
+
+    private static ReconciliationMismatch.ReconciliationMismatchBuilder paymentColumns(
+            ReconciliationMismatch.ReconciliationMismatchBuilder builder, PaymentReconciliationRow payment) {
+        return builder.orderId(payment.getOrderId())
+                .paymentId(payment.getPaymentId())
+                .paymentStatus(payment.getPaymentStatus())
+                .paymentAmount(payment.getTotalAmount());
+    }
+
+    private void mismatch(Totals totals, Writer report, ReconciliationMismatch.ReconciliationMismatchBuilder builder) {
+        ReconciliationMismatch mismatch = builder.build();
+        totals.mismatches[mismatch.getType().ordinal()]++;
+        mismatchCounters.get(mismatch.getType()).increment();
+        try {
+            String line = objectMapper.writeValueAsString(mismatch);
+            synchronized (report) {
+                report.write(line);
+                report.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private record RangeTask(int shard, long fromOrderId, long toOrderId, List<Integer> buckets) {
+    }
+
+    // 작업 목록을 반으로 나눠 fork, 작업 하나가 남으면 직접 대사
+    private class ReconcileTask extends RecursiveTask<Totals> {
+        private final List<RangeTask> tasks;
+        private final int from;
+        private final int to;
+        private final LocalDateTime cutoff;
+        private final Writer report;
+
+        private ReconcileTask(List<RangeTask> tasks, int from, int to, LocalDateTime cutoff, Writer report) {
+            this.tasks = tasks;
+            this.from = from;
+            this.to = to;
+            this.cutoff = cutoff;
+            this.report = report;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from == 0) {
+                return new Totals();
+            }
+            if (to - from == 1) {
+                return reconcile(tasks.get(from), cutoff, report);
+            }
+            int middle = (from + to) >>> 1;
+            ReconcileTask left = new ReconcileTask(tasks, from, middle, cutoff, report);
+            left.fork();
+            Totals right = new ReconcileTask(tasks, middle, to, cutoff, report).compute();
+            return left.join().add(right);
+        }
+    }
+
+    private static final class Totals {
+        private long orders;
+        private long payments;
+        private int failedTasks;
+        private final long[] mismatches = new long[ReconciliationMismatch.Type.values().length];
+
+        private Totals add(Totals other) {
+            orders += other.orders;
+            payments += other.payments;
+            failedTasks += other.failedTasks;
+            for (int i = 0; i < mismatches.length; i++) {
+                mismatches[i] += other.mismatches[i];
+            }
+            return this;
+        }
+
+        private long mismatchCount() {
+            long count = 0;
+            for (long value : mismatches) {
+                count += value;
+            }
+            return count;
+        }
+
+        private Map<ReconciliationMismatch.Type, Long> mismatchesByType() {
+            Map<ReconciliationMismatch.Type, Long> byType = new EnumMap<>(ReconciliationMismatch.Type.class);
+            for (ReconciliationMismatch.Type type : ReconciliationMismatch.Type.values()) {
+                byType.put(type, mismatches[type.ordinal()]);
+            }
+            return byType;
+        }
+    }
+}
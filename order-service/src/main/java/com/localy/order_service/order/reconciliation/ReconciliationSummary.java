@@ -0,0 +1,23 @@
+package com.localy.order_service.order.reconciliation;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// 대사 작업 한 번의 결과 요약 (불일치 목록은 reportFile 에)
+@Getter
+@Builder
+public class ReconciliationSummary {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime cutoff; // 이 시각 이후 주문/결제는 처리 중일 수 있어 제외
+    private int tasks; // 샤드 x 주문 ID 범위
+    private int failedTasks;
+    private long ordersChecked;
+    private long paymentsChecked;
+    private long mismatches;
+    private Map<ReconciliationMismatch.Type, Long> mismatchesByType;
+    private String reportFile;
+}
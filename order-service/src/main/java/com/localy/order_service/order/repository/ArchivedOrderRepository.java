@@ -0,0 +1,59 @@
+package com.localy.order_service.order.repository;
+
+import com.localy.order_service.order.domain.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    List<ArchivedOrder> findByUserIdOrderByOrderDateDesc(String userId);
+
+    Optional<ArchivedOrder> findByOrderIdAndUserId(Long orderId, String userId);
+
+    // 보관 대상 주문 ID를 잠그면서 조회 (다른 인스턴스가 잡고 있는 행은 건너뜀)
+    @Query(value = "SELECT order_id FROM orders " +
+            "WHERE order_status IN (:statuses) AND order_date < :cutoff " +
+            "ORDER BY order_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockArchivableOrderIds(@Param("statuses") Collection<String> statuses,
+                                      @Param("cutoff") LocalDateTime cutoff,
+                                      @Param("limit") int limit);
+
+    // 주문과 주문 항목을 한 번의 INSERT ... SELECT 로 보관 테이블에 복사 (항목은 JSON 배열로 압축)
+    @Modifying
+    @Query(value = "INSERT INTO archived_orders (order_id, user_id, store_id, order_date, total_amount, order_status, " +
+            "payment_id, created_at, archived_at, line_items) " +
+            "SELECT o.order_id, o.user_id, o.store_id, o.order_date, o.total_amount, o.order_status, " +
+            "o.payment_id, o.created_at, now(), " +
+            "CAST(COALESCE((SELECT json_agg(json_build_object(" +
+            "'orderLineItemId', li.order_item_id, 'menuId', li.menu_id, 'menuName', li.menu_name, " +
+            "'quantity', li.quantity, 'unitPrice', li.unit_price, 'totalPrice', li.total_price) ORDER BY li.order_item_id) " +
+            "FROM order_line_items li WHERE li.order_id = o.order_id), CAST('[]' AS json)) AS text) " +
+            "FROM orders o WHERE o.order_id IN (:orderIds) " +
+            "ON CONFLICT (order_id) DO NOTHING", nativeQuery = true)
+    int copyToArchive(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_line_items WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteHotLineItems(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteHotOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    // 통계 기반 hot 테이블 행 수 추정치 (COUNT(*) 전체 스캔 방지)
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE relname = 'orders'", nativeQuery = true)
+    Long estimateHotOrderRows();
+
+    // 인덱스를 포함한 hot 테이블 전체 크기 (bytes)
+    @Query(value = "SELECT pg_total_relation_size('orders') + pg_total_relation_size('order_line_items')", nativeQuery = true)
+    Long hotTableSizeBytes();
+}
@@ -1,10 +1,21 @@
 package com.localy.order_service.order.repository;
 
 import com.localy.order_service.order.domain.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository; // JpaRepository 임포트
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> { // JpaRepository<Order, Long>로 변경
@@ -14,4 +25,35 @@ public interface OrderRepository extends JpaRepository<Order, Long> { // JpaRepo
 
     // 특정 사용자의 특정 주문 조회
     Optional<Order> findByOrderIdAndUserId(Long orderId, String userId); // 반환 타입을 Optional<Order>로 변경
-}
\ No newline at end of file
+
+    // 만료 대상 PENDING 주문 잠금 (결제 결과 처리 중이라 잠겨 있는 주문은 건너뜀: lock timeout -2 = SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM Order o WHERE o.orderId IN :orderIds AND o.orderStatus = 'PENDING'")
+    List<Order> lockPendingOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    // 잠근 주문들의 상태를 한 번의 UPDATE 로 변경
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.orderStatus = :status WHERE o.orderId IN :orderIds AND o.orderStatus = 'PENDING'")
+    int updatePendingStatus(@Param("orderIds") Collection<Long> orderIds, @Param("status") String status);
+
+    // 결제 결과 반영: 아직 PENDING 인 주문만 (만료 처리나 다른 결과가 먼저 반영된 주문은 0행)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.orderStatus = :status, o.paymentId = :paymentId WHERE o.orderId = :orderId AND o.orderStatus = 'PENDING'")
+    int applyPaymentResult(@Param("orderId") Long orderId, @Param("status") String status, @Param("paymentId") Long paymentId);
+
+    // 구간(주문 ID % rangeCount)의 PENDING 주문 (order_id, created_at) 스트림 - PENDING 부분 인덱스 사용
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(value = "SELECT o.order_id, o.created_at FROM orders o " +
+            "WHERE o.order_status = 'PENDING' AND MOD(o.order_id, :rangeCount) = :rangeId", nativeQuery = true)
+    Stream<Object[]> streamPendingInRange(@Param("rangeId") int rangeId, @Param("rangeCount") int rangeCount);
+
+    // 구간 안에서 이미 만료 시각이 지난 PENDING 주문 ID
+    @Query(value = "SELECT o.order_id FROM orders o " +
+            "WHERE o.order_status = 'PENDING' AND o.created_at < :cutoff AND MOD(o.order_id, :rangeCount) = :rangeId " +
+            "ORDER BY o.created_at LIMIT :limit", nativeQuery = true)
+    List<Long> findOverduePendingInRange(@Param("rangeId") int rangeId,
+                                         @Param("rangeCount") int rangeCount,
+                                         @Param("cutoff") LocalDateTime cutoff,
+                                         @Param("limit") int limit);
+}
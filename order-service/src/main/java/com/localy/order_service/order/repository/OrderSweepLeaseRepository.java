@@ -0,0 +1,28 @@
+package com.localy.order_service.order.repository;
+
+import com.localy.order_service.order.domain.OrderSweepLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderSweepLeaseRepository extends JpaRepository<OrderSweepLease, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO order_sweep_leases (range_id) VALUES (:rangeId) ON CONFLICT (range_id) DO NOTHING",
+            nativeQuery = true)
+    int ensureRange(@Param("rangeId") int rangeId);
+
+    // 비어 있거나, 만료됐거나, 이미 내 리스인 경우에만 획득/연장 (DB 시각 기준)
+    @Modifying
+    @Query(value = "UPDATE order_sweep_leases SET owner = :owner, lease_until = now() + (:leaseSeconds * INTERVAL '1 second') " +
+            "WHERE range_id = :rangeId AND (owner IS NULL OR owner = :owner OR lease_until < now())",
+            nativeQuery = true)
+    int tryAcquire(@Param("rangeId") int rangeId, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE order_sweep_leases SET owner = NULL, lease_until = NULL WHERE owner = :owner", nativeQuery = true)
+    int releaseAll(@Param("owner") String owner);
+}
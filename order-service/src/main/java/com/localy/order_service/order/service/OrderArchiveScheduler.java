@@ -0,0 +1,114 @@
+package com.localy.order_service.order.service;
+
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import com.localy.order_service.order.repository.ArchivedOrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 주기적으로 오래된 완료 주문을 보관 테이블로 옮기는 백그라운드 작업
+// 배치마다 별도 트랜잭션을 사용하므로 hot 테이블 잠금은 배치 하나 동안만 유지됩니다.
+@Component
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchiveScheduler {
+
+    private final OrderArchiveService orderArchiveService;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderShardRouter orderShardRouter;
+
+    private final Counter rowsMoved;
+    private final Timer batchTimer;
+    private final AtomicLong hotOrderRows = new AtomicLong();
+    private final AtomicLong hotTableBytes = new AtomicLong();
+
+    @Value("${order.archive.statuses:PAYMENT_COMPLETED,PAYMENT_FAILED,PAYMENT_EXPIRED}")
+    private List<String> terminalStatuses;
+
+    @Value("${order.archive.min-age-days:90}")
+    private long minAgeDays;
+
+    @Value("${order.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.archive.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    public OrderArchiveScheduler(OrderArchiveService orderArchiveService,
+                                 ArchivedOrderRepository archivedOrderRepository,
+                                 OrderShardRouter orderShardRouter,
+                                 MeterRegistry meterRegistry) {
+        this.orderArchiveService = orderArchiveService;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderShardRouter = orderShardRouter;
+        this.rowsMoved = Counter.builder("orders.archive.rows.moved")
+                .description("보관 테이블로 이동한 주문 수")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.archive.batch")
+                .description("보관 배치 하나의 처리 시간")
+                .register(meterRegistry);
+        Gauge.builder("orders.hot.rows", hotOrderRows, AtomicLong::get)
+                .description("orders 테이블 행 수 추정치 (모든 샤드 합계)")
+                .register(meterRegistry);
+        Gauge.builder("orders.hot.size.bytes", hotTableBytes, AtomicLong::get)
+                .description("orders + order_line_items 테이블 크기 (인덱스 포함)")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${order.archive.initial-delay-ms:60000}",
+            fixedDelayString = "${order.archive.fixed-delay-ms:600000}")
+    public void archiveCompletedOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+            final int target = shard;
+            orderShardRouter.runOnShard(target, () -> archiveShard(target, cutoff));
+        }
+        refreshHotTableSize();
+    }
+
+    private void archiveShard(int shard, LocalDateTime cutoff) {
+        long total = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Timer.Sample sample = Timer.start();
+                int moved = orderArchiveService.archiveBatch(terminalStatuses, cutoff, batchSize);
+                sample.stop(batchTimer);
+                if (moved == 0) {
+                    break;
+                }
+                rowsMoved.increment(moved);
+                total += moved;
+            }
+            if (total > 0) {
+                System.out.println(String.format("--- OrderArchiveScheduler: 샤드 %d 에서 주문 %d건 보관 완료 (기준 시각: %s) ---", shard, total, cutoff));
+            }
+        } catch (Exception e) {
+            System.err.println("--- OrderArchiveScheduler: 샤드 " + shard + " 주문 보관 중 오류 - " + e.getMessage() + " ---");
+        }
+    }
+
+    private void refreshHotTableSize() {
+        try {
+            long rows = 0;
+            long bytes = 0;
+            for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+                Long shardRows = orderShardRouter.onShard(shard, archivedOrderRepository::estimateHotOrderRows);
+                Long shardBytes = orderShardRouter.onShard(shard, archivedOrderRepository::hotTableSizeBytes);
+                rows += shardRows != null ? shardRows : 0;
+                bytes += shardBytes != null ? shardBytes : 0;
+            }
+            hotOrderRows.set(rows);
+            hotTableBytes.set(bytes);
+        } catch (Exception e) {
+            System.err.println("--- OrderArchiveScheduler: hot 테이블 크기 조회 실패 - " + e.getMessage() + " ---");
+        }
+    }
+}
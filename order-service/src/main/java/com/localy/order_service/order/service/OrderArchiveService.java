@@ -0,0 +1,95 @@
+package com.localy.order_service.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.order_service.order.domain.ArchivedOrder;
+import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.domain.OrderLineItem;
+import com.localy.order_service.order.dto.OrderLineItemDto;
+import com.localy.order_service.order.repository.ArchivedOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// 오래된 완료 주문을 보관 테이블로 옮기고, 보관된 주문을 조회하는 서비스
+@Service
+@RequiredArgsConstructor
+public class OrderArchiveService {
+
+    private static final TypeReference<List<OrderLineItemDto>> LINE_ITEMS_TYPE = new TypeReference<>() {};
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ObjectMapper objectMapper;
+
+    // 한 배치를 짧은 트랜잭션 하나로 이동: 잠금 -> 복사 -> hot 테이블 삭제
+    // 반환값은 이동한 주문 수 (0이면 더 이상 보관할 주문이 없음)
+    @Transactional
+    public int archiveBatch(Collection<String> terminalStatuses, LocalDateTime cutoff, int batchSize) {
+        List<Long> orderIds = archivedOrderRepository.lockArchivableOrderIds(terminalStatuses, cutoff, batchSize);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyToArchive(orderIds);
+        archivedOrderRepository.deleteHotLineItems(orderIds);
+        int moved = archivedOrderRepository.deleteHotOrders(orderIds);
+        System.out.println(String.format("--- OrderArchiveService: 주문 %d건 보관 테이블로 이동 (OrderID %d ~ %d) ---",
+                moved, orderIds.get(0), orderIds.get(orderIds.size() - 1)));
+        return moved;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Order> findArchivedOrder(Long orderId, String userId) {
+        return archivedOrderRepository.findByOrderIdAndUserId(orderId, userId).map(this::toOrder);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> findArchivedOrdersByUserId(String userId) {
+        return archivedOrderRepository.findByUserIdOrderByOrderDateDesc(userId).stream()
+                .map(this::toOrder)
+                .collect(Collectors.toList());
+    }
+
+    // 보관된 주문을 기존 API 응답 형태(Order 엔티티)로 복원 (영속 상태가 아닌 단순 객체)
+    private Order toOrder(ArchivedOrder archived) {
+        Order order = Order.builder()
+                .orderId(archived.getOrderId())
+                .userId(archived.getUserId())
+                .storeId(archived.getStoreId())
+                .orderDate(archived.getOrderDate())
+                .totalAmount(archived.getTotalAmount())
+                .orderStatus(archived.getOrderStatus())
+                .paymentId(archived.getPaymentId())
+                .createdAt(archived.getCreatedAt())
+                .orderLineItems(new ArrayList<>())
+                .build();
+        for (OrderLineItemDto itemDto : readLineItems(archived)) {
+            order.getOrderLineItems().add(OrderLineItem.builder()
+                    .orderItemId(itemDto.getOrderLineItemId())
+                    .menuId(itemDto.getMenuId())
+                    .menuName(itemDto.getMenuName())
+                    .quantity(itemDto.getQuantity())
+                    .unitPrice(itemDto.getUnitPrice())
+                    .totalPrice(itemDto.getTotalPrice())
+                    .createdAt(archived.getCreatedAt())
+                    .order(order)
+                    .build());
+        }
+        return order;
+    }
+
+    private List<OrderLineItemDto> readLineItems(ArchivedOrder archived) {
+        try {
+            return objectMapper.readValue(archived.getLineItems(), LINE_ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("보관된 주문 항목을 읽을 수 없습니다: 주문 ID=" + archived.getOrderId(), e);
+        }
+    }
+}
@@ -5,18 +5,25 @@ import com.localy.order_service.order.domain.Order;
 import com.localy.order_service.order.domain.OrderLineItem;
 import com.localy.order_service.order.dto.CartItemDto;
 import com.localy.order_service.order.dto.CreateOrderRequest;
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
 import com.localy.order_service.order.message.OrderMessage; // Kafka 메시지 관련 클래스 (필요시 사용)
+import com.localy.order_service.order.pricing.MenuPrice;
+import com.localy.order_service.order.pricing.MenuPriceCache;
 import com.localy.order_service.order.repository.OrderRepository;
 // OrderLineItemRepository는 Order의 CascadeType.ALL로 인해 직접적인 save 호출이 필요 없을 수 있음
 // import com.localy.order_service.order.repository.OrderLineItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.NoSuchElementException; // 예외 임포트
 import java.util.stream.Collectors;
 
@@ -28,8 +35,16 @@ public class OrderService {
     private final OrderRepository orderRepository;
     // private final OrderLineItemRepository orderLineItemRepository; // Order에 Cascade 설정 시 불필요할 수 있음
     private final OrderMessage orderMessage; // Kafka 메시지 발행용
+    private final OrderArchiveService orderArchiveService; // 보관된(오래된) 주문 조회용
+    private final ApplicationEventPublisher eventPublisher; // 주문 상태 변경 내부 이벤트 발행용
+    private final MenuPriceCache menuPriceCache; // store-service 메뉴 가격 로컬 캐시 (클라이언트 가격 대신 사용)
 
-    public Order placeOrder(CreateOrderRequest createOrderRequest, String userId) { // userId 파라미터 추가
+    // 주문 생성은 OrderBatchWriter.placeOrder 를 통해서: prepareOrder(트랜잭션 없음) 후 saveNewOrder(쓰기 트랜잭션)
+    // prepareOrder 는 가격 확인을 위해 store-service 를 호출할 수 있으므로 DB 커넥션을 잡은 채로 실행하지 않음
+
+    // 주문 요청 검증, 가격 재계산 후 저장 전 Order 생성 (트랜잭션 밖에서 호출, 호출자의 트랜잭션이 있어도 일시 중단)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Order prepareOrder(CreateOrderRequest createOrderRequest, String userId) {
         System.out.println(String.format("--- OrderService: placeOrder 시작 - UserID from Header: %s, StoreID: %s ---", userId, createOrderRequest.getStoreId()));
 
         List<CartItemDto> cartItems = createOrderRequest.getCartItems();
@@ -57,14 +72,35 @@ public class OrderService {
                 .build();
         System.out.println("--- OrderService: placeOrder - 초기 Order 객체 생성 완료 ---");
 
+        // 장바구니의 가격은 클라이언트가 보낸 값이므로, store-service 기준 가격/판매 여부로 다시 계산
+        Map<Long, MenuPrice> menuPrices = menuPriceCache.isEnabled()
+                ? menuPriceCache.getPrices(cartItems.stream().map(itemDto -> parseMenuId(itemDto.getMenuId())).collect(Collectors.toSet()))
+                : null;
+
         List<OrderLineItem> orderLineItems = cartItems.stream()
                 .map(itemDto -> {
+                    if (itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
+                        throw new IllegalArgumentException("주문 수량은 1개 이상이어야 합니다. (메뉴 ID: " + itemDto.getMenuId() + ")");
+                    }
+                    String menuName = itemDto.getMenuName();
+                    BigDecimal unitPrice = itemDto.getUnitPrice();
+                    if (menuPrices != null) {
+                        MenuPrice menuPrice = validateMenu(menuPrices, itemDto, createOrderRequest.getStoreId());
+                        if (unitPrice != null && unitPrice.compareTo(menuPrice.getPrice()) != 0) {
+                            System.out.println(String.format("--- OrderService: placeOrder - 메뉴 %s 가격 재계산 (요청: %s, 현재: %s) ---",
+                                    itemDto.getMenuId(), unitPrice, menuPrice.getPrice()));
+                        }
+                        menuName = menuPrice.getName();
+                        unitPrice = menuPrice.getPrice();
+                    } else if (unitPrice == null) {
+                        throw new IllegalArgumentException("메뉴 가격이 없습니다. (메뉴 ID: " + itemDto.getMenuId() + ")");
+                    }
                     OrderLineItem lineItem = OrderLineItem.builder()
                             .menuId(itemDto.getMenuId())
-                            .menuName(itemDto.getMenuName())
+                            .menuName(menuName)
                             .quantity(itemDto.getQuantity())
-                            .unitPrice(itemDto.getUnitPrice())
-                            .totalPrice(itemDto.getUnitPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity())))
+                            .unitPrice(unitPrice)
+                            .totalPrice(unitPrice.multiply(BigDecimal.valueOf(itemDto.getQuantity())))
                             .createdAt(LocalDateTime.now())
                             .order(order) // 양방향 연관관계 설정
                             .build();
@@ -77,23 +113,66 @@ public class OrderService {
 
         order.setTotalAmount(order.calculateTotalAmount());
         System.out.println(String.format("--- OrderService: placeOrder - 주문 총액 계산 완료: %s ---", order.getTotalAmount()));
+        return order;
+    }
+
+    // 그룹 커밋: 준비된 여러 주문을 한 트랜잭션에서 저장 (JDBC 배치 INSERT)
+    // 하나라도 실패하면 전체가 롤백되므로 호출하는 쪽에서 주문별로 다시 저장해야 함
+    public List<Order> saveNewOrders(List<Order> orders) {
+        List<Order> savedOrders = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            savedOrders.add(saveNewOrder(order));
+        }
+        return savedOrders;
+    }
 
+    public Order saveNewOrder(Order order) {
         // JPA의 CascadeType.ALL 설정으로 Order 저장 시 OrderLineItem도 함께 저장됨
         System.out.println("--- OrderService: placeOrder - orderRepository.save 호출 전 ---");
         Order savedOrder = orderRepository.save(order);
         System.out.println(String.format("--- OrderService: 주문 생성 및 항목 저장 완료 (OrderID: %d) ---", savedOrder.getOrderId()));
 
-        // Kafka 이벤트 발행
-        System.out.println("OrderService: publishOrderCreatedEvent 호출 시도 - Order ID: " + savedOrder.getOrderId());
-        orderMessage.publishOrderCreatedEvent(savedOrder); // Kafka 메시지 발행
-        System.out.println("OrderService: publishOrderCreatedEvent 호출 완료");
+        // Kafka 이벤트 발행 (커밋 후 주문마다 한 건, 그룹 커밋이 롤백되면 발행하지 않음)
+        orderMessage.publishOrderCreatedEvent(savedOrder);
+
+        // 커밋 이후 가게 주문 스트림 등으로 전달되는 내부 이벤트
+        eventPublisher.publishEvent(OrderStatusChangedEvent.from(savedOrder, null));
 
         return savedOrder;
     }
 
+    private Long parseMenuId(String menuId) {
+        try {
+            return Long.valueOf(menuId);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("잘못된 메뉴 ID입니다: " + menuId);
+        }
+    }
+
+    // 주문 항목이 store-service 기준으로 해당 가게의 판매 중인 메뉴인지 확인
+    private MenuPrice validateMenu(Map<Long, MenuPrice> menuPrices, CartItemDto itemDto, Long storeId) {
+        MenuPrice menuPrice = menuPrices.get(parseMenuId(itemDto.getMenuId()));
+        if (menuPrice == null) {
+            throw new IllegalArgumentException("존재하지 않는 메뉴입니다. (메뉴 ID: " + itemDto.getMenuId() + ")");
+        }
+        if (!Objects.equals(menuPrice.getStoreId(), storeId)) {
+            throw new IllegalArgumentException("주문한 가게의 메뉴가 아닙니다. (메뉴 ID: " + itemDto.getMenuId() + ")");
+        }
+        if (!menuPrice.isAvailable()) {
+            throw new IllegalArgumentException("현재 판매하지 않는 메뉴입니다: " + menuPrice.getName());
+        }
+        return menuPrice;
+    }
+
     // 특정 사용자의 모든 주문 목록 조회 (JPA용)
     @Transactional(readOnly = true) // 읽기 전용 트랜잭션
     public List<Order> findOrdersByUserId(String userId) {
+        return findOrdersByUserId(userId, false);
+    }
+
+    // includeArchived 가 true 이면 보관 테이블의 오래된 주문도 최신순 목록 뒤에 이어 붙임
+    @Transactional(readOnly = true)
+    public List<Order> findOrdersByUserId(String userId, boolean includeArchived) {
         System.out.println(String.format("--- OrderService: findOrdersByUserId 호출 (UserID: %s) ---", userId));
         if (userId == null || userId.trim().isEmpty()) {
             System.err.println("--- OrderService: findOrdersByUserId - 사용자 ID 누락 ---");
@@ -103,6 +182,11 @@ public class OrderService {
         // JPA EAGER 로딩 또는 Fetch Join을 사용하지 않았다면, orderLineItems는 여기서 프록시 객체일 수 있음.
         // DTO로 변환하여 반환하거나, 실제 사용 시점에 로드되도록 할 수 있음.
         // 여기서는 Order 엔티티를 그대로 반환하며, 직렬화 시점에 orderLineItems가 로드된다고 가정.
+        if (includeArchived) {
+            // 보관 대상은 항상 hot 테이블의 주문보다 오래된 주문이므로 뒤에 붙여도 최신순이 유지됨
+            orders = new ArrayList<>(orders);
+            orders.addAll(orderArchiveService.findArchivedOrdersByUserId(userId));
+        }
         System.out.println(String.format("--- OrderService: 사용자 주문 목록 조회 완료 (UserID: %s, %d 건) ---", userId, orders.size()));
         return orders;
     }
@@ -120,6 +204,7 @@ public class OrderService {
             throw new IllegalArgumentException("주문 ID는 특정 주문 조회에 필수입니다.");
         }
         Order order = orderRepository.findByOrderIdAndUserId(orderId, userId)
+                .or(() -> orderArchiveService.findArchivedOrder(orderId, userId)) // hot 테이블에 없으면 보관 테이블 조회
                 .orElseThrow(() -> {
                     System.err.println(String.format("--- OrderService: findOrderDetails - 주문 없음 (OrderID: %d, UserID: %s) ---", orderId, userId));
                     return new NoSuchElementException("주문 ID " + orderId + "에 해당하는 주문을 찾을 수 없거나 해당 사용자의 주문이 아닙니다.");
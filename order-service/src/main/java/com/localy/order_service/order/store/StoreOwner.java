@@ -0,0 +1,13 @@
+package com.localy.order_service.order.store;
+
+import lombok.*;
+
+// store-service 의 가게 정보 중 소유자 확인에 필요한 값 (GET /api/stores/{storeId} 응답)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreOwner {
+    private Long id;
+    private String ownerId;
+}
@@ -0,0 +1,92 @@
+package com.localy.order_service.order.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// 가게 소유자 확인 (가게 주인용 API: 주문 스트림, 주문 내역 내보내기, 매출 집계)
+// 소유자는 store-service 가 가지고 있으므로 GET /api/stores/{storeId} 로 조회하고 ttl 동안 캐시
+// - 가게가 없으면 NoSuchElementException (404), store-service 장애는 RestClientException 을 그대로 던짐 (503)
+// - SSE 재연결이 몰려도 store-service 를 반복 호출하지 않도록 최대 max-entries 개까지 보관 (LRU)
+@Component
+public class StoreOwnership {
+
+    private final RestTemplate restTemplate;
+    private final String storeServiceUrl;
+    private final long ttlMs;
+    private final Map<Long, Entry> owners;
+    private final Counter denied;
+
+    public StoreOwnership(RestTemplateBuilder builder,
+                          MeterRegistry meterRegistry,
+                          @Value("${store.service.url:http://localhost:8071}") String storeServiceUrl,
+                          @Value("${order.store-owner.timeout-ms:1000}") long timeoutMs,
+                          @Value("${order.store-owner.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${order.store-owner.max-entries:10000}") int maxEntries) {
+        this.restTemplate = builder
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .readTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.storeServiceUrl = storeServiceUrl;
+        this.ttlMs = ttlSeconds * 1000;
+        this.owners = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.denied = Counter.builder("orders.store.owner.denied")
+                .description("가게 소유자가 아니어서 거절한 가게 주인용 API 요청 수")
+                .register(meterRegistry);
+    }
+
+    // userId 가 storeId 가게의 소유자인지
+    public boolean isOwner(Long storeId, String userId) {
+        boolean owner = userId != null && userId.equals(ownerOf(storeId));
+        if (!owner) {
+            denied.increment();
+            System.err.println("--- StoreOwnership: 가게 소유자가 아닌 요청 거절 (StoreID: " + storeId + ", UserID: " + userId + ") ---");
+        }
+        return owner;
+    }
+
+    private String ownerOf(Long storeId) {
+        long now = System.currentTimeMillis();
+        synchronized (owners) {
+            Entry entry = owners.get(storeId);
+            if (entry != null && entry.expiresAtMillis() > now) {
+                return entry.ownerId();
+            }
+        }
+        String url = UriComponentsBuilder.fromUriString(storeServiceUrl)
+                .path("/api/stores/{storeId}")
+                .buildAndExpand(storeId)
+                .toUriString();
+        StoreOwner store;
+        try {
+            store = restTemplate.getForObject(url, StoreOwner.class);
+        } catch (HttpClientErrorException.NotFound e) {
+            store = null;
+        }
+        if (store == null) {
+            throw new NoSuchElementException("가게를 찾을 수 없습니다: " + storeId);
+        }
+        synchronized (owners) {
+            owners.put(storeId, new Entry(store.getOwnerId(), now + ttlMs));
+        }
+        return store.getOwnerId();
+    }
+
+    private record Entry(String ownerId, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.localy.order_service.order.timeout;
+
+import java.util.function.LongConsumer;
+
+// 계층형 타이밍 휠 (hierarchical timing wheel)
+// - level 0 은 tickMs 단위 슬롯 wheelSize 개, level i 는 tickMs * wheelSize^i 단위 슬롯 wheelSize 개
+// - 먼 미래의 타이머는 상위 level 에 들어갔다가, 해당 구간이 시작되면 하위 level 로 내려옴(cascade)
+// - 슬롯은 long 배열 두 개(id, 만료 시각)로만 구성되므로 수백만 개의 타이머도 객체 생성 없이 저장 가능
+// 스레드 안전: 모든 public 메서드는 synchronized
+public class HierarchicalTimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTickMs;
+    private final LongPairList[][] slots;
+    private final LongPairList overdue = new LongPairList(); // 이미 만료 시각이 지난 채로 추가된 타이머
+    private long currentTime; // 마지막으로 처리한 tick 시각 (tickMs 의 배수)
+    private long size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startTimeMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTickMs = new long[levels];
+        this.slots = new LongPairList[levels][wheelSize];
+        long levelTick = tickMs;
+        for (int level = 0; level < levels; level++) {
+            levelTickMs[level] = levelTick;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots[level][slot] = new LongPairList();
+            }
+            levelTick *= wheelSize;
+        }
+        this.currentTime = Math.floorDiv(startTimeMs, tickMs) * tickMs;
+    }
+
+    public synchronized void add(long id, long deadlineMs) {
+        // 만료 시각을 tick 경계로 올림: 타이머가 예정보다 일찍 만료되지 않도록
+        long due = Math.floorDiv(deadlineMs + tickMs - 1, tickMs) * tickMs;
+        place(id, due);
+        size++;
+    }
+
+    // nowMs 까지 시간을 진행시키고 만료된 타이머 id 를 전달
+    public synchronized void advance(long nowMs, LongConsumer expired) {
+        drain(overdue, expired);
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // 상위 level 부터: 이번 시각에 시작되는 구간의 타이머를 하위 level 로 내림
+            for (int level = levelTickMs.length - 1; level > 0; level--) {
+                if (currentTime % levelTickMs[level] == 0) {
+                    LongPairList bucket = slots[level][slotIndex(level, currentTime)];
+                    if (bucket.size > 0) {
+                        LongPairList moving = bucket.copyAndClear();
+                        for (int i = 0; i < moving.size; i++) {
+                            place(moving.ids[i], moving.dues[i]);
+                        }
+                    }
+                }
+            }
+            drain(slots[0][slotIndex(0, currentTime)], expired);
+            drain(overdue, expired);
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    private void place(long id, long due) {
+        if (due <= currentTime) {
+            overdue.add(id, due);
+            return;
+        }
+        for (int level = 0; level < levelTickMs.length; level++) {
+            long levelTick = levelTickMs[level];
+            long bucketsAhead = Math.floorDiv(due, levelTick) - Math.floorDiv(currentTime, levelTick);
+            // level 0 은 due 가 속한 tick 에 바로 만료, 상위 level 은 due 가 속한 구간이 시작될 때 내려옴
+            boolean fits = level == 0 ? bucketsAhead < wheelSize : bucketsAhead > 0 && bucketsAhead < wheelSize;
+            if (fits) {
+                slots[level][slotIndex(level, due)].add(id, due);
+                return;
+            }
+        }
+        // 최상위 level 범위를 넘는 타이머: 가장 먼 슬롯에 두고 cascade 될 때 다시 배치
+        int top = levelTickMs.length - 1;
+        long farthest = (Math.floorDiv(currentTime, levelTickMs[top]) + wheelSize - 1) * levelTickMs[top];
+        slots[top][slotIndex(top, farthest)].add(id, due);
+    }
+
+    private int slotIndex(int level, long time) {
+        return (int) Math.floorMod(Math.floorDiv(time, levelTickMs[level]), (long) wheelSize);
+    }
+
+    private void drain(LongPairList bucket, LongConsumer expired) {
+        if (bucket.size == 0) {
+            return;
+        }
+        LongPairList due = bucket.copyAndClear();
+        size -= due.size;
+        for (int i = 0; i < due.size; i++) {
+            expired.accept(due.ids[i]);
+        }
+    }
+
+    // (id, 만료 시각) 쌍을 담는 가변 길이 long 배열
+    private static final class LongPairList {
+        private static final int INITIAL_CAPACITY = 8;
+        private static final int SHRINK_THRESHOLD = 1024;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private long[] dues = new long[INITIAL_CAPACITY];
+        private int size;
+
+        void add(long id, long due) {
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = java.util.Arrays.copyOf(ids, capacity);
+                dues = java.util.Arrays.copyOf(dues, capacity);
+            }
+            ids[size] = id;
+            dues[size] = due;
+            size++;
+        }
+
+        // 현재 내용을 넘겨주고 비움 (큰 배열은 메모리 반환을 위해 새로 할당)
+        LongPairList copyAndClear() {
+            LongPairList copy = new LongPairList();
+            copy.ids = ids;
+            copy.dues = dues;
+            copy.size = size;
+            int capacity = ids.length > SHRINK_THRESHOLD ? INITIAL_CAPACITY : ids.length;
+            ids = new long[capacity];
+            dues = new long[capacity];
+            size = 0;
+            return copy;
+        }
+    }
+}
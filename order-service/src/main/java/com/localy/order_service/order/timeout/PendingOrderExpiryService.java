@@ -0,0 +1,77 @@
+package com.localy.order_service.order.timeout;
+
+import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import com.localy.order_service.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class PendingOrderExpiryService {
+
+    public static final String EXPIRED_STATUS = "PAYMENT_EXPIRED";
+
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 아직 PENDING 인 주문만 한 번의 UPDATE 로 만료 처리하고, 실제로 바뀐 주문마다 상태 변경 이벤트 발행
+    // (이미 결제 결과가 반영된 주문은 조건에 걸리지 않으므로 타이머를 취소하지 않아도 안전)
+    @Transactional
+    public int expire(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Order> pendingOrders = orderRepository.lockPendingOrders(orderIds);
+        if (pendingOrders.isEmpty()) {
+            return 0;
+        }
+        List<Long> lockedIds = pendingOrders.stream().map(Order::getOrderId).collect(Collectors.toList());
+        int updated = orderRepository.updatePendingStatus(lockedIds, EXPIRED_STATUS);
+        for (Order order : pendingOrders) { // clearAutomatically 로 분리(detached)된 객체이므로 변경해도 다시 저장되지 않음
+            order.setOrderStatus(EXPIRED_STATUS);
+            eventPublisher.publishEvent(OrderStatusChangedEvent.from(order, "PENDING"));
+        }
+        System.out.println(String.format("--- PendingOrderExpiryService: 미결제 주문 %d건 만료 처리 ---", updated));
+        return updated;
+    }
+
+    @Transactional(readOnly = true)
+    public long loadPendingRange(int rangeId, int rangeCount, HierarchicalTimingWheel wheel, long timeoutMs) {
+        long loaded = 0;
+        try (Stream<Object[]> rows = orderRepository.streamPendingInRange(rangeId, rangeCount)) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                long orderId = ((Number) row[0]).longValue();
+                LocalDateTime createdAt = toLocalDateTime(row[1]);
+                wheel.add(orderId, toEpochMillis(createdAt) + timeoutMs);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findOverdue(int rangeId, int rangeCount, LocalDateTime cutoff, int limit) {
+        return orderRepository.findOverduePendingInRange(rangeId, rangeCount, cutoff, limit);
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return Timestamp.valueOf(dateTime).getTime();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
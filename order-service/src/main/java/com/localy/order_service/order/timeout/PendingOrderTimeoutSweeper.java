@@ -0,0 +1,194 @@
+package com.localy.order_service.order.timeout;
+
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import com.localy.order_service.order.repository.OrderSweepLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// 결제 결과가 오지 않아 PENDING 에 머무는 주문을 만료시키는 스위퍼
+// - 만료 시각은 메모리의 계층형 타이밍 휠에 보관 (주기적인 orders 전체 스캔 없음)
+// - 이 인스턴스에서 생성된 주문은 커밋 직후 휠에 등록
+// - 주문 ID % range-count 구간별 리스를 얻은 인스턴스만 해당 구간의 PENDING 주문을 부분 인덱스로 재적재하고,
+//   다른 인스턴스가 죽어서 남은 만료 주문을 정리
+// - 샤딩 시 리스/재적재/정리는 샤드마다 따로 하고, 휠에서 꺼낸 주문은 주문 ID 의 샤드별로 나눠서 만료
+// - 만료는 조건부 UPDATE 한 번으로 묶어서 처리하므로 여러 인스턴스가 같은 주문을 만료시켜도 한 번만 반영됨
+@Component
+@ConditionalOnProperty(name = "order.timeout.enabled", havingValue = "true", matchIfMissing = true)
+public class PendingOrderTimeoutSweeper {
+
+    private final PendingOrderExpiryService pendingOrderExpiryService;
+    private final OrderSweepLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderShardRouter orderShardRouter;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Set<Integer> ownedRanges = ConcurrentHashMap.newKeySet(); // shard * rangeCount + rangeId
+    private final HierarchicalTimingWheel wheel;
+    private final Counter expiredCounter;
+
+    @Value("${order.timeout.pending-timeout-ms:900000}")
+    private long pendingTimeoutMs;
+
+    @Value("${order.timeout.range-count:16}")
+    private int rangeCount;
+
+    @Value("${order.timeout.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${order.timeout.batch-size:500}")
+    private int batchSize;
+
+    public PendingOrderTimeoutSweeper(PendingOrderExpiryService pendingOrderExpiryService,
+                                      OrderSweepLeaseRepository leaseRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      OrderShardRouter orderShardRouter,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${order.timeout.tick-ms:1000}") long tickMs) {
+        this.pendingOrderExpiryService = pendingOrderExpiryService;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.orderShardRouter = orderShardRouter;
+        // tick 1초, 슬롯 64개, 4단계 -> 약 194일까지 표현
+        this.wheel = new HierarchicalTimingWheel(tickMs, 64, 4, System.currentTimeMillis());
+        this.expiredCounter = Counter.builder("orders.timeout.expired")
+                .description("결제 결과 없이 만료 처리된 주문 수")
+                .register(meterRegistry);
+        Gauge.builder("orders.timeout.pending.timers", wheel, HierarchicalTimingWheel::size)
+                .description("타이밍 휠에 등록된 PENDING 주문 타이머 수")
+                .register(meterRegistry);
+        Gauge.builder("orders.timeout.owned.ranges", ownedRanges, Set::size)
+                .description("이 인스턴스가 리스를 가진 구간 수")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+            orderShardRouter.runOnShard(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+                for (int rangeId = 0; rangeId < rangeCount; rangeId++) {
+                    leaseRepository.ensureRange(rangeId);
+                }
+            }));
+        }
+        renewLeases();
+    }
+
+    // 새 주문은 커밋 후에 타이머 등록 (롤백된 주문은 등록되지 않음)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() == null && "PENDING".equals(event.getOrderStatus())) {
+            LocalDateTime placedAt = event.getOrderDate() != null ? event.getOrderDate() : LocalDateTime.now();
+            wheel.add(event.getOrderId(), PendingOrderExpiryService.toEpochMillis(placedAt) + pendingTimeoutMs);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.timeout.tick-ms:1000}")
+    public void tick() {
+        List<Long> due = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), due::add);
+        if (due.isEmpty()) {
+            return;
+        }
+        long retryAt = System.currentTimeMillis() + 5000;
+        Map<Integer, List<Long>> dueByShard = due.stream()
+                .filter(orderId -> {
+                    if (orderShardRouter.isOrderMoving(orderId)) { // 다른 샤드로 이동 중인 주문은 이동 후 처리
+                        wheel.add(orderId, retryAt);
+                        return false;
+                    }
+                    return true;
+                })
+                .collect(Collectors.groupingBy(orderShardRouter::shardOfOrder));
+        dueByShard.forEach((shard, orderIds) -> {
+            for (int from = 0; from < orderIds.size(); from += batchSize) {
+                List<Long> batch = orderIds.subList(from, Math.min(orderIds.size(), from + batchSize));
+                try {
+                    expiredCounter.increment(orderShardRouter.onShard(shard, () -> pendingOrderExpiryService.expire(batch)));
+                } catch (Exception e) {
+                    // 실패한 배치는 다음 tick 에 다시 시도
+                    System.err.println("--- PendingOrderTimeoutSweeper: 만료 처리 실패, 재시도 예약 - " + e.getMessage() + " ---");
+                    batch.forEach(orderId -> wheel.add(orderId, retryAt));
+                }
+            }
+        });
+    }
+
+    // 리스 획득/연장, 새로 얻은 구간 재적재, 구간 안의 누락된 만료 주문 정리
+    @Scheduled(initialDelayString = "${order.timeout.lease-renew-ms:20000}", fixedDelayString = "${order.timeout.lease-renew-ms:20000}")
+    public void renewLeases() {
+        for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+            final int targetShard = shard;
+            orderShardRouter.runOnShard(targetShard, () -> renewShardLeases(targetShard));
+        }
+    }
+
+    private void renewShardLeases(int shard) {
+        for (int rangeId = 0; rangeId < rangeCount; rangeId++) {
+            final int range = rangeId;
+            int rangeKey = shard * rangeCount + range;
+            try {
+                Integer acquired = transactionTemplate.execute(status -> leaseRepository.tryAcquire(range, instanceId, leaseSeconds));
+                if (acquired == null || acquired == 0) {
+                    ownedRanges.remove(rangeKey);
+                    continue;
+                }
+                if (ownedRanges.add(rangeKey)) {
+                    long loaded = pendingOrderExpiryService.loadPendingRange(range, rangeCount, wheel, pendingTimeoutMs);
+                    System.out.println(String.format("--- PendingOrderTimeoutSweeper: 샤드 %d 구간 %d 리스 획득, PENDING 주문 %d건 재적재 ---", shard, range, loaded));
+                }
+                expireOverdue(range);
+            } catch (Exception e) {
+                System.err.println("--- PendingOrderTimeoutSweeper: 샤드 " + shard + " 구간 " + range + " 리스 처리 중 오류 - " + e.getMessage() + " ---");
+            }
+        }
+    }
+
+    // 다른 인스턴스에서 생성됐다가 그 인스턴스가 종료되어 휠에 없는 만료 주문 정리 (PENDING 부분 인덱스 사용)
+    private void expireOverdue(int rangeId) {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(pendingTimeoutMs * 1_000_000);
+        while (true) {
+            List<Long> overdue = pendingOrderExpiryService.findOverdue(rangeId, rangeCount, cutoff, batchSize);
+            if (overdue.isEmpty()) {
+                return;
+            }
+            int expired = pendingOrderExpiryService.expire(overdue);
+            expiredCounter.increment(expired);
+            if (expired == 0 || overdue.size() < batchSize) { // 전부 잠겨 있으면 다음 주기에 다시 시도
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseLeases() {
+        for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+            try {
+                orderShardRouter.runOnShard(shard, () ->
+                        transactionTemplate.executeWithoutResult(status -> leaseRepository.releaseAll(instanceId)));
+            } catch (Exception e) {
+                System.err.println("--- PendingOrderTimeoutSweeper: 샤드 " + shard + " 리스 반환 실패 - " + e.getMessage() + " ---");
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.localy.order_service.payment.refund;
+
+import com.localy.order_service.payment.refund.dto.PaymentRefundRequestedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.stereotype.Component;
+
+// 결제 서비스에 환불 요청 발행
+// 만료(PAYMENT_EXPIRED)된 뒤 도착한 승인처럼 주문에 반영할 수 없는 결제는 돈만 빠져나간 상태이므로 되돌려 달라고 요청
+// 발행이 실패하면 예외를 던져서 결제 결과 레코드가 retry 토픽에서 다시 처리되도록 함
+// 같은 주문의 요청이 여러 번 가도 결제 서비스가 결제 상태(APPROVED -> REFUNDED) 조건부 변경으로 한 번만 환불함
+@Component
+public class PaymentRefundRequester {
+
+    public static final String BINDING = "paymentRefundRequest-out-0";
+
+    private final StreamBridge streamBridge;
+    private final Counter requested;
+
+    public PaymentRefundRequester(StreamBridge streamBridge, MeterRegistry meterRegistry) {
+        this.streamBridge = streamBridge;
+        this.requested = Counter.builder("orders.payment.refund.requested")
+                .description("주문에 반영하지 못해 환불을 요청한 승인 결제 수")
+                .register(meterRegistry);
+    }
+
+    public void requestRefund(PaymentRefundRequestedEvent event) {
+        if (!streamBridge.send(BINDING, event)) {
+            throw new IllegalStateException("환불 요청 발행 실패: 주문 ID=" + event.getOrderId());
+        }
+        requested.increment();
+        System.out.println("환불 요청 발행: 주문 ID=" + event.getOrderId() + ", 결제 ID=" + event.getPaymentId()
+                + ", 주문 상태=" + event.getOrderStatus());
+    }
+}
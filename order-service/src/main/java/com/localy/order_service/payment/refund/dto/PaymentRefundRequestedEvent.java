@@ -0,0 +1,20 @@
+package com.localy.order_service.payment.refund.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// 주문에 반영할 수 없는 승인 결제의 환불 요청 (order-service -> payment-service, payment-refund-requested 토픽)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentRefundRequestedEvent {
+    private Long orderId;
+    private Long paymentId;
+    private String userId;
+    private Long storeId;
+    private BigDecimal totalAmount;
+    private String orderStatus; // 결제 결과가 도착했을 때의 주문 상태 (예: PAYMENT_EXPIRED)
+}
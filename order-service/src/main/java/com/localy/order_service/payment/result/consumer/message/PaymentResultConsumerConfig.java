@@ -1,29 +1,76 @@
 package com.localy.order_service.payment.result.consumer.message;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.order_service.config.sharding.OrderShardRouter;
 import com.localy.order_service.payment.result.consumer.dto.PaymentResultEvent;
 import com.localy.order_service.payment.result.consumer.service.PaymentResultService;
+import com.localy.order_service.retry.NonBlockingRetryHandler;
+import com.localy.order_service.retry.service.DeadLetterService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+
+import java.util.List;
 import java.util.function.Consumer;
 
+// 결제 결과 컨슈머
+// 역직렬화는 NonBlockingRetryHandler 에서 직접 하므로 (poison 레코드도 DLT 로 보내기 위해) 바인딩은 byte[] 로 받음
+// payment-result -> payment-result-retry-1 -> -retry-2 -> -retry-3 -> payment-result-dlt
 @Configuration
 @RequiredArgsConstructor
 public class PaymentResultConsumerConfig {
 
     private final PaymentResultService paymentResultService;
+    private final OrderShardRouter orderShardRouter;
+    private final DeadLetterService deadLetterService;
 
-    @Bean // Bean 이름은 paymentResultConsumer 가 됩니다.
-    public Consumer<PaymentResultEvent> paymentResultConsumer() { // <-- 메서드 이름
-        System.out.println("OrderService: paymentResultConsumer Consumer Bean 활성화됨"); // <-- Bean 활성화 로그 추가 (시작 시)
-        return event -> {
+    @Bean
+    public NonBlockingRetryHandler<PaymentResultEvent> paymentResultRetryHandler(
+            @Value("${spring.cloud.stream.bindings.paymentResultConsumer-in-0.destination}") String topic,
+            @Value("${app.kafka.retry.delays-ms:1000,10000,60000}") List<Long> delaysMs,
+            ObjectMapper objectMapper, StreamBridge streamBridge, MeterRegistry meterRegistry) {
+        if (delaysMs.size() != 3) { // retry 바인딩(paymentResultRetry1~3Consumer) 개수와 같아야 함
+            throw new IllegalArgumentException("app.kafka.retry.delays-ms 는 3개여야 합니다: " + delaysMs);
+        }
+        return new NonBlockingRetryHandler<>("paymentResultConsumer", topic, PaymentResultEvent.class, event -> {
             // === 메시지 수신 로그 (역직렬화 성공 시 이 블록 실행됨) ===
             System.out.println("OrderService: PaymentResultEvent 메시지 수신! 주문 ID: " + event.getOrderId() + ", 결제 상태: " + event.getPaymentStatus()); // <-- 수신 로그 추가
-            // ======================
-            // 이제 이 아래에 paymentResultService 호출 로직이 있습니다.
-            System.out.println("OrderService: PaymentResultService::processPaymentResultEvent 호출 시도"); // <-- 처리 메서드 호출 전 로그
-            paymentResultService.processPaymentResultEvent(event); // 메시지 처리 로직 호출
+            if (event.getOrderId() == null || event.getPaymentStatus() == null) {
+                throw new IllegalArgumentException("주문 ID 또는 결제 상태가 없는 결제 결과입니다.");
+            }
+            // 주문 ID 에 들어있는 버킷의 샤드에서 처리 (버킷 이동 중이면 끝날 때까지 대기)
+            orderShardRouter.runOnOrderShardForWrite(event.getOrderId(), () -> paymentResultService.processPaymentResultEvent(event)); // 메시지 처리 로직 호출
             System.out.println("OrderService: PaymentResultService::processPaymentResultEvent 호출 완료"); // <-- 처리 메서드 호출 후 로그
-        };
+        }, delaysMs, objectMapper, streamBridge, meterRegistry);
+    }
+
+    @Bean // Bean 이름은 paymentResultConsumer 가 됩니다.
+    public Consumer<Message<byte[]>> paymentResultConsumer(NonBlockingRetryHandler<PaymentResultEvent> paymentResultRetryHandler) { // <-- 메서드 이름
+        System.out.println("OrderService: paymentResultConsumer Consumer Bean 활성화됨"); // <-- Bean 활성화 로그 추가 (시작 시)
+        return paymentResultRetryHandler.mainConsumer();
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentResultRetry1Consumer(NonBlockingRetryHandler<PaymentResultEvent> paymentResultRetryHandler) {
+        return paymentResultRetryHandler.retryConsumer(1);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentResultRetry2Consumer(NonBlockingRetryHandler<PaymentResultEvent> paymentResultRetryHandler) {
+        return paymentResultRetryHandler.retryConsumer(2);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentResultRetry3Consumer(NonBlockingRetryHandler<PaymentResultEvent> paymentResultRetryHandler) {
+        return paymentResultRetryHandler.retryConsumer(3);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentResultDltConsumer() {
+        return deadLetterService::store;
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,29 @@
 package com.localy.order_service.payment.result.consumer.service;
 
+import com.localy.order_service.order.domain.ArchivedOrder;
 import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import com.localy.order_service.order.repository.ArchivedOrderRepository;
 import com.localy.order_service.order.repository.OrderRepository;
+import com.localy.order_service.payment.refund.PaymentRefundRequester;
+import com.localy.order_service.payment.refund.dto.PaymentRefundRequestedEvent;
 import com.localy.order_service.payment.result.consumer.dto.PaymentResultEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+// 결제 결과 반영
+// - 주문 상태는 PENDING 일 때만 조건부 UPDATE 로 바꿈 (만료 처리와 동시에 와도 둘 중 하나만 반영)
+// - 반영하지 못한 결과: 같은 결과의 재전송이면 무시, 이미 다른 상태(만료 등)로 끝난 주문의 승인이면 결제 서비스에 환불 요청
 @Service
 @RequiredArgsConstructor
 public class PaymentResultService {
 
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository; // 보관된 주문에 늦게 도착한 결과 확인용
+    private final PaymentRefundRequester paymentRefundRequester;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void processPaymentResultEvent(PaymentResultEvent paymentResultEvent) {
@@ -22,20 +34,54 @@ public class PaymentResultService {
         // === 이 로그가 메시지 수신 및 서비스 로직 실행 확인 로그 역할을 합니다 ===
         System.out.println("주문 서비스에서 결제 결과 처리 시작: 주문 ID=" + orderId + ", 결제 상태=" + paymentResultEvent.getPaymentStatus());
         // ===========================================================
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order != null) {
-            if (paymentStatus.equals("APPROVED")) {
-                order.setOrderStatus("PAYMENT_COMPLETED");
-                order.setPaymentId(paymentId);
-                System.out.println("주문 상태를 PAYMENT_COMPLETED로 업데이트: 주문 ID=" + orderId + ", 결제 ID=" + paymentId);
-            } else if (paymentStatus.equals("REJECTED")) {
-                order.setOrderStatus("PAYMENT_FAILED");
-                System.out.println("주문 상태를 PAYMENT_FAILED로 업데이트: 주문 ID=" + orderId);
-                // 필요하다면 실패에 대한 추가적인 로직 (예: 재고 복구)을 구현할 수 있습니다.
-            }
-            orderRepository.save(order);
+        boolean approved = paymentStatus.equals("APPROVED");
+        String newStatus;
+        if (approved) {
+            newStatus = "PAYMENT_COMPLETED";
+        } else if (paymentStatus.equals("REJECTED")) {
+            newStatus = "PAYMENT_FAILED";
+            // 필요하다면 실패에 대한 추가적인 로직 (예: 재고 복구)을 구현할 수 있습니다.
+        } else if (paymentStatus.equals("REFUNDED")) {
+            // 환불 요청이 처리된 뒤 주문 생성 이벤트가 재전송되면 저장된 결과(REFUNDED)가 다시 옴 -> 주문은 이미 끝난 상태
+            System.out.println("환불된 결제의 결과, 무시: 주문 ID=" + orderId);
+            return;
         } else {
+            throw new IllegalArgumentException("알 수 없는 결제 상태입니다: " + paymentStatus);
+        }
+
+        if (orderRepository.applyPaymentResult(orderId, newStatus, approved ? paymentId : null) == 1) {
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            System.out.println("주문 상태를 " + newStatus + "로 업데이트: 주문 ID=" + orderId + (approved ? ", 결제 ID=" + paymentId : ""));
+            eventPublisher.publishEvent(OrderStatusChangedEvent.from(order, "PENDING"));
+            return;
+        }
+
+        // PENDING 이 아니어서 반영하지 못함 -> 지금 상태 확인 (운영 테이블에 없으면 보관 테이블)
+        Order order = orderRepository.findById(orderId).orElse(null);
+        ArchivedOrder archived = order == null ? archivedOrderRepository.findById(orderId).orElse(null) : null;
+        if (order == null && archived == null) {
+            // 주문 커밋보다 결제 결과가 먼저 도착한 경우일 수 있으므로 예외로 retry 토픽에서 다시 처리 (계속 없으면 DLT)
             System.err.println("주문을 찾을 수 없습니다: 주문 ID=" + orderId);
+            throw new IllegalStateException("주문을 찾을 수 없습니다: 주문 ID=" + orderId);
+        }
+        String currentStatus = order != null ? order.getOrderStatus() : archived.getOrderStatus();
+        if (currentStatus.equals(newStatus)) {
+            System.out.println("이미 반영된 결제 결과, 건너뜀: 주문 ID=" + orderId + ", 주문 상태=" + currentStatus);
+            return;
+        }
+        if (!approved) {
+            // 거절은 돈이 움직이지 않았으므로 끝난 주문의 상태를 그대로 둠
+            System.out.println("이미 " + currentStatus + " 상태인 주문의 결제 거절 결과, 무시: 주문 ID=" + orderId);
+            return;
         }
+        System.err.println("이미 " + currentStatus + " 상태인 주문에 결제 승인 도착, 환불 요청: 주문 ID=" + orderId + ", 결제 ID=" + paymentId);
+        paymentRefundRequester.requestRefund(PaymentRefundRequestedEvent.builder()
+                .orderId(orderId)
+                .paymentId(paymentId)
+                .userId(order != null ? order.getUserId() : archived.getUserId())
+                .storeId(order != null ? order.getStoreId() : archived.getStoreId())
+                .totalAmount(order != null ? order.getTotalAmount() : archived.getTotalAmount())
+                .orderStatus(currentStatus)
+                .build());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,181 @@
+package com.localy.order_service.retry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Kafka 컨슈머 비차단 재시도 (retry topic)
+// - 처리에 실패한 레코드는 제자리에서 재시도하지 않고 {topic}-retry-1, -2, ... 토픽으로 넘겨서 원래 파티션은 계속 진행
+// - 단계마다 지연(delays-ms)이 고정이므로 retry 토픽 안의 레코드는 처리 예정 시각 순서 -> 맨 앞 레코드의 예정 시각까지만 기다리면 됨
+//   기다릴 때 스레드를 재우지 않고 RetryNotDueException 을 던져 그 파티션만 멈춤 (RetryTopicBackoffConfig)
+// - 마지막 단계까지 실패하거나 재시도해도 소용없는 레코드(역직렬화 실패, IllegalArgumentException)는 {topic}-dlt 로 보냄
+// retry/DLT 토픽으로의 발행이 실패하면 예외를 그대로 던져서 바인더가 메시지를 잃지 않도록 함
+public class NonBlockingRetryHandler<T> {
+
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String DUE_AT_HEADER = "x-retry-due-at";
+    public static final String ORIGINAL_TOPIC_HEADER = "x-original-topic";
+    public static final String CONSUMER_HEADER = "x-consumer";
+    public static final String EXCEPTION_CLASS_HEADER = "x-exception-class";
+    public static final String EXCEPTION_MESSAGE_HEADER = "x-exception-message";
+
+    private final String consumerName;
+    private final String topic;
+    private final Class<T> payloadType;
+    private final Consumer<T> processor;
+    private final List<Long> delaysMs;
+    private final ObjectMapper objectMapper;
+    private final StreamBridge streamBridge;
+    private final MeterRegistry meterRegistry;
+
+    public NonBlockingRetryHandler(String consumerName, String topic, Class<T> payloadType, Consumer<T> processor,
+                                   List<Long> delaysMs, ObjectMapper objectMapper, StreamBridge streamBridge,
+                                   MeterRegistry meterRegistry) {
+        this.consumerName = consumerName;
+        this.topic = topic;
+        this.payloadType = payloadType;
+        this.processor = processor;
+        this.delaysMs = delaysMs;
+        this.objectMapper = objectMapper;
+        this.streamBridge = streamBridge;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static String retryTopic(String topic, int tier) {
+        return topic + "-retry-" + tier;
+    }
+
+    public static String dltTopic(String topic) {
+        return topic + "-dlt";
+    }
+
+    public int getTierCount() {
+        return delaysMs.size();
+    }
+
+    // 원래 토픽 컨슈머
+    public Consumer<Message<byte[]>> mainConsumer() {
+        return message -> handle(message, 0);
+    }
+
+    // tier 단계 retry 토픽 컨슈머 (1부터 시작)
+    public Consumer<Message<byte[]>> retryConsumer(int tier) {
+        return message -> {
+            checkDue(message, tier);
+            handle(message, tier);
+        };
+    }
+
+    private void handle(Message<byte[]> message, int tier) {
+        String stage = tier == 0 ? "main" : "retry-" + tier;
+        long start = System.nanoTime();
+        T payload;
+        try {
+            payload = objectMapper.readValue(message.getPayload(), payloadType);
+        } catch (IOException e) {
+            System.err.println("--- " + consumerName + ": 역직렬화 실패, DLT 로 이동 - " + e.getMessage() + " ---");
+            deadLetter(message, tier, e, "non-retryable");
+            recordBlocking(stage, start);
+            return;
+        }
+        try {
+            processor.accept(payload);
+        } catch (IllegalArgumentException e) {
+            System.err.println("--- " + consumerName + ": 재시도 불가 오류, DLT 로 이동 - " + e.getMessage() + " ---");
+            deadLetter(message, tier, e, "non-retryable");
+            recordBlocking(stage, start);
+        } catch (RuntimeException e) {
+            if (tier < delaysMs.size()) {
+                int nextTier = tier + 1;
+                System.err.println(String.format("--- %s: 처리 실패, %s 로 이동 (%dms 후 재시도) - %s ---",
+                        consumerName, retryTopic(topic, nextTier), delaysMs.get(tier), e.getMessage()));
+                forward(retryTopic(topic, nextTier), message, nextTier, System.currentTimeMillis() + delaysMs.get(tier), e);
+                Counter.builder("kafka.consumer.retries")
+                        .description("retry 토픽으로 넘긴 레코드 수")
+                        .tag("consumer", consumerName).tag("tier", String.valueOf(nextTier))
+                        .register(meterRegistry).increment();
+            } else {
+                System.err.println("--- " + consumerName + ": 재시도 횟수 초과, DLT 로 이동 - " + e.getMessage() + " ---");
+                deadLetter(message, tier, e, "exhausted");
+            }
+            recordBlocking(stage, start);
+        }
+    }
+
+    // 처리 예정 시각 전이면 남은 시간과 함께 돌려보냄 -> 컨테이너가 그동안 파티션을 멈췄다가 이 레코드부터 다시 전달
+    private void checkDue(Message<byte[]> message, int tier) {
+        Long dueAt = headerAsLong(message, DUE_AT_HEADER);
+        long waitMs = dueAt != null ? dueAt - System.currentTimeMillis() : 0;
+        if (waitMs <= 0) {
+            return;
+        }
+        Timer.builder("kafka.consumer.retry.wait")
+                .description("retry 토픽 레코드가 처리 예정 시각까지 파티션을 멈춘 시간")
+                .tag("consumer", consumerName).tag("tier", String.valueOf(tier))
+                .register(meterRegistry)
+                .record(waitMs, TimeUnit.MILLISECONDS);
+        throw new RetryNotDueException(waitMs);
+    }
+
+    private void deadLetter(Message<byte[]> message, int tier, Exception cause, String reason) {
+        forward(dltTopic(topic), message, tier + 1, null, cause);
+        Counter.builder("kafka.consumer.dlt")
+                .description("DLT 로 보낸 레코드 수")
+                .tag("consumer", consumerName).tag("reason", reason)
+                .register(meterRegistry).increment();
+    }
+
+    private void forward(String destination, Message<byte[]> message, int attempt, Long dueAt, Exception cause) {
+        MessageBuilder<byte[]> builder = MessageBuilder.withPayload(message.getPayload())
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE)
+                .setHeader(ATTEMPT_HEADER, attempt)
+                .setHeader(ORIGINAL_TOPIC_HEADER, topic)
+                .setHeader(CONSUMER_HEADER, consumerName)
+                .setHeader(EXCEPTION_CLASS_HEADER, cause.getClass().getName())
+                .setHeader(EXCEPTION_MESSAGE_HEADER, String.valueOf(cause.getMessage()));
+        if (dueAt != null) {
+            builder.setHeader(DUE_AT_HEADER, dueAt);
+        }
+        if (!streamBridge.send(destination, builder.build())) {
+            throw new IllegalStateException(destination + " 발행 실패", cause);
+        }
+    }
+
+    // 실패한 레코드가 파티션을 붙잡고 있던 시간 (다음 레코드가 기다린 시간)
+    private void recordBlocking(String stage, long startNanos) {
+        Timer.builder("kafka.consumer.hol.blocking")
+                .description("실패한 레코드가 retry/DLT 토픽으로 넘어가기 전까지 파티션을 막고 있던 시간")
+                .tag("consumer", consumerName).tag("stage", stage)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static Long headerAsLong(Message<?> message, String name) {
+        Object value = message.getHeaders().get(name);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        String text = headerAsString(message, name);
+        return text != null && !text.isBlank() ? Long.valueOf(text.trim()) : null;
+    }
+
+    public static String headerAsString(Message<?> message, String name) {
+        Object value = message.getHeaders().get(name);
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value != null ? value.toString() : null;
+    }
+}
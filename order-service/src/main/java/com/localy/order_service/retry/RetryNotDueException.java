@@ -0,0 +1,17 @@
+package com.localy.order_service.retry;
+
+// retry 토픽 레코드의 처리 예정 시각이 아직 안 됨 (처리 실패가 아님)
+// 컨테이너 오류 처리기(RetryTopicBackoffConfig)가 waitMs 동안 파티션을 멈췄다가 같은 레코드부터 다시 받음
+public class RetryNotDueException extends RuntimeException {
+
+    private final long waitMs;
+
+    public RetryNotDueException(long waitMs) {
+        super("retry 레코드 처리 예정 시각까지 " + waitMs + "ms 남음");
+        this.waitMs = waitMs;
+    }
+
+    public long getWaitMs() {
+        return waitMs;
+    }
+}
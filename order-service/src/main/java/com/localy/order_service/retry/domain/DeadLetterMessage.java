@@ -0,0 +1,50 @@
+package com.localy.order_service.retry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// DLT 로 넘어온 레코드 (재처리 API 에서 원래 토픽으로 다시 발행)
+@Getter
+@Setter
+@Entity
+@Table(name = "dead_letter_messages", indexes = {
+        @Index(name = "idx_dead_letter_status_failed_at", columnList = "status, failed_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterMessage {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_REPLAYED = "REPLAYED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long deadLetterId;
+
+    @Column(nullable = false)
+    private String consumerName;
+
+    @Column(nullable = false)
+    private String originalTopic;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    private Integer attempts;
+
+    private String exceptionClass;
+
+    @Column(length = 2000)
+    private String exceptionMessage;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+
+    private LocalDateTime replayedAt;
+}
@@ -0,0 +1,18 @@
+package com.localy.order_service.retry.repository;
+
+import com.localy.order_service.retry.domain.DeadLetterMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeadLetterMessageRepository extends JpaRepository<DeadLetterMessage, Long> {
+
+    List<DeadLetterMessage> findByStatusOrderByFailedAtAsc(String status, Pageable pageable);
+
+    List<DeadLetterMessage> findByStatusAndOriginalTopicOrderByFailedAtAsc(String status, String originalTopic, Pageable pageable);
+
+    long countByStatus(String status);
+}
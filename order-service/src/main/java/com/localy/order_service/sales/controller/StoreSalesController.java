@@ -0,0 +1,72 @@
+package com.localy.order_service.sales.controller;
+
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import com.localy.order_service.order.store.StoreOwnership;
+import com.localy.order_service.sales.dto.StoreSalesSummaryDto;
+import com.localy.order_service.sales.service.StoreSalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/orders/stores")
+@RequiredArgsConstructor
+public class StoreSalesController {
+
+    private final StoreSalesRollupService storeSalesRollupService;
+    private final OrderShardRouter orderShardRouter;
+    private final StoreOwnership storeOwnership;
+
+    // 가게 매출 요약 (from/to 미지정 시 오늘 하루)
+    // 예: GET /api/orders/stores/1/sales?from=2025-05-01T00:00:00&to=2025-05-08T00:00:00
+    // 가게 소유자만 조회할 수 있음 (아니면 403)
+    @GetMapping("/{storeId}/sales")
+    public ResponseEntity<?> getStoreSales(
+            @RequestHeader("X-User-Id") String userId,
+            @PathVariable Long storeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        System.out.println("--- StoreSalesController: GET /api/orders/stores/" + storeId + "/sales 요청 수신 (UserID from Header: " + userId + ", from: " + from + ", to: " + to + ") ---");
+        try {
+            if (!storeOwnership.isOwner(storeId, userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("가게 소유자만 매출을 조회할 수 있습니다.");
+            }
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RestClientException e) {
+            System.err.println("getStoreSales error: 가게 소유자 확인 실패 - " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("가게 정보를 확인할 수 없습니다. 잠시 후 다시 시도해주세요.");
+        }
+        LocalDateTime rangeFrom = from != null ? from : LocalDate.now().atStartOfDay();
+        LocalDateTime rangeTo = to != null ? to : rangeFrom.plusDays(1);
+        try {
+            // 가게 주문은 주문자(userId) 기준으로 여러 샤드에 나뉘어 있으므로 모든 샤드의 롤업을 합산
+            List<StoreSalesSummaryDto> perShard = orderShardRouter.onAllShards(
+                    shard -> storeSalesRollupService.summarize(storeId, rangeFrom, rangeTo));
+            return ResponseEntity.ok(merge(perShard));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private StoreSalesSummaryDto merge(List<StoreSalesSummaryDto> summaries) {
+        StoreSalesSummaryDto merged = summaries.get(0);
+        for (StoreSalesSummaryDto summary : summaries.subList(1, summaries.size())) {
+            merged.setOrderCount(merged.getOrderCount() + summary.getOrderCount());
+            merged.setGrossAmount(merged.getGrossAmount().add(summary.getGrossAmount()));
+            merged.setApprovedCount(merged.getApprovedCount() + summary.getApprovedCount());
+            merged.setApprovedAmount(merged.getApprovedAmount().add(summary.getApprovedAmount()));
+            merged.setFailedCount(merged.getFailedCount() + summary.getFailedCount());
+            merged.setFailedAmount(merged.getFailedAmount().add(summary.getFailedAmount()));
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,24 @@
+package com.localy.order_service.sales.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 집계에 이미 반영된 주문 이벤트 기록 (재처리/중복 이벤트가 두 번 합산되지 않도록)
+// order.sales.applied-retention-days 가 지나면 StoreSalesAppliedEventCleanupScheduler 가 삭제
+@Getter
+@Setter
+@Entity
+@Table(name = "store_sales_applied_events")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreSalesAppliedEvent {
+
+    @Id
+    private String eventKey; // "{orderId}:PLACED" 또는 "{orderId}:OUTCOME"
+
+    @Column(nullable = false)
+    private LocalDateTime appliedAt;
+}
@@ -0,0 +1,57 @@
+package com.localy.order_service.sales.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 가게별 시간/일 단위 매출 집계 행
+// 주문 생성/결제 결과 처리 시 증분으로 갱신되며, 조회 시 orders 테이블을 스캔하지 않고 이 행들을 합산합니다.
+@Getter
+@Setter
+@Entity
+@Table(name = "store_sales_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_store_sales_rollups_bucket", columnNames = {"store_id", "granularity", "bucket_start"})
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreSalesRollup {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long rollupId;
+
+    @Column(nullable = false)
+    private Long storeId;
+
+    @Column(nullable = false)
+    private String granularity; // HOUR, DAY
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart; // 집계 구간 시작 시각 (정시 또는 자정)
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private BigDecimal grossAmount;
+
+    @Column(nullable = false)
+    private long approvedCount;
+
+    @Column(nullable = false)
+    private BigDecimal approvedAmount;
+
+    @Column(nullable = false)
+    private long failedCount;
+
+    @Column(nullable = false)
+    private BigDecimal failedAmount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.localy.order_service.sales.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class StoreSalesSummaryDto {
+    private Long storeId;
+    private LocalDateTime from; // 정시 단위로 내림된 시작 시각
+    private LocalDateTime to;   // 정시 단위로 올림된 종료 시각 (미포함)
+    private long orderCount;
+    private BigDecimal grossAmount = BigDecimal.ZERO;
+    private long approvedCount;
+    private BigDecimal approvedAmount = BigDecimal.ZERO;
+    private long failedCount;
+    private BigDecimal failedAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,74 @@
+package com.localy.order_service.sales.repository;
+
+import com.localy.order_service.sales.domain.StoreSalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface StoreSalesRollupRepository extends JpaRepository<StoreSalesRollup, Long> {
+
+    // 이벤트를 처음 반영하는 경우에만 1을 반환 (이미 반영된 이벤트면 0)
+    @Modifying
+    @Query(value = "INSERT INTO store_sales_applied_events (event_key, applied_at) VALUES (:eventKey, now()) " +
+            "ON CONFLICT (event_key) DO NOTHING", nativeQuery = true)
+    int markApplied(@Param("eventKey") String eventKey);
+
+    // 보관 기간이 지난 반영 기록을 batchSize 개씩 삭제 (삭제한 행 수 반환)
+    @Modifying
+    @Query(value = "DELETE FROM store_sales_applied_events WHERE event_key IN (" +
+            "SELECT event_key FROM store_sales_applied_events WHERE applied_at < :cutoff LIMIT :batchSize)", nativeQuery = true)
+    int deleteAppliedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    // 집계 행이 없으면 만들고, 있으면 값을 더함 (행 단위 원자적 증분)
+    @Modifying
+    @Query(value = "INSERT INTO store_sales_rollups (store_id, granularity, bucket_start, order_count, gross_amount, " +
+            "approved_count, approved_amount, failed_count, failed_amount, updated_at) " +
+            "VALUES (:storeId, :granularity, :bucketStart, :orderCount, :grossAmount, " +
+            ":approvedCount, :approvedAmount, :failedCount, :failedAmount, now()) " +
+            "ON CONFLICT (store_id, granularity, bucket_start) DO UPDATE SET " +
+            "order_count = store_sales_rollups.order_count + EXCLUDED.order_count, " +
+            "gross_amount = store_sales_rollups.gross_amount + EXCLUDED.gross_amount, " +
+            "approved_count = store_sales_rollups.approved_count + EXCLUDED.approved_count, " +
+            "approved_amount = store_sales_rollups.approved_amount + EXCLUDED.approved_amount, " +
+            "failed_count = store_sales_rollups.failed_count + EXCLUDED.failed_count, " +
+            "failed_amount = store_sales_rollups.failed_amount + EXCLUDED.failed_amount, " +
+            "updated_at = now()", nativeQuery = true)
+    int increment(@Param("storeId") Long storeId,
+                  @Param("granularity") String granularity,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("orderCount") long orderCount,
+                  @Param("grossAmount") BigDecimal grossAmount,
+                  @Param("approvedCount") long approvedCount,
+                  @Param("approvedAmount") BigDecimal approvedAmount,
+                  @Param("failedCount") long failedCount,
+                  @Param("failedAmount") BigDecimal failedAmount);
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) AS orderCount, " +
+            "COALESCE(SUM(r.grossAmount), 0) AS grossAmount, " +
+            "COALESCE(SUM(r.approvedCount), 0) AS approvedCount, " +
+            "COALESCE(SUM(r.approvedAmount), 0) AS approvedAmount, " +
+            "COALESCE(SUM(r.failedCount), 0) AS failedCount, " +
+            "COALESCE(SUM(r.failedAmount), 0) AS failedAmount " +
+            "FROM StoreSalesRollup r " +
+            "WHERE r.storeId = :storeId AND r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    RollupTotals sumRange(@Param("storeId") Long storeId,
+                          @Param("granularity") String granularity,
+                          @Param("from") LocalDateTime from,
+                          @Param("to") LocalDateTime to);
+
+    interface RollupTotals {
+        Long getOrderCount();
+        BigDecimal getGrossAmount();
+        Long getApprovedCount();
+        BigDecimal getApprovedAmount();
+        Long getFailedCount();
+        BigDecimal getFailedAmount();
+    }
+}
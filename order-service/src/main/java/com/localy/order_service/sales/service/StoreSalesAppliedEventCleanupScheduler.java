@@ -0,0 +1,71 @@
+package com.localy.order_service.sales.service;
+
+import com.localy.order_service.config.sharding.OrderShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// 매출 집계 반영 기록(store_sales_applied_events) 중 보관 기간이 지난 것을 주기적으로 삭제
+// 반영 기록은 같은 이벤트의 재전송/늦은 결제 결과를 걸러내는 용도라 주문 하나당 며칠이면 충분하고,
+// 삭제하지 않으면 주문 수만큼 계속 늘어남
+@Component
+@ConditionalOnProperty(name = "order.sales.applied-cleanup-enabled", havingValue = "true", matchIfMissing = true)
+public class StoreSalesAppliedEventCleanupScheduler {
+
+    private final StoreSalesRollupService storeSalesRollupService;
+    private final OrderShardRouter orderShardRouter;
+    private final Counter rowsDeleted;
+
+    @Value("${order.sales.applied-retention-days:30}")
+    private long retentionDays;
+
+    @Value("${order.sales.applied-cleanup-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${order.sales.applied-cleanup-max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    public StoreSalesAppliedEventCleanupScheduler(StoreSalesRollupService storeSalesRollupService,
+                                                  OrderShardRouter orderShardRouter,
+                                                  MeterRegistry meterRegistry) {
+        this.storeSalesRollupService = storeSalesRollupService;
+        this.orderShardRouter = orderShardRouter;
+        this.rowsDeleted = Counter.builder("orders.sales.applied.events.deleted")
+                .description("보관 기간이 지나 삭제한 매출 집계 반영 기록 수")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${order.sales.applied-cleanup-initial-delay-ms:120000}",
+            fixedDelayString = "${order.sales.applied-cleanup-fixed-delay-ms:3600000}")
+    public void purgeExpiredAppliedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        for (int shard = 0; shard < orderShardRouter.shardCount(); shard++) {
+            final int target = shard;
+            orderShardRouter.runOnShard(target, () -> purgeShard(target, cutoff));
+        }
+    }
+
+    private void purgeShard(int shard, LocalDateTime cutoff) {
+        long total = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int deleted = storeSalesRollupService.purgeAppliedEvents(cutoff, batchSize);
+                if (deleted == 0) {
+                    break;
+                }
+                rowsDeleted.increment(deleted);
+                total += deleted;
+            }
+            if (total > 0) {
+                System.out.println(String.format("--- StoreSalesAppliedEventCleanupScheduler: 샤드 %d 에서 반영 기록 %d건 삭제 (기준 시각: %s) ---", shard, total, cutoff));
+            }
+        } catch (Exception e) {
+            System.err.println("--- StoreSalesAppliedEventCleanupScheduler: 샤드 " + shard + " 반영 기록 삭제 중 오류 - " + e.getMessage() + " ---");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.localy.order_service.sales.service;
+
+// 주문 하나의 상태 변경이 매출 집계에 더하는 건수 (금액 = 건수 x 주문 금액)
+// 결제 결과는 주문마다 처음 반영된 하나만 집계 (만료된 주문에 늦게 온 승인은 환불되고 주문은 만료로 남음)
+public record StoreSalesDelta(long orderCount, long approvedCount, long failedCount) {
+
+    public static final String APPROVED = "APPROVED";
+    public static final String FAILED = "FAILED";
+
+    public static StoreSalesDelta placed() {
+        return new StoreSalesDelta(1, 0, 0);
+    }
+
+    public static StoreSalesDelta outcome(String outcome) {
+        return new StoreSalesDelta(0, count(outcome, APPROVED), count(outcome, FAILED));
+    }
+
+    // 주문 상태 -> 집계할 결제 결과 (집계 대상이 아니면 null)
+    public static String outcomeOf(String orderStatus) {
+        if ("PAYMENT_COMPLETED".equals(orderStatus)) {
+            return APPROVED;
+        }
+        if ("PAYMENT_FAILED".equals(orderStatus) || "PAYMENT_EXPIRED".equals(orderStatus)) {
+            return FAILED; // 결제 결과 없이 만료된 주문도 실패로 집계
+        }
+        return null;
+    }
+
+    private static long count(String outcome, String expected) {
+        return expected.equals(outcome) ? 1 : 0;
+    }
+}
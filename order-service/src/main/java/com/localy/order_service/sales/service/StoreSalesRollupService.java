@@ -0,0 +1,117 @@
+package com.localy.order_service.sales.service;
+
+import com.localy.order_service.order.event.OrderStatusChangedEvent;
+import com.localy.order_service.sales.domain.StoreSalesRollup;
+import com.localy.order_service.sales.dto.StoreSalesSummaryDto;
+import com.localy.order_service.sales.repository.StoreSalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Service
+@RequiredArgsConstructor
+public class StoreSalesRollupService {
+
+    private final StoreSalesRollupRepository storeSalesRollupRepository;
+
+    // 주문 생성/결제 결과 처리와 같은 트랜잭션 안에서 동기적으로 집계를 갱신
+    // (주문 변경이 롤백되면 집계도 함께 롤백되고, 같은 이벤트가 다시 와도 한 번만 반영됨)
+    // 결제 결과는 주문마다 하나만 집계 (결제 결과는 PENDING 주문에만 반영되므로 주문의 결과는 바뀌지 않음)
+    @EventListener
+    @Transactional
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStoreId() == null || event.getOrderDate() == null) {
+            return;
+        }
+        StoreSalesDelta delta;
+        if (event.getPreviousStatus() == null && "PENDING".equals(event.getOrderStatus())) {
+            if (storeSalesRollupRepository.markApplied(event.getOrderId() + ":PLACED") == 0) {
+                System.out.println("--- StoreSalesRollupService: 이미 집계에 반영된 이벤트 무시 (OrderID: " + event.getOrderId() + ", PLACED) ---");
+                return;
+            }
+            delta = StoreSalesDelta.placed();
+        } else {
+            String outcome = StoreSalesDelta.outcomeOf(event.getOrderStatus());
+            if (outcome == null) {
+                return;
+            }
+            if (storeSalesRollupRepository.markApplied(event.getOrderId() + ":OUTCOME") == 0) {
+                System.out.println("--- StoreSalesRollupService: 이미 집계에 반영된 이벤트 무시 (OrderID: " + event.getOrderId() + ", " + outcome + ") ---");
+                return;
+            }
+            delta = StoreSalesDelta.outcome(outcome);
+        }
+
+        BigDecimal amount = event.getTotalAmount() != null ? event.getTotalAmount() : BigDecimal.ZERO;
+        // 결제 결과도 주문 시각의 구간에 합산 (구간별 승인/실패 비율이 의미 있도록)
+        LocalDateTime hourBucket = event.getOrderDate().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime dayBucket = event.getOrderDate().truncatedTo(ChronoUnit.DAYS);
+        for (String granularity : new String[]{StoreSalesRollup.HOUR, StoreSalesRollup.DAY}) {
+            storeSalesRollupRepository.increment(
+                    event.getStoreId(),
+                    granularity,
+                    StoreSalesRollup.HOUR.equals(granularity) ? hourBucket : dayBucket,
+                    delta.orderCount(), amount.multiply(BigDecimal.valueOf(delta.orderCount())),
+                    delta.approvedCount(), amount.multiply(BigDecimal.valueOf(delta.approvedCount())),
+                    delta.failedCount(), amount.multiply(BigDecimal.valueOf(delta.failedCount())));
+        }
+    }
+
+    // 보관 기간이 지난 반영 기록 삭제 (배치마다 별도 트랜잭션)
+    @Transactional
+    public int purgeAppliedEvents(LocalDateTime cutoff, int batchSize) {
+        return storeSalesRollupRepository.deleteAppliedBefore(cutoff, batchSize);
+    }
+
+    // 임의 구간의 매출 합계: 구간 안에 완전히 포함된 날짜는 일 단위 행, 앞뒤 자투리는 시간 단위 행을 합산
+    @Transactional(readOnly = true)
+    public StoreSalesSummaryDto summarize(Long storeId, LocalDateTime from, LocalDateTime to) {
+        if (storeId == null) {
+            throw new IllegalArgumentException("가게 ID는 필수입니다.");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("조회 시작 시각은 종료 시각보다 앞서야 합니다.");
+        }
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS);
+        if (end.isBefore(to)) {
+            end = end.plusHours(1);
+        }
+        LocalDateTime firstFullDay = start.truncatedTo(ChronoUnit.DAYS);
+        if (firstFullDay.isBefore(start)) {
+            firstFullDay = firstFullDay.plusDays(1);
+        }
+        LocalDateTime lastFullDayEnd = end.truncatedTo(ChronoUnit.DAYS);
+
+        StoreSalesSummaryDto summary = new StoreSalesSummaryDto();
+        summary.setStoreId(storeId);
+        summary.setFrom(start);
+        summary.setTo(end);
+        if (firstFullDay.isBefore(lastFullDayEnd)) {
+            add(summary, storeId, StoreSalesRollup.HOUR, start, firstFullDay);
+            add(summary, storeId, StoreSalesRollup.DAY, firstFullDay, lastFullDayEnd);
+            add(summary, storeId, StoreSalesRollup.HOUR, lastFullDayEnd, end);
+        } else {
+            add(summary, storeId, StoreSalesRollup.HOUR, start, end);
+        }
+        return summary;
+    }
+
+    private void add(StoreSalesSummaryDto summary, Long storeId, String granularity, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        StoreSalesRollupRepository.RollupTotals totals = storeSalesRollupRepository.sumRange(storeId, granularity, from, to);
+        summary.setOrderCount(summary.getOrderCount() + totals.getOrderCount());
+        summary.setGrossAmount(summary.getGrossAmount().add(totals.getGrossAmount()));
+        summary.setApprovedCount(summary.getApprovedCount() + totals.getApprovedCount());
+        summary.setApprovedAmount(summary.getApprovedAmount().add(totals.getApprovedAmount()));
+        summary.setFailedCount(summary.getFailedCount() + totals.getFailedCount());
+        summary.setFailedAmount(summary.getFailedAmount().add(totals.getFailedAmount()));
+    }
+}
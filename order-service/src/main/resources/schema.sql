@@ -0,0 +1,13 @@
+-- JPA 어노테이션으로 표현할 수 없는 DDL (spring.sql.init, Hibernate DDL 이후 실행)
+
+-- 만료 스위퍼용 PENDING 주문 부분 인덱스 (완료된 주문은 인덱스에 포함되지 않음)
+CREATE INDEX IF NOT EXISTS idx_orders_pending_created_at ON orders (created_at) WHERE order_status = 'PENDING';
+
+-- 주문 ID 시퀀스 (config.sharding.OrderShardKeys: 주문 ID = (시퀀스 << 10) | 버킷)
+-- 샤드 N 은 START WITH 64000000 + N 으로 생성되며, 모든 샤드가 64씩 증가하므로 샤드 간 값이 겹치지 않음
+CREATE SEQUENCE IF NOT EXISTS orders_shard_id_seq START WITH 64000000 INCREMENT BY 64;
+
+-- 주문 항목 ID 시퀀스 (IDENTITY 에서 변경, 50개씩 할당)
+-- 기존 IDENTITY 로 발급된 ID 와 겹치지 않도록 현재 최대 ID 이후로 이동 (값은 줄어들지 않음)
+CREATE SEQUENCE IF NOT EXISTS order_line_items_seq INCREMENT BY 50;
+SELECT setval('order_line_items_seq', GREATEST(nextval('order_line_items_seq'), (SELECT COALESCE(MAX(order_item_id), 0) + 50 FROM order_line_items)));
@@ -0,0 +1,113 @@
+package com.localy.order_service.config.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderShardRouterTest {
+
+	private static final int SHARDS = 4;
+
+	// 버킷 % 4 로 배정, moving 이면 모든 버킷이 이동 중
+	private static class FixedDirectory extends ShardDirectory {
+		private final boolean moving;
+
+		FixedDirectory(boolean moving) {
+			super(null, SHARDS);
+			this.moving = moving;
+		}
+
+		@Override
+		public int shardOf(int bucket) {
+			return bucket % SHARDS;
+		}
+
+		@Override
+		public boolean isMoving(int bucket) {
+			return moving;
+		}
+	}
+
+	private OrderShardRouter router;
+
+	@SuppressWarnings("unchecked")
+	private OrderShardRouter router(boolean moving) {
+		ObjectProvider<ShardDirectory> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable()).thenReturn(new FixedDirectory(moving));
+		router = new OrderShardRouter(provider, 1);
+		return router;
+	}
+
+	@AfterEach
+	void tearDown() {
+		router.shutdown();
+	}
+
+	@Test
+	void legacyOrderIdRoutesToShardZero() {
+		OrderShardRouter router = router(false);
+		long legacyOrderId = 12_345; // 하위 10비트 = 57 -> 버킷으로 읽으면 샤드 1
+
+		assertTrue(OrderShardKeys.isLegacyOrderId(legacyOrderId));
+		assertEquals(OrderShardKeys.LEGACY_SHARD, router.shardOfOrder(legacyOrderId));
+		assertEquals(OrderShardKeys.LEGACY_SHARD, router.shardOfOrder(OrderShardKeys.FIRST_SHARDED_ORDER_ID - 1));
+	}
+
+	@Test
+	void shardedOrderIdRoutesByBucket() {
+		OrderShardRouter router = router(false);
+		long orderId = OrderShardKeys.composeOrderId(OrderShardKeys.SEQUENCE_START + 1, 57);
+
+		assertFalse(OrderShardKeys.isLegacyOrderId(orderId));
+		assertEquals(1, router.shardOfOrder(orderId));
+	}
+
+	@Test
+	void legacyOrderIsNeverMovingAndWritesDoNotWait() {
+		OrderShardRouter router = router(true);
+		long legacyOrderId = 12_345;
+		AtomicInteger ranOn = new AtomicInteger(-1);
+
+		assertFalse(router.isOrderMoving(legacyOrderId));
+		router.runOnOrderShardForWrite(legacyOrderId, () -> ranOn.set(ShardContext.current()));
+		assertEquals(OrderShardKeys.LEGACY_SHARD, ranOn.get());
+
+		long shardedOrderId = OrderShardKeys.composeOrderId(OrderShardKeys.SEQUENCE_START + 1, 57);
+		assertTrue(router.isOrderMoving(shardedOrderId));
+		assertThrows(ShardMovingException.class, () -> router.runOnOrderShardForWrite(shardedOrderId, () -> { }));
+	}
+
+	@Test
+	void userOrderListIncludesLegacyOrdersFromShardZero() {
+		OrderShardRouter router = router(false);
+		String userId = userOnShard(router, 2);
+		long newOrderId = OrderShardKeys.composeOrderId(OrderShardKeys.SEQUENCE_START + 2, OrderShardKeys.bucketOfUser(userId));
+		long legacyOrderId = 12_345;
+		long copiedDuringMove = OrderShardKeys.composeOrderId(OrderShardKeys.SEQUENCE_START, 0);
+
+		List<Long> orderIds = router.onUserShardWithLegacy(userId,
+				() -> ShardContext.current() == 2 ? List.of(newOrderId) : List.of(legacyOrderId, copiedDuringMove),
+				orderId -> orderId);
+
+		assertEquals(List.of(newOrderId, legacyOrderId), orderIds);
+	}
+
+	private static String userOnShard(OrderShardRouter router, int shard) {
+		for (int i = 0; ; i++) {
+			if (router.shardOfUser("user-" + i) == shard) {
+				return "user-" + i;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.localy.order_service.order.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+	private final IdempotencyStore store = new IdempotencyStore(60, 2, 1000);
+
+	@Test
+	void sameKeyReplaysFirstResult() {
+		AtomicInteger calls = new AtomicInteger();
+
+		IdempotencyStore.IdempotentResult<Integer> first = store.execute("u1:k", "body", calls::incrementAndGet);
+		IdempotencyStore.IdempotentResult<Integer> second = store.execute("u1:k", "body", calls::incrementAndGet);
+
+		assertEquals(1, calls.get());
+		assertFalse(first.isReplayed());
+		assertTrue(second.isReplayed());
+		assertEquals(first.getValue(), second.getValue());
+	}
+
+	@Test
+	void sameKeyWithDifferentBodyConflicts() {
+		store.execute("u1:k", "body", () -> 1);
+
+		assertThrows(IdempotencyConflictException.class, () -> store.execute("u1:k", "other body", () -> 2));
+	}
+
+	@Test
+	void failedRequestReleasesKey() {
+		assertThrows(IllegalArgumentException.class, () -> store.execute("u1:k", "body", () -> {
+			throw new IllegalArgumentException("잘못된 요청");
+		}));
+
+		IdempotencyStore.IdempotentResult<Integer> retry = store.execute("u1:k", "body", () -> 7);
+
+		assertFalse(retry.isReplayed());
+		assertEquals(7, (int) retry.getValue());
+	}
+
+	@Test
+	void inFlightEntryIsNotEvicted() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		CompletableFuture<IdempotencyStore.IdempotentResult<Integer>> inFlight = CompletableFuture.supplyAsync(() ->
+				store.execute("u1:slow", "body", () -> {
+					started.countDown();
+					await(release);
+					return calls.incrementAndGet();
+				}));
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+
+		// 최대 2개를 넘도록 완료된 항목을 채움 -> 처리 중인 가장 오래된 항목 대신 완료된 항목이 제거되어야 함
+		store.execute("u1:a", "body", () -> 1);
+		store.execute("u1:b", "body", () -> 2);
+		store.execute("u1:c", "body", () -> 3);
+		release.countDown();
+		inFlight.get(1, TimeUnit.SECONDS);
+
+		IdempotencyStore.IdempotentResult<Integer> retry = store.execute("u1:slow", "body", calls::incrementAndGet);
+		assertTrue(retry.isReplayed());
+		assertEquals(1, calls.get());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
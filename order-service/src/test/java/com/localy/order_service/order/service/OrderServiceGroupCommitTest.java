@@ -0,0 +1,98 @@
+package com.localy.order_service.order.service;
+
+import com.localy.order_service.order.domain.Order;
+import com.localy.order_service.order.message.OrderMessage;
+import com.localy.order_service.order.message.dto.OrderCreatedEvent;
+import com.localy.order_service.order.pricing.MenuPriceCache;
+import com.localy.order_service.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 그룹 커밋으로 여러 주문을 한 트랜잭션에 저장해도 주문마다 주문 생성 이벤트가 커밋 후 한 건씩 발행되는지 확인
+// (트랜잭션 동기화만 켜고 커밋/롤백 콜백을 직접 호출)
+class OrderServiceGroupCommitTest {
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final StreamBridge streamBridge = mock(StreamBridge.class);
+	private final OrderService orderService = new OrderService(orderRepository,
+			new OrderMessage(streamBridge, new SimpleMeterRegistry()),
+			mock(OrderArchiveService.class), mock(ApplicationEventPublisher.class), mock(MenuPriceCache.class));
+
+	@BeforeEach
+	void setUp() {
+		AtomicLong ids = new AtomicLong(1000);
+		when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+			Order order = invocation.getArgument(0);
+			order.setOrderId(ids.incrementAndGet());
+			return order;
+		});
+		when(streamBridge.send(eq(OrderMessage.BINDING), any())).thenReturn(true);
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void publishesOneEventPerOrderAfterCommit() {
+		List<Order> saved = orderService.saveNewOrders(orders(5));
+		verify(streamBridge, never()).send(any(), any()); // 커밋 전에는 발행하지 않음
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+		verify(streamBridge, times(5)).send(eq(OrderMessage.BINDING), events.capture());
+		List<Long> publishedIds = events.getAllValues().stream().map(event -> ((OrderCreatedEvent) event).getOrderId()).toList();
+		assertEquals(saved.stream().map(Order::getOrderId).toList(), publishedIds);
+	}
+
+	@Test
+	void rolledBackBatchPublishesNothing() {
+		orderService.saveNewOrders(orders(5));
+
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		verify(streamBridge, never()).send(any(), any());
+	}
+
+	private static List<Order> orders(int count) {
+		List<Order> orders = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			orders.add(Order.builder()
+					.userId("user-" + i)
+					.storeId(1L)
+					.orderDate(LocalDateTime.now())
+					.orderStatus("PENDING")
+					.totalAmount(new BigDecimal("10000"))
+					.createdAt(LocalDateTime.now())
+					.build());
+		}
+		return orders;
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.localy.order_service.order.timeout;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+	// level 0: 10ms x 8 = 80ms, level 1: 80ms x 8 = 640ms, level 2: 640ms x 8 = 5120ms
+	private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 8, 3, 0);
+
+	@Test
+	void expiresAtDeadlineRoundedUpToTick() {
+		List<Long> expired = new ArrayList<>();
+		wheel.add(1, 25);
+
+		wheel.advance(20, expired::add);
+		assertTrue(expired.isEmpty());
+
+		wheel.advance(30, expired::add);
+		assertEquals(List.of(1L), expired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cascadesFromUpperLevelsWithoutExpiringEarly() {
+		List<Long> expired = new ArrayList<>();
+		wheel.add(1, 1000); // level 2 에 들어갔다가 level 1, level 0 으로 내려와야 함
+		wheel.add(2, 300); // level 1
+
+		wheel.advance(290, expired::add);
+		assertTrue(expired.isEmpty());
+		wheel.advance(300, expired::add);
+		assertEquals(List.of(2L), expired);
+
+		wheel.advance(990, expired::add);
+		assertEquals(List.of(2L), expired);
+		wheel.advance(1000, expired::add);
+		assertEquals(List.of(2L, 1L), expired);
+	}
+
+	@Test
+	void timerBeyondTopLevelRangeExpiresOnTime() {
+		List<Long> expired = new ArrayList<>();
+		wheel.add(1, 12_345);
+
+		wheel.advance(12_340, expired::add);
+		assertTrue(expired.isEmpty());
+		wheel.advance(12_350, expired::add);
+		assertEquals(List.of(1L), expired);
+	}
+
+	@Test
+	void pastDeadlineExpiresOnNextAdvance() {
+		List<Long> expired = new ArrayList<>();
+		wheel.advance(500, expired::add);
+		wheel.add(1, 100);
+
+		wheel.advance(500, expired::add);
+		assertEquals(List.of(1L), expired);
+	}
+
+	@Test
+	void everyTimerExpiresOnceWithinOneTickOfItsDeadline() {
+		Random random = new Random(42);
+		Map<Long, Long> deadlines = new HashMap<>();
+		for (long id = 0; id < 5_000; id++) {
+			long deadline = random.nextInt(20_000);
+			deadlines.put(id, deadline);
+			wheel.add(id, deadline);
+		}
+		Map<Long, Long> expiredAt = new HashMap<>();
+		for (long now = 0; now <= 20_020; now += 7) { // tick 과 맞지 않는 간격으로 진행
+			final long at = now;
+			wheel.advance(now, id -> assertEquals(null, expiredAt.put(id, at)));
+		}
+
+		assertEquals(deadlines.size(), expiredAt.size());
+		assertEquals(0, wheel.size());
+		deadlines.forEach((id, deadline) -> {
+			long at = expiredAt.get(id);
+			assertTrue(at >= deadline, "timer " + id + " expired early");
+			assertTrue(at < deadline + 10 + 7, "timer " + id + " expired late");
+		});
+	}
+
+}
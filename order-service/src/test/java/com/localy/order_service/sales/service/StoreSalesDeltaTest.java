@@ -0,0 +1,29 @@
+package com.localy.order_service.sales.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StoreSalesDeltaTest {
+
+	@Test
+	void outcomeIsCountedAsApprovedOrFailed() {
+		assertEquals(new StoreSalesDelta(0, 1, 0), StoreSalesDelta.outcome(StoreSalesDelta.APPROVED));
+		assertEquals(new StoreSalesDelta(0, 0, 1), StoreSalesDelta.outcome(StoreSalesDelta.FAILED));
+	}
+
+	@Test
+	void expiredOrderIsCountedAsFailed() {
+		assertEquals(new StoreSalesDelta(0, 0, 1), StoreSalesDelta.outcome(StoreSalesDelta.outcomeOf("PAYMENT_EXPIRED")));
+	}
+
+	@Test
+	void onlyPaymentResultsAreOutcomes() {
+		assertEquals(StoreSalesDelta.FAILED, StoreSalesDelta.outcomeOf("PAYMENT_FAILED"));
+		assertNull(StoreSalesDelta.outcomeOf("PENDING"));
+		assertNull(StoreSalesDelta.outcomeOf(null));
+		assertEquals(new StoreSalesDelta(1, 0, 0), StoreSalesDelta.placed());
+	}
+
+}
@@ -2,8 +2,10 @@ package com.localy.payment_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // 원장 스냅샷 (LedgerSnapshotJob), 결제 엔진 스냅샷 (PaymentEngine)
 public class PaymentServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,55 @@
+package com.localy.payment_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+// JDBC 계측 설정
+// - DataSource 를 datasource-proxy 로 감싸서 SQL 실행 시간(jdbc.query), 요청당 SQL 개수, 느린 쿼리(바인드 파라미터 포함) 로그를 남김
+// - 레포지토리 메서드 지연(spring.data.repository.invocations)과 커넥션 풀 대기(hikaricp.connections.acquire)는
+//   액추에이터 기본 메트릭을 사용하고, application.yml 에서 히스토그램만 활성화
+@Configuration
+public class JdbcInstrumentationConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcInstrumentationDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.jdbc.slow-query-threshold-ms:200}") long slowQueryThresholdMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                SingletonSupplier<MeterRegistry> registry = SingletonSupplier.of(meterRegistry::getObject);
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new JdbcQueryMetricsListener(registry, beanName))
+                        .logSlowQueryBySlf4j(slowQueryThresholdMs, TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN)
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<JdbcStatementCountFilter> jdbcStatementCountFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.jdbc.statements-per-request-warn-threshold:20}") int warnThreshold) {
+        FilterRegistrationBean<JdbcStatementCountFilter> registration =
+                new FilterRegistrationBean<>(new JdbcStatementCountFilter(meterRegistry, warnThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
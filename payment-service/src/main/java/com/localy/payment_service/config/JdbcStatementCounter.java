@@ -0,0 +1,28 @@
+package com.localy.payment_service.config;
+
+// 현재 요청 스레드에서 실행된 SQL 문 개수 (N+1 등 요청당 과도한 쿼리 감지용)
+public final class JdbcStatementCounter {
+
+    private static final ThreadLocal<int[]> COUNTER = new ThreadLocal<>();
+
+    private JdbcStatementCounter() {
+    }
+
+    public static void start() {
+        COUNTER.set(new int[1]);
+    }
+
+    public static void increment(int statements) {
+        int[] counter = COUNTER.get();
+        if (counter != null) {
+            counter[0] += statements;
+        }
+    }
+
+    // 집계를 끝내고 현재까지의 개수를 반환 (start 하지 않은 스레드면 -1)
+    public static int stop() {
+        int[] counter = COUNTER.get();
+        COUNTER.remove();
+        return counter != null ? counter[0] : -1;
+    }
+}
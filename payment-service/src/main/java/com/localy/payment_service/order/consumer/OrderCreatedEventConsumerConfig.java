@@ -1,30 +1,312 @@
 package com.localy.payment_service.order.consumer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.localy.payment_service.order.consumer.dto.OrderCreatedEvent;
+import com.localy.payment_service.payment.engine.EngineOutcome;
+import com.localy.payment_service.payment.engine.PaymentEngine;
+import com.localy.payment_service.payment.inbox.PaymentInbox;
+import com.localy.payment_service.payment.message.PaymentResultPublisher;
+import com.localy.payment_service.payment.message.dto.PaymentResultEvent;
+import com.localy.payment_service.payment.repository.ProcessedOffsetRepository;
 import com.localy.payment_service.payment.service.PaymentProcessorService;
+import com.localy.payment_service.payment.service.PaymentStatusCache;
+import com.localy.payment_service.retry.NonBlockingRetryHandler;
+import com.localy.payment_service.retry.service.DeadLetterService;
+import com.localy.payment_service.virtualAcount.service.AccountDirectory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+// 주문 생성 이벤트 컨슈머
+// 역직렬화는 NonBlockingRetryHandler 에서 직접 하므로 (poison 레코드도 DLT 로 보내기 위해) 바인딩은 byte[] 로 받음
+// order-created -> order-created-retry-1 -> -retry-2 -> -retry-3 -> order-created-dlt
 @Configuration
 @RequiredArgsConstructor
 public class OrderCreatedEventConsumerConfig {
 
     private final PaymentProcessorService paymentProcessorService;
+    private final DeadLetterService deadLetterService;
+    private final ProcessedOffsetRepository processedOffsetRepository;
+    private final PaymentInbox paymentInbox;
+    private final AccountDirectory accountDirectory;
+    private final PaymentResultPublisher paymentResultPublisher;
+    private final PaymentStatusCache paymentStatusCache;
 
     @Bean
-    public Consumer<OrderCreatedEvent> orderCreatedConsumer() {
-        System.out.println("PaymentService: orderCreatedConsumer Consumer Bean 활성화됨"); // <-- Bean 활성화 로그 추가 (시작 시)
-        return event -> {
+    public NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler(
+            @Value("${spring.cloud.stream.bindings.orderCreatedConsumer-in-0.destination}") String topic,
+            @Value("${app.kafka.retry.delays-ms:1000,10000,60000}") List<Long> delaysMs,
+            ObjectMapper objectMapper, StreamBridge streamBridge, MeterRegistry meterRegistry) {
+        if (delaysMs.size() != 3) { // retry 바인딩(orderCreatedRetry1~3Consumer) 개수와 같아야 함
+            throw new IllegalArgumentException("app.kafka.retry.delays-ms 는 3개여야 합니다: " + delaysMs);
+        }
+        Counter singleProcessed = Counter.builder("payments.processed")
+                .description("처리한 주문 생성 이벤트 수 (rate = 초당 결제 수)")
+                .tag("mode", "single")
+                .register(meterRegistry);
+        return new NonBlockingRetryHandler<>("orderCreatedConsumer", topic, OrderCreatedEvent.class, event -> {
             // === 메시지 수신 로그 (역직렬화 성공 시 이 블록 실행됨) ===
             System.out.println("PaymentService: OrderCreatedEvent 메시지 수신! Order ID: " + event.getOrderId() + ", Total Amount: " + event.getTotalAmount()); // <-- 수신 로그 추가
-            // ======================
-            // 이제 이 아래에 paymentProcessorService 호출 로직이 있습니다.
+            if (event.getOrderId() == null || event.getTotalAmount() == null) {
+                throw new IllegalArgumentException("주문 ID 또는 주문 금액이 없는 주문 생성 이벤트입니다.");
+            }
             System.out.println("PaymentService: PaymentProcessorService::processOrderCreatedEvent 호출 시도"); // <-- 처리 메서드 호출 전 로그
             paymentProcessorService.processOrderCreatedEvent(event); // 메시지 처리 로직 호출
+            singleProcessed.increment();
             System.out.println("PaymentService: PaymentProcessorService::processOrderCreatedEvent 호출 완료"); // <-- 처리 메서드 호출 후 로그
+        }, delaysMs, objectMapper, streamBridge, meterRegistry);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> orderCreatedConsumer(NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler) {
+        System.out.println("PaymentService: orderCreatedConsumer Consumer Bean 활성화됨"); // <-- Bean 활성화 로그 추가 (시작 시)
+        return orderCreatedRetryHandler.mainConsumer();
+    }
+
+    // 배치 모드 (function.definition 에서 orderCreatedConsumer 대신 orderCreatedBatchConsumer 를 바인딩)
+    // 한 번의 poll 로 받은 레코드를 한 트랜잭션으로 결제하고, 배치가 실패하면 레코드별로 기존 경로(재시도/DLT 포함)로 처리
+    @Bean
+    public Consumer<Message<List<byte[]>>> orderCreatedBatchConsumer(NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler,
+                                                                     ObjectMapper objectMapper,
+                                                                     MeterRegistry meterRegistry) {
+        Consumer<Message<byte[]>> singleConsumer = orderCreatedRetryHandler.mainConsumer();
+        Counter batchProcessed = Counter.builder("payments.processed")
+                .description("처리한 주문 생성 이벤트 수 (rate = 초당 결제 수)")
+                .tag("mode", "batch")
+                .register(meterRegistry);
+        Counter batchFallbacks = Counter.builder("payments.batch.fallbacks")
+                .description("배치 실패로 이벤트별 처리로 넘긴 레코드 수")
+                .register(meterRegistry);
+        DistributionSummary batchSize = DistributionSummary.builder("payments.batch.size")
+                .description("한 트랜잭션으로 결제한 이벤트 수")
+                .register(meterRegistry);
+        Timer batchDuration = Timer.builder("payments.batch.duration")
+                .description("배치 하나를 결제/커밋하는 데 걸린 시간")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        return batch -> {
+            List<byte[]> payloads = batch.getPayload();
+            List<OrderCreatedEvent> events = new ArrayList<>(payloads.size());
+            List<byte[]> eventPayloads = new ArrayList<>(payloads.size());
+            for (byte[] payload : payloads) {
+                OrderCreatedEvent event = readEvent(objectMapper, payload);
+                if (event == null || event.getOrderId() == null || event.getTotalAmount() == null) {
+                    // 역직렬화 실패/필수 값 누락은 기존 경로에서 DLT 로 보냄
+                    singleConsumer.accept(MessageBuilder.withPayload(payload).build());
+                    continue;
+                }
+                events.add(event);
+                eventPayloads.add(payload);
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                paymentProcessorService.processOrderCreatedEvents(events);
+                batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batchSize.record(events.size());
+                batchProcessed.increment(events.size());
+            } catch (RuntimeException e) {
+                System.err.println("PaymentService: 배치 결제 실패 (" + events.size() + "건), 이벤트별로 다시 처리 - " + e.getMessage());
+                batchFallbacks.increment(events.size());
+                eventPayloads.forEach(payload -> singleConsumer.accept(MessageBuilder.withPayload(payload).build()));
+            }
         };
     }
-}
\ No newline at end of file
+
+    // 트랜잭션 모드 (function.definition 에서 orderCreatedConsumer 대신 orderCreatedTransactionalConsumer 를 바인딩)
+    // 바인더에 transaction-id-prefix 가 설정되면 레코드마다 Kafka 트랜잭션이 열리고,
+    // 이 스레드에서 발행한 결제 결과와 컨슈머 오프셋 커밋이 함께 커밋/중단됨
+    // 1. 결제 + processed_offsets 처리 위치 갱신을 한 DB 트랜잭션으로 커밋
+    // 2. 결과를 발행 (실패하면 예외로 Kafka 트랜잭션을 중단 -> 레코드를 다시 받음)
+    // 다시 받은 레코드는 메모리에 둔 파티션별 처리 위치보다 오프셋이 작으므로 결제 없이 저장된 결과만 다시 발행
+    // (처리 위치는 파티션마다 처음 한 번만 DB 에서 읽으므로 레코드마다 중복 확인 조회를 하지 않음)
+    @Bean
+    public Consumer<Message<byte[]>> orderCreatedTransactionalConsumer(NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler,
+                                                                       ObjectMapper objectMapper,
+                                                                       StreamBridge streamBridge,
+                                                                       MeterRegistry meterRegistry,
+                                                                       @Value("${spring.cloud.stream.bindings.orderCreatedTransactionalConsumer-in-0.group}") String consumerGroup) {
+        Consumer<Message<byte[]>> singleConsumer = orderCreatedRetryHandler.mainConsumer();
+        Map<String, Long> nextOffsets = new ConcurrentHashMap<>(); // "topic-partition" -> 다음에 처리할 오프셋
+        Counter processed = Counter.builder("payments.processed")
+                .description("처리한 주문 생성 이벤트 수 (rate = 초당 결제 수)")
+                .tag("mode", "transactional")
+                .register(meterRegistry);
+        Counter replays = Counter.builder("payments.exactly.once.replays")
+                .description("이미 결제된 레코드를 다시 받아 결과만 다시 발행한 수")
+                .register(meterRegistry);
+        Counter fallbacks = Counter.builder("payments.exactly.once.fallbacks")
+                .description("처리 실패로 재시도/DLT 경로로 넘긴 레코드 수")
+                .register(meterRegistry);
+        return message -> {
+            OrderCreatedEvent event = readEvent(objectMapper, message.getPayload());
+            String topic = NonBlockingRetryHandler.headerAsString(message, KafkaHeaders.RECEIVED_TOPIC);
+            Integer partition = message.getHeaders().get(KafkaHeaders.RECEIVED_PARTITION, Integer.class);
+            Long offset = NonBlockingRetryHandler.headerAsLong(message, KafkaHeaders.OFFSET);
+            if (event == null || event.getOrderId() == null || event.getTotalAmount() == null
+                    || topic == null || partition == null || offset == null) {
+                singleConsumer.accept(message); // 역직렬화 실패/필수 값 누락은 기존 경로에서 DLT 로 보냄
+                return;
+            }
+            String partitionKey = topic + "-" + partition;
+            long nextOffset = nextOffsets.computeIfAbsent(partitionKey, key ->
+                    processedOffsetRepository.findNextOffset(consumerGroup, topic, partition).orElse(0L));
+
+            PaymentResultEvent result;
+            if (offset < nextOffset) {
+                result = paymentProcessorService.findPaymentResult(event.getOrderId());
+                replays.increment();
+            } else {
+                try {
+                    result = paymentProcessorService.processOrderCreatedEventOnce(event, consumerGroup, topic, partition, offset);
+                } catch (RuntimeException e) {
+                    // DB 트랜잭션은 롤백됐으므로 기존 경로로 다시 처리 (실패하면 retry 토픽/DLT 로 이동, 같은 Kafka 트랜잭션)
+                    System.err.println("PaymentService: 트랜잭션 모드 결제 실패, 기존 경로로 처리 - 주문 ID: " + event.getOrderId() + " - " + e.getMessage());
+                    fallbacks.increment();
+                    singleConsumer.accept(message);
+                    return;
+                }
+                nextOffsets.merge(partitionKey, offset + 1, Math::max);
+                processed.increment();
+            }
+            if (result != null && !streamBridge.send(PaymentResultPublisher.BINDING, result)) {
+                throw new IllegalStateException("결제 결과 발행 실패 - 주문 ID: " + event.getOrderId());
+            }
+        };
+    }
+
+    // 엔진 모드 (function.definition 에서 orderCreatedEngineConsumer 를 바인딩 + payment.engine.enabled=true)
+    // poll 한 배치의 주문을 모두 엔진에 넘긴 뒤 한꺼번에 기다림 (샤드가 여러 명령을 한 번의 저널 force 로 처리하도록)
+    // 저널에 남은 결과만 발행하고, 모두 끝나야 배치 오프셋이 커밋됨
+    // 엔진에 넘기기 전에 결제 기록을 선점 (claimEnginePayments): 이미 끝난 결제 기록이 있는 주문은 엔진에 넘기지 않고 저장된 결과만 발행
+    // 실패하면 배치 전체를 다시 받음: 엔진이 처리한 주문은 샤드의 주문 맵이 처음 결과를 돌려주므로 두 번 결제되지 않음
+    // (기존 DB 경로로 넘기면 엔진과 DB 가 같은 계좌를 따로 차감하게 되므로 넘기지 않음)
+    @Bean
+    public Consumer<Message<List<byte[]>>> orderCreatedEngineConsumer(NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler,
+                                                                      ObjectMapper objectMapper,
+                                                                      MeterRegistry meterRegistry,
+                                                                      ObjectProvider<PaymentEngine> paymentEngineProvider) {
+        Consumer<Message<byte[]>> singleConsumer = orderCreatedRetryHandler.mainConsumer();
+        Counter processed = Counter.builder("payments.processed")
+                .description("처리한 주문 생성 이벤트 수 (rate = 초당 결제 수)")
+                .tag("mode", "engine")
+                .register(meterRegistry);
+        Timer batchDuration = Timer.builder("payments.engine.batch.duration")
+                .description("배치 하나를 엔진에 넘기고 저널 반영까지 기다린 시간")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        return batch -> {
+            PaymentEngine engine = paymentEngineProvider.getIfAvailable();
+            if (engine == null) {
+                throw new IllegalStateException("orderCreatedEngineConsumer 는 payment.engine.enabled=true 로 실행해야 합니다.");
+            }
+            List<OrderCreatedEvent> events = new ArrayList<>(batch.getPayload().size());
+            for (byte[] payload : batch.getPayload()) {
+                OrderCreatedEvent event = readEvent(objectMapper, payload);
+                if (event == null || event.getOrderId() == null || event.getTotalAmount() == null) {
+                    singleConsumer.accept(MessageBuilder.withPayload(payload).build()); // DLT 경로
+                    continue;
+                }
+                events.add(event);
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            // 엔진 도입 전, DB 경로, 또는 이미 반영된 엔진 결제는 선점되지 않음 -> 저장된 결과만 다시 발행
+            // (Bloom filter 는 이 인스턴스가 최근에 본 결제만 알기 때문에 차감 전 확인은 결제 기록 선점으로)
+            // 엔진이 나타낼 수 없는 금액(소수점 셋째 자리 이하)은 엔진에 넘기지 않고 아래에서 원래 금액으로 거절 기록
+            Set<Long> claimed = paymentProcessorService.claimEnginePayments(events.stream()
+                    .filter(event -> PaymentEngine.isRepresentable(event.getTotalAmount()))
+                    .toList());
+            Map<String, Long> customerAccountIds = accountDirectory.customerAccountIds(
+                    events.stream().map(OrderCreatedEvent::getUserId).collect(Collectors.toSet()));
+            Map<Long, Long> storeAccountIds = accountDirectory.storeAccountIds(
+                    events.stream().map(OrderCreatedEvent::getStoreId).collect(Collectors.toSet()));
+            List<CompletableFuture<EngineOutcome>> futures = new ArrayList<>(events.size());
+            for (OrderCreatedEvent event : events) {
+                futures.add(claimed.contains(event.getOrderId()) ? engine.pay(event.getOrderId(),
+                        customerAccountIds.get(event.getUserId()), storeAccountIds.get(event.getStoreId()), event.getTotalAmount()) : null);
+            }
+            for (int i = 0; i < events.size(); i++) {
+                OrderCreatedEvent event = events.get(i);
+                PaymentResultEvent result;
+                if (!PaymentEngine.isRepresentable(event.getTotalAmount())) {
+                    System.err.println("결제 엔진이 처리할 수 없는 금액, 거절: 주문 ID=" + event.getOrderId() + ", 주문 금액=" + event.getTotalAmount());
+                    result = paymentProcessorService.rejectPayment(event.getOrderId(), event.getUserId(), event.getTotalAmount());
+                } else if (futures.get(i) == null) {
+                    result = paymentProcessorService.findPaymentResult(event.getOrderId());
+                } else {
+                    EngineOutcome outcome = engine.await(futures.get(i)); // 실패하면 예외 -> 배치를 다시 받음
+                    paymentInbox.record(event.getOrderId());
+                    // payments 행은 비동기로 반영되므로 상태 조회 캐시는 저널에 남은 결과로 바로 채움
+                    paymentStatusCache.putAfterCommit(event.getOrderId(), event.getUserId(), outcome.paymentId(),
+                            outcome.approved() ? "APPROVED" : "REJECTED", event.getTotalAmount(),
+                            outcome.approved() ? LocalDateTime.now() : null);
+                    result = PaymentResultEvent.builder()
+                            .orderId(event.getOrderId())
+                            .paymentId(outcome.approved() ? outcome.paymentId() : null)
+                            .paymentStatus(outcome.approved() ? "APPROVED" : "REJECTED")
+                            .build();
+                }
+                if (result != null) {
+                    paymentResultPublisher.publishAfterCommit(result); // 트랜잭션 밖이므로 바로 버퍼로
+                }
+            }
+            batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            processed.increment(events.size());
+        };
+    }
+
+    private static OrderCreatedEvent readEvent(ObjectMapper objectMapper, byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, OrderCreatedEvent.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> orderCreatedRetry1Consumer(NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler) {
+        return orderCreatedRetryHandler.retryConsumer(1);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> orderCreatedRetry2Consumer(NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler) {
+        return orderCreatedRetryHandler.retryConsumer(2);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> orderCreatedRetry3Consumer(NonBlockingRetryHandler<OrderCreatedEvent> orderCreatedRetryHandler) {
+        return orderCreatedRetryHandler.retryConsumer(3);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> orderCreatedDltConsumer() {
+        return deadLetterService::store;
+    }
+}
@@ -0,0 +1,66 @@
+package com.localy.payment_service.order.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.payment_service.order.consumer.dto.PaymentRefundRequestedEvent;
+import com.localy.payment_service.payment.service.PaymentRefundService;
+import com.localy.payment_service.retry.NonBlockingRetryHandler;
+import com.localy.payment_service.retry.service.DeadLetterService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// 환불 요청 컨슈머 (주문 생성 이벤트 컨슈머와 같은 retry 토픽/DLT 구성)
+// payment-refund-requested -> payment-refund-requested-retry-1 -> -retry-2 -> -retry-3 -> payment-refund-requested-dlt
+@Configuration
+@RequiredArgsConstructor
+public class PaymentRefundConsumerConfig {
+
+    private final PaymentRefundService paymentRefundService;
+    private final DeadLetterService deadLetterService;
+
+    @Bean
+    public NonBlockingRetryHandler<PaymentRefundRequestedEvent> paymentRefundRetryHandler(
+            @Value("${spring.cloud.stream.bindings.paymentRefundConsumer-in-0.destination}") String topic,
+            @Value("${app.kafka.retry.delays-ms:1000,10000,60000}") List<Long> delaysMs,
+            ObjectMapper objectMapper, StreamBridge streamBridge, MeterRegistry meterRegistry) {
+        return new NonBlockingRetryHandler<>("paymentRefundConsumer", topic, PaymentRefundRequestedEvent.class, event -> {
+            System.out.println("PaymentService: 환불 요청 수신! 주문 ID: " + event.getOrderId() + ", 결제 ID: " + event.getPaymentId());
+            if (event.getOrderId() == null || event.getUserId() == null || event.getStoreId() == null) {
+                throw new IllegalArgumentException("주문 ID, 사용자 ID 또는 가게 ID 가 없는 환불 요청입니다.");
+            }
+            paymentRefundService.refund(event);
+        }, delaysMs, objectMapper, streamBridge, meterRegistry);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentRefundConsumer(NonBlockingRetryHandler<PaymentRefundRequestedEvent> paymentRefundRetryHandler) {
+        return paymentRefundRetryHandler.mainConsumer();
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentRefundRetry1Consumer(NonBlockingRetryHandler<PaymentRefundRequestedEvent> paymentRefundRetryHandler) {
+        return paymentRefundRetryHandler.retryConsumer(1);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentRefundRetry2Consumer(NonBlockingRetryHandler<PaymentRefundRequestedEvent> paymentRefundRetryHandler) {
+        return paymentRefundRetryHandler.retryConsumer(2);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentRefundRetry3Consumer(NonBlockingRetryHandler<PaymentRefundRequestedEvent> paymentRefundRetryHandler) {
+        return paymentRefundRetryHandler.retryConsumer(3);
+    }
+
+    @Bean
+    public Consumer<Message<byte[]>> paymentRefundDltConsumer() {
+        return deadLetterService::store;
+    }
+}
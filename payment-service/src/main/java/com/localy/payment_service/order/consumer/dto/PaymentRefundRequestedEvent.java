@@ -0,0 +1,21 @@
+package com.localy.payment_service.order.consumer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// 주문 서비스의 환불 요청 (만료 등으로 주문에 반영하지 못한 승인 결제)
+@Getter
+@Setter
+public class PaymentRefundRequestedEvent {
+    private Long orderId;
+    private Long paymentId;
+    private String userId;
+    private Long storeId;
+    private BigDecimal totalAmount;
+    private String orderStatus;
+
+    public PaymentRefundRequestedEvent() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.localy.payment_service.payment.controller;
+
+import com.localy.payment_service.payment.dto.PaymentReconciliationRequest;
+import com.localy.payment_service.payment.reconciliation.PaymentReconciliationStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// 주문 서비스 대사 작업용 결제 스트림 (Edge 에서 내부/관리자만 접근하도록 제한해야 함)
+@RestController
+@RequestMapping("/api/payments/admin/reconciliation")
+@RequiredArgsConstructor
+public class PaymentReconciliationController {
+
+    private final PaymentReconciliationStreamService paymentReconciliationStreamService;
+
+    // 범위 안의 결제를 order_id 순서로 NDJSON 스트림 (버킷 목록이 길어질 수 있어 POST 본문으로 받음)
+    @PostMapping(value = "/payments", produces = "application/x-ndjson")
+    public ResponseEntity<?> streamPayments(@RequestBody PaymentReconciliationRequest request) {
+        if (request.getFromOrderId() >= request.getToOrderId()) {
+            return ResponseEntity.badRequest().body("fromOrderId 는 toOrderId 보다 작아야 합니다.");
+        }
+        StreamingResponseBody body = out -> paymentReconciliationStreamService.stream(request, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+}
@@ -0,0 +1,33 @@
+package com.localy.payment_service.payment.controller;
+
+import com.localy.payment_service.payment.dto.PaymentStatusResponse;
+import com.localy.payment_service.payment.service.PaymentStatusCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+// 주문별 결제 상태 조회 (주문 서비스를 거치지 않고 결제 결과 확인)
+// 주문한 사용자(X-User-Id)만 조회할 수 있음, 다른 사용자의 주문은 없는 주문과 같이 404
+@RestController
+@RequestMapping("/api/payments/orders")
+@RequiredArgsConstructor
+public class PaymentStatusController {
+
+    private final PaymentStatusCache paymentStatusCache;
+
+    // 결제 기록이 아직 없으면 404 (처리 중이거나 없는 주문, 잠시 후 다시 조회)
+    @GetMapping("/{orderId}")
+    public ResponseEntity<?> getPaymentStatus(@RequestHeader("X-User-Id") String userId, @PathVariable Long orderId) {
+        try {
+            Optional<PaymentStatusResponse> status = paymentStatusCache.find(orderId, userId);
+            return status.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            System.err.println("getPaymentStatus error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("결제 상태 조회 중 오류 발생");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.localy.payment_service.payment.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 결제 엔진 샤드별로 DB 에 반영이 끝난 저널 위치 (payment.engine.EngineProjector 가 반영과 같은 트랜잭션에서 갱신)
+// 엔진을 다시 시작하면 이 위치 이후의 저널 레코드를 다시 반영
+@Getter
+@Setter
+@Entity
+@Table(name = "payment_engine_offsets")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EngineProjectionOffset {
+
+    @Id
+    private Integer shardId;
+
+    @Column(nullable = false)
+    private Long projectedSequence;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
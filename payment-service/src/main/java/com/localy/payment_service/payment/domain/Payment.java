@@ -22,8 +22,10 @@ public class Payment {
     @Column(nullable = false, unique = true)
     private Long orderId;
 
+    private String userId; // 주문한 사용자 (결제 상태 조회 권한 확인, 컬럼 추가 전 기록은 null)
+
     @Column(nullable = false)
-    private String paymentStatus; // PENDING, PROCESSING, APPROVED, REJECTED
+    private String paymentStatus; // PENDING, PROCESSING, APPROVED, REJECTED, REFUNDED
 
     private String transactionId;
 
@@ -0,0 +1,41 @@
+package com.localy.payment_service.payment.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 트랜잭션 모드 컨슈머가 결제와 같은 DB 트랜잭션에서 기록하는 파티션별 처리 위치
+// 결제는 커밋됐지만 Kafka 트랜잭션(결과 발행 + 오프셋 커밋)이 커밋되지 못한 레코드를 다시 받으면
+// next_offset 보다 작은 오프셋이므로 결제를 다시 하지 않고 저장된 결과만 다시 발행
+@Getter
+@Setter
+@Entity
+@Table(name = "processed_offsets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_processed_offsets_group_topic_partition",
+                columnNames = {"consumer_group", "topic", "partition_id"})
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedOffset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long processedOffsetId;
+
+    @Column(nullable = false)
+    private String consumerGroup;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private Integer partitionId;
+
+    @Column(nullable = false)
+    private Long nextOffset; // 이 파티션에서 다음에 처리할 오프셋 (마지막으로 처리한 오프셋 + 1)
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.localy.payment_service.payment.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// 대사(reconciliation)용 결제 스트림 요청: [fromOrderId, toOrderId) 범위,
+// buckets 가 있으면 order_id % bucketCount 가 buckets 에 있는 결제만 (주문 서비스 샤드 하나에 해당하는 주문)
+@Getter
+@Setter
+public class PaymentReconciliationRequest {
+    private long fromOrderId;
+    private long toOrderId;
+    private Integer bucketCount;
+    private List<Integer> buckets;
+}
@@ -0,0 +1,18 @@
+package com.localy.payment_service.payment.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 대사용 결제 한 건 (NDJSON 한 줄)
+@Getter
+@Builder
+public class PaymentReconciliationRow {
+    private Long orderId;
+    private Long paymentId;
+    private String paymentStatus;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+}
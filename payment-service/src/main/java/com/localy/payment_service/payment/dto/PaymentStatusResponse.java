@@ -0,0 +1,18 @@
+package com.localy.payment_service.payment.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 주문별 결제 상태 (GET /api/payments/orders/{orderId})
+@Getter
+@Builder
+public class PaymentStatusResponse {
+    private Long orderId;
+    private Long paymentId; // 승인된 결제만
+    private String paymentStatus; // APPROVED, REJECTED, REFUNDED
+    private BigDecimal totalAmount;
+    private LocalDateTime paymentDate;
+}
@@ -0,0 +1,30 @@
+package com.localy.payment_service.payment.engine;
+
+// 저널에 기록하는 명령 (고정 길이, 금액은 원 단위가 아닌 0.01 단위 long)
+// PAY: orderId, accountId = 손님 계좌 (없으면 0), counterAccountId = 가게 계좌 (없으면 0), amount = 결제 금액
+// DEPOSIT: accountId, amount = 입금액
+// REFUND: orderId, accountId = 손님 계좌, amount = 환불액 (주문마다 한 번만 입금, 주문 맵에 -orderId 로 기록)
+// LOAD: accountId, amount = 처음 다룰 때 DB 에서 읽은 잔액 (재생할 때 DB 를 다시 읽지 않도록 함께 기록)
+record EngineCommand(byte type, long sequence, long orderId, long accountId, long counterAccountId, long amount) {
+
+    static final byte PAY = 1;
+    static final byte DEPOSIT = 2;
+    static final byte LOAD = 3;
+    static final byte REFUND = 4;
+
+    static EngineCommand pay(long orderId, long customerAccountId, long storeAccountId, long amount) {
+        return new EngineCommand(PAY, 0, orderId, customerAccountId, storeAccountId, amount);
+    }
+
+    static EngineCommand deposit(long accountId, long amount) {
+        return new EngineCommand(DEPOSIT, 0, 0, accountId, 0, amount);
+    }
+
+    static EngineCommand refund(long orderId, long customerAccountId, long amount) {
+        return new EngineCommand(REFUND, 0, orderId, customerAccountId, 0, amount);
+    }
+
+    EngineCommand withSequence(long sequence) {
+        return new EngineCommand(type, sequence, orderId, accountId, counterAccountId, amount);
+    }
+}
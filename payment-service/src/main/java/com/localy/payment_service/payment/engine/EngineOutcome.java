@@ -0,0 +1,20 @@
+package com.localy.payment_service.payment.engine;
+
+// 명령 처리 결과 (저널에 기록되고 force 된 뒤에 돌려줌)
+// duplicate = 이미 처리한 주문을 다시 받은 경우 (저널에 다시 기록하지 않고 처음 결과를 돌려줌)
+public record EngineOutcome(int shard, long sequence, byte type, long orderId, long accountId, long counterAccountId,
+                            long amount, boolean approved, long balanceAfter, boolean duplicate) {
+
+    // 엔진 결제의 결제 ID (payments.payment_id 에 그대로 저장, DB IDENTITY 값과 겹치지 않도록 상위 비트에 샤드 번호)
+    public long paymentId() {
+        return paymentIdOf(shard, sequence);
+    }
+
+    static long paymentIdOf(int shard, long sequence) {
+        return ((shard + 1L) << 48) | sequence;
+    }
+
+    public boolean isPayment() {
+        return type == EngineCommand.PAY;
+    }
+}
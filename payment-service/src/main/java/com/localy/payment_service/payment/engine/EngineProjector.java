@@ -0,0 +1,236 @@
+package com.localy.payment_service.payment.engine;
+
+import com.localy.payment_service.payment.repository.EngineProjectionOffsetRepository;
+import com.localy.payment_service.retry.domain.DeadLetterMessage;
+import com.localy.payment_service.retry.repository.DeadLetterMessageRepository;
+import com.localy.payment_service.virtualAcount.service.LedgerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 샤드 하나의 처리 결과를 Postgres 에 비동기로 반영 (전용 스레드)
+// 배치마다 한 트랜잭션: payments 행 + 원장 이체 + payment_engine_offsets 반영 위치
+// 반영 위치가 같은 트랜잭션에서 바뀌므로, 중간에 죽어도 재시작 시 그 다음 저널 레코드부터 한 번씩만 다시 반영됨
+// DB 가 느리거나 내려가 있어도 결제 처리(저널)는 계속되고 반영 지연(payments.engine.projection.lag)만 늘어남
+// 같은 배치가 max-attempts 번 실패하면 한 건씩 반영해서, 혼자서도 반영되지 않는 결과만 dead_letter_messages(MANUAL)에
+// 남기고 건너뜀 (원장은 엔진 잔액과 어긋난 상태이므로 payments.engine.projection.dead.lettered 알림 후 수동 보정)
+final class EngineProjector {
+
+    // 엔진 컨슈머가 선점한 PROCESSING 행을 엔진 결과로 완성 (선점 전 저널에 남은 결과는 새 행으로 INSERT)
+    // 이미 끝난 결제 기록이 있으면 0행 -> 원장 이체를 기록하지 않음
+    private static final String UPSERT_PAYMENT_SQL =
+            "INSERT INTO payments (payment_id, order_id, user_id, payment_status, payment_date, total_amount, created_at) " +
+            "VALUES (?, ?, (SELECT user_id FROM \"virtual-account\" WHERE account_id = ?), ?, ?, ?, ?) " +
+            "ON CONFLICT (order_id) DO UPDATE SET payment_id = EXCLUDED.payment_id, payment_status = EXCLUDED.payment_status, " +
+            "payment_date = EXCLUDED.payment_date, user_id = COALESCE(payments.user_id, EXCLUDED.user_id) " +
+            "WHERE payments.payment_status = 'PROCESSING'"; // user_id: 선점할 때 넣은 주문 사용자, 없으면 손님 계좌의 사용자
+
+    static final String DEAD_LETTER_SOURCE = "payment-engine-projection"; // dead_letter_messages.original_topic (재발행 대상 아님)
+
+    private final int shardId;
+    private final LedgerService ledgerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EngineProjectionOffsetRepository offsetRepository;
+    private final DeadLetterMessageRepository deadLetterMessageRepository;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Counter projected;
+    private final Counter deadLettered;
+    private final Timer duration;
+    private final BlockingQueue<EngineOutcome> queue = new LinkedBlockingQueue<>();
+
+    private EngineShard shard;
+    private volatile boolean running;
+    private Thread thread;
+
+    EngineProjector(int shardId, LedgerService ledgerService, JdbcTemplate jdbcTemplate,
+                    TransactionTemplate transactionTemplate, EngineProjectionOffsetRepository offsetRepository,
+                    DeadLetterMessageRepository deadLetterMessageRepository, int batchSize, int maxAttempts,
+                    Counter projected, Counter deadLettered, Timer duration) {
+        this.shardId = shardId;
+        this.ledgerService = ledgerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.offsetRepository = offsetRepository;
+        this.deadLetterMessageRepository = deadLetterMessageRepository;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.projected = projected;
+        this.deadLettered = deadLettered;
+        this.duration = duration;
+    }
+
+    void start(EngineShard shard) {
+        this.shard = shard;
+        running = true;
+        thread = new Thread(this::run, "payment-engine-projector-" + shardId);
+        thread.start();
+    }
+
+    // EngineShard.OutcomeSink (샤드 스레드에서 호출, sequence 순서대로 들어옴)
+    void enqueue(List<EngineOutcome> outcomes) {
+        queue.addAll(outcomes);
+    }
+
+    int backlog() {
+        return queue.size();
+    }
+
+    // 남은 결과를 모두 반영한 뒤 종료 (샤드를 먼저 닫은 다음 호출)
+    void close() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        List<EngineOutcome> batch = new ArrayList<>(batchSize);
+        long backoffMs = 100;
+        int attempts = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            if (batch.isEmpty()) {
+                try {
+                    EngineOutcome first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                queue.drainTo(batch, batchSize - 1);
+            }
+            try {
+                if (attempts < maxAttempts) {
+                    Integer duplicates = duration.record(() -> transactionTemplate.execute(status -> write(batch)));
+                    shard.markProjected(batch.get(batch.size() - 1).sequence());
+                    projected.increment(batch.size());
+                    deadLettered.increment(duplicates != null ? duplicates : 0);
+                    batch.clear();
+                } else {
+                    projectIndividually(batch);
+                }
+                attempts = 0;
+                backoffMs = 100;
+            } catch (RuntimeException e) {
+                // 같은 배치를 다시 시도 (순서를 지켜야 반영 위치가 맞음)
+                attempts++;
+                System.err.println("--- EngineProjector " + shardId + ": DB 반영 실패 (" + attempts + "번째), " + backoffMs + "ms 후 재시도 - " + e.getMessage() + " ---");
+                if (!running) {
+                    System.err.println("--- EngineProjector " + shardId + ": 종료 중이라 남은 " + (batch.size() + queue.size())
+                            + "건은 다음 시작 때 저널에서 다시 반영 ---");
+                    return;
+                }
+                sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 10_000);
+            }
+        }
+    }
+
+    // 배치가 계속 실패할 때: 순서대로 한 건씩 반영하고, 혼자서도 실패하는 결과는 dead letter 로 남긴 뒤 반영 위치를 넘김
+    // dead letter 기록까지 실패하면 DB 자체의 문제로 보고 예외 -> 남은 결과를 그대로 두고 다시 시도
+    private void projectIndividually(List<EngineOutcome> batch) {
+        while (!batch.isEmpty()) {
+            EngineOutcome outcome = batch.get(0);
+            try {
+                Integer duplicates = transactionTemplate.execute(status -> write(List.of(outcome)));
+                projected.increment();
+                deadLettered.increment(duplicates != null ? duplicates : 0);
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    deadLetterMessageRepository.save(manualDeadLetter(outcome, maxAttempts + 1, e.getClass().getName(),
+                            e.getMessage() != null && e.getMessage().length() > 2000 ? e.getMessage().substring(0, 2000) : e.getMessage()));
+                    offsetRepository.advance(shardId, outcome.sequence());
+                });
+                deadLettered.increment();
+                System.err.println("--- EngineProjector " + shardId + ": 반영할 수 없는 결과를 dead letter 로 남기고 건너뜀 (주문 ID: "
+                        + outcome.orderId() + ", sequence: " + outcome.sequence() + ") - " + e.getMessage() + " ---");
+            }
+            shard.markProjected(outcome.sequence());
+            batch.remove(0);
+        }
+    }
+
+    // 반환: 이미 결제 기록이 끝난 주문이라 반영하지 않고 dead letter 로 남긴 승인 결제 수
+    private int write(List<EngineOutcome> batch) {
+        List<Object[]> paymentRows = new ArrayList<>(batch.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (EngineOutcome outcome : batch) {
+            if (outcome.isPayment()) {
+                paymentRows.add(new Object[]{
+                        outcome.paymentId(),
+                        outcome.orderId(),
+                        outcome.accountId(),
+                        outcome.approved() ? "APPROVED" : "REJECTED",
+                        outcome.approved() ? now : null,
+                        PaymentEngine.fromCents(outcome.amount()),
+                        now});
+            }
+        }
+        int[] counts = paymentRows.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(UPSERT_PAYMENT_SQL, paymentRows);
+
+        List<LedgerService.Transfer> transfers = new ArrayList<>(batch.size());
+        int duplicates = 0;
+        int paymentIndex = 0;
+        for (EngineOutcome outcome : batch) {
+            if (!outcome.isPayment()) {
+                // 입금, 환불 입금 (환불은 가게 출금을 PaymentRefundService 가 같은 주문 ID 로 먼저 기록)
+                boolean refund = outcome.type() == EngineCommand.REFUND;
+                transfers.add(new LedgerService.Transfer(LedgerService.EXTERNAL_ACCOUNT_ID, outcome.accountId(),
+                        PaymentEngine.fromCents(outcome.amount()), refund ? "REFUND" : "DEPOSIT", refund ? outcome.orderId() : null));
+                continue;
+            }
+            boolean recorded = counts[paymentIndex++] > 0;
+            if (outcome.approved() && recorded) {
+                transfers.add(new LedgerService.Transfer(outcome.accountId(), outcome.counterAccountId(),
+                        PaymentEngine.fromCents(outcome.amount()), "PAYMENT", outcome.orderId()));
+            } else if (outcome.approved()) {
+                // 선점 없이 차감된 결과 (컨슈머가 선점한 주문만 넘기므로 정상 경로에서는 없음): 원장에 두 번째 차감을 남기지 않고 엔진 잔액은 수동 보정
+                deadLetterMessageRepository.save(manualDeadLetter(outcome, 1, IllegalStateException.class.getName(),
+                        "이미 결제 기록이 있는 주문의 엔진 결제 (원장 미반영, 엔진 잔액 보정 필요)"));
+                duplicates++;
+                System.err.println("--- EngineProjector " + shardId + ": 이미 결제 기록이 있는 주문의 엔진 결제, 원장 반영 건너뜀 (주문 ID: "
+                        + outcome.orderId() + ") ---");
+            }
+        }
+        ledgerService.recordTransfers(transfers);
+        offsetRepository.advance(shardId, batch.get(batch.size() - 1).sequence());
+        return duplicates;
+    }
+
+    private DeadLetterMessage manualDeadLetter(EngineOutcome outcome, int attempts, String exceptionClass, String exceptionMessage) {
+        return DeadLetterMessage.builder()
+                .consumerName("EngineProjector-" + shardId)
+                .originalTopic(DEAD_LETTER_SOURCE)
+                .payload(outcome + " paymentId=" + outcome.paymentId())
+                .attempts(attempts)
+                .exceptionClass(exceptionClass)
+                .exceptionMessage(exceptionMessage)
+                .status(DeadLetterMessage.STATUS_MANUAL)
+                .failedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.localy.payment_service.payment.engine;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// 결제 엔진 샤드 하나: 전용 스레드 하나가 이 샤드 계좌의 잔액을 혼자 바꿈 (락 없음)
+// 1. 큐에서 명령을 최대 maxBatch 개 꺼냄
+// 2. 명령마다 저널에 추가하고 메모리 상태(잔액/주문)에 반영
+// 3. 저널을 한 번 force (배치 단위 group commit)
+// 4. 결과를 돌려주고 OutcomeSink(DB 반영)로 넘김
+// 상태는 결정적으로만 바뀌므로 (DB 에서 읽은 잔액도 LOAD 명령으로 기록) 스냅샷 + 이후 저널 재생으로 그대로 복구됨
+final class EngineShard implements Closeable {
+
+    // 처음 다루는 계좌의 현재 잔액 (0.01 단위). 계좌가 없으면 예외
+    interface BalanceLoader {
+        long loadBalance(long accountId);
+    }
+
+    // 저널에 반영된 결과 (DB 반영은 비동기, 처리한 sequence 는 markProjected 로 알려줌)
+    interface OutcomeSink {
+        void accept(List<EngineOutcome> outcomes);
+    }
+
+    private record Pending(EngineCommand command, CompletableFuture<EngineOutcome> future) {
+    }
+
+    private final int id;
+    private final Path dir;
+    private final Journal journal;
+    private final BalanceLoader loader;
+    private final OutcomeSink sink;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long snapshotEveryCommands;
+
+    private OffHeapLongMap balances; // 계좌 ID -> 잔액
+    private OffHeapLongMap orders; // 주문 ID -> (sequence << 1) | 승인 여부 (재전송 확인, DB 반영 후 스냅샷 때 정리), 환불은 -주문 ID
+    private long lastSequence;
+    private long snapshotSequence;
+    private long previousSnapshotSequence;
+    private long trimUpTo; // 다음 스냅샷에서 주문 맵에서 지울 sequence 상한 (이전 스냅샷 시점에 DB 반영이 끝난 위치)
+    private long commandsSinceSnapshot;
+
+    private volatile long projectedSequence;
+    private volatile long appliedSequence;
+    private volatile int accountCount;
+    private volatile long memoryBytes;
+    private volatile boolean running;
+    private volatile boolean snapshotRequested;
+    private volatile Throwable failure;
+    private Thread thread;
+
+    EngineShard(int id, Path dir, int segmentBytes, int queueCapacity, int maxBatch, long snapshotEveryCommands,
+                BalanceLoader loader, OutcomeSink sink) {
+        this.id = id;
+        this.dir = dir;
+        this.journal = new Journal(dir, segmentBytes);
+        this.loader = loader;
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.snapshotEveryCommands = snapshotEveryCommands;
+    }
+
+    // 스냅샷 + 저널로 상태를 복구하고, DB 에 아직 반영되지 않은 결과(projected 이후)를 다시 넘긴 뒤 처리 시작
+    void start(long projected) {
+        projectedSequence = projected;
+        EngineSnapshot snapshot = EngineSnapshot.readLatest(dir);
+        balances = snapshot != null ? snapshot.balances : new OffHeapLongMap(1024);
+        orders = snapshot != null ? snapshot.orders : new OffHeapLongMap(1024);
+        snapshotSequence = snapshot != null ? snapshot.sequence : 0;
+        previousSnapshotSequence = snapshotSequence;
+        List<EngineOutcome> redo = new ArrayList<>();
+        long recovered = journal.recover(Math.min(projected, snapshotSequence), command -> {
+            EngineOutcome outcome = command.sequence() > snapshotSequence ? apply(command) : replayed(command);
+            if (command.sequence() > projected && command.type() != EngineCommand.LOAD) {
+                redo.add(outcome);
+            }
+        });
+        lastSequence = Math.max(recovered, snapshotSequence);
+        appliedSequence = lastSequence;
+        updateStats();
+        System.out.println("--- EngineShard " + id + ": 복구 완료 - 스냅샷 " + snapshotSequence + ", 마지막 sequence " + lastSequence
+                + ", 계좌 " + balances.size() + "개, DB 재반영 " + redo.size() + "건 ---");
+        for (int from = 0; from < redo.size(); from += maxBatch) {
+            sink.accept(List.copyOf(redo.subList(from, Math.min(redo.size(), from + maxBatch))));
+        }
+        running = true;
+        thread = new Thread(this::run, "payment-engine-" + id);
+        thread.start();
+    }
+
+    CompletableFuture<EngineOutcome> submit(EngineCommand command) {
+        CompletableFuture<EngineOutcome> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("결제 엔진 샤드 " + id + " 가 실행 중이 아닙니다.", failure));
+            return future;
+        }
+        try {
+            queue.put(new Pending(command, future)); // 큐가 차면 생산자(컨슈머 스레드)가 기다림
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    void markProjected(long sequence) {
+        if (sequence > projectedSequence) {
+            projectedSequence = sequence;
+        }
+    }
+
+    void requestSnapshot() {
+        snapshotRequested = true;
+    }
+
+    long projectedSequence() {
+        return projectedSequence;
+    }
+
+    long appliedSequence() {
+        return appliedSequence;
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    int accountCount() {
+        return accountCount;
+    }
+
+    long memoryBytes() {
+        return memoryBytes;
+    }
+
+    long journalBytes() {
+        return journal.sizeBytes();
+    }
+
+    // 큐에 남은 명령까지 처리하고 스냅샷을 남긴 뒤 종료
+    @Override
+    public void close() {
+        stopThread();
+        if (failure == null && balances != null) {
+            writeSnapshot();
+        }
+        journal.close();
+    }
+
+    // 프로세스가 죽은 것처럼 스냅샷/정리 없이 멈춤 (복구 테스트용, force 된 레코드만 남음)
+    void halt() {
+        stopThread();
+    }
+
+    // 처리 스레드가 멈춘 뒤에만 호출 (테스트)
+    long balance(long accountId) {
+        return balances.get(accountId, -1);
+    }
+
+    private void stopThread() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        List<EngineOutcome> durable = new ArrayList<>(maxBatch);
+        EngineOutcome[] outcomes = new EngineOutcome[maxBatch];
+        RuntimeException[] errors = new RuntimeException[maxBatch];
+        while (running || !queue.isEmpty()) {
+            Pending first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        outcomes[i] = process(batch.get(i).command());
+                        errors[i] = null;
+                    } catch (RuntimeException e) {
+                        outcomes[i] = null;
+                        errors[i] = e;
+                    }
+                }
+                try {
+                    journal.force();
+                } catch (RuntimeException e) {
+                    // 메모리 상태에는 반영됐지만 저널에 남았는지 알 수 없음 -> 멈추고 재시작 시 저널 기준으로 복구
+                    fail(e, batch);
+                    return;
+                }
+                appliedSequence = lastSequence;
+                for (int i = 0; i < batch.size(); i++) {
+                    if (errors[i] != null) {
+                        batch.get(i).future().completeExceptionally(errors[i]);
+                    } else {
+                        batch.get(i).future().complete(outcomes[i]);
+                        if (!outcomes[i].duplicate()) {
+                            durable.add(outcomes[i]);
+                        }
+                    }
+                }
+                if (!durable.isEmpty()) {
+                    sink.accept(List.copyOf(durable));
+                }
+                batch.clear();
+                durable.clear();
+                updateStats();
+            }
+            if (snapshotRequested || commandsSinceSnapshot >= snapshotEveryCommands) {
+                try {
+                    writeSnapshot();
+                } catch (RuntimeException e) {
+                    System.err.println("--- EngineShard " + id + ": 스냅샷 실패 (저널은 유지) - " + e.getMessage() + " ---");
+                    snapshotRequested = false;
+                    commandsSinceSnapshot = 0;
+                }
+            }
+        }
+    }
+
+    private EngineOutcome process(EngineCommand command) {
+        if (command.type() == EngineCommand.PAY) {
+            if (command.orderId() <= 0) {
+                throw new IllegalArgumentException("주문 ID 가 올바르지 않습니다: " + command.orderId());
+            }
+            long existing = orders.get(command.orderId(), -1);
+            if (existing >= 0) {
+                long sequence = existing >>> 1;
+                return new EngineOutcome(id, sequence, command.type(), command.orderId(), command.accountId(),
+                        command.counterAccountId(), command.amount(), (existing & 1) == 1, balances.get(command.accountId(), 0), true);
+            }
+            if (command.accountId() != 0 && command.amount() > 0) {
+                ensureLoaded(command.accountId());
+            }
+        } else if (command.type() == EngineCommand.REFUND) {
+            if (command.orderId() <= 0 || command.accountId() == 0 || command.amount() <= 0) {
+                throw new IllegalArgumentException("환불 주문, 계좌, 금액이 올바르지 않습니다.");
+            }
+            long existing = orders.get(-command.orderId(), -1);
+            if (existing >= 0) {
+                // 환불 트랜잭션이 롤백된 뒤 다시 받은 요청: 두 번 입금하지 않고 처음 결과를 돌려줌
+                return new EngineOutcome(id, existing >>> 1, command.type(), command.orderId(), command.accountId(),
+                        0, command.amount(), true, balances.get(command.accountId(), 0), true);
+            }
+            ensureLoaded(command.accountId());
+        } else if (command.type() == EngineCommand.DEPOSIT) {
+            if (command.accountId() == 0 || command.amount() <= 0) {
+                throw new IllegalArgumentException("입금 계좌와 금액이 올바르지 않습니다.");
+            }
+            ensureLoaded(command.accountId());
+        } else {
+            throw new IllegalArgumentException("알 수 없는 명령: " + command.type());
+        }
+        return journalAndApply(command);
+    }
+
+    private void ensureLoaded(long accountId) {
+        if (!balances.containsKey(accountId)) {
+            long balance = loader.loadBalance(accountId); // 계좌마다 처음 한 번만 DB 조회 (이 스레드에서)
+            journalAndApply(new EngineCommand(EngineCommand.LOAD, 0, 0, accountId, 0, balance));
+        }
+    }
+
+    private EngineOutcome journalAndApply(EngineCommand command) {
+        EngineCommand sequenced = command.withSequence(lastSequence + 1);
+        journal.append(sequenced);
+        lastSequence = sequenced.sequence();
+        commandsSinceSnapshot++;
+        return apply(sequenced);
+    }
+
+    // 저널 레코드를 상태에 반영 (처리할 때와 복구할 때 같은 코드)
+    private EngineOutcome apply(EngineCommand command) {
+        long accountId = command.accountId();
+        boolean approved = true;
+        long balance;
+        switch (command.type()) {
+            case EngineCommand.LOAD -> {
+                balance = command.amount();
+                balances.put(accountId, balance);
+            }
+            case EngineCommand.DEPOSIT -> {
+                balance = balances.get(accountId, 0) + command.amount();
+                balances.put(accountId, balance);
+            }
+            case EngineCommand.REFUND -> {
+                balance = balances.get(accountId, 0) + command.amount();
+                balances.put(accountId, balance);
+                orders.put(-command.orderId(), (command.sequence() << 1) | 1);
+            }
+            case EngineCommand.PAY -> {
+                balance = balances.get(accountId, 0);
+                approved = accountId != 0 && command.counterAccountId() != 0 && command.amount() > 0
+                        && balances.containsKey(accountId) && balance >= command.amount();
+                if (approved) {
+                    balance -= command.amount();
+                    balances.put(accountId, balance);
+                }
+                orders.put(command.orderId(), (command.sequence() << 1) | (approved ? 1 : 0));
+            }
+            default -> throw new IllegalStateException("알 수 없는 저널 레코드: " + command.type());
+        }
+        return new EngineOutcome(id, command.sequence(), command.type(), command.orderId(), accountId,
+                command.counterAccountId(), command.amount(), approved, balance, false);
+    }
+
+    // 스냅샷에 이미 반영된 레코드의 결과 (DB 재반영용, 결제 승인 여부는 주문 맵에서)
+    private EngineOutcome replayed(EngineCommand command) {
+        boolean approved = command.type() != EngineCommand.PAY || (orders.get(command.orderId(), 0) & 1) == 1;
+        return new EngineOutcome(id, command.sequence(), command.type(), command.orderId(), command.accountId(),
+                command.counterAccountId(), command.amount(), approved, 0, false);
+    }
+
+    private void writeSnapshot() {
+        long trim = trimUpTo;
+        orders.retainIf((orderId, value) -> (value >>> 1) > trim);
+        EngineSnapshot.write(dir, lastSequence, balances, orders);
+        previousSnapshotSequence = snapshotSequence;
+        snapshotSequence = lastSequence;
+        trimUpTo = projectedSequence;
+        commandsSinceSnapshot = 0;
+        snapshotRequested = false;
+        // 최신 스냅샷이 손상됐을 때 이전 스냅샷 + 저널로 복구할 수 있도록 이전 스냅샷과 그 이후 저널은 남김
+        EngineSnapshot.deleteBefore(dir, previousSnapshotSequence);
+        journal.deleteUpTo(Math.min(previousSnapshotSequence, projectedSequence));
+        updateStats();
+    }
+
+    private void fail(RuntimeException e, List<Pending> batch) {
+        failure = e;
+        running = false;
+        System.err.println("--- EngineShard " + id + ": 저널 기록 실패로 샤드 중지 - " + e.getMessage() + " ---");
+        batch.forEach(pending -> pending.future().completeExceptionally(e));
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(e);
+        }
+    }
+
+    private void updateStats() {
+        accountCount = balances.size();
+        memoryBytes = balances.memoryBytes() + orders.memoryBytes();
+    }
+}
@@ -0,0 +1,150 @@
+package com.localy.payment_service.payment.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// 샤드 상태 스냅샷 파일 (snapshot-<sequence>.snap)
+// [magic][sequence][잔액 수][(계좌 ID, 잔액)...][주문 수][(주문 ID, 값)...][CRC32]
+// 임시 파일에 쓰고 fsync 한 뒤 이름을 바꾸므로 반쯤 쓰인 스냅샷이 최신으로 보이는 일은 없음
+final class EngineSnapshot {
+
+    private static final int MAGIC = 0x50454E47; // "PENG"
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    final long sequence;
+    final OffHeapLongMap balances;
+    final OffHeapLongMap orders;
+
+    private EngineSnapshot(long sequence, OffHeapLongMap balances, OffHeapLongMap orders) {
+        this.sequence = sequence;
+        this.balances = balances;
+        this.orders = orders;
+    }
+
+    static void write(Path dir, long sequence, OffHeapLongMap balances, OffHeapLongMap orders) {
+        Path target = dir.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            writeMap(out, balances);
+            writeMap(out, orders);
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 읽을 수 있는 가장 최근 스냅샷 (없으면 null, 손상된 파일은 건너뛰고 이전 스냅샷 사용)
+    static EngineSnapshot readLatest(Path dir) {
+        for (Path file : snapshots(dir).stream().sorted(Comparator.reverseOrder()).toList()) {
+            try {
+                return read(file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("--- EngineSnapshot: 스냅샷 읽기 실패, 이전 스냅샷 사용 - " + file + " - " + e.getMessage() + " ---");
+            }
+        }
+        return null;
+    }
+
+    // keepFromSequence 보다 오래된 스냅샷 삭제
+    static void deleteBefore(Path dir, long keepFromSequence) {
+        for (Path file : snapshots(dir)) {
+            if (sequenceOf(file) < keepFromSequence) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static EngineSnapshot read(Path file) throws IOException {
+        try (InputStream raw = Files.newInputStream(file)) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(raw, 1 << 16), crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("스냅샷 형식이 아닙니다.");
+            }
+            long sequence = in.readLong();
+            OffHeapLongMap balances = readMap(in);
+            OffHeapLongMap orders = readMap(in);
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("CRC 불일치");
+            }
+            return new EngineSnapshot(sequence, balances, orders);
+        }
+    }
+
+    private static void writeMap(DataOutputStream out, OffHeapLongMap map) throws IOException {
+        out.writeInt(map.size());
+        IOException[] failure = new IOException[1];
+        map.forEach((key, value) -> {
+            if (failure[0] != null) {
+                return;
+            }
+            try {
+                out.writeLong(key);
+                out.writeLong(value);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private static OffHeapLongMap readMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        OffHeapLongMap map = new OffHeapLongMap(size);
+        for (int i = 0; i < size; i++) {
+            map.put(in.readLong(), in.readLong());
+        }
+        return map;
+    }
+
+    private static List<Path> snapshots(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,210 @@
+package com.localy.payment_service.payment.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// 샤드 하나의 write-ahead 저널 (메모리 매핑한 고정 크기 세그먼트 파일에 순서대로 추가)
+// 레코드 = [payload 길이 int][CRC32 int][payload: sequence, type, orderId, accountId, counterAccountId, amount]
+// - 길이가 0 인 자리 = 세그먼트의 끝 (새 세그먼트는 0 으로 채워진 상태로 만듦)
+// - 복구할 때 CRC 가 안 맞거나 sequence 가 이어지지 않는 첫 레코드에서 멈추고 그 뒤를 0 으로 지움
+//   (force 전에 죽으면 매핑된 페이지가 순서 없이 디스크에 쓰였을 수 있으므로, 지우지 않으면 이후 같은 자리에 새로 쓸 때 예전 레코드가 되살아날 수 있음)
+// force() 가 끝난 레코드만 처리 결과를 돌려주므로 돌려준 결과는 복구 후에도 남음
+// 한 스레드(EngineShard 처리 스레드)에서만 사용
+final class Journal implements Closeable {
+
+    static final int PAYLOAD_BYTES = 8 + 1 + 8 * 4;
+    static final int RECORD_BYTES = 8 + PAYLOAD_BYTES;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".wal";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_BYTES);
+
+    private MappedByteBuffer active;
+    private int dirtyFrom; // 아직 force 하지 않은 영역의 시작 위치
+
+    Journal(Path dir, int segmentBytes) {
+        if (segmentBytes < RECORD_BYTES * 2) {
+            throw new IllegalArgumentException("세그먼트 크기가 너무 작습니다: " + segmentBytes);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // afterSequence 보다 큰 레코드를 순서대로 넘기고, 마지막 정상 레코드 다음부터 이어 쓸 수 있게 준비
+    // 반환값 = 마지막 정상 레코드의 sequence (저널이 비어 있으면 afterSequence)
+    long recover(long afterSequence, Consumer<EngineCommand> consumer) {
+        List<Path> segments = segments();
+        long lastSequence = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            MappedByteBuffer buffer = map(segment);
+            long expected = lastSequence < 0 ? firstSequenceOf(segment) : lastSequence + 1;
+            int position = 0;
+            while (position + RECORD_BYTES <= segmentBytes) {
+                EngineCommand command = read(buffer, position);
+                if (command == null || command.sequence() != expected) {
+                    break;
+                }
+                if (command.sequence() > afterSequence) {
+                    consumer.accept(command);
+                }
+                lastSequence = command.sequence();
+                expected++;
+                position += RECORD_BYTES;
+            }
+            boolean clean = position + RECORD_BYTES > segmentBytes || buffer.getInt(position) == 0;
+            if (!clean || i == segments.size() - 1) {
+                // 찢어진 레코드 이후는 버림: 이 세그먼트의 나머지를 지우고 뒤 세그먼트는 삭제
+                for (int p = position; p < segmentBytes; p++) {
+                    buffer.put(p, (byte) 0);
+                }
+                buffer.force();
+                for (int j = i + 1; j < segments.size(); j++) {
+                    delete(segments.get(j));
+                }
+                long recovered = lastSequence < 0 ? firstSequenceOf(segment) - 1 : lastSequence;
+                if (recovered < afterSequence) {
+                    // 스냅샷은 저널을 force 한 뒤에만 만들고 세그먼트는 스냅샷 이전 것만 지우므로 정상이라면 생길 수 없음
+                    throw new IllegalStateException("저널(" + recovered + ")이 스냅샷(" + afterSequence + ")보다 짧습니다: " + dir);
+                }
+                active = buffer;
+                buffer.position(position);
+                dirtyFrom = position;
+                return recovered;
+            }
+        }
+        return afterSequence;
+    }
+
+    void append(EngineCommand command) {
+        if (active == null || active.position() + RECORD_BYTES > segmentBytes) {
+            roll(command.sequence());
+        }
+        payload.clear();
+        payload.putLong(command.sequence())
+                .put(command.type())
+                .putLong(command.orderId())
+                .putLong(command.accountId())
+                .putLong(command.counterAccountId())
+                .putLong(command.amount());
+        crc.reset();
+        crc.update(payload.array(), 0, PAYLOAD_BYTES);
+        int position = active.position();
+        // 길이는 마지막에 써서, 길이가 보이는 레코드는 내용까지 쓰인 상태가 되도록 함 (CRC 로 한 번 더 확인)
+        active.putInt(position + 4, (int) crc.getValue());
+        active.put(position + 8, payload.array(), 0, PAYLOAD_BYTES);
+        active.putInt(position, PAYLOAD_BYTES);
+        active.position(position + RECORD_BYTES);
+    }
+
+    // 마지막 force 이후 추가한 레코드를 디스크에 반영
+    void force() {
+        if (active != null && active.position() > dirtyFrom) {
+            active.force(dirtyFrom, active.position() - dirtyFrom);
+            dirtyFrom = active.position();
+        }
+    }
+
+    // 모든 레코드의 sequence 가 upToSequence 이하인 세그먼트를 삭제 (사용 중인 세그먼트는 남김)
+    int deleteUpTo(long upToSequence) {
+        List<Path> segments = segments();
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i + 1)) - 1 <= upToSequence) {
+                delete(segments.get(i));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    long sizeBytes() {
+        return (long) segments().size() * segmentBytes;
+    }
+
+    @Override
+    public void close() {
+        force();
+        active = null;
+    }
+
+    private void roll(long firstSequence) {
+        force();
+        Path segment = dir.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        active = map(segment);
+        dirtyFrom = 0;
+    }
+
+    private EngineCommand read(ByteBuffer buffer, int position) {
+        if (buffer.getInt(position) != PAYLOAD_BYTES) {
+            return null;
+        }
+        int expectedCrc = buffer.getInt(position + 4);
+        buffer.get(position + 8, payload.array(), 0, PAYLOAD_BYTES);
+        crc.reset();
+        crc.update(payload.array(), 0, PAYLOAD_BYTES);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        ByteBuffer p = ByteBuffer.wrap(payload.array());
+        return new EngineCommand(p.get(8), p.getLong(0), p.getLong(9), p.getLong(17), p.getLong(25), p.getLong(33));
+    }
+
+    private MappedByteBuffer map(Path segment) {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            if (file.length() != segmentBytes) {
+                file.setLength(segmentBytes);
+            }
+            // 매핑은 채널을 닫아도 유지됨
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.localy.payment_service.payment.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// long -> long 해시 맵 (open addressing + 선형 탐사), 항목은 direct ByteBuffer 에 16바이트씩 저장
+// 힙 객체(Long 박싱, HashMap.Node)가 없으므로 계좌/주문 수백만 개를 둬도 GC 가 훑을 것이 없음
+// 키 0 은 빈 칸 표시라 쓸 수 없음 (계좌/주문 ID 는 1 부터). 한 스레드(EngineShard 처리 스레드)에서만 사용
+final class OffHeapLongMap {
+
+    interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    interface EntryPredicate {
+        boolean test(long key, long value);
+    }
+
+    private static final int ENTRY_BYTES = 16;
+    private static final double MAX_LOAD = 0.7;
+
+    private ByteBuffer table;
+    private int capacity; // 2의 거듭제곱
+    private int size;
+
+    OffHeapLongMap(int expectedEntries) {
+        allocate(tableSizeFor(expectedEntries));
+    }
+
+    long get(long key, long missing) {
+        int slot = find(key);
+        return slot >= 0 ? table.getLong(slot * ENTRY_BYTES + 8) : missing;
+    }
+
+    boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    void put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("키 0 은 사용할 수 없습니다.");
+        }
+        int mask = capacity - 1;
+        for (int slot = indexOf(key, mask); ; slot = (slot + 1) & mask) {
+            long existing = table.getLong(slot * ENTRY_BYTES);
+            if (existing == key) {
+                table.putLong(slot * ENTRY_BYTES + 8, value);
+                return;
+            }
+            if (existing == 0) {
+                table.putLong(slot * ENTRY_BYTES, key);
+                table.putLong(slot * ENTRY_BYTES + 8, value);
+                if (++size > capacity * MAX_LOAD) {
+                    resize(capacity * 2);
+                }
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        return (long) capacity * ENTRY_BYTES;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < capacity; slot++) {
+            long key = table.getLong(slot * ENTRY_BYTES);
+            if (key != 0) {
+                consumer.accept(key, table.getLong(slot * ENTRY_BYTES + 8));
+            }
+        }
+    }
+
+    // 조건에 맞는 항목만 남김 (선형 탐사라 개별 삭제 대신 새 테이블로 다시 채움)
+    void retainIf(EntryPredicate predicate) {
+        ByteBuffer old = table;
+        int oldCapacity = capacity;
+        int retained = 0;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long key = old.getLong(slot * ENTRY_BYTES);
+            if (key != 0 && predicate.test(key, old.getLong(slot * ENTRY_BYTES + 8))) {
+                retained++;
+            }
+        }
+        allocate(tableSizeFor(retained));
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long key = old.getLong(slot * ENTRY_BYTES);
+            long value = old.getLong(slot * ENTRY_BYTES + 8);
+            if (key != 0 && predicate.test(key, value)) {
+                put(key, value);
+            }
+        }
+    }
+
+    private int find(long key) {
+        if (key == 0) {
+            return -1;
+        }
+        int mask = capacity - 1;
+        for (int slot = indexOf(key, mask); ; slot = (slot + 1) & mask) {
+            long existing = table.getLong(slot * ENTRY_BYTES);
+            if (existing == key) {
+                return slot;
+            }
+            if (existing == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private void resize(int newCapacity) {
+        ByteBuffer old = table;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long key = old.getLong(slot * ENTRY_BYTES);
+            if (key != 0) {
+                put(key, old.getLong(slot * ENTRY_BYTES + 8));
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        if ((long) newCapacity * ENTRY_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("맵 용량 초과: " + newCapacity);
+        }
+        table = ByteBuffer.allocateDirect(newCapacity * ENTRY_BYTES).order(ByteOrder.nativeOrder()); // 0 으로 초기화됨
+        capacity = newCapacity;
+        size = 0;
+    }
+
+    private static int indexOf(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L; // 연속된 ID 도 고르게 퍼지도록
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int expectedEntries) {
+        int needed = (int) Math.ceil(Math.max(expectedEntries, 16) / MAX_LOAD);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
@@ -0,0 +1,236 @@
+package com.localy.payment_service.payment.engine;
+
+import com.localy.payment_service.payment.repository.EngineProjectionOffsetRepository;
+import com.localy.payment_service.retry.repository.DeadLetterMessageRepository;
+import com.localy.payment_service.virtualAcount.service.LedgerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// 메모리 결제 엔진 (payment.engine.enabled=true 일 때만 생성)
+// - 손님 계좌를 shards 개의 EngineShard 에 나눠 맡김. 샤드마다 스레드 하나가 잔액을 혼자 바꾸므로 DB 왕복과 행 락이 없음
+// - 명령은 메모리 매핑한 저널에 먼저 기록하고 force 한 뒤에 결과를 돌려줌, 주기적으로 스냅샷
+// - Postgres (원장, payments) 는 샤드마다 EngineProjector 가 저널 순서대로 비동기 반영
+// 가게 계좌는 입금만 받으므로 엔진이 잔액을 들고 있지 않음 (원장에 입금 항목만 반영)
+// 같은 계좌를 두 엔진이 들고 있으면 잔액이 갈라지므로 엔진 모드는 인스턴스 하나로 실행해야 함
+@Component
+@ConditionalOnProperty(name = "payment.engine.enabled", havingValue = "true")
+public class PaymentEngine {
+
+    private final LedgerService ledgerService;
+    private final EngineProjectionOffsetRepository offsetRepository;
+    private final DeadLetterMessageRepository deadLetterMessageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.engine.shards:4}")
+    private int shardCount;
+    @Value("${payment.engine.dir:./data/payment-engine}")
+    private String dir;
+    @Value("${payment.engine.segment-mb:64}")
+    private int segmentMb;
+    @Value("${payment.engine.queue-capacity:65536}")
+    private int queueCapacity;
+    @Value("${payment.engine.max-batch:4096}")
+    private int maxBatch;
+    @Value("${payment.engine.snapshot-every-commands:5000000}")
+    private long snapshotEveryCommands;
+    @Value("${payment.engine.projection-batch-size:2000}")
+    private int projectionBatchSize;
+    @Value("${payment.engine.projection-max-attempts:10}")
+    private int projectionMaxAttempts;
+    @Value("${payment.engine.ack-timeout-ms:10000}")
+    private long ackTimeoutMs;
+
+    private EngineShard[] shards;
+    private EngineProjector[] projectors;
+
+    public PaymentEngine(LedgerService ledgerService,
+                         EngineProjectionOffsetRepository offsetRepository,
+                         DeadLetterMessageRepository deadLetterMessageRepository,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.ledgerService = ledgerService;
+        this.offsetRepository = offsetRepository;
+        this.deadLetterMessageRepository = deadLetterMessageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        Counter projected = Counter.builder("payments.engine.projected")
+                .description("엔진 처리 결과 중 DB 에 반영한 수")
+                .register(meterRegistry);
+        Counter deadLettered = Counter.builder("payments.engine.projection.dead.lettered")
+                .description("DB 에 반영하지 못하고 dead letter 로 남긴 엔진 결과 수 (원장 수동 보정 필요)")
+                .register(meterRegistry);
+        Timer projectionDuration = Timer.builder("payments.engine.projection.duration")
+                .description("엔진 결과 한 배치를 DB 에 반영하는 데 걸린 시간")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        shards = new EngineShard[shardCount];
+        projectors = new EngineProjector[shardCount];
+        Path root = Paths.get(dir);
+        for (int i = 0; i < shardCount; i++) {
+            EngineProjector projector = new EngineProjector(i, ledgerService, jdbcTemplate, transactionTemplate,
+                    offsetRepository, deadLetterMessageRepository, projectionBatchSize, projectionMaxAttempts,
+                    projected, deadLettered, projectionDuration);
+            EngineShard shard = new EngineShard(i, root.resolve("shard-" + i), segmentMb << 20, queueCapacity, maxBatch,
+                    snapshotEveryCommands, this::loadBalance, projector::enqueue);
+            projectors[i] = projector;
+            shards[i] = shard;
+            projector.start(shard); // 복구 중 다시 넘기는 결과도 받을 수 있도록 샤드보다 먼저 시작
+            shard.start(offsetRepository.findById(i).map(offset -> offset.getProjectedSequence()).orElse(0L));
+            registerGauges(i, shard, projector);
+        }
+        System.out.println("--- PaymentEngine: 샤드 " + shardCount + "개 시작 (저널: " + root.toAbsolutePath() + ") ---");
+    }
+
+    // 샤드를 먼저 닫아(남은 명령 처리 + 스냅샷) 더 이상 결과가 나오지 않게 한 뒤 남은 결과를 DB 에 반영
+    @PreDestroy
+    void stop() {
+        for (EngineShard shard : shards) {
+            shard.close();
+        }
+        for (EngineProjector projector : projectors) {
+            projector.close();
+        }
+    }
+
+    // 시간 기준 스냅샷 (명령 수 기준 스냅샷은 샤드가 직접 판단)
+    @Scheduled(fixedDelayString = "${payment.engine.snapshot-ms:300000}")
+    public void snapshot() {
+        for (EngineShard shard : shards) {
+            shard.requestSnapshot();
+        }
+    }
+
+    // 결제. 계좌가 없으면 0 으로 넘기면 거절로 기록됨. 결과는 저널에 남은 뒤 완료
+    public CompletableFuture<EngineOutcome> pay(Long orderId, Long customerAccountId, Long storeAccountId, BigDecimal amount) {
+        long customer = customerAccountId != null ? customerAccountId : 0L;
+        long store = storeAccountId != null ? storeAccountId : 0L;
+        return shardOf(customer != 0 ? customer : orderId).submit(EngineCommand.pay(orderId, customer, store, toCents(amount)));
+    }
+
+    public CompletableFuture<EngineOutcome> deposit(Long accountId, BigDecimal amount) {
+        return shardOf(accountId).submit(EngineCommand.deposit(accountId, toCents(amount)));
+    }
+
+    // 주문 환불 입금. 같은 주문은 한 번만 입금 (환불 트랜잭션이 롤백돼 다시 요청해도 처음 결과를 돌려줌)
+    public CompletableFuture<EngineOutcome> refund(Long orderId, Long customerAccountId, BigDecimal amount) {
+        return shardOf(customerAccountId).submit(EngineCommand.refund(orderId, customerAccountId, toCents(amount)));
+    }
+
+    // ack-timeout-ms 안에 결과를 기다림
+    public EngineOutcome await(CompletableFuture<EngineOutcome> future) {
+        try {
+            return future.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("결제 엔진 응답 대기 중 중단됨", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("결제 엔진 처리 실패", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("결제 엔진 응답 시간 초과 (" + ackTimeoutMs + "ms)", e);
+        }
+    }
+
+    public long ackTimeoutMs() {
+        return ackTimeoutMs;
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // 엔진은 금액을 1/100 단위 long 으로 다루므로 소수점 둘째 자리까지만 (셋째 자리 이하가 있거나 범위를 넘으면 false)
+    public static boolean isRepresentable(BigDecimal amount) {
+        if (amount == null) {
+            return false;
+        }
+        try {
+            amount.movePointRight(2).longValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    // 나타낼 수 없는 금액을 0 으로 바꾸면 원래 금액이 사라진 채 거절로 기록되므로 호출하는 쪽에서 먼저 걸러야 함
+    private static long toCents(BigDecimal amount) {
+        if (!isRepresentable(amount)) {
+            throw new IllegalArgumentException("결제 엔진은 소수점 둘째 자리까지의 금액만 처리합니다: " + amount);
+        }
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    // 샤드 스레드에서 계좌마다 처음 한 번 (원장 기준 잔액)
+    private long loadBalance(long accountId) {
+        BigDecimal balance = ledgerService.balanceOf(accountId);
+        if (balance == null) {
+            throw new NoSuchElementException("가상 계좌를 찾을 수 없습니다: 계좌 ID=" + accountId);
+        }
+        return balance.movePointRight(2).longValueExact();
+    }
+
+    private EngineShard shardOf(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return shards[(int) Math.floorMod(mixed >>> 32, (long) shards.length)];
+    }
+
+    private void registerGauges(int shardId, EngineShard shard, EngineProjector projector) {
+        String tag = String.valueOf(shardId);
+        Gauge.builder("payments.engine.queue.depth", shard, EngineShard::queueDepth)
+                .description("샤드 큐에서 처리를 기다리는 명령 수")
+                .tag("shard", tag)
+                .register(meterRegistry);
+        Gauge.builder("payments.engine.projection.lag", shard, s -> s.appliedSequence() - s.projectedSequence())
+                .description("저널에는 남았지만 아직 DB 에 반영되지 않은 레코드 수")
+                .tag("shard", tag)
+                .register(meterRegistry);
+        Gauge.builder("payments.engine.projection.backlog", projector, EngineProjector::backlog)
+                .description("DB 반영을 기다리는 처리 결과 수 (메모리)")
+                .tag("shard", tag)
+                .register(meterRegistry);
+        Gauge.builder("payments.engine.accounts", shard, EngineShard::accountCount)
+                .description("샤드가 잔액을 들고 있는 계좌 수")
+                .tag("shard", tag)
+                .register(meterRegistry);
+        Gauge.builder("payments.engine.memory", shard, EngineShard::memoryBytes)
+                .description("샤드의 off-heap 맵 크기")
+                .baseUnit("bytes")
+                .tag("shard", tag)
+                .register(meterRegistry);
+        Gauge.builder("payments.engine.journal", shard, EngineShard::journalBytes)
+                .description("샤드 저널 세그먼트 파일 크기 합계")
+                .baseUnit("bytes")
+                .tag("shard", tag)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,178 @@
+package com.localy.payment_service.payment.inbox;
+
+import com.localy.payment_service.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+// 주문 생성 이벤트 중복 확인 (inbox)
+// - 결제 기록이 있는 주문 ID 를 Bloom filter 에 넣어 두고, filter 에 없으면 조회 없이 "새 주문"
+// - filter 가 "있을 수 있음"이라고 하면 payments.order_id 유니크 인덱스로 한 번 조회해서 확인
+// - 시작 시 최근 rebuild-window-hours 동안의 결제로 filter 를 다시 만듦 (완료 전에는 모두 조회로 확인)
+// filter 는 이 인스턴스가 기록한 결제와 시작 시 읽은 결제만 알기 때문에 "없음"은 조회를 줄이는 힌트일 뿐
+// (rebuild 창보다 오래된 주문, 리밸런스로 넘어온 파티션에서 다른 인스턴스가 이미 결제한 주문)
+// 최종 확인은 결제할 때 payments.order_id 유니크 제약으로 결제 기록을 선점하는 것 (PaymentProcessorService.claimPayment)
+@Component
+public class PaymentInbox {
+
+    private final PaymentRepository paymentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long initialCapacity;
+    private final double fpp;
+    private final long rebuildWindowHours;
+
+    private ScalableBloomFilter filter; // this 로 동기화
+    private List<Long> recordedDuringRebuild; // 다시 만드는 동안 결제된 주문 (새 filter 에도 넣음)
+    private volatile boolean ready;
+
+    private final Counter definitelyNew;
+    private final Counter falsePositives; // filter 가 "있을 수 있음"이라고 했지만 조회해 보니 새 주문
+    private final Counter duplicates;
+    private final Counter warmupLookups;
+
+    public PaymentInbox(PaymentRepository paymentRepository,
+                        JdbcTemplate jdbcTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${payment.inbox.initial-capacity:1000000}") long initialCapacity,
+                        @Value("${payment.inbox.fpp:0.01}") double fpp,
+                        @Value("${payment.inbox.rebuild-window-hours:168}") long rebuildWindowHours) {
+        this.paymentRepository = paymentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.initialCapacity = initialCapacity;
+        this.fpp = fpp;
+        this.rebuildWindowHours = rebuildWindowHours;
+        this.filter = new ScalableBloomFilter(initialCapacity, fpp);
+        this.definitelyNew = checks(meterRegistry, "new");
+        this.falsePositives = checks(meterRegistry, "false_positive");
+        this.duplicates = checks(meterRegistry, "duplicate");
+        this.warmupLookups = checks(meterRegistry, "warmup");
+        Gauge.builder("payments.inbox.false.positive.rate", this, PaymentInbox::observedFalsePositiveRate)
+                .description("새 주문 중 filter 가 '있을 수 있음'으로 답해 조회한 비율")
+                .register(meterRegistry);
+        Gauge.builder("payments.inbox.expected.fpp", this, inbox -> inbox.stat(ScalableBloomFilter::expectedFpp))
+                .description("filter 채움 정도로 계산한 오탐률")
+                .register(meterRegistry);
+        Gauge.builder("payments.inbox.memory", this, inbox -> inbox.stat(ScalableBloomFilter::memoryBytes))
+                .description("filter 비트 배열 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("payments.inbox.entries", this, inbox -> inbox.stat(ScalableBloomFilter::entries))
+                .description("filter 에 들어간 주문 수")
+                .register(meterRegistry);
+        Gauge.builder("payments.inbox.stages", this, inbox -> inbox.stat(ScalableBloomFilter::stageCount))
+                .description("filter 단계 수 (용량을 넘을 때마다 하나씩 추가)")
+                .register(meterRegistry);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.inbox.checks")
+                .description("주문 생성 이벤트 중복 확인 결과")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            recordedDuringRebuild = new ArrayList<>();
+        }
+        ScalableBloomFilter rebuilt = new ScalableBloomFilter(initialCapacity, fpp);
+        try {
+            jdbcTemplate.query("SELECT order_id FROM payments WHERE created_at >= ?",
+                    rs -> {
+                        rebuilt.add(rs.getLong(1));
+                    },
+                    Timestamp.valueOf(LocalDateTime.now().minusHours(rebuildWindowHours)));
+        } catch (RuntimeException e) {
+            // filter 없이도 모든 이벤트를 조회로 확인하므로 결제는 계속 가능
+            System.err.println("PaymentInbox: filter 생성 실패, 모든 이벤트를 조회로 확인 - " + e.getMessage());
+            synchronized (this) {
+                recordedDuringRebuild = null;
+            }
+            return;
+        }
+        synchronized (this) {
+            recordedDuringRebuild.forEach(rebuilt::add);
+            recordedDuringRebuild = null;
+            filter = rebuilt;
+            ready = true;
+        }
+        System.out.println("PaymentInbox: 결제 기록 " + rebuilt.entries() + "건으로 filter 생성 완료 ("
+                + (System.currentTimeMillis() - start) + "ms, " + rebuilt.memoryBytes() / 1024 + "KB)");
+    }
+
+    // 이미 결제 기록이 있는 주문인지 (filter 에 없으면 조회 없이 false, false 여도 결제 기록 선점으로 한 번 더 확인됨)
+    public boolean isDuplicate(Long orderId) {
+        if (!mightContain(orderId)) {
+            definitelyNew.increment();
+            return false;
+        }
+        boolean exists = paymentRepository.existsByOrderId(orderId);
+        countLookup(exists);
+        return exists;
+    }
+
+    // 배치 결제: 결제 기록이 있는 주문 ID (filter 가 "있을 수 있음"이라고 한 주문만 IN 조회 한 번으로 확인)
+    public Set<Long> findDuplicates(Collection<Long> orderIds) {
+        Set<Long> candidates = new HashSet<>();
+        for (Long orderId : orderIds) {
+            if (mightContain(orderId)) {
+                candidates.add(orderId);
+            } else {
+                definitelyNew.increment();
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> found = new HashSet<>(paymentRepository.findOrderIdsByOrderIdIn(candidates));
+        candidates.forEach(orderId -> countLookup(found.contains(orderId)));
+        return found;
+    }
+
+    // 결제 기록(승인/거절)을 저장한 주문 (트랜잭션이 롤백되면 filter 에만 남지만 다음 확인 때 조회 한 번이 늘 뿐)
+    public synchronized void record(Long orderId) {
+        filter.add(orderId);
+        if (recordedDuringRebuild != null) {
+            recordedDuringRebuild.add(orderId);
+        }
+    }
+
+    private synchronized boolean mightContain(Long orderId) {
+        return !ready || filter.mightContain(orderId);
+    }
+
+    private void countLookup(boolean exists) {
+        if (exists) {
+            duplicates.increment();
+        } else if (ready) {
+            falsePositives.increment();
+        } else {
+            warmupLookups.increment();
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double checkedNew = definitelyNew.count() + falsePositives.count();
+        return checkedNew == 0 ? 0 : falsePositives.count() / checkedNew;
+    }
+
+    private synchronized double stat(ToDoubleFunction<ScalableBloomFilter> statistic) {
+        return statistic.applyAsDouble(filter);
+    }
+}
@@ -0,0 +1,118 @@
+package com.localy.payment_service.payment.inbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// long 키용 확장형(scalable) Bloom filter
+// - 현재 단계가 용량만큼 차면 용량 growth 배, 오탐률 tightening 배인 단계를 새로 추가
+// - 전체 오탐률 <= fpp / (1 - tightening) 이므로 항목 수를 미리 몰라도 목표 오탐률을 유지
+// - "없음" 응답은 항상 정확하고, "있을 수 있음" 응답만 오탐 가능
+// 동기화는 호출하는 쪽(PaymentInbox)에서 함
+class ScalableBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+    private static final double TIGHTENING = 0.5;
+    private static final int GROWTH = 2;
+
+    private final List<Stage> stages = new ArrayList<>();
+    private long entries;
+
+    ScalableBloomFilter(long initialCapacity, double fpp) {
+        if (initialCapacity <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("initialCapacity 는 양수, fpp 는 0 과 1 사이여야 합니다: " + initialCapacity + ", " + fpp);
+        }
+        stages.add(new Stage(initialCapacity, fpp));
+    }
+
+    boolean mightContain(long key) {
+        long h1 = mix(key);
+        long h2 = mix(key ^ 0x5DEECE66DL) | 1L;
+        for (int i = stages.size() - 1; i >= 0; i--) { // 최근 단계부터 (최근 주문이 다시 올 가능성이 큼)
+            if (stages.get(i).mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(long key) {
+        long h1 = mix(key);
+        long h2 = mix(key ^ 0x5DEECE66DL) | 1L;
+        Stage current = stages.get(stages.size() - 1);
+        if (current.count >= current.capacity) {
+            current = new Stage(current.capacity * GROWTH, current.fpp * TIGHTENING);
+            stages.add(current);
+        }
+        current.add(h1, h2);
+        entries++;
+    }
+
+    long entries() {
+        return entries;
+    }
+
+    int stageCount() {
+        return stages.size();
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += (long) stage.bits.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    // 각 단계의 현재 채움 정도로 계산한 오탐률 (1 - 모든 단계에서 오탐이 없을 확률)
+    double expectedFpp() {
+        double allNegative = 1.0;
+        for (Stage stage : stages) {
+            double stageFpp = Math.pow(1 - Math.exp(-(double) stage.hashes * stage.count / stage.bitCount), stage.hashes);
+            allNegative *= 1 - stageFpp;
+        }
+        return 1 - allNegative;
+    }
+
+    private static long mix(long key) { // SplitMix64 finalizer (연속된 주문 ID 도 고르게 퍼지도록)
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stage {
+        private final long capacity;
+        private final double fpp;
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashes;
+        private long count;
+
+        private Stage(long capacity, double fpp) {
+            this.capacity = capacity;
+            this.fpp = fpp;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(fpp) / (LN2 * LN2));
+            this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64)];
+            this.bitCount = (long) bits.length * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitCount);
+                bits[(int) (index >>> 6)] |= 1L << index;
+            }
+            count++;
+        }
+    }
+}
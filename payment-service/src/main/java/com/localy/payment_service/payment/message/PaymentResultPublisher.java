@@ -0,0 +1,369 @@
+package com.localy.payment_service.payment.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.payment_service.payment.message.dto.PaymentResultEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// 결제 결과 발행 (paymentResultProducer-out-0 의 토픽, 트랜잭션 모드 컨슈머는 바인딩으로 Kafka 트랜잭션 안에서 직접 발행)
+// - DB 트랜잭션 안에서 호출하면 커밋된 뒤에만 버퍼에 넣음 (롤백된 결제의 결과는 나가지 않음)
+// - 메모리 버퍼는 buffer-capacity 개까지, 넘치면 로컬 파일(spill-dir/spill.ndjson)에 이어 씀
+//   파일에 쓰기 시작하면 파일을 다 비울 때까지 새 결과도 파일 뒤에 붙이므로 발행 순서가 유지됨
+// - 발행 스레드 하나가 버퍼 -> 파일 순서로 보내고, 실패하면(Kafka 장애) 같은 결과를 backoff 후 다시 보냄
+// - 종료 시 남은 결과는 파일로 옮기고 다음 시작 때 먼저 발행 (파일 읽은 위치는 spill.pos, 최소 한 번 발행)
+// - 바인더(StreamBridge)가 아니라 이 클래스 전용 비트랜잭션 프로듀서로 보냄
+//   바인더에 transaction-id-prefix 가 설정되면(트랜잭션 모드) 바인더 프로듀서는 모두 트랜잭션 프로듀서가 되어
+//   Kafka 트랜잭션 밖인 이 발행 스레드에서는 보낼 수 없기 때문 (멱등 프로듀서 + acks=all 로 재전송 중복만 막음)
+@Component
+public class PaymentResultPublisher {
+
+    public static final String BINDING = "paymentResultProducer-out-0";
+
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String topic;
+    private final long sendTimeoutMs;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<Pending> buffer;
+    private final int bufferCapacity;
+    private final Path spillFile;
+    private final Path positionFile;
+    private final long maxBackoffMs;
+
+    private Timer publishLatency;
+    private Counter spilled;
+    private Counter failures;
+
+    // 아래 값은 this 로 동기화 (발행 스레드와 호출 스레드가 함께 씀)
+    private FileChannel spill;
+    private long spillWritePosition;
+    private boolean spilling;
+
+    private volatile long spillReadPosition; // 발행 스레드만 바꿈
+    private volatile boolean running;
+    private Thread thread;
+    private Pending inFlight; // 종료 시 보내지 못한 버퍼 항목 (발행 스레드만 씀)
+
+    public PaymentResultPublisher(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                                  @Value("${spring.cloud.stream.bindings.paymentResultProducer-out-0.destination}") String topic,
+                                  @Value("${payment.result-publisher.send-timeout-ms:10000}") long sendTimeoutMs,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${payment.result-publisher.buffer-capacity:10000}") int bufferCapacity,
+                                  @Value("${payment.result-publisher.spill-dir:./data/payment-results}") String spillDir,
+                                  @Value("${payment.result-publisher.max-backoff-ms:10000}") long maxBackoffMs) {
+        Map<String, Object> producerConfig = new HashMap<>();
+        producerConfig.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        producerConfig.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerConfig.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerConfig.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerConfig.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(producerConfig);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        this.topic = topic;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.bufferCapacity = bufferCapacity;
+        this.spillFile = Paths.get(spillDir).resolve("spill.ndjson");
+        this.positionFile = Paths.get(spillDir).resolve("spill.pos");
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(spillFile.getParent());
+        spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        spillWritePosition = spill.size();
+        String savedPosition = Files.exists(positionFile) ? Files.readString(positionFile).trim() : "";
+        spillReadPosition = savedPosition.isEmpty() ? 0 : Math.min(Long.parseLong(savedPosition), spillWritePosition);
+        spilling = spillReadPosition < spillWritePosition; // 지난 실행에서 남긴 결과부터 발행
+        if (spilling) {
+            System.out.println("--- PaymentResultPublisher: 이전 실행에서 남은 결과 " + (spillWritePosition - spillReadPosition)
+                    + " bytes 부터 발행 ---");
+        }
+
+        Gauge.builder("payments.result.buffer.depth", buffer, BlockingQueue::size)
+                .description("발행을 기다리는 결제 결과 수 (메모리 버퍼)")
+                .register(meterRegistry);
+        Gauge.builder("payments.result.spill.bytes", this, PaymentResultPublisher::spillBacklogBytes)
+                .description("버퍼가 넘쳐 파일에 쌓인, 아직 발행하지 않은 결제 결과 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        publishLatency = Timer.builder("payments.result.publish.latency")
+                .description("커밋 후 버퍼에 넣은 시점부터 Kafka 발행 완료까지 걸린 시간")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        spilled = Counter.builder("payments.result.spilled")
+                .description("버퍼가 가득 차서 파일에 쓴 결제 결과 수")
+                .register(meterRegistry);
+        failures = Counter.builder("payments.result.publish.failures")
+                .description("결제 결과 발행 실패 횟수 (같은 결과를 다시 보냄)")
+                .register(meterRegistry);
+
+        running = true;
+        thread = new Thread(this::run, "payment-result-publisher");
+        thread.start();
+    }
+
+    // 발행 스레드를 멈추고 보내지 못한 결과를 순서대로 파일에 남김
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+        producerFactory.destroy();
+        synchronized (this) {
+            List<Pending> remaining = new ArrayList<>();
+            if (inFlight != null) {
+                remaining.add(inFlight);
+            }
+            buffer.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                // 버퍼 항목이 파일 항목보다 먼저 들어온 것이므로 새 파일 = 버퍼 항목 + 파일의 남은 부분
+                Path tmp = spillFile.resolveSibling("spill.ndjson.tmp");
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (Pending pending : remaining) {
+                        writeFully(out, encode(pending));
+                    }
+                    spill.transferTo(spillReadPosition, spillWritePosition - spillReadPosition, out);
+                    out.force(true);
+                }
+                spill.close();
+                Files.move(tmp, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.writeString(positionFile, "0");
+                System.out.println("--- PaymentResultPublisher: 발행하지 못한 결과 " + remaining.size() + "건을 파일에 남김 ---");
+                return;
+            }
+            spill.force(true);
+            spill.close();
+            savePosition(spillReadPosition);
+        }
+    }
+
+    // 현재 DB 트랜잭션이 커밋된 뒤 발행 (트랜잭션 밖에서 호출하면 바로 버퍼에 넣음)
+    public void publishAfterCommit(PaymentResultEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(event);
+            }
+        });
+    }
+
+    private synchronized void enqueue(PaymentResultEvent event) {
+        Pending pending = new Pending(event, System.currentTimeMillis());
+        if (!spilling && buffer.offer(pending)) {
+            return;
+        }
+        if (!spilling) {
+            System.err.println("--- PaymentResultPublisher: 버퍼가 가득 차서 파일에 쓰기 시작 (용량: " + bufferCapacity + ") ---");
+        }
+        spilling = true;
+        try {
+            spillWritePosition += writeFully(spill, encode(pending), spillWritePosition);
+        } catch (IOException e) {
+            throw new UncheckedIOException("결제 결과를 파일에 쓰지 못했습니다 - 주문 ID: " + event.getOrderId(), e);
+        }
+        spilled.increment();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Pending pending = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (pending != null) {
+                    inFlight = pending;
+                    if (!send(pending)) {
+                        return; // 종료 중 (inFlight 는 stop 에서 파일로)
+                    }
+                    inFlight = null;
+                } else if (isSpilling()) {
+                    drainSpill();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                System.err.println("--- PaymentResultPublisher: 파일 읽기 실패 - " + e.getMessage() + " ---");
+                pause(maxBackoffMs);
+            }
+        }
+    }
+
+    // 버퍼를 다 비운 뒤에만 호출됨 (파일 항목은 버퍼 항목보다 나중에 들어온 것)
+    private void drainSpill() throws IOException {
+        long writePosition;
+        synchronized (this) {
+            writePosition = spillWritePosition;
+        }
+        long position = spillReadPosition;
+        if (position < writePosition) {
+            List<String> chunk = new ArrayList<>();
+            try (FileChannel reader = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                BufferedReader lines = new BufferedReader(new InputStreamReader(
+                        Channels.newInputStream(reader.position(position)), StandardCharsets.UTF_8));
+                long chunkEnd = position;
+                String line;
+                while (chunk.size() < 1000 && chunkEnd < writePosition && (line = lines.readLine()) != null) {
+                    chunk.add(line);
+                    chunkEnd += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+            }
+            for (String spilledLine : chunk) {
+                if (!send(decode(spilledLine))) {
+                    return; // 종료 중 (읽은 위치는 stop 에서 저장)
+                }
+                position += spilledLine.getBytes(StandardCharsets.UTF_8).length + 1;
+                spillReadPosition = position;
+            }
+            savePosition(position);
+        }
+        synchronized (this) {
+            // 그 사이 새로 붙은 결과가 없으면 파일을 비우고 다시 메모리 버퍼 사용
+            if (spillReadPosition >= spillWritePosition) {
+                spill.truncate(0);
+                spillWritePosition = 0;
+                spillReadPosition = 0;
+                savePosition(0);
+                spilling = false;
+                System.out.println("--- PaymentResultPublisher: 파일에 쌓인 결과 발행 완료, 메모리 버퍼로 전환 ---");
+            }
+        }
+    }
+
+    // 성공할 때까지 같은 결과를 다시 보냄 (순서 유지, 그 사이 들어오는 결과는 버퍼/파일에 쌓임)
+    // 종료 중이라 보내지 못하면 false
+    private boolean send(Pending pending) {
+        long backoffMs = 100;
+        while (true) {
+            boolean sent;
+            try {
+                kafkaTemplate.send(toRecord(pending.event())).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                sent = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException | TimeoutException | IOException | RuntimeException e) {
+                System.err.println("--- PaymentResultPublisher: 발행 실패 - 주문 ID: " + pending.event().getOrderId() + " - " + e.getMessage() + " ---");
+                sent = false;
+            }
+            if (sent) {
+                publishLatency.record(Math.max(0, System.currentTimeMillis() - pending.enqueuedAtMillis()), TimeUnit.MILLISECONDS);
+                return true;
+            }
+            failures.increment();
+            if (!pause(backoffMs)) {
+                return false;
+            }
+            backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+        }
+    }
+
+    // 키 = 주문 ID (같은 주문의 결과는 같은 파티션), 바인더로 보낼 때와 같은 JSON + contentType 헤더
+    private ProducerRecord<String, byte[]> toRecord(PaymentResultEvent event) throws IOException {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, String.valueOf(event.getOrderId()),
+                objectMapper.writeValueAsBytes(event));
+        record.headers().add(MessageHeaders.CONTENT_TYPE, "application/json".getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private synchronized boolean isSpilling() {
+        return spilling;
+    }
+
+    private synchronized long spillBacklogBytes() {
+        return spillWritePosition - spillReadPosition;
+    }
+
+    private void savePosition(long position) throws IOException {
+        Files.writeString(positionFile, Long.toString(position));
+    }
+
+    // 한 줄 = 버퍼에 넣은 시각(ms) TAB 결과 JSON
+    private ByteBuffer encode(Pending pending) throws IOException {
+        String line = pending.enqueuedAtMillis() + "\t" + objectMapper.writeValueAsString(pending.event()) + "\n";
+        return ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Pending decode(String line) throws IOException {
+        int tab = line.indexOf('\t');
+        return new Pending(objectMapper.readValue(line.substring(tab + 1), PaymentResultEvent.class),
+                Long.parseLong(line.substring(0, tab)));
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+        int written = 0;
+        while (bytes.hasRemaining()) {
+            written += channel.write(bytes, position + written);
+        }
+        return written;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    // 종료 요청을 100ms 단위로 확인하면서 기다림 (발행 스레드를 interrupt 하면 FileChannel 이 닫히므로 쓰지 않음)
+    private boolean pause(long ms) {
+        long until = System.currentTimeMillis() + ms;
+        while (running && System.currentTimeMillis() < until) {
+            try {
+                Thread.sleep(Math.min(100, ms));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return running;
+    }
+
+    private record Pending(PaymentResultEvent event, long enqueuedAtMillis) {
+    }
+}
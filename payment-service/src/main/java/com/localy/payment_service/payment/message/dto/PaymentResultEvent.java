@@ -1,12 +1,16 @@
 package com.localy.payment_service.payment.message.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor // 발행하지 못해 파일에 남긴 결과를 다시 읽을 때 (payment.message.PaymentResultPublisher)
+@AllArgsConstructor
 public class PaymentResultEvent {
     private Long orderId;
     private Long paymentId;
@@ -0,0 +1,96 @@
+package com.localy.payment_service.payment.reconciliation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.payment_service.payment.dto.PaymentReconciliationRequest;
+import com.localy.payment_service.payment.dto.PaymentReconciliationRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+
+// 주문 서비스 대사 작업용 결제 스트림
+// - 범위 안의 결제를 order_id 순서로 서버 측 커서(읽기 전용 트랜잭션 + fetch size)로 읽어 바로 NDJSON 으로 씀
+// - 주문 서비스가 같은 순서로 읽은 주문과 merge join 하므로 양쪽 모두 메모리는 일정
+// - 응답 쓰기가 막히면 다음 fetch 도 멈춤 (주문 서비스가 주문 쪽을 읽는 속도에 맞춰짐)
+@Service
+public class PaymentReconciliationStreamService {
+
+    private static final String PAYMENTS_SQL =
+            "SELECT order_id, payment_id, payment_status, total_amount, created_at FROM payments " +
+            "WHERE order_id >= ? AND order_id < ? ORDER BY order_id";
+
+    private static final String BUCKET_PAYMENTS_SQL =
+            "SELECT order_id, payment_id, payment_status, total_amount, created_at FROM payments " +
+            "WHERE order_id >= ? AND order_id < ? AND (order_id % ?) = ANY(?) ORDER BY order_id";
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Counter streamedRows;
+
+    public PaymentReconciliationStreamService(DataSource dataSource,
+                                              PlatformTransactionManager transactionManager,
+                                              ObjectMapper objectMapper,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${payment.reconciliation.fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize); // PostgreSQL 은 트랜잭션(autocommit off) 안에서만 커서로 나눠 읽음
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.streamedRows = Counter.builder("payments.reconciliation.rows")
+                .description("대사용으로 내보낸 결제 수")
+                .register(meterRegistry);
+    }
+
+    public void stream(PaymentReconciliationRequest request, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        boolean bucketFilter = request.getBuckets() != null && request.getBucketCount() != null;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(bucketFilter ? BUCKET_PAYMENTS_SQL : PAYMENTS_SQL);
+                ps.setLong(1, request.getFromOrderId());
+                ps.setLong(2, request.getToOrderId());
+                if (bucketFilter) {
+                    ps.setLong(3, request.getBucketCount());
+                    ps.setArray(4, connection.createArrayOf("bigint",
+                            request.getBuckets().stream().map(Integer::longValue).toArray()));
+                }
+                return ps;
+            }, rs -> {
+                Timestamp createdAt = rs.getTimestamp(5);
+                PaymentReconciliationRow row = PaymentReconciliationRow.builder()
+                        .orderId(rs.getLong(1))
+                        .paymentId(rs.getLong(2))
+                        .paymentStatus(rs.getString(3))
+                        .totalAmount(rs.getBigDecimal(4))
+                        .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                        .build();
+                try {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                streamedRows.increment();
+            }));
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // 주문 서비스 연결 끊김 등: 커서/트랜잭션은 이미 정리됨
+        }
+    }
+}
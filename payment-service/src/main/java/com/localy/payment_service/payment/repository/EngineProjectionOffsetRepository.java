@@ -0,0 +1,18 @@
+package com.localy.payment_service.payment.repository;
+
+import com.localy.payment_service.payment.domain.EngineProjectionOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface EngineProjectionOffsetRepository extends JpaRepository<EngineProjectionOffset, Integer> {
+
+    // 반영 위치는 앞으로만 이동
+    @Modifying
+    @Query(value = "INSERT INTO payment_engine_offsets (shard_id, projected_sequence, updated_at) " +
+            "VALUES (:shardId, :sequence, now()) " +
+            "ON CONFLICT (shard_id) DO UPDATE SET projected_sequence = GREATEST(payment_engine_offsets.projected_sequence, EXCLUDED.projected_sequence), " +
+            "updated_at = now()", nativeQuery = true)
+    int advance(@Param("shardId") int shardId, @Param("sequence") long sequence);
+}
@@ -2,7 +2,25 @@ package com.localy.payment_service.payment.repository;
 
 import com.localy.payment_service.payment.domain.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Payment findByOrderId(Long orderId); // 주문 ID로 결제 정보를 조회하는 메서드
-}
\ No newline at end of file
+
+    // 중복 확인 (payment.inbox.PaymentInbox 의 filter 가 "있을 수 있음"이라고 한 주문만)
+    boolean existsByOrderId(Long orderId);
+
+    // 배치 결제: 이미 결제 기록이 있는 주문 ID (재전송된 이벤트 제외용)
+    @Query("SELECT p.orderId FROM Payment p WHERE p.orderId IN :orderIds")
+    List<Long> findOrderIdsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // 환불: 승인 상태인 결제만 REFUNDED 로 (이미 환불된 결제는 0행 -> 같은 요청을 다시 받아도 한 번만 환불)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.paymentStatus = 'REFUNDED' WHERE p.orderId = :orderId AND p.paymentStatus = 'APPROVED'")
+    int markRefunded(@Param("orderId") Long orderId);
+}
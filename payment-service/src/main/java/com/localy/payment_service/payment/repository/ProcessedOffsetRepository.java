@@ -0,0 +1,31 @@
+package com.localy.payment_service.payment.repository;
+
+import com.localy.payment_service.payment.domain.ProcessedOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ProcessedOffsetRepository extends JpaRepository<ProcessedOffset, Long> {
+
+    // 처리 위치를 offset + 1 로 올림. 이미 이 오프셋 이후까지 처리됐으면 0 을 반환 (다시 받은 레코드)
+    // 행 락이 걸리므로 같은 파티션을 동시에 처리하는 이전 소유 인스턴스와도 한 쪽만 통과
+    @Modifying
+    @Query(value = "INSERT INTO processed_offsets (consumer_group, topic, partition_id, next_offset, updated_at) " +
+            "VALUES (:consumerGroup, :topic, :partitionId, :offset + 1, now()) " +
+            "ON CONFLICT (consumer_group, topic, partition_id) DO UPDATE SET " +
+            "next_offset = EXCLUDED.next_offset, updated_at = now() " +
+            "WHERE processed_offsets.next_offset <= :offset", nativeQuery = true)
+    int advance(@Param("consumerGroup") String consumerGroup,
+                @Param("topic") String topic,
+                @Param("partitionId") int partitionId,
+                @Param("offset") long offset);
+
+    @Query("SELECT p.nextOffset FROM ProcessedOffset p " +
+            "WHERE p.consumerGroup = :consumerGroup AND p.topic = :topic AND p.partitionId = :partitionId")
+    Optional<Long> findNextOffset(@Param("consumerGroup") String consumerGroup,
+                                  @Param("topic") String topic,
+                                  @Param("partitionId") int partitionId);
+}
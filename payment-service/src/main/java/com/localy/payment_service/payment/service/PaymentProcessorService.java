@@ -1,31 +1,97 @@
 package com.localy.payment_service.payment.service;
 
 import com.localy.payment_service.payment.domain.Payment;
+import com.localy.payment_service.payment.inbox.PaymentInbox;
 import com.localy.payment_service.order.consumer.dto.OrderCreatedEvent;
 import com.localy.payment_service.payment.message.dto.PaymentResultEvent;
-import com.localy.payment_service.payment.message.PaymentResultProducerConfig;
+import com.localy.payment_service.payment.message.PaymentResultPublisher;
 import com.localy.payment_service.payment.repository.PaymentRepository;
-import com.localy.payment_service.virtualAcount.domain.VirtualAccount;
-
-import com.localy.payment_service.virtualAcount.repository.VirtualAccountRepository;
+import com.localy.payment_service.payment.repository.ProcessedOffsetRepository;
+import com.localy.payment_service.virtualAcount.service.AccountDirectory;
+import com.localy.payment_service.virtualAcount.service.LedgerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentProcessorService {
 
-    private final VirtualAccountRepository virtualAccountRepository;
     private final PaymentRepository paymentRepository;
-    private final PaymentResultProducerConfig paymentResultProducerConfig;
+    private final PaymentResultPublisher paymentResultPublisher; // 결제 결과는 커밋된 뒤에 발행
+    private final LedgerService ledgerService; // 결제 = 손님 -> 가게 원장 이체 (계좌 행 UPDATE 없음)
+    private final JdbcTemplate jdbcTemplate; // 배치 결제의 payments JDBC 배치 INSERT
+    private final AccountDirectory accountDirectory; // userId / storeId -> 계좌 ID (원장 항목의 계좌)
+    private final ProcessedOffsetRepository processedOffsetRepository; // 트랜잭션 모드 컨슈머의 파티션별 처리 위치
+    private final PaymentInbox paymentInbox; // 다시 받은 주문 생성 이벤트 확인 (Bloom filter + 필요할 때만 조회)
+    private final PaymentStatusCache paymentStatusCache; // 결제 상태 조회 API 캐시 (기록할 때 커밋 후 채움)
 
     @Transactional
     public void processOrderCreatedEvent(OrderCreatedEvent orderCreatedEvent) {
+        PaymentResultEvent result = pay(orderCreatedEvent);
+        if (result != null) {
+            sendPaymentResult(result);
+        }
+    }
+
+    // 트랜잭션 모드 (exactly-once): 결제와 파티션 처리 위치를 한 DB 트랜잭션으로 기록하고 결과를 반환
+    // 결과 발행은 커밋된 뒤 호출하는 쪽이 Kafka 트랜잭션(오프셋 커밋 포함) 안에서 함
+    // 이미 처리 위치가 이 오프셋을 지났으면 (DB 는 커밋됐지만 Kafka 트랜잭션이 중단된 레코드) 결제 없이 저장된 결과를 반환
+    @Transactional
+    public PaymentResultEvent processOrderCreatedEventOnce(OrderCreatedEvent orderCreatedEvent,
+                                                           String consumerGroup, String topic, int partition, long offset) {
+        if (processedOffsetRepository.advance(consumerGroup, topic, partition, offset) == 0) {
+            System.out.println("결제 처리 건너뜀 (이미 처리된 오프셋): 주문 ID=" + orderCreatedEvent.getOrderId()
+                    + ", " + topic + "-" + partition + "@" + offset);
+            return findPaymentResult(orderCreatedEvent.getOrderId());
+        }
+        return pay(orderCreatedEvent);
+    }
+
+    // 이미 저장된 결제 결과 (다시 받은 레코드의 결과 재발행용, 결제 기록이 없으면 null)
+    @Transactional(readOnly = true)
+    public PaymentResultEvent findPaymentResult(Long orderId) {
+        Payment payment = paymentRepository.findByOrderId(orderId);
+        if (payment == null) {
+            return null;
+        }
+        return PaymentResultEvent.builder()
+                .orderId(orderId)
+                .paymentId("APPROVED".equals(payment.getPaymentStatus()) ? payment.getPaymentId() : null)
+                .paymentStatus(payment.getPaymentStatus())
+                .build();
+    }
+
+    // 결제하지 않고 거절로 기록 (엔진 모드에서 엔진이 처리할 수 없는 금액 등), 원래 주문 금액을 그대로 남김
+    // 이미 결제 기록이 있으면 저장된 결과를 반환
+    @Transactional
+    public PaymentResultEvent rejectPayment(Long orderId, String userId, BigDecimal orderAmount) {
+        Long paymentId = claimPayment(orderId, userId, orderAmount);
+        if (paymentId == null) {
+            paymentInbox.record(orderId);
+            return findPaymentResult(orderId);
+        }
+        return handlePaymentFailure(orderId, userId, paymentId, orderAmount);
+    }
+
+    private PaymentResultEvent pay(OrderCreatedEvent orderCreatedEvent) {
         Long orderId = orderCreatedEvent.getOrderId();
         String userId = orderCreatedEvent.getUserId();
         Long storeId = orderCreatedEvent.getStoreId();
@@ -33,116 +99,229 @@ public class PaymentProcessorService {
 
         System.out.println("결제 처리 시작: 주문 ID=" + orderId);
 
-        Optional<VirtualAccount> customerAccount = virtualAccountRepository.findByUserId(userId);
-        if (customerAccount.isEmpty()) {
-            handlePaymentFailure(orderId, orderAmount, null);
-            return;
+        // 이미 결제 기록이 있는 주문 (재전송된 이벤트): 계좌를 건드리지 않고 저장된 결과를 다시 발행
+        if (paymentInbox.isDuplicate(orderId)) {
+            System.out.println("이미 결제 기록이 있는 주문, 결제 건너뜀: 주문 ID=" + orderId);
+            return findPaymentResult(orderId);
         }
 
-        if (!isBalanceSufficient(customerAccount.orElse(null), orderAmount)) {
-            handlePaymentFailure(orderId, orderAmount, null);
-            return;
+        // filter 는 이 인스턴스가 본 결제만 알기 때문에 (리밸런스로 넘어온 파티션, 다른 인스턴스가 처리 중인 재전송)
+        // 없다고 해서 새 주문으로 확정하지 않고 결제 기록을 먼저 선점: 이미 있으면 저장된 결과를 다시 발행
+        Long paymentId = claimPayment(orderId, userId, orderAmount);
+        if (paymentId == null) {
+            System.out.println("다른 인스턴스가 결제한 주문, 결제 건너뜀: 주문 ID=" + orderId);
+            paymentInbox.record(orderId);
+            return findPaymentResult(orderId);
         }
 
-        debitCustomerAccount(customerAccount.orElse(null), orderAmount);
+        if (orderAmount == null || orderAmount.compareTo(BigDecimal.ZERO) <= 0) {
+            System.err.println("결제 금액이 올바르지 않습니다: 주문 ID=" + orderId + ", 주문 금액=" + orderAmount);
+            return handlePaymentFailure(orderId, userId, paymentId, orderAmount);
+        }
 
-        Optional<VirtualAccount> storeOwnerAccount = virtualAccountRepository.findByStoreId(storeId);
-        if (storeOwnerAccount.isEmpty()) {
-            handlePaymentFailure(orderId, orderAmount, customerAccount.orElse(null)); // 롤백 고려
-            return;
+        Long customerAccountId = accountDirectory.customerAccountId(userId).orElse(null);
+        if (customerAccountId == null) {
+            System.err.println("손님 가상 계좌를 찾을 수 없습니다: 사용자 ID=" + userId);
+            return handlePaymentFailure(orderId, userId, paymentId, orderAmount);
+        }
+        Long storeAccountId = accountDirectory.storeAccountId(storeId).orElse(null);
+        if (storeAccountId == null) {
+            System.err.println("가계 주인 가상 계좌를 찾을 수 없습니다: 가계 ID=" + storeId);
+            return handlePaymentFailure(orderId, userId, paymentId, orderAmount);
         }
 
-        creditStoreOwnerAccount(storeOwnerAccount.orElse(null), orderAmount);
+        // 잔액 확인 + 손님 출금/가게 입금 두 원장 항목 기록을 한 문장으로 처리 (잔액 부족이면 실패)
+        if (!transferToStore(userId, customerAccountId, storeAccountId, orderId, orderAmount)) {
+            return handlePaymentFailure(orderId, userId, paymentId, orderAmount);
+        }
 
-        Payment payment = savePaymentSuccess(orderId, orderAmount);
-        sendPaymentResult(orderId, payment.getPaymentId(), "APPROVED");
+        savePaymentSuccess(orderId, userId, paymentId, orderAmount);
+        return PaymentResultEvent.builder()
+                .orderId(orderId)
+                .paymentId(paymentId)
+                .paymentStatus("APPROVED")
+                .build();
     }
 
-    private VirtualAccount retrieveCustomerAccount(String userId) {
-        Optional<VirtualAccount> account = virtualAccountRepository.findByUserId(userId);
-        if (account.isEmpty()) {
-            System.err.println("손님 가상 계좌를 찾을 수 없습니다: 사용자 ID=" + userId);
-        }
-        return account.orElse(null);
+    // 결제 기록을 PROCESSING 으로 먼저 INSERT (payments.order_id 유니크 제약이 최종 중복 확인)
+    // 이미 있으면 null: 다른 트랜잭션이 같은 주문을 기록 중이면 그 트랜잭션이 끝날 때까지 기다린 뒤 판단하므로
+    // 예외(유니크 제약 위반 -> 트랜잭션 중단 -> retry/DLT) 없이 저장된 결과를 조회할 수 있음
+    private Long claimPayment(Long orderId, String userId, BigDecimal totalAmount) {
+        List<Long> paymentIds = jdbcTemplate.queryForList(
+                "INSERT INTO payments (order_id, user_id, payment_status, total_amount, created_at) VALUES (?, ?, 'PROCESSING', ?, now()) " +
+                        "ON CONFLICT (order_id) DO NOTHING RETURNING payment_id",
+                Long.class, orderId, userId, totalAmount);
+        return paymentIds.isEmpty() ? null : paymentIds.get(0);
     }
 
-    private boolean isBalanceSufficient(VirtualAccount account, BigDecimal amount) {
-        if (account.getBalance().compareTo(amount) < 0) {
-            System.err.println("잔액이 부족합니다: 사용자 ID=" + account.getUserId() + ", 잔액=" + account.getBalance() + ", 주문 금액=" + amount);
-            return false;
+    // 엔진 모드: 엔진에 넘기기 전에 결제 기록을 PROCESSING 으로 한 트랜잭션에서 선점하고, 엔진에 넘겨도 되는 주문 ID 를 반환
+    // - 새로 선점한 주문, 그리고 이전 시도에서 선점만 하고 아직 DB 에 반영되지 않은 주문(PROCESSING)
+    //   (이미 엔진이 처리한 주문이면 샤드의 주문 맵이 처음 결과를 돌려주므로 다시 차감하지 않음)
+    // - 승인/거절/환불로 끝난 결제 기록이 있는 주문은 빠짐 -> 호출하는 쪽에서 저장된 결과만 다시 발행
+    // 엔진 결과는 EngineProjector 가 PROCESSING 행을 최종 상태로 바꿔서 반영
+    @Transactional
+    public Set<Long> claimEnginePayments(List<OrderCreatedEvent> events) {
+        if (events.isEmpty()) {
+            return Set.of();
         }
-        return true;
+        int[] counts = jdbcTemplate.batchUpdate(
+                "INSERT INTO payments (order_id, user_id, payment_status, total_amount, created_at) VALUES (?, ?, 'PROCESSING', ?, now()) " +
+                        "ON CONFLICT (order_id) DO UPDATE SET payment_status = payments.payment_status " +
+                        "WHERE payments.payment_status = 'PROCESSING'",
+                events.stream()
+                        .map(event -> new Object[]{event.getOrderId(), event.getUserId(), event.getTotalAmount()})
+                        .toList());
+        Set<Long> claimed = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                claimed.add(events.get(i).getOrderId());
+            }
+        }
+        return claimed;
     }
 
-    private void debitCustomerAccount(VirtualAccount account, BigDecimal amount) {
-        account.setBalance(account.getBalance().subtract(amount));
-        virtualAccountRepository.save(account);
-        System.out.println("손님 가상 계좌 잔액 차감 완료: 사용자 ID=" + account.getUserId() + ", 잔액=" + account.getBalance());
+    // 배치 모드: 여러 주문 생성 이벤트를 한 트랜잭션으로 결제
+    // - 관련 계좌 ID 는 계좌 디렉터리에서 확인 (디렉터리에 없는 것만 IN 조회), 손님 출금은 주문마다 잔액 확인 후 원장 항목
+    // - 가게 입금은 가게별로 합쳐서 배치당 원장 항목 하나 (같은 거래 ID 로 출금 항목들과 묶음), payments 는 JDBC 배치 INSERT
+    // - 결제 결과는 커밋된 뒤에 발행 (롤백된 배치의 결과가 나가지 않도록)
+    // - 이미 결제 기록이 있는 주문(재전송)과 배치 안의 중복 주문은 건너뜀
+    // 예외가 나면 배치 전체가 롤백되므로 호출하는 쪽에서 이벤트별 처리로 다시 시도
+    // (filter 가 모르는 다른 인스턴스의 결제와 겹치면 payments 유니크 제약으로 배치가 실패하고, 이벤트별 처리의 선점에서 걸러짐)
+    @Transactional
+    public int processOrderCreatedEvents(List<OrderCreatedEvent> events) {
+        Set<Long> alreadyPaid = paymentInbox.findDuplicates(
+                events.stream().map(OrderCreatedEvent::getOrderId).collect(Collectors.toSet()));
+        Map<String, Long> customerAccountIds = accountDirectory.customerAccountIds(
+                events.stream().map(OrderCreatedEvent::getUserId).collect(Collectors.toSet()));
+        Map<Long, Long> storeAccountIds = accountDirectory.storeAccountIds(
+                events.stream().map(OrderCreatedEvent::getStoreId).collect(Collectors.toSet()));
+
+        List<PaymentResultEvent> results = new ArrayList<>();
+        List<OrderCreatedEvent> accepted = new ArrayList<>();
+        Map<Long, Long> transferIdByStoreAccount = new LinkedHashMap<>();
+        Map<Long, BigDecimal> creditsByStoreAccount = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (OrderCreatedEvent event : events) {
+            if (!seen.add(event.getOrderId()) || alreadyPaid.contains(event.getOrderId())) {
+                System.out.println("배치 결제: 이미 처리된 주문 건너뜀 - 주문 ID=" + event.getOrderId());
+                continue;
+            }
+            BigDecimal amount = event.getTotalAmount();
+            Long storeAccountId = storeAccountIds.get(event.getStoreId());
+            boolean approved = amount.compareTo(BigDecimal.ZERO) > 0
+                    && customerAccountIds.containsKey(event.getUserId())
+                    && storeAccountId != null
+                    && ledgerService.debitLeg(transferIdByStoreAccount.computeIfAbsent(storeAccountId, id -> ledgerService.nextTransferId()),
+                            customerAccountIds.get(event.getUserId()), amount, "PAYMENT", event.getOrderId());
+            if (approved) {
+                creditsByStoreAccount.merge(storeAccountId, amount, BigDecimal::add);
+            } else {
+                System.err.println("배치 결제: 결제 거절 - 주문 ID=" + event.getOrderId());
+            }
+            accepted.add(event);
+            results.add(PaymentResultEvent.builder()
+                    .orderId(event.getOrderId())
+                    .paymentStatus(approved ? "APPROVED" : "REJECTED")
+                    .build());
+        }
+
+        creditsByStoreAccount.forEach((storeAccountId, total) ->
+                ledgerService.creditLeg(transferIdByStoreAccount.get(storeAccountId), storeAccountId, total, "PAYMENT", null));
+
+        insertPayments(accepted, results);
+        accepted.forEach(event -> paymentInbox.record(event.getOrderId()));
+
+        results.forEach(paymentResultPublisher::publishAfterCommit);
+        System.out.println("배치 결제 완료: " + results.size() + "건 (가게 입금 " + creditsByStoreAccount.size() + "회)");
+        return results.size();
     }
 
-    private VirtualAccount retrieveStoreOwnerAccount(Long storeId) {
-        Optional<VirtualAccount> account = virtualAccountRepository.findByStoreId(storeId);
-        if (account.isEmpty()) {
-            System.err.println("가계 주인 가상 계좌를 찾을 수 없습니다: 가계 ID=" + storeId);
+    private void insertPayments(List<OrderCreatedEvent> events, List<PaymentResultEvent> results) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(
+                        "INSERT INTO payments (order_id, user_id, payment_status, payment_date, total_amount, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                        new String[]{"payment_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        boolean approved = "APPROVED".equals(results.get(i).getPaymentStatus());
+                        ps.setLong(1, events.get(i).getOrderId());
+                        ps.setString(2, events.get(i).getUserId());
+                        ps.setString(3, results.get(i).getPaymentStatus());
+                        if (approved) {
+                            ps.setTimestamp(4, now);
+                        } else {
+                            ps.setNull(4, Types.TIMESTAMP);
+                        }
+                        ps.setBigDecimal(5, events.get(i).getTotalAmount());
+                        ps.setTimestamp(6, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return events.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < results.size(); i++) {
+            PaymentResultEvent result = results.get(i);
+            boolean approved = "APPROVED".equals(result.getPaymentStatus());
+            if (approved) {
+                result.setPaymentId(((Number) keys.get(i).get("payment_id")).longValue());
+            }
+            paymentStatusCache.putAfterCommit(result.getOrderId(), events.get(i).getUserId(), result.getPaymentId(), result.getPaymentStatus(),
+                    events.get(i).getTotalAmount(), approved ? now.toLocalDateTime() : null);
         }
-        return account.orElse(null);
     }
 
-    private void creditStoreOwnerAccount(VirtualAccount account, BigDecimal amount) {
-        account.setBalance(account.getBalance().add(amount));
-        virtualAccountRepository.save(account);
-        System.out.println("가계 주인 가상 계좌 잔액 증가 완료: 가계 ID=" + account.getStoreId() + ", 잔액=" + account.getBalance());
+    private boolean transferToStore(String userId, Long customerAccountId, Long storeAccountId, Long orderId, BigDecimal amount) {
+        if (!ledgerService.transfer(customerAccountId, storeAccountId, amount, "PAYMENT", orderId)) {
+            System.err.println("손님 가상 계좌 잔액이 부족하거나 가게 계좌가 없습니다: 사용자 ID=" + userId + ", 주문 금액=" + amount);
+            return false;
+        }
+        System.out.println("결제 이체 기록 완료: 사용자 ID=" + userId + " -> 계좌 ID=" + storeAccountId + ", 금액=" + amount);
+        return true;
     }
 
-    private Payment savePaymentSuccess(Long orderId, BigDecimal totalAmount) {
-        Payment payment = Payment.builder()
-                .orderId(orderId)
-                .paymentStatus("APPROVED")
-                .totalAmount(totalAmount)
-                .paymentDate(LocalDateTime.now())
-                .build();
-        Payment savedPayment = paymentRepository.save(payment);
-        System.out.println("결제 성공 정보 저장 완료: 주문 ID=" + orderId + ", 결제 ID=" + savedPayment.getPaymentId()); // === 로그 추가: 성공 저장 알림 ===
-        return savedPayment;
+    private void savePaymentSuccess(Long orderId, String userId, Long paymentId, BigDecimal totalAmount) {
+        LocalDateTime paymentDate = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE payments SET payment_status = 'APPROVED', payment_date = ? WHERE payment_id = ?",
+                Timestamp.valueOf(paymentDate), paymentId);
+        paymentInbox.record(orderId);
+        paymentStatusCache.putAfterCommit(orderId, userId, paymentId, "APPROVED", totalAmount, paymentDate);
+        System.out.println("결제 성공 정보 저장 완료: 주문 ID=" + orderId + ", 결제 ID=" + paymentId); // === 로그 추가: 성공 저장 알림 ===
     }
 
 
-    private void savePaymentFailure(Long orderId, BigDecimal totalAmount) {
-        Payment payment = Payment.builder()
-                .orderId(orderId)
-                .paymentStatus("REJECTED")
-                .totalAmount(totalAmount)
-                .build();
-        paymentRepository.save(payment);
+    private void savePaymentFailure(Long orderId, String userId, Long paymentId, BigDecimal totalAmount) {
+        jdbcTemplate.update("UPDATE payments SET payment_status = 'REJECTED' WHERE payment_id = ?", paymentId);
+        paymentInbox.record(orderId);
+        paymentStatusCache.putAfterCommit(orderId, userId, null, "REJECTED", totalAmount, null);
         System.err.println("결제 실패 정보 저장 완료: 주문 ID=" + orderId);
     }
 
-    private void sendPaymentResult(Long orderId, Long paymentId, String paymentStatus) {
-        PaymentResultEvent paymentResultEvent = PaymentResultEvent.builder()
-                .orderId(orderId)
-                .paymentId(paymentId)
-                .paymentStatus(paymentStatus)
-                .build();
-
+    private void sendPaymentResult(PaymentResultEvent paymentResultEvent) {
         // === 로그 추가: PaymentResultEvent 생성 및 발행 시도 알림 ===
-        System.out.println("PaymentService: PaymentResultEvent 생성 및 발행 시도 - 주문 ID: " + orderId + ", 상태: " + paymentStatus);
+        System.out.println("PaymentService: PaymentResultEvent 생성 및 발행 시도 - 주문 ID: " + paymentResultEvent.getOrderId()
+                + ", 상태: " + paymentResultEvent.getPaymentStatus());
         // =======================================================
 
-        paymentResultProducerConfig.sendPaymentResult(paymentResultEvent);
+        paymentResultPublisher.publishAfterCommit(paymentResultEvent); // 롤백되면 발행하지 않음
     }
 
-    private void handlePaymentFailure(Long orderId, BigDecimal orderAmount, VirtualAccount customerAccount) {
-        savePaymentFailure(orderId, orderAmount);
+    private PaymentResultEvent handlePaymentFailure(Long orderId, String userId, Long paymentId, BigDecimal orderAmount) {
+        savePaymentFailure(orderId, userId, paymentId, orderAmount);
         System.err.println("결제 실패 정보 저장 완료: 주문 ID=" + orderId); // 이 로그는 이미 있군요.
 
-        // === 로그 추가: 결제 실패 시 PaymentResultEvent 발행 시도 알림 ===
-        System.out.println("PaymentService: 결제 실패 처리 완료, PaymentResultEvent 발행 시도 - 주문 ID: " + orderId + ", 상태: REJECTED");
-        // ==========================================================
-
-        sendPaymentResult(orderId, null, "REJECTED"); // 여기서 sendPaymentResult 호출
-        if (customerAccount != null) {
-            // 롤백 로직 구현 (추후)
-            System.err.println("결제 실패로 인해 손님 계좌 롤백 필요 (미구현): 주문 ID=" + orderId);
-        }
+        return PaymentResultEvent.builder()
+                .orderId(orderId)
+                .paymentStatus("REJECTED")
+                .build();
     }
 }
\ No newline at end of file
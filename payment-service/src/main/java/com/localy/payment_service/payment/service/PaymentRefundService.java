@@ -0,0 +1,83 @@
+package com.localy.payment_service.payment.service;
+
+import com.localy.payment_service.order.consumer.dto.PaymentRefundRequestedEvent;
+import com.localy.payment_service.payment.domain.Payment;
+import com.localy.payment_service.payment.engine.PaymentEngine;
+import com.localy.payment_service.payment.repository.PaymentRepository;
+import com.localy.payment_service.virtualAcount.service.AccountDirectory;
+import com.localy.payment_service.virtualAcount.service.LedgerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+// 주문 서비스의 환불 요청 처리 (만료된 주문에 늦게 도착한 승인 등)
+// - 결제 상태를 APPROVED -> REFUNDED 로 조건부 변경한 요청만 돈을 되돌림 (같은 요청을 여러 번 받아도 한 번만 환불)
+// - 금액은 요청이 아니라 저장된 결제 금액 기준, 원장에는 가게 -> 손님 REFUND 이체로 기록
+// - 엔진 모드: 손님 잔액은 엔진이 가지고 있으므로 손님 쪽은 엔진 환불 입금, 가게 쪽은 원장 출금으로 기록
+//   엔진 입금은 되돌릴 수 없으므로 트랜잭션의 마지막 단계에서 하고, 주문 ID 로 한 번만 입금됨
+//   (커밋이 실패해 요청을 다시 받으면 REFUNDED 변경과 가게 출금은 다시 기록되고 엔진은 처음 결과만 돌려줌)
+@Service
+public class PaymentRefundService {
+
+    private final PaymentRepository paymentRepository;
+    private final LedgerService ledgerService;
+    private final AccountDirectory accountDirectory;
+    private final PaymentStatusCache paymentStatusCache;
+    private final ObjectProvider<PaymentEngine> paymentEngineProvider; // payment.engine.enabled=true 일 때만 존재
+    private final Counter refunded;
+
+    public PaymentRefundService(PaymentRepository paymentRepository,
+                                LedgerService ledgerService,
+                                AccountDirectory accountDirectory,
+                                PaymentStatusCache paymentStatusCache,
+                                ObjectProvider<PaymentEngine> paymentEngineProvider,
+                                MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.ledgerService = ledgerService;
+        this.accountDirectory = accountDirectory;
+        this.paymentStatusCache = paymentStatusCache;
+        this.paymentEngineProvider = paymentEngineProvider;
+        this.refunded = Counter.builder("payments.refunded")
+                .description("주문 서비스 요청으로 환불한 결제 수")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public void refund(PaymentRefundRequestedEvent event) {
+        Long orderId = event.getOrderId();
+        Payment payment = paymentRepository.findByOrderId(orderId);
+        if (payment == null) {
+            // 엔진 모드에서 결제 기록이 아직 DB 에 반영되지 않았을 수 있으므로 retry 토픽에서 다시 처리
+            throw new IllegalStateException("환불할 결제 기록을 찾을 수 없습니다: 주문 ID=" + orderId);
+        }
+        if (!"APPROVED".equals(payment.getPaymentStatus()) || paymentRepository.markRefunded(orderId) == 0) {
+            System.out.println("환불 건너뜀 (승인 상태가 아닌 결제): 주문 ID=" + orderId + ", 결제 상태=" + payment.getPaymentStatus());
+            return;
+        }
+
+        Long customerAccountId = accountDirectory.customerAccountId(event.getUserId())
+                .orElseThrow(() -> new IllegalStateException("손님 가상 계좌를 찾을 수 없습니다: 사용자 ID=" + event.getUserId()));
+        Long storeAccountId = accountDirectory.storeAccountId(event.getStoreId())
+                .orElseThrow(() -> new IllegalStateException("가게 가상 계좌를 찾을 수 없습니다: 가게 ID=" + event.getStoreId()));
+        BigDecimal amount = payment.getTotalAmount();
+        PaymentEngine engine = paymentEngineProvider.getIfAvailable();
+        if (engine == null) {
+            if (!ledgerService.reverse(storeAccountId, customerAccountId, amount, "REFUND", orderId)) {
+                throw new IllegalStateException("환불 이체 기록 실패: 주문 ID=" + orderId);
+            }
+        } else {
+            if (!ledgerService.withdraw(storeAccountId, amount, "REFUND", orderId)) {
+                throw new IllegalStateException("환불 출금 기록 실패: 주문 ID=" + orderId);
+            }
+            engine.await(engine.refund(orderId, customerAccountId, amount)); // 저널에 남은 뒤 완료 (원장에는 비동기로 REFUND 입금 반영)
+        }
+        paymentStatusCache.putAfterCommit(orderId, payment.getUserId(), payment.getPaymentId(), "REFUNDED", amount, payment.getPaymentDate());
+        refunded.increment();
+        System.out.println("환불 완료: 주문 ID=" + orderId + ", 결제 ID=" + payment.getPaymentId() + ", 금액=" + amount
+                + " (주문 상태: " + event.getOrderStatus() + ")");
+    }
+}
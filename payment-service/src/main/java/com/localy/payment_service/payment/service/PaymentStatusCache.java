@@ -0,0 +1,178 @@
+package com.localy.payment_service.payment.service;
+
+import com.localy.payment_service.payment.domain.Payment;
+import com.localy.payment_service.payment.dto.PaymentStatusResponse;
+import com.localy.payment_service.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// 주문 ID -> 결제 상태 메모리 캐시 (결제 상태 조회 API 의 반복 polling 이 DB 까지 가지 않도록)
+// - 결제를 기록할 때(커밋 후) 바로 채우고, 상태에 따라 보관 시간을 다르게 둠
+//   REJECTED / REFUNDED: 바뀌지 않는 최종 상태 -> ttl
+//   APPROVED: 환불되면 REFUNDED 로 바뀜 -> approved-ttl (환불을 처리한 인스턴스는 바로 덮어쓰고, 다른 인스턴스는 이 시간 안에 다시 조회)
+//   PROCESSING 등 처리 중 상태, 결제 기록 없음 -> negative-ttl
+// - 캐시에 없으면 한 번만 조회해서 채움
+//   (같은 인스턴스에서 결제가 기록되면 바로 덮어쓰므로, 늦게 보이는 경우는 다른 인스턴스가 처리한 결제뿐)
+// - 최대 max-entries 개까지 보관하고 가장 오래 사용하지 않은 항목부터 제거 (LRU)
+// - 주문한 사용자(payments.user_id)도 함께 보관해서 다른 사용자의 조회는 없는 결제와 같이 empty
+@Component
+public class PaymentStatusCache {
+
+    private final PaymentRepository paymentRepository;
+    private final Map<Long, Entry> entries;
+    private final long ttlMs;
+    private final long approvedTtlMs;
+    private final long negativeTtlMs;
+
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public PaymentStatusCache(PaymentRepository paymentRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.status-cache.max-entries:100000}") int maxEntries,
+                              @Value("${payment.status-cache.ttl-seconds:600}") long ttlSeconds,
+                              @Value("${payment.status-cache.approved-ttl-seconds:30}") long approvedTtlSeconds,
+                              @Value("${payment.status-cache.negative-ttl-ms:1000}") long negativeTtlMs) {
+        this.paymentRepository = paymentRepository;
+        this.ttlMs = ttlSeconds * 1000;
+        this.approvedTtlMs = approvedTtlSeconds * 1000;
+        this.negativeTtlMs = negativeTtlMs;
+        this.evictions = Counter.builder("payments.status.cache.evictions")
+                .description("최대 개수를 넘어 제거된 결제 상태 캐시 항목 수")
+                .register(meterRegistry);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                boolean evict = size() > maxEntries;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+        this.hits = lookups(meterRegistry, "hit");
+        this.negativeHits = lookups(meterRegistry, "negative_hit");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("payments.status.cache.size", this, cache -> cache.size())
+                .description("결제 상태 캐시 항목 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.status.cache.lookups")
+                .description("결제 상태 캐시 조회 결과 (miss 만 DB 조회)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // 결제 기록이 없거나 userId 의 주문이 아니면 empty (아직 처리 전이거나 없는 주문)
+    public Optional<PaymentStatusResponse> find(Long orderId, String userId) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(orderId);
+        }
+        if (entry != null && entry.expiresAtMillis() > now) {
+            (entry.status() != null ? hits : negativeHits).increment();
+            return entry.visibleTo(userId);
+        }
+        misses.increment();
+        Payment payment = paymentRepository.findByOrderId(orderId);
+        Entry loaded = payment == null
+                ? new Entry(null, null, now + negativeTtlMs)
+                : entry(toResponse(payment), payment.getUserId(), now);
+        synchronized (entries) {
+            Entry current = entries.get(orderId);
+            // 조회하는 사이 결제 기록으로 채워진 더 나중 상태(예: 조회는 APPROVED, 그 사이 환불로 REFUNDED)는 덮어쓰지 않음
+            if (current == null || stage(current) <= stage(loaded)) {
+                entries.put(orderId, loaded);
+            }
+        }
+        return loaded.visibleTo(userId);
+    }
+
+    // 결제 결과를 기록한 트랜잭션이 커밋된 뒤 캐시에 넣음 (트랜잭션 밖이면 바로)
+    public void putAfterCommit(Long orderId, String userId, Long paymentId, String paymentStatus, BigDecimal totalAmount, LocalDateTime paymentDate) {
+        PaymentStatusResponse status = PaymentStatusResponse.builder()
+                .orderId(orderId)
+                .paymentId("APPROVED".equals(paymentStatus) ? paymentId : null)
+                .paymentStatus(paymentStatus)
+                .totalAmount(totalAmount)
+                .paymentDate(paymentDate)
+                .build();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(status, userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(status, userId);
+            }
+        });
+    }
+
+    private void put(PaymentStatusResponse status, String userId) {
+        synchronized (entries) {
+            entries.put(status.getOrderId(), entry(status, userId, System.currentTimeMillis()));
+        }
+    }
+
+    private Entry entry(PaymentStatusResponse status, String userId, long now) {
+        long ttl = switch (status.getPaymentStatus()) {
+            case "REJECTED", "REFUNDED" -> ttlMs;
+            case "APPROVED" -> approvedTtlMs;
+            default -> negativeTtlMs;
+        };
+        return new Entry(status, userId, now + ttl);
+    }
+
+    // 결제 상태가 바뀌는 순서 (기록 없음 -> 처리 중 -> APPROVED/REJECTED -> REFUNDED)
+    private static int stage(Entry entry) {
+        if (entry.status() == null) {
+            return 0;
+        }
+        return switch (entry.status().getPaymentStatus()) {
+            case "APPROVED", "REJECTED" -> 2;
+            case "REFUNDED" -> 3;
+            default -> 1;
+        };
+    }
+
+    private static PaymentStatusResponse toResponse(Payment payment) {
+        return PaymentStatusResponse.builder()
+                .orderId(payment.getOrderId())
+                .paymentId("APPROVED".equals(payment.getPaymentStatus()) ? payment.getPaymentId() : null)
+                .paymentStatus(payment.getPaymentStatus())
+                .totalAmount(payment.getTotalAmount())
+                .paymentDate(payment.getPaymentDate())
+                .build();
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry(PaymentStatusResponse status, String userId, long expiresAtMillis) {
+
+        // user_id 가 없는 기록(컬럼 추가 전)은 누구에게도 보여주지 않음
+        Optional<PaymentStatusResponse> visibleTo(String requesterId) {
+            return status != null && userId != null && userId.equals(requesterId) ? Optional.of(status) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.localy.payment_service.retry;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.cloud.stream.binder.kafka.ListenerContainerWithDlqAndRetryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerPausingBackOffHandler;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+// retry 토픽 컨테이너의 대기 방식
+// 처리 예정 시각 전인 레코드는 RetryNotDueException 으로 돌려보내고, 오류 처리기가 남은 시간만큼 그 파티션만 멈춘 뒤
+// (컨슈머 스레드는 계속 poll -> max.poll.interval.ms 를 넘기지 않고 리밸런스도 일어나지 않음) 같은 레코드로 seek 해서 다시 받음
+// 그 밖의 예외 (retry/DLT 토픽 발행 실패 등) 도 레코드를 버리지 않고 retry-failure-backoff-ms 간격으로 같은 방식으로 다시 시도
+// 바인더 transaction-id-prefix (트랜잭션 모드) 에서는 오류 처리기 대신 AfterRollbackProcessor 가 쓰이므로
+// 그쪽은 같은 간격으로 seek 후 대기 (파티션을 멈추지 못하고 스레드가 기다림, 레코드는 버리지 않음)
+@Configuration
+public class RetryTopicBackoffConfig {
+
+    private static final long FAILURE_BACKOFF_MS = 1000;
+
+    // 멈춘 파티션을 다시 시작하는 전용 스케줄러 (빈으로 등록하면 @Scheduled 작업의 기본 스케줄러를 대신하게 되므로 내부에서만 사용)
+    private final ThreadPoolTaskScheduler resumeScheduler = new ThreadPoolTaskScheduler();
+
+    public RetryTopicBackoffConfig() {
+        resumeScheduler.setPoolSize(1);
+        resumeScheduler.setThreadNamePrefix("retry-topic-resume-");
+        resumeScheduler.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumeScheduler.shutdown();
+    }
+
+    @Bean
+    public ListenerContainerWithDlqAndRetryCustomizer retryTopicBackoffCustomizer() {
+        return new ListenerContainerWithDlqAndRetryCustomizer() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void configure(AbstractMessageListenerContainer<?, ?> container, String destinationName, String group,
+                                  BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> dlqDestinationResolver,
+                                  BackOff backOff) {
+                if (!isRetryTopic(destinationName)) {
+                    return;
+                }
+                BiConsumer<ConsumerRecord<?, ?>, Exception> recoverer = (record, e) -> System.err.println(
+                        "--- RetryTopicBackoffConfig: 재시도 중단된 레코드 (" + record.topic() + "-" + record.partition()
+                                + "@" + record.offset() + ") - " + e.getMessage() + " ---");
+                DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer,
+                        new FixedBackOff(FAILURE_BACKOFF_MS, FixedBackOff.UNLIMITED_ATTEMPTS),
+                        new ContainerPausingBackOffHandler(new ListenerContainerPauseService(null, resumeScheduler)));
+                errorHandler.setBackOffFunction(RetryTopicBackoffConfig::backOffFor);
+                errorHandler.setLogLevel(KafkaException.Level.DEBUG); // 예정 시각 전 대기는 오류가 아님
+                container.setCommonErrorHandler(errorHandler);
+
+                DefaultAfterRollbackProcessor<Object, Object> afterRollbackProcessor = new DefaultAfterRollbackProcessor<>(recoverer,
+                        new FixedBackOff(FAILURE_BACKOFF_MS, FixedBackOff.UNLIMITED_ATTEMPTS));
+                afterRollbackProcessor.setBackOffFunction(RetryTopicBackoffConfig::backOffFor);
+                ((AbstractMessageListenerContainer<Object, Object>) container).setAfterRollbackProcessor(afterRollbackProcessor);
+            }
+
+            // retry 토픽은 바인더의 제자리 재시도/DLQ 대신 위 오류 처리기로 처리
+            @Override
+            public boolean retryAndDlqInBinding(String destinationName, String group) {
+                return !isRetryTopic(destinationName);
+            }
+        };
+    }
+
+    private static boolean isRetryTopic(String destinationName) {
+        return destinationName != null && destinationName.matches(".*-retry-\\d+");
+    }
+
+    // 예정 시각 전이면 남은 시간만큼, 그 밖의 예외는 기본 간격 (null)
+    private static BackOff backOffFor(ConsumerRecord<?, ?> record, Exception e) {
+        RetryNotDueException notDue = findNotDue(e);
+        return notDue != null ? new FixedBackOff(notDue.getWaitMs(), FixedBackOff.UNLIMITED_ATTEMPTS) : null;
+    }
+
+    private static RetryNotDueException findNotDue(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryNotDueException notDue) {
+                return notDue;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.localy.payment_service.retry.controller;
+
+import com.localy.payment_service.retry.domain.DeadLetterMessage;
+import com.localy.payment_service.retry.service.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// DLT 레코드 조회/재처리 (Edge 에서 내부/관리자만 접근하도록 제한해야 함)
+@RestController
+@RequestMapping("/api/payments/admin/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    // 예: GET /api/payments/admin/dead-letters?topic=order-created&limit=50
+    //     GET /api/payments/admin/dead-letters?status=MANUAL (재발행할 수 없어 직접 보정할 레코드)
+    @GetMapping
+    public ResponseEntity<List<DeadLetterMessage>> getPendingDeadLetters(
+            @RequestParam(defaultValue = DeadLetterMessage.STATUS_PENDING) String status,
+            @RequestParam(required = false) String topic,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(deadLetterService.findByStatus(status, topic, Math.min(limit, 500)));
+    }
+
+    @PostMapping("/{deadLetterId}/replay")
+    public ResponseEntity<?> replay(@PathVariable Long deadLetterId) {
+        System.out.println("--- DeadLetterController: DLT 레코드 " + deadLetterId + " 재처리 요청 ---");
+        try {
+            return ResponseEntity.ok(deadLetterService.replay(deadLetterId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // 대기 중인 레코드를 오래된 순서로 limit 건까지 재처리
+    @PostMapping("/replay")
+    public ResponseEntity<List<Long>> replayAll(
+            @RequestParam(required = false) String topic,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<Long> replayed = new ArrayList<>();
+        for (DeadLetterMessage deadLetter : deadLetterService.findPending(topic, Math.min(limit, 1000))) {
+            try {
+                deadLetterService.replay(deadLetter.getDeadLetterId());
+                replayed.add(deadLetter.getDeadLetterId());
+            } catch (IllegalStateException e) {
+                System.err.println("--- DeadLetterController: DLT 레코드 " + deadLetter.getDeadLetterId() + " 재처리 실패 - " + e.getMessage() + " ---");
+            }
+        }
+        return ResponseEntity.ok(replayed);
+    }
+}
@@ -0,0 +1,52 @@
+package com.localy.payment_service.retry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// DLT 로 넘어온 레코드 (재처리 API 에서 원래 토픽으로 다시 발행)
+// MANUAL: Kafka 레코드가 아니라 재발행할 수 없는 실패 (예: 결제 엔진 결과의 DB 반영 실패), 내용을 보고 직접 보정
+@Getter
+@Setter
+@Entity
+@Table(name = "dead_letter_messages", indexes = {
+        @Index(name = "idx_dead_letter_status_failed_at", columnList = "status, failed_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterMessage {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_REPLAYED = "REPLAYED";
+    public static final String STATUS_MANUAL = "MANUAL";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long deadLetterId;
+
+    @Column(nullable = false)
+    private String consumerName;
+
+    @Column(nullable = false)
+    private String originalTopic;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    private Integer attempts;
+
+    private String exceptionClass;
+
+    @Column(length = 2000)
+    private String exceptionMessage;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+
+    private LocalDateTime replayedAt;
+}
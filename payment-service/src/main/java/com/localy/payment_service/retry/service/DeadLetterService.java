@@ -0,0 +1,101 @@
+package com.localy.payment_service.retry.service;
+
+import com.localy.payment_service.retry.NonBlockingRetryHandler;
+import com.localy.payment_service.retry.domain.DeadLetterMessage;
+import com.localy.payment_service.retry.repository.DeadLetterMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+public class DeadLetterService {
+
+    private final DeadLetterMessageRepository deadLetterMessageRepository;
+    private final StreamBridge streamBridge;
+    private final Counter replayedCounter;
+
+    public DeadLetterService(DeadLetterMessageRepository deadLetterMessageRepository,
+                             StreamBridge streamBridge,
+                             MeterRegistry meterRegistry) {
+        this.deadLetterMessageRepository = deadLetterMessageRepository;
+        this.streamBridge = streamBridge;
+        this.replayedCounter = Counter.builder("kafka.consumer.dlt.replayed")
+                .description("DLT 에서 원래 토픽으로 다시 발행한 레코드 수")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.dlt.pending", deadLetterMessageRepository,
+                        repository -> repository.countByStatus(DeadLetterMessage.STATUS_PENDING))
+                .description("재처리를 기다리는 DLT 레코드 수")
+                .register(meterRegistry);
+    }
+
+    // DLT 토픽 컨슈머에서 호출: 레코드를 저장해 두고 재처리 API 로 다시 발행
+    @Transactional
+    public void store(Message<byte[]> message) {
+        Long attempts = NonBlockingRetryHandler.headerAsLong(message, NonBlockingRetryHandler.ATTEMPT_HEADER);
+        String exceptionMessage = NonBlockingRetryHandler.headerAsString(message, NonBlockingRetryHandler.EXCEPTION_MESSAGE_HEADER);
+        DeadLetterMessage deadLetter = DeadLetterMessage.builder()
+                .consumerName(String.valueOf(NonBlockingRetryHandler.headerAsString(message, NonBlockingRetryHandler.CONSUMER_HEADER)))
+                .originalTopic(String.valueOf(NonBlockingRetryHandler.headerAsString(message, NonBlockingRetryHandler.ORIGINAL_TOPIC_HEADER)))
+                .payload(message.getPayload() != null ? new String(message.getPayload(), StandardCharsets.UTF_8) : null)
+                .attempts(attempts != null ? attempts.intValue() : null)
+                .exceptionClass(NonBlockingRetryHandler.headerAsString(message, NonBlockingRetryHandler.EXCEPTION_CLASS_HEADER))
+                .exceptionMessage(exceptionMessage != null && exceptionMessage.length() > 2000 ? exceptionMessage.substring(0, 2000) : exceptionMessage)
+                .status(DeadLetterMessage.STATUS_PENDING)
+                .failedAt(LocalDateTime.now())
+                .build();
+        deadLetterMessageRepository.save(deadLetter);
+        System.err.println(String.format("--- DeadLetterService: DLT 레코드 저장 (ID: %d, 토픽: %s, 원인: %s) ---",
+                deadLetter.getDeadLetterId(), deadLetter.getOriginalTopic(), deadLetter.getExceptionMessage()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<DeadLetterMessage> findPending(String topic, int limit) {
+        return findByStatus(DeadLetterMessage.STATUS_PENDING, topic, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DeadLetterMessage> findByStatus(String status, String topic, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return topic == null
+                ? deadLetterMessageRepository.findByStatusOrderByFailedAtAsc(status, page)
+                : deadLetterMessageRepository.findByStatusAndOriginalTopicOrderByFailedAtAsc(status, topic, page);
+    }
+
+    // 원래 토픽으로 다시 발행 (처음부터 다시 처리되며, 또 실패하면 retry 단계를 다시 거침)
+    @Transactional
+    public DeadLetterMessage replay(Long deadLetterId) {
+        DeadLetterMessage deadLetter = deadLetterMessageRepository.findById(deadLetterId)
+                .orElseThrow(() -> new NoSuchElementException("DLT 레코드를 찾을 수 없습니다: " + deadLetterId));
+        if (DeadLetterMessage.STATUS_MANUAL.equals(deadLetter.getStatus())) {
+            throw new IllegalStateException("재발행할 수 없는 레코드입니다 (수동 보정 대상): " + deadLetterId);
+        }
+        if (!DeadLetterMessage.STATUS_PENDING.equals(deadLetter.getStatus())) {
+            throw new IllegalStateException("이미 재처리된 DLT 레코드입니다: " + deadLetterId);
+        }
+        Message<byte[]> message = MessageBuilder
+                .withPayload(deadLetter.getPayload() != null ? deadLetter.getPayload().getBytes(StandardCharsets.UTF_8) : new byte[0])
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE)
+                .build();
+        if (!streamBridge.send(deadLetter.getOriginalTopic(), message)) {
+            throw new IllegalStateException(deadLetter.getOriginalTopic() + " 재발행 실패");
+        }
+        deadLetter.setStatus(DeadLetterMessage.STATUS_REPLAYED);
+        deadLetter.setReplayedAt(LocalDateTime.now());
+        replayedCounter.increment();
+        System.out.println(String.format("--- DeadLetterService: DLT 레코드 재발행 (ID: %d, 토픽: %s) ---", deadLetterId, deadLetter.getOriginalTopic()));
+        return deadLetter;
+    }
+}
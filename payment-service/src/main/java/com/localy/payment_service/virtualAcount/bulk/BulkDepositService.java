@@ -0,0 +1,211 @@
+package com.localy.payment_service.virtualAcount.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localy.payment_service.virtualAcount.dto.BulkDepositRowResult;
+import com.localy.payment_service.virtualAcount.service.LedgerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// 가상 계좌 일괄 입금 (프로모션 적립 등)
+// - 요청 본문(NDJSON 또는 CSV 의 userId, amount)을 한 줄씩 읽고 chunk-size 행마다 원장 INSERT 한 번 + 트랜잭션 한 번으로 반영
+// - 행별 결과는 chunk 가 커밋될 때마다 응답(NDJSON)으로 바로 내보내므로 메모리는 chunk 크기 정도로 일정
+// - chunk 안에 같은 사용자가 여러 번 나오면 합쳐서 한 번에 더함
+// 중간에 연결이 끊기면 이미 커밋된 chunk 는 남으므로, 받은 결과의 마지막 줄 번호 다음부터 다시 보내면 됨
+@Service
+public class BulkDepositService {
+
+    public enum Format { NDJSON, CSV }
+
+    // 사용자별 합계마다 원장 이체 하나 (외부 -> 계좌 두 항목), 계좌가 있는 사용자 ID 를 반환
+    private static final String DEPOSIT_SQL =
+            "WITH d AS (" +
+            "  SELECT va.account_id, va.user_id, t.amount, nextval('ledger_transfer_seq') AS transfer_id " +
+            "  FROM (SELECT user_id, SUM(amount) AS amount FROM unnest(?, ?) AS t(user_id, amount) GROUP BY user_id) t " +
+            "  JOIN \"virtual-account\" va ON va.user_id = t.user_id AND va.store_id IS NULL" +
+            "), legs AS (" +
+            "  INSERT INTO ledger_entries (transfer_id, account_id, amount, entry_type, txid, created_at) " +
+            "  SELECT d.transfer_id, leg.account_id, leg.amount, 'BULK_DEPOSIT', pg_current_xact_id()::text::bigint, now() " +
+            "  FROM d CROSS JOIN LATERAL (VALUES (d.account_id, d.amount), " +
+            "(CAST(" + LedgerService.EXTERNAL_ACCOUNT_ID + " AS bigint), -d.amount)) AS leg(account_id, amount)" +
+            ") " +
+            "SELECT user_id FROM d";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Timer chunkTimer;
+    private final int chunkSize;
+
+    public BulkDepositService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.bulk-deposit.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.chunkTimer = Timer.builder("payments.bulk.deposit.chunk.duration")
+                .description("일괄 입금 chunk 하나를 반영/커밋하는 데 걸린 시간")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+    }
+
+    public void deposit(InputStream in, Format format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        List<BulkDepositRowResult> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        long applied = 0;
+        long total = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && line.trim().toLowerCase().startsWith("userid"))) {
+                continue; // 빈 줄, CSV 헤더
+            }
+            chunk.add(parse(lineNumber, line, format));
+            if (chunk.size() >= chunkSize) {
+                applied += flush(chunk, writer);
+                total += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applied += flush(chunk, writer);
+            total += chunk.size();
+        }
+        writer.flush();
+        System.out.println(String.format("--- BulkDepositService: 일괄 입금 %d행 중 %d행 반영 (%dms) ---",
+                total, applied, System.currentTimeMillis() - start));
+    }
+
+    private BulkDepositRowResult parse(long lineNumber, String line, Format format) {
+        String userId;
+        String amountText;
+        try {
+            if (format == Format.NDJSON) {
+                JsonNode node = objectMapper.readTree(line);
+                userId = node.path("userId").asText(null);
+                amountText = node.path("amount").asText(null);
+            } else {
+                String[] columns = line.split(",", -1);
+                if (columns.length != 2) {
+                    return invalid(lineNumber, null, "userId,amount 두 열이어야 합니다.");
+                }
+                userId = columns[0].trim();
+                amountText = columns[1].trim();
+            }
+        } catch (IOException e) {
+            return invalid(lineNumber, null, "JSON 형식이 아닙니다.");
+        }
+        if (userId == null || userId.isBlank()) {
+            return invalid(lineNumber, null, "userId 가 없습니다.");
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(amountText);
+        } catch (NumberFormatException | NullPointerException e) {
+            return invalid(lineNumber, userId, "amount 가 숫자가 아닙니다.");
+        }
+        if (amount.signum() <= 0 || amount.stripTrailingZeros().scale() > 2) {
+            return invalid(lineNumber, userId, "입금 금액은 0보다 크고 소수점 둘째 자리까지여야 합니다.");
+        }
+        return BulkDepositRowResult.builder().line(lineNumber).userId(userId).amount(amount).build();
+    }
+
+    private static BulkDepositRowResult invalid(long lineNumber, String userId, String message) {
+        return BulkDepositRowResult.builder().line(lineNumber).userId(userId).status("INVALID").message(message).build();
+    }
+
+    // chunk 의 유효한 행을 원장 INSERT 한 번으로 반영하고 행별 결과를 입력 순서대로 씀 (반영된 행 수 반환)
+    private long flush(List<BulkDepositRowResult> chunk, Writer writer) throws IOException {
+        List<String> userIds = new ArrayList<>(chunk.size());
+        List<BigDecimal> amounts = new ArrayList<>(chunk.size());
+        for (BulkDepositRowResult row : chunk) {
+            if (row.getStatus() == null) {
+                userIds.add(row.getUserId());
+                amounts.add(row.getAmount());
+            }
+        }
+        Set<String> credited = new HashSet<>();
+        String failure = null;
+        if (!userIds.isEmpty()) {
+            Timer.Sample sample = Timer.start();
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(DEPOSIT_SQL);
+                    Array userIdArray = connection.createArrayOf("text", userIds.toArray());
+                    Array amountArray = connection.createArrayOf("numeric", amounts.toArray());
+                    ps.setArray(1, userIdArray);
+                    ps.setArray(2, amountArray);
+                    return ps;
+                }, rs -> {
+                    credited.add(rs.getString(1));
+                }));
+            } catch (RuntimeException e) {
+                // chunk 전체가 롤백됨 -> 이 chunk 의 행은 모두 FAILED 로 알리고 다음 chunk 계속
+                System.err.println("--- BulkDepositService: chunk 반영 실패 (" + userIds.size() + "행) - " + e.getMessage() + " ---");
+                credited.clear();
+                failure = "반영 중 오류가 발생해 이 행은 입금되지 않았습니다.";
+            } finally {
+                sample.stop(chunkTimer);
+            }
+        }
+        long applied = 0;
+        for (BulkDepositRowResult row : chunk) {
+            String status = row.getStatus();
+            String message = row.getMessage();
+            if (status == null) {
+                if (failure != null) {
+                    status = "FAILED";
+                    message = failure;
+                } else if (credited.contains(row.getUserId())) {
+                    status = "APPLIED";
+                    applied++;
+                } else {
+                    status = "NO_ACCOUNT";
+                    message = "가상 계좌가 없습니다.";
+                }
+            }
+            BulkDepositRowResult result = BulkDepositRowResult.builder()
+                    .line(row.getLine())
+                    .userId(row.getUserId())
+                    .amount(row.getAmount())
+                    .status(status)
+                    .message(message)
+                    .build();
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+            meterRegistry.counter("payments.bulk.deposit.rows", "status", status).increment();
+        }
+        writer.flush(); // chunk 단위로 클라이언트에 진행 상황 전달
+        return applied;
+    }
+}
@@ -0,0 +1,49 @@
+package com.localy.payment_service.virtualAcount.controller;
+
+import com.localy.payment_service.virtualAcount.bulk.BulkDepositService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// 가상 계좌 일괄 입금 (Edge 에서 내부/관리자만 접근하도록 제한해야 함)
+@RestController
+@RequestMapping("/api/payments/admin/virtual-accounts")
+@RequiredArgsConstructor
+public class BulkDepositController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final BulkDepositService bulkDepositService;
+
+    // 엔진 모드에서는 고객 잔액을 엔진이 가지고 있어 원장에 직접 쓰는 일괄 입금을 막음
+    @Value("${payment.engine.enabled:false}")
+    private boolean engineEnabled;
+
+    // 예: curl -X POST -H 'Content-Type: text/csv' --data-binary @deposits.csv .../api/payments/admin/virtual-accounts/bulk-deposit
+    // 본문: NDJSON ({"userId":"u1","amount":1000} 한 줄씩) 또는 CSV (userId,amount, 헤더 줄은 선택)
+    // 응답: 입력 행마다 결과 한 줄 (NDJSON, status = APPLIED / NO_ACCOUNT / INVALID / FAILED)
+    @PostMapping(value = "/bulk-deposit", consumes = {NDJSON, "text/csv"}, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> bulkDeposit(HttpServletRequest request) throws IOException {
+        if (engineEnabled) {
+            System.err.println("--- BulkDepositController: 결제 엔진 모드에서는 일괄 입금을 지원하지 않습니다. ---");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        BulkDepositService.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(NDJSON))
+                ? BulkDepositService.Format.NDJSON
+                : BulkDepositService.Format.CSV;
+        System.out.println("--- BulkDepositController: 일괄 입금 요청 수신 (형식: " + format + ") ---");
+        InputStream in = request.getInputStream(); // 본문을 미리 읽지 않고 응답을 쓰면서 함께 읽음
+        StreamingResponseBody body = out -> bulkDepositService.deposit(in, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+}
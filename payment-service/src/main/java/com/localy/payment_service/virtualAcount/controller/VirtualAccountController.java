@@ -1,6 +1,7 @@
 package com.localy.payment_service.virtualAcount.controller;
 
 import com.localy.payment_service.virtualAcount.domain.VirtualAccount;
+import com.localy.payment_service.virtualAcount.dto.AccountStatement;
 import com.localy.payment_service.virtualAcount.dto.CreateStoreAccountRequest;
 import com.localy.payment_service.virtualAcount.dto.CreateUserAccountRequest;
 import com.localy.payment_service.virtualAcount.dto.DepositRequest;
@@ -81,6 +82,45 @@ public class VirtualAccountController {
         }
     }
 
+    // 현재 로그인한 사용자의 계좌 명세서 (원장 항목, 최신순)
+    // 다음 페이지는 응답의 nextBeforeEntryId 를 beforeEntryId 로 전달
+    @GetMapping("/user/me/statement")
+    public ResponseEntity<?> getCurrentUserStatement(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) Long beforeEntryId,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            AccountStatement statement = virtualAccountService.getStatementByUserId(userId, beforeEntryId, size);
+            return ResponseEntity.ok(statement);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("getCurrentUserStatement error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("명세서 조회 중 오류 발생");
+        }
+    }
+
+    // 가게 계좌 명세서
+    @GetMapping("/store/{storeId}/statement")
+    public ResponseEntity<?> getStoreStatement(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) Long beforeEntryId,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            AccountStatement statement = virtualAccountService.getStatementByStoreId(storeId, beforeEntryId, size);
+            return ResponseEntity.ok(statement);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("getStoreStatement error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("가게 명세서 조회 중 오류 발생");
+        }
+    }
+
     // 현재 로그인한 사용자 계좌에 입금
     @PostMapping("/user/me/deposit") // 경로 변경: 특정 userId 대신 "현재 내 계좌에 입금"의 의미로 /me 사용
     public ResponseEntity<?> depositToCurrentUserAccount(
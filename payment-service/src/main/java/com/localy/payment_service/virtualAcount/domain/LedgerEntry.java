@@ -0,0 +1,46 @@
+package com.localy.payment_service.virtualAcount.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 계좌 원장 항목 (INSERT 만 하고 수정/삭제하지 않음)
+// 거래(transfer) 하나는 금액 합이 0 인 두 항목으로 기록 (예: 결제 = 손님 -금액, 가게 +금액)
+// 계좌 잔액 = virtual-account.balance(개설 잔액) + 최신 LedgerSnapshot + 그 이후 항목 합계 (service.LedgerService)
+// 인덱스는 schema.sql
+@Getter
+@Entity
+@Immutable
+@Table(name = "ledger_entries")
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long entryId; // 명세서 페이지 기준 (keyset)
+
+    @Column(nullable = false)
+    private Long transferId; // 같은 거래의 두 항목이 공유 (ledger_transfer_seq)
+
+    @Column(nullable = false)
+    private Long accountId; // virtual-account.account_id, 외부 입금 상대 계정은 LedgerService.EXTERNAL_ACCOUNT_ID
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount; // 입금 +, 출금 -
+
+    @Column(nullable = false, length = 20)
+    private String entryType; // PAYMENT, DEPOSIT, BULK_DEPOSIT, REFUND
+
+    private Long orderId; // 결제 항목의 주문 ID (배치 결제의 가게별 합계 입금 항목은 null)
+
+    @Column(nullable = false)
+    private Long txid; // 기록한 DB 트랜잭션 ID (txid_current(), 스냅샷 경계 판단용)
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package com.localy.payment_service.virtualAcount.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 계좌별 원장 합계 스냅샷 (service.LedgerSnapshotJob 이 주기적으로 새 행을 추가)
+// ledgerBalance = 이 계좌의 원장 항목 중 txid < xidHorizon 인 항목의 합계
+// xidHorizon 은 스냅샷을 만들 때 진행 중이던 가장 오래된 트랜잭션 ID 라서, 그보다 작은 txid 항목은 모두 커밋(또는 롤백) 완료
+@Getter
+@Entity
+@Immutable
+@Table(name = "ledger_snapshots")
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class LedgerSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long snapshotId;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal ledgerBalance;
+
+    @Column(nullable = false)
+    private Long xidHorizon;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
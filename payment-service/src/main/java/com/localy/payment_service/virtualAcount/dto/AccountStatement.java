@@ -0,0 +1,18 @@
+package com.localy.payment_service.virtualAcount.dto;
+
+import com.localy.payment_service.virtualAcount.domain.LedgerEntry;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// 계좌 명세서 한 페이지 (최신 항목부터)
+@Getter
+@Builder
+public class AccountStatement {
+    private Long accountId;
+    private BigDecimal balance; // 현재 잔액
+    private List<LedgerEntry> entries;
+    private Long nextBeforeEntryId; // 다음 페이지 요청의 beforeEntryId (마지막 페이지면 null)
+}
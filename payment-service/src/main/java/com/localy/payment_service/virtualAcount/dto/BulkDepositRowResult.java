@@ -0,0 +1,19 @@
+package com.localy.payment_service.virtualAcount.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// 일괄 입금 결과 한 줄 (입력 파일의 한 행에 대응, NDJSON 으로 응답)
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkDepositRowResult {
+    private long line; // 입력 파일의 줄 번호 (1부터)
+    private String userId;
+    private BigDecimal amount;
+    private String status; // APPLIED, NO_ACCOUNT, INVALID, FAILED
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.localy.payment_service.virtualAcount.repository;
+
+import com.localy.payment_service.virtualAcount.domain.LedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// 원장 항목 기록은 service.LedgerService 의 INSERT ... SELECT (잔액 확인과 두 항목 기록을 한 문장으로)
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // 계좌 명세서 (최신 항목부터, keyset: 이전 페이지의 마지막 entryId 보다 작은 항목)
+    // idx_ledger_entries_account_entry 인덱스를 역순으로 읽으므로 페이지가 깊어져도 OFFSET 처럼 느려지지 않음
+    List<LedgerEntry> findByAccountIdOrderByEntryIdDesc(Long accountId, Limit limit);
+
+    List<LedgerEntry> findByAccountIdAndEntryIdLessThanOrderByEntryIdDesc(Long accountId, Long entryId, Limit limit);
+}
@@ -0,0 +1,39 @@
+package com.localy.payment_service.virtualAcount.repository;
+
+import com.localy.payment_service.virtualAcount.domain.LedgerSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, Long> {
+
+    // 마지막 실행 이후 항목이 생긴 계좌마다 새 스냅샷 = 계좌의 최신 스냅샷 + [그 경계, 이번 경계) 항목 합계
+    // 이번 경계(horizon)는 이 문장 시점에 진행 중인 가장 오래된 트랜잭션 ID 라서 그보다 작은 txid 항목은 모두 끝난 상태
+    // (entry_id 순서로 자르면 늦게 커밋된 작은 entry_id 항목이 스냅샷에서 빠질 수 있음)
+    // 여러 인스턴스가 동시에 실행해도 각자 자기 경계까지의 올바른 합계를 기록하고, 읽을 때는 경계가 가장 큰 스냅샷을 씀
+    @Modifying
+    @Query(value = "INSERT INTO ledger_snapshots (account_id, ledger_balance, xid_horizon, created_at) " +
+            "SELECT a.account_id, COALESCE(l.ledger_balance, 0) + s.amount, h.horizon, now() " +
+            "FROM (SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS horizon, " +
+            "             (SELECT COALESCE(MAX(xid_horizon), 0) FROM ledger_snapshots) AS since) h " +
+            "CROSS JOIN LATERAL (SELECT DISTINCT account_id FROM ledger_entries " +
+            "                    WHERE txid >= h.since AND txid < h.horizon) a " +
+            "LEFT JOIN LATERAL (SELECT ledger_balance, xid_horizon FROM ledger_snapshots " +
+            "                   WHERE account_id = a.account_id ORDER BY xid_horizon DESC LIMIT 1) l ON TRUE " +
+            "CROSS JOIN LATERAL (SELECT COALESCE(SUM(amount), 0) AS amount FROM ledger_entries " +
+            "                    WHERE account_id = a.account_id AND txid >= COALESCE(l.xid_horizon, 0) AND txid < h.horizon) s " +
+            "WHERE COALESCE(l.xid_horizon, 0) < h.horizon", nativeQuery = true)
+    int rollForward();
+
+    // 계좌마다 최신 스냅샷은 남기고 cutoff 이전에 만든 오래된 스냅샷만 삭제 (잔액 계산에는 최신 것만 쓰임)
+    @Modifying
+    @Query(value = "DELETE FROM ledger_snapshots s WHERE s.created_at < :cutoff AND EXISTS (" +
+            "SELECT 1 FROM ledger_snapshots n WHERE n.account_id = s.account_id AND n.xid_horizon > s.xid_horizon)",
+            nativeQuery = true)
+    int deleteSupersededBefore(@Param("cutoff") LocalDateTime cutoff);
+}
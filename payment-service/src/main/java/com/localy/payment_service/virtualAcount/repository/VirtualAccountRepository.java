@@ -5,6 +5,8 @@ import com.localy.payment_service.virtualAcount.domain.VirtualAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional; // Optional 사용
 
 @Repository
@@ -17,6 +19,16 @@ public interface VirtualAccountRepository extends JpaRepository<VirtualAccount,
     Optional<VirtualAccount> findByStoreId(Long storeId); // 반환 타입을 Optional로
 
     // userId 또는 storeId로 계좌가 이미 존재하는지 확인 (계좌 생성 시 중복 방지용)
-    boolean existsByUserId(String userId);
+    // 동시 생성은 이 확인을 모두 통과할 수 있으므로 최종 중복 방지는 schema.sql 의 유니크 인덱스가 담당
+    boolean existsByUserIdAndStoreIdIsNull(String userId);
     boolean existsByStoreId(Long storeId);
+
+    // 배치 결제: 배치에 나오는 고객/가게 계좌를 IN 조회 두 번으로 미리 읽음
+    List<VirtualAccount> findByUserIdInAndStoreIdIsNull(Collection<String> userIds);
+    List<VirtualAccount> findByStoreIdIn(Collection<Long> storeIds);
+
+    // 고객 계좌 조회 (가게 계좌도 주인 user_id 를 가지므로 store_id 가 없는 계좌만)
+    Optional<VirtualAccount> findByUserIdAndStoreIdIsNull(String userId);
+
+    // 잔액 변경은 원장 항목으로만 기록 (service.LedgerService), balance 컬럼은 개설 잔액
 }
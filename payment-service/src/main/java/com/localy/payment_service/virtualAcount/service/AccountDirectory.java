@@ -0,0 +1,197 @@
+package com.localy.payment_service.virtualAcount.service;
+
+import com.localy.payment_service.virtualAcount.domain.VirtualAccount;
+import com.localy.payment_service.virtualAcount.repository.VirtualAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// userId / storeId -> 가상 계좌 ID 메모리 디렉터리 (결제/입금은 계좌 ID 로 원장 항목을 기록)
+// - 계좌는 삭제되거나 다른 사용자/가게로 바뀌지 않으므로 한 번 찾은 ID 는 계속 유효
+// - 계좌가 없다는 결과는 저장하지 않음 (다른 인스턴스에서 생성된 계좌를 놓치지 않도록). 계좌 생성 시(커밋 후) 해당 키를 무효화
+// - 최대 max-entries 개까지 보관하고 가장 오래 사용하지 않은 항목부터 제거 (LRU)
+@Component
+public class AccountDirectory {
+
+    private final VirtualAccountRepository virtualAccountRepository;
+    private final Map<String, Long> userAccounts;
+    private final Map<Long, Long> storeAccounts;
+
+    private final Counter userHits;
+    private final Counter userMisses;
+    private final Counter storeHits;
+    private final Counter storeMisses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public AccountDirectory(VirtualAccountRepository virtualAccountRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${payment.account-directory.max-entries:100000}") int maxEntries) {
+        this.virtualAccountRepository = virtualAccountRepository;
+        this.evictions = Counter.builder("payments.account.directory.evictions")
+                .description("최대 개수를 넘어 제거된 계좌 디렉터리 항목 수")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("payments.account.directory.invalidations")
+                .description("계좌 생성으로 무효화된 항목 수")
+                .register(meterRegistry);
+        this.userAccounts = lruMap(maxEntries / 2);
+        this.storeAccounts = lruMap(maxEntries / 2);
+        this.userHits = lookups(meterRegistry, "user", "hit");
+        this.userMisses = lookups(meterRegistry, "user", "miss");
+        this.storeHits = lookups(meterRegistry, "store", "hit");
+        this.storeMisses = lookups(meterRegistry, "store", "miss");
+        Gauge.builder("payments.account.directory.size", this, directory -> directory.size())
+                .description("계좌 디렉터리 항목 수")
+                .register(meterRegistry);
+    }
+
+    private <K> Map<K, Long> lruMap(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                boolean evict = size() > capacity;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String kind, String result) {
+        return Counter.builder("payments.account.directory.lookups")
+                .description("계좌 디렉터리 조회 결과")
+                .tag("kind", kind)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // 고객 계좌 ID (가게 계좌는 주인 userId 를 가지므로 store_id 가 없는 계좌만)
+    public Optional<Long> customerAccountId(String userId) {
+        Long accountId;
+        synchronized (userAccounts) {
+            accountId = userAccounts.get(userId);
+        }
+        if (accountId != null) {
+            userHits.increment();
+            return Optional.of(accountId);
+        }
+        userMisses.increment();
+        Optional<Long> found = virtualAccountRepository.findByUserIdAndStoreIdIsNull(userId).map(VirtualAccount::getAccountId);
+        found.ifPresent(id -> {
+            synchronized (userAccounts) {
+                userAccounts.put(userId, id);
+            }
+        });
+        return found;
+    }
+
+    public Optional<Long> storeAccountId(Long storeId) {
+        Long accountId;
+        synchronized (storeAccounts) {
+            accountId = storeAccounts.get(storeId);
+        }
+        if (accountId != null) {
+            storeHits.increment();
+            return Optional.of(accountId);
+        }
+        storeMisses.increment();
+        Optional<Long> found = virtualAccountRepository.findByStoreId(storeId).map(VirtualAccount::getAccountId);
+        found.ifPresent(id -> {
+            synchronized (storeAccounts) {
+                storeAccounts.put(storeId, id);
+            }
+        });
+        return found;
+    }
+
+    // 배치 결제: 디렉터리에 없는 키만 모아서 IN 조회 한 번으로 채움
+    public Map<String, Long> customerAccountIds(Collection<String> userIds) {
+        Map<String, Long> result = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        synchronized (userAccounts) {
+            for (String userId : userIds) {
+                Long accountId = userAccounts.get(userId);
+                if (accountId == null) {
+                    missing.add(userId);
+                } else {
+                    result.put(userId, accountId);
+                }
+            }
+        }
+        userHits.increment(userIds.size() - missing.size());
+        if (!missing.isEmpty()) {
+            userMisses.increment(missing.size());
+            List<VirtualAccount> found = virtualAccountRepository.findByUserIdInAndStoreIdIsNull(missing);
+            synchronized (userAccounts) {
+                for (VirtualAccount account : found) {
+                    userAccounts.put(account.getUserId(), account.getAccountId());
+                    result.put(account.getUserId(), account.getAccountId());
+                }
+            }
+        }
+        return result;
+    }
+
+    public Map<Long, Long> storeAccountIds(Collection<Long> storeIds) {
+        Map<Long, Long> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        synchronized (storeAccounts) {
+            for (Long storeId : storeIds) {
+                Long accountId = storeAccounts.get(storeId);
+                if (accountId == null) {
+                    missing.add(storeId);
+                } else {
+                    result.put(storeId, accountId);
+                }
+            }
+        }
+        storeHits.increment(storeIds.size() - missing.size());
+        if (!missing.isEmpty()) {
+            storeMisses.increment(missing.size());
+            List<VirtualAccount> found = virtualAccountRepository.findByStoreIdIn(missing);
+            synchronized (storeAccounts) {
+                for (VirtualAccount account : found) {
+                    storeAccounts.put(account.getStoreId(), account.getAccountId());
+                    result.put(account.getStoreId(), account.getAccountId());
+                }
+            }
+        }
+        return result;
+    }
+
+    public void invalidateUser(String userId) {
+        synchronized (userAccounts) {
+            userAccounts.remove(userId);
+        }
+        invalidations.increment();
+    }
+
+    public void invalidateStore(Long storeId) {
+        synchronized (storeAccounts) {
+            storeAccounts.remove(storeId);
+        }
+        invalidations.increment();
+    }
+
+    private int size() {
+        int size;
+        synchronized (userAccounts) {
+            size = userAccounts.size();
+        }
+        synchronized (storeAccounts) {
+            return size + storeAccounts.size();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.localy.payment_service.virtualAcount.service;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.List;
+
+// 계좌 원장 (domain.LedgerEntry): 잔액 변경은 계좌 행 UPDATE 대신 원장 항목 INSERT 로만 기록
+// - 거래 하나 = 금액 합이 0 인 두 항목 (복식 기장), 외부에서 들어온 입금의 상대 계정은 EXTERNAL_ACCOUNT_ID
+//   배치 결제는 가게별로 거래 하나에 손님 출금 항목 여러 개 + 가게 입금 항목 하나 (합은 마찬가지로 0)
+// - 잔액 = virtual-account.balance(개설 잔액) + 최신 스냅샷 + 스냅샷 경계 이후 항목 합계
+// - 입금 쪽은 행 락 없이 INSERT 만 하므로 인기 가게의 결제도 한 행에 줄 서지 않음
+// - 출금(결제)은 같은 계좌의 동시 출금끼리만 advisory lock 으로 순서를 정한 뒤 잔액 확인 + INSERT 를 한 문장으로 처리
+// 호출하는 쪽의 트랜잭션 안에서 실행됨 (advisory lock 은 트랜잭션이 끝날 때 풀림)
+@Service
+public class LedgerService {
+
+    public static final long EXTERNAL_ACCOUNT_ID = -1L; // 충전/적립처럼 서비스 밖에서 들어온 돈의 상대 계정
+
+    private static final String BALANCE_SQL =
+            "SELECT va.balance + COALESCE(s.ledger_balance, 0) + COALESCE((SELECT SUM(e.amount) FROM ledger_entries e " +
+            "WHERE e.account_id = va.account_id AND e.txid >= COALESCE(s.xid_horizon, 0)), 0) " +
+            "FROM \"virtual-account\" va LEFT JOIN LATERAL (SELECT ledger_balance, xid_horizon FROM ledger_snapshots " +
+            "WHERE account_id = va.account_id ORDER BY xid_horizon DESC LIMIT 1) s ON TRUE " +
+            "WHERE va.account_id = :accountId";
+
+    // 두 항목을 같은 transfer_id 로 한 번에 기록 (받는 계좌가 없으면 0행)
+    private static final String TRANSFER_SQL =
+            "INSERT INTO ledger_entries (transfer_id, account_id, amount, entry_type, order_id, txid, created_at) " +
+            "SELECT t.transfer_id, leg.account_id, leg.amount, CAST(:entryType AS varchar), CAST(:orderId AS bigint), " +
+            "pg_current_xact_id()::text::bigint, now() " +
+            "FROM (SELECT nextval('ledger_transfer_seq') AS transfer_id) t " +
+            "CROSS JOIN (VALUES (CAST(:fromAccountId AS bigint), -CAST(:amount AS numeric)), " +
+            "(CAST(:toAccountId AS bigint), CAST(:amount AS numeric))) AS leg(account_id, amount) " +
+            "WHERE EXISTS (SELECT 1 FROM \"virtual-account\" WHERE account_id = :toAccountId)";
+
+    // 보내는 계좌의 잔액이 충분할 때만 기록
+    private static final String CHECKED_TRANSFER_SQL = TRANSFER_SQL +
+            " AND (" + BALANCE_SQL.replace(":accountId", ":fromAccountId") + ") >= CAST(:amount AS numeric)";
+
+    // 외부로 나가는 돈 (환불의 가게 쪽 항목): 받는 쪽이 EXTERNAL_ACCOUNT_ID 이므로 보내는 계좌가 있는지 확인
+    private static final String WITHDRAW_SQL =
+            TRANSFER_SQL.replace("WHERE account_id = :toAccountId", "WHERE account_id = :fromAccountId");
+
+    // 배치 결제의 항목 하나씩: 손님 출금(잔액이 충분할 때만), 가게 입금(배치 안의 가게별 합계)
+    private static final String DEBIT_LEG_SQL =
+            "INSERT INTO ledger_entries (transfer_id, account_id, amount, entry_type, order_id, txid, created_at) " +
+            "SELECT :transferId, :accountId, -CAST(:amount AS numeric), CAST(:entryType AS varchar), CAST(:orderId AS bigint), " +
+            "pg_current_xact_id()::text::bigint, now() " +
+            "WHERE (" + BALANCE_SQL + ") >= CAST(:amount AS numeric)";
+
+    private static final String CREDIT_LEG_SQL =
+            "INSERT INTO ledger_entries (transfer_id, account_id, amount, entry_type, order_id, txid, created_at) " +
+            "VALUES (:transferId, :accountId, CAST(:amount AS numeric), CAST(:entryType AS varchar), CAST(:orderId AS bigint), " +
+            "pg_current_xact_id()::text::bigint, now())";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LedgerService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 계좌 간 이체 (결제). 보내는 계좌 잔액이 부족하거나 받는 계좌가 없으면 false
+    public boolean transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String entryType, Long orderId) {
+        // 같은 계좌의 출금끼리 잔액 확인이 겹치지 않도록 (입금은 잠그지 않음: 확인 시점에 못 본 입금은 잔액을 늘리기만 함)
+        jdbcTemplate.getJdbcTemplate().query("SELECT pg_advisory_xact_lock(?)", rs -> { }, fromAccountId);
+        return jdbcTemplate.update(CHECKED_TRANSFER_SQL, params(fromAccountId, toAccountId, amount, entryType, orderId)) == 2;
+    }
+
+    // 외부 입금 (충전). 계좌가 없으면 false
+    public boolean deposit(Long accountId, BigDecimal amount, String entryType) {
+        return jdbcTemplate.update(TRANSFER_SQL, params(EXTERNAL_ACCOUNT_ID, accountId, amount, entryType, null)) == 2;
+    }
+
+    // 배치 결제: 가게별 거래 ID (같은 배치의 출금 항목들과 가게 입금 항목을 묶음)
+    public long nextTransferId() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("SELECT nextval('ledger_transfer_seq')", Long.class);
+    }
+
+    // 배치 결제: 손님 출금 항목만 기록 (잔액이 부족하면 false). 같은 거래 ID 의 가게 입금은 배치 끝에 creditLeg 로 한 번
+    public boolean debitLeg(long transferId, Long accountId, BigDecimal amount, String entryType, Long orderId) {
+        jdbcTemplate.getJdbcTemplate().query("SELECT pg_advisory_xact_lock(?)", rs -> { }, accountId);
+        return jdbcTemplate.update(DEBIT_LEG_SQL, legParams(transferId, accountId, amount, entryType, orderId)) == 1;
+    }
+
+    // 배치 결제: 가게 입금 항목 (같은 거래 ID 의 출금 항목 합계와 같은 금액)
+    public void creditLeg(long transferId, Long accountId, BigDecimal amount, String entryType, Long orderId) {
+        jdbcTemplate.update(CREDIT_LEG_SQL, legParams(transferId, accountId, amount, entryType, orderId));
+    }
+
+    // 잔액 확인 없는 이체 (환불: 이미 받은 결제 금액을 가게 -> 손님으로 되돌림). 받는 계좌가 없으면 false
+    public boolean reverse(Long fromAccountId, Long toAccountId, BigDecimal amount, String entryType, Long orderId) {
+        return jdbcTemplate.update(TRANSFER_SQL, params(fromAccountId, toAccountId, amount, entryType, orderId)) == 2;
+    }
+
+    // 외부 출금 (엔진 모드 환불의 가게 쪽, 손님 쪽은 엔진 입금으로 기록). 계좌가 없으면 false
+    public boolean withdraw(Long accountId, BigDecimal amount, String entryType, Long orderId) {
+        return jdbcTemplate.update(WITHDRAW_SQL, params(accountId, EXTERNAL_ACCOUNT_ID, amount, entryType, orderId)) == 2;
+    }
+
+    // 이미 잔액 확인이 끝난 이체를 한 번에 기록 (결제 엔진의 비동기 DB 반영, payment.engine.EngineProjector)
+    public void recordTransfers(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batch = transfers.stream()
+                .map(t -> params(t.fromAccountId(), t.toAccountId(), t.amount(), t.entryType(), t.orderId()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(TRANSFER_SQL, batch);
+    }
+
+    // 계좌 잔액 (계좌가 없으면 null)
+    public BigDecimal balanceOf(Long accountId) {
+        List<BigDecimal> balance = jdbcTemplate.queryForList(BALANCE_SQL,
+                new MapSqlParameterSource("accountId", accountId), BigDecimal.class);
+        return balance.isEmpty() ? null : balance.get(0);
+    }
+
+    public record Transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String entryType, Long orderId) {
+    }
+
+    private static MapSqlParameterSource legParams(long transferId, Long accountId, BigDecimal amount,
+                                                   String entryType, Long orderId) {
+        return new MapSqlParameterSource()
+                .addValue("transferId", transferId, Types.BIGINT)
+                .addValue("accountId", accountId, Types.BIGINT)
+                .addValue("amount", amount, Types.NUMERIC)
+                .addValue("entryType", entryType, Types.VARCHAR)
+                .addValue("orderId", orderId, Types.BIGINT);
+    }
+
+    private static MapSqlParameterSource params(Long fromAccountId, Long toAccountId, BigDecimal amount,
+                                                String entryType, Long orderId) {
+        return new MapSqlParameterSource()
+                .addValue("fromAccountId", fromAccountId, Types.BIGINT)
+                .addValue("toAccountId", toAccountId, Types.BIGINT)
+                .addValue("amount", amount, Types.NUMERIC)
+                .addValue("entryType", entryType, Types.VARCHAR)
+                .addValue("orderId", orderId, Types.BIGINT);
+    }
+}
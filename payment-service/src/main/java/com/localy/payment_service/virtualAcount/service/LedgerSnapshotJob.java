@@ -0,0 +1,59 @@
+package com.localy.payment_service.virtualAcount.service;
+
+import com.localy.payment_service.virtualAcount.repository.LedgerSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+// 원장 스냅샷을 주기적으로 앞으로 당김 (잔액 계산 시 더하는 항목 수가 한 주기 분량을 넘지 않도록)
+// 스냅샷 INSERT 는 한 문장이라 원장 항목 INSERT 와 서로 막지 않음
+@Component
+public class LedgerSnapshotJob {
+
+    private final LedgerSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter createdSnapshots;
+    private final Counter deletedSnapshots;
+    private final Timer rollForwardTimer;
+
+    @Value("${payment.ledger.snapshot-retention-hours:168}")
+    private long retentionHours;
+
+    public LedgerSnapshotJob(LedgerSnapshotRepository snapshotRepository,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.createdSnapshots = Counter.builder("payments.ledger.snapshots.created")
+                .description("새로 만든 계좌 원장 스냅샷 수")
+                .register(meterRegistry);
+        this.deletedSnapshots = Counter.builder("payments.ledger.snapshots.deleted")
+                .description("보관 기간이 지나 삭제한 이전 스냅샷 수")
+                .register(meterRegistry);
+        this.rollForwardTimer = Timer.builder("payments.ledger.snapshot.duration")
+                .description("원장 스냅샷 한 번 갱신에 걸린 시간")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.ledger.snapshot-ms:60000}")
+    public void rollForward() {
+        try {
+            Integer created = rollForwardTimer.record(() -> transactionTemplate.execute(status -> snapshotRepository.rollForward()));
+            Integer deleted = transactionTemplate.execute(status ->
+                    snapshotRepository.deleteSupersededBefore(LocalDateTime.now().minusHours(retentionHours)));
+            createdSnapshots.increment(created != null ? created : 0);
+            deletedSnapshots.increment(deleted != null ? deleted : 0);
+            if (created != null && created > 0) {
+                System.out.println("--- LedgerSnapshotJob: 계좌 " + created + "개의 원장 스냅샷 갱신 ---");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("--- LedgerSnapshotJob: 원장 스냅샷 갱신 실패 - " + e.getMessage() + " ---");
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.localy.payment_service.virtualAcount.service;
 
 
+import com.localy.payment_service.payment.engine.EngineOutcome;
+import com.localy.payment_service.payment.engine.PaymentEngine;
+import com.localy.payment_service.virtualAcount.domain.LedgerEntry;
 import com.localy.payment_service.virtualAcount.domain.VirtualAccount;
+import com.localy.payment_service.virtualAcount.dto.AccountStatement;
+import com.localy.payment_service.virtualAcount.repository.LedgerEntryRepository;
 import com.localy.payment_service.virtualAcount.repository.VirtualAccountRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 @Service
@@ -19,12 +31,19 @@ public class VirtualAccountService {
 
     private static final Logger log = LoggerFactory.getLogger(VirtualAccountService.class);
     private final VirtualAccountRepository virtualAccountRepository;
+    private final AccountDirectory accountDirectory;
+    private final LedgerService ledgerService; // 잔액 = 개설 잔액 + 원장 (입금/결제는 원장 항목 INSERT)
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final ObjectProvider<PaymentEngine> paymentEngineProvider; // payment.engine.enabled=true 일 때만 존재
+
+    @Value("${payment.ledger.statement-max-page-size:200}")
+    private int statementMaxPageSize;
 
     // 사용자 가상 계좌 생성
     @Transactional
     public VirtualAccount createUserAccount(String userId, BigDecimal initialBalance) {
         log.info("--- VirtualAccountService: 사용자 가상 계좌 생성 시도 - UserID: {}", userId);
-        if (virtualAccountRepository.existsByUserId(userId)) {
+        if (virtualAccountRepository.existsByUserIdAndStoreIdIsNull(userId)) {
             log.warn("--- VirtualAccountService: 이미 사용자 ID {} 에 대한 가상 계좌가 존재합니다.", userId);
             throw new IllegalStateException("이미 해당 사용자 ID로 가상 계좌가 존재합니다: " + userId);
         }
@@ -34,7 +53,15 @@ public class VirtualAccountService {
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        VirtualAccount savedAccount = virtualAccountRepository.save(newAccount);
+        VirtualAccount savedAccount;
+        try {
+            // 동시 생성 요청은 위 확인을 함께 통과할 수 있으므로 flush 해서 유니크 인덱스 위반을 여기서 확인
+            savedAccount = virtualAccountRepository.saveAndFlush(newAccount);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("--- VirtualAccountService: 동시 생성으로 사용자 ID {} 의 가상 계좌가 이미 존재합니다.", userId);
+            throw new IllegalStateException("이미 해당 사용자 ID로 가상 계좌가 존재합니다: " + userId);
+        }
+        afterCommit(() -> accountDirectory.invalidateUser(userId)); // 생성 전 조회된 디렉터리 항목 정리
         log.info("--- VirtualAccountService: 사용자 가상 계좌 생성 완료 - UserID: {}, AccountID: {}, Balance: {} ---",
                 savedAccount.getUserId(), savedAccount.getAccountId(), savedAccount.getBalance());
         return savedAccount;
@@ -58,32 +85,45 @@ public class VirtualAccountService {
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        VirtualAccount savedAccount = virtualAccountRepository.save(newAccount);
+        VirtualAccount savedAccount;
+        try {
+            savedAccount = virtualAccountRepository.saveAndFlush(newAccount);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("--- VirtualAccountService: 동시 생성으로 가게 ID {} 의 가상 계좌가 이미 존재합니다.", storeId);
+            throw new IllegalStateException("이미 해당 가게 ID로 가상 계좌가 존재합니다: " + storeId);
+        }
+        afterCommit(() -> accountDirectory.invalidateStore(storeId));
         log.info("--- VirtualAccountService: 가게 가상 계좌 생성 완료 - StoreID: {}, AccountID: {}, Balance: {} ---",
                 savedAccount.getStoreId(), savedAccount.getAccountId(), savedAccount.getBalance());
         return savedAccount;
     }
 
-    // 사용자 ID로 잔액 조회
+    // 사용자 ID로 잔액 조회 (virtual-account.balance 는 개설 잔액, 이후 변동은 원장에서 계산)
     @Transactional(readOnly = true)
     public VirtualAccount getAccountByUserId(String userId) {
         log.debug("--- VirtualAccountService: 사용자 ID로 계좌 조회 시도 - UserID: {}", userId);
-        return virtualAccountRepository.findByUserId(userId)
-                .orElseThrow(() -> {
-                    log.warn("--- VirtualAccountService: 사용자 ID {} 에 해당하는 가상 계좌를 찾을 수 없습니다.", userId);
-                    return new NoSuchElementException("사용자 ID " + userId + "에 해당하는 가상 계좌를 찾을 수 없습니다.");
-                });
+        VirtualAccount account = findUserAccount(userId);
+        return withBalance(account, ledgerService.balanceOf(account.getAccountId()));
     }
 
-    // 가게 ID로 잔액 조회
+    // 가게 ID로 잔액 조회 (잔액 = 개설 잔액 + 원장)
     @Transactional(readOnly = true)
     public VirtualAccount getAccountByStoreId(Long storeId) {
         log.debug("--- VirtualAccountService: 가게 ID로 계좌 조회 시도 - StoreID: {}", storeId);
-        return virtualAccountRepository.findByStoreId(storeId)
-                .orElseThrow(() -> {
-                    log.warn("--- VirtualAccountService: 가게 ID {} 에 해당하는 가상 계좌를 찾을 수 없습니다.", storeId);
-                    return new NoSuchElementException("가게 ID " + storeId + "에 해당하는 가상 계좌를 찾을 수 없습니다.");
-                });
+        VirtualAccount account = findStoreAccount(storeId);
+        return withBalance(account, ledgerService.balanceOf(account.getAccountId()));
+    }
+
+    // 사용자 계좌 명세서 (최신 항목부터, beforeEntryId 가 있으면 그보다 이전 항목)
+    @Transactional(readOnly = true)
+    public AccountStatement getStatementByUserId(String userId, Long beforeEntryId, int size) {
+        return statementOf(getAccountByUserId(userId), beforeEntryId, size);
+    }
+
+    // 가게 계좌 명세서
+    @Transactional(readOnly = true)
+    public AccountStatement getStatementByStoreId(Long storeId, Long beforeEntryId, int size) {
+        return statementOf(getAccountByStoreId(storeId), beforeEntryId, size);
     }
 
     // 사용자 가상 계좌에 입금 (테스트용, 실제로는 PG 연동 필요)
@@ -94,12 +134,78 @@ public class VirtualAccountService {
             log.warn("--- VirtualAccountService: 입금 금액은 0보다 커야 합니다. Amount: {}", amount);
             throw new IllegalArgumentException("입금 금액은 0보다 커야 합니다.");
         }
-        VirtualAccount account = getAccountByUserId(userId); // 계좌 존재 확인 포함
-        account.setBalance(account.getBalance().add(amount));
-        account.setUpdatedAt(LocalDateTime.now());
-        VirtualAccount savedAccount = virtualAccountRepository.save(account);
+        // 계좌 행을 바꾸지 않고 원장 항목(외부 -> 계좌)으로 기록하므로 결제 차감과 서로 막지 않음
+        Long accountId = accountDirectory.customerAccountId(userId).orElse(null);
+        PaymentEngine engine = paymentEngineProvider.getIfAvailable();
+        if (engine != null && accountId != null) {
+            // 엔진 모드: 고객 계좌 잔액은 엔진이 가지고 있으므로 엔진을 거쳐 입금 (원장에는 비동기로 반영)
+            EngineOutcome outcome = engine.await(engine.deposit(accountId, amount));
+            VirtualAccount savedAccount = withBalance(findUserAccount(userId), PaymentEngine.fromCents(outcome.balanceAfter()));
+            log.info("--- VirtualAccountService: 사용자 계좌 입금 완료 (엔진) - UserID: {}, New Balance: {} ---",
+                    savedAccount.getUserId(), savedAccount.getBalance());
+            return savedAccount;
+        }
+        if (accountId == null || !ledgerService.deposit(accountId, amount, "DEPOSIT")) {
+            log.warn("--- VirtualAccountService: 사용자 ID {} 에 해당하는 가상 계좌를 찾을 수 없습니다.", userId);
+            throw new NoSuchElementException("사용자 ID " + userId + "에 해당하는 가상 계좌를 찾을 수 없습니다.");
+        }
+        VirtualAccount savedAccount = getAccountByUserId(userId); // 반영된 잔액 다시 조회
         log.info("--- VirtualAccountService: 사용자 계좌 입금 완료 - UserID: {}, New Balance: {} ---",
                 savedAccount.getUserId(), savedAccount.getBalance());
         return savedAccount;
     }
+
+    private AccountStatement statementOf(VirtualAccount account, Long beforeEntryId, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size 는 0보다 커야 합니다.");
+        }
+        Limit limit = Limit.of(Math.min(size, statementMaxPageSize));
+        List<LedgerEntry> entries = beforeEntryId == null
+                ? ledgerEntryRepository.findByAccountIdOrderByEntryIdDesc(account.getAccountId(), limit)
+                : ledgerEntryRepository.findByAccountIdAndEntryIdLessThanOrderByEntryIdDesc(account.getAccountId(), beforeEntryId, limit);
+        Long nextBeforeEntryId = entries.size() < limit.max() ? null : entries.get(entries.size() - 1).getEntryId();
+        return AccountStatement.builder()
+                .accountId(account.getAccountId())
+                .balance(account.getBalance())
+                .entries(entries)
+                .nextBeforeEntryId(nextBeforeEntryId)
+                .build();
+    }
+
+    private VirtualAccount findUserAccount(String userId) {
+        return virtualAccountRepository.findByUserIdAndStoreIdIsNull(userId)
+                .orElseThrow(() -> {
+                    log.warn("--- VirtualAccountService: 사용자 ID {} 에 해당하는 가상 계좌를 찾을 수 없습니다.", userId);
+                    return new NoSuchElementException("사용자 ID " + userId + "에 해당하는 가상 계좌를 찾을 수 없습니다.");
+                });
+    }
+
+    private VirtualAccount findStoreAccount(Long storeId) {
+        return virtualAccountRepository.findByStoreId(storeId)
+                .orElseThrow(() -> {
+                    log.warn("--- VirtualAccountService: 가게 ID {} 에 해당하는 가상 계좌를 찾을 수 없습니다.", storeId);
+                    return new NoSuchElementException("가게 ID " + storeId + "에 해당하는 가상 계좌를 찾을 수 없습니다.");
+                });
+    }
+
+    // 영속 엔티티를 바꾸면 계산한 잔액이 개설 잔액 컬럼에 저장될 수 있으므로 응답용 복사본 사용
+    private static VirtualAccount withBalance(VirtualAccount account, BigDecimal balance) {
+        return VirtualAccount.builder()
+                .accountId(account.getAccountId())
+                .userId(account.getUserId())
+                .storeId(account.getStoreId())
+                .balance(balance)
+                .createdAt(account.getCreatedAt())
+                .updatedAt(account.getUpdatedAt())
+                .build();
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
@@ -0,0 +1,21 @@
+-- JPA 어노테이션으로 표현할 수 없는 DDL (spring.sql.init, Hibernate DDL 이후 실행)
+
+-- 가상 계좌 중복 방지 (계좌 생성의 existsBy* 확인은 동시 요청이 함께 통과할 수 있음)
+-- 가게 계좌도 주인 user_id 를 가지므로 고객 계좌(store_id 없음)만 user_id 당 하나로 제한
+CREATE UNIQUE INDEX IF NOT EXISTS uk_virtual_account_customer_user_id ON "virtual-account" (user_id) WHERE store_id IS NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_virtual_account_store_id ON "virtual-account" (store_id) WHERE store_id IS NOT NULL;
+
+-- 결제 inbox filter 재생성 (payment.inbox.PaymentInbox: 최근 결제의 주문 ID 를 시작 시 읽음)
+CREATE INDEX IF NOT EXISTS idx_payments_created_at ON payments (created_at);
+
+-- 계좌 원장 (virtualAcount.domain.LedgerEntry / LedgerSnapshot)
+-- 거래 하나의 두 항목이 공유하는 transfer_id
+CREATE SEQUENCE IF NOT EXISTS ledger_transfer_seq;
+-- 명세서 keyset 페이지 (account_id, entry_id 역순)
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_account_entry ON ledger_entries (account_id, entry_id);
+-- 잔액 계산: 계좌의 스냅샷 경계 이후 항목 합계
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_account_txid ON ledger_entries (account_id, txid);
+-- 스냅샷 갱신: 마지막 경계 이후 항목이 생긴 계좌 찾기
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_txid ON ledger_entries (txid);
+CREATE INDEX IF NOT EXISTS idx_ledger_snapshots_account_horizon ON ledger_snapshots (account_id, xid_horizon);
+CREATE INDEX IF NOT EXISTS idx_ledger_snapshots_horizon ON ledger_snapshots (xid_horizon);
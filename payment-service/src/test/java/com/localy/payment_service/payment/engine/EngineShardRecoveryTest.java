@@ -0,0 +1,143 @@
+package com.localy.payment_service.payment.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 엔진 샤드 비정상 종료(halt) 후 저널/스냅샷 복구 확인 (DB 없이 샤드만 사용)
+class EngineShardRecoveryTest {
+
+	private static final long OPENING_BALANCE = 10_000;
+	private static final long STORE_ACCOUNT_ID = 99;
+
+	private final List<EngineOutcome> sunk = Collections.synchronizedList(new ArrayList<>());
+
+	@TempDir
+	Path dir;
+
+	private EngineShard shard() {
+		// 세그먼트 하나에 레코드 10개만 들어가도록 해서 세그먼트 전환까지 함께 확인
+		return new EngineShard(0, dir, Journal.RECORD_BYTES * 10, 1024, 64, 1_000_000,
+				accountId -> OPENING_BALANCE, sunk::addAll);
+	}
+
+	@Test
+	void replaysJournalAfterCrash() throws Exception {
+		EngineShard shard = shard();
+		shard.start(0);
+		List<CompletableFuture<EngineOutcome>> futures = new ArrayList<>();
+		for (long orderId = 1; orderId <= 30; orderId++) {
+			futures.add(shard.submit(EngineCommand.pay(orderId, 1 + orderId % 3, STORE_ACCOUNT_ID, 1000)));
+		}
+		futures.add(shard.submit(EngineCommand.deposit(1, 500)));
+		for (CompletableFuture<EngineOutcome> future : futures) {
+			future.get();
+		}
+		assertTrue(shard.submit(EngineCommand.pay(5, 3, STORE_ACCOUNT_ID, 1000)).get().duplicate());
+		shard.halt();
+		long[] before = {shard.balance(1), shard.balance(2), shard.balance(3)};
+
+		sunk.clear();
+		EngineShard recovered = shard();
+		recovered.start(0); // 아직 아무것도 반영되지 않음 -> 모든 결과를 다시 반영 대상으로 넘김
+		recovered.halt();
+		assertEquals(before[0], recovered.balance(1));
+		assertEquals(before[1], recovered.balance(2));
+		assertEquals(before[2], recovered.balance(3));
+		assertEquals(31, sunk.size());
+		assertTrue(sunk.stream().noneMatch(EngineOutcome::duplicate));
+	}
+
+	@Test
+	void dropsTornTailRecord() throws Exception {
+		EngineShard shard = shard();
+		shard.start(0);
+		shard.submit(EngineCommand.pay(1, 1, STORE_ACCOUNT_ID, 1000)).get();
+		EngineOutcome last = shard.submit(EngineCommand.pay(2, 1, STORE_ACCOUNT_ID, 1000)).get();
+		shard.halt();
+		corrupt(last.sequence());
+
+		EngineShard recovered = shard();
+		recovered.start(1000); // 모두 반영된 상태
+		EngineOutcome again = recovered.submit(EngineCommand.pay(2, 1, STORE_ACCOUNT_ID, 1000)).get();
+		recovered.halt();
+		assertFalse(again.duplicate()); // 깨진 레코드는 없던 명령 -> 다시 처리
+		assertEquals(last.sequence(), again.sequence());
+		assertEquals(OPENING_BALANCE - 2000, recovered.balance(1));
+	}
+
+	@Test
+	void restoresFromSnapshotAndJournal() throws Exception {
+		EngineShard shard = shard();
+		shard.start(0);
+		shard.submit(EngineCommand.pay(1, 1, STORE_ACCOUNT_ID, 1000)).get();
+		shard.close(); // 종료 시 스냅샷
+
+		EngineShard reopened = shard();
+		reopened.start(0);
+		assertTrue(reopened.submit(EngineCommand.pay(1, 1, STORE_ACCOUNT_ID, 1000)).get().duplicate());
+		for (long orderId = 100; orderId < 130; orderId++) {
+			reopened.submit(EngineCommand.pay(orderId, 2, STORE_ACCOUNT_ID, 100)).get();
+		}
+		reopened.halt();
+		long balance = reopened.balance(2);
+
+		EngineShard recovered = shard();
+		recovered.start(0);
+		assertTrue(recovered.submit(EngineCommand.pay(1, 1, STORE_ACCOUNT_ID, 1000)).get().duplicate());
+		recovered.halt();
+		assertEquals(balance, recovered.balance(2));
+		assertEquals(OPENING_BALANCE - 1000, recovered.balance(1));
+	}
+
+	@Test
+	void refundsEachOrderOnceAcrossRestart() throws Exception {
+		EngineShard shard = shard();
+		shard.start(0);
+		shard.submit(EngineCommand.pay(7, 1, STORE_ACCOUNT_ID, 1000)).get();
+		EngineOutcome first = shard.submit(EngineCommand.refund(7, 1, 1000)).get();
+		assertFalse(first.duplicate());
+		assertTrue(shard.submit(EngineCommand.refund(7, 1, 1000)).get().duplicate());
+		shard.halt();
+		assertEquals(OPENING_BALANCE, shard.balance(1));
+
+		EngineShard recovered = shard();
+		recovered.start(first.sequence());
+		EngineOutcome again = recovered.submit(EngineCommand.refund(7, 1, 1000)).get(); // 환불 트랜잭션 롤백 후 재요청
+		recovered.halt();
+		assertTrue(again.duplicate());
+		assertEquals(first.sequence(), again.sequence());
+		assertEquals(OPENING_BALANCE, recovered.balance(1));
+	}
+
+	// 레코드 payload 한 바이트를 뒤집어서 쓰다 만 레코드처럼 만듦
+	private void corrupt(long sequence) throws IOException {
+		Path segment;
+		try (Stream<Path> files = Files.list(dir)) {
+			segment = files.filter(p -> p.getFileName().toString().endsWith(".wal")).sorted()
+					.reduce((a, b) -> b).orElseThrow();
+		}
+		String name = segment.getFileName().toString();
+		long firstSequence = Long.parseLong(name.substring("journal-".length(), name.length() - ".wal".length()));
+		long position = (sequence - firstSequence) * Journal.RECORD_BYTES + 20;
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			file.seek(position);
+			int b = file.read();
+			file.seek(position);
+			file.write(b ^ 0xFF);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.localy.payment_service.payment.inbox;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTest {
+
+	@Test
+	void addedKeysAreAlwaysFoundAcrossStages() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+		for (long orderId = 1; orderId <= 50_000; orderId++) { // 연속된 주문 ID, 여러 단계에 걸쳐 저장됨
+			filter.add(orderId);
+		}
+
+		for (long orderId = 1; orderId <= 50_000; orderId++) {
+			assertTrue(filter.mightContain(orderId), "false negative: " + orderId);
+		}
+		assertEquals(50_000, filter.entries());
+	}
+
+	@Test
+	void addsStageWhenCurrentStageIsFull() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+		for (long key = 0; key < 100; key++) {
+			filter.add(key);
+		}
+		assertEquals(1, filter.stageCount());
+		long firstStageBytes = filter.memoryBytes();
+
+		filter.add(100); // 용량 100 초과 -> 용량 200 단계 추가
+		assertEquals(2, filter.stageCount());
+		assertTrue(filter.memoryBytes() > firstStageBytes * 2, "다음 단계는 용량 2배, 오탐률 절반이라 비트도 2배 이상");
+
+		for (long key = 101; key < 300; key++) {
+			filter.add(key);
+		}
+		assertEquals(2, filter.stageCount());
+		filter.add(300); // 100 + 200 초과 -> 세 번째 단계
+		assertEquals(3, filter.stageCount());
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTargetWhileGrowing() {
+		double fpp = 0.01;
+		ScalableBloomFilter filter = new ScalableBloomFilter(1_000, fpp);
+		for (long orderId = 1; orderId <= 100_000; orderId++) {
+			filter.add(orderId);
+		}
+
+		int falsePositives = 0;
+		int probes = 100_000;
+		for (long orderId = 1_000_000; orderId < 1_000_000 + probes; orderId++) {
+			if (filter.mightContain(orderId)) {
+				falsePositives++;
+			}
+		}
+		double bound = fpp / (1 - 0.5); // 전체 오탐률 <= fpp / (1 - tightening)
+		assertTrue((double) falsePositives / probes <= bound, "false positive rate: " + (double) falsePositives / probes);
+		assertTrue(filter.expectedFpp() <= bound, "expected fpp: " + filter.expectedFpp());
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01);
+		assertFalse(filter.mightContain(1));
+		assertEquals(0, filter.entries());
+	}
+
+	@Test
+	void rejectsInvalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(0, 0.01));
+		assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(10, 1.0));
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.localy.payment_service.virtualAcount.service;
+
+import com.localy.payment_service.virtualAcount.domain.VirtualAccount;
+import com.localy.payment_service.virtualAcount.repository.LedgerSnapshotRepository;
+import com.localy.payment_service.virtualAcount.repository.VirtualAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 원장 잔액(BALANCE_SQL)과 스냅샷 갱신(rollForward)을 실제 PostgreSQL 에서 확인
+// pg_current_xact_id / pg_snapshot_xmin 을 쓰므로 H2 대신 컨테이너 사용 (Docker 필요)
+// 스냅샷 경계는 커밋된 트랜잭션 기준이라 테스트 트랜잭션으로 감싸지 않고 단계마다 커밋
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.sql.init.mode=always"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+@Import(LedgerService.class)
+class LedgerSnapshotIntegrationTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private LedgerService ledgerService;
+
+	@Autowired
+	private LedgerSnapshotRepository snapshotRepository;
+
+	@Autowired
+	private VirtualAccountRepository virtualAccountRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.execute("TRUNCATE ledger_entries, ledger_snapshots, \"virtual-account\" RESTART IDENTITY");
+	}
+
+	private LedgerSnapshotJob snapshotJob() {
+		return new LedgerSnapshotJob(snapshotRepository, transactionTemplate, new SimpleMeterRegistry());
+	}
+
+	private Long openAccount(String userId, String openingBalance) {
+		return virtualAccountRepository.save(VirtualAccount.builder()
+				.userId(userId)
+				.balance(new BigDecimal(openingBalance))
+				.build()).getAccountId();
+	}
+
+	private boolean transfer(Long from, Long to, String amount, Long orderId) {
+		return transactionTemplate.execute(status -> ledgerService.transfer(from, to, new BigDecimal(amount), "PAYMENT", orderId));
+	}
+
+	private void deposit(Long accountId, String amount) {
+		transactionTemplate.executeWithoutResult(status -> ledgerService.deposit(accountId, new BigDecimal(amount), "DEPOSIT"));
+	}
+
+	@Test
+	void balanceIsOpeningBalancePlusEntries() {
+		Long customer = openAccount("customer", "1000.00");
+		Long store = openAccount("store", "0.00");
+
+		deposit(customer, "500.00");
+		assertTrue(transfer(customer, store, "1200.00", 1L));
+		assertFalse(transfer(customer, store, "300.01", 2L)); // 잔액 300.00
+
+		assertEquals(0, new BigDecimal("300.00").compareTo(ledgerService.balanceOf(customer)));
+		assertEquals(0, new BigDecimal("1200.00").compareTo(ledgerService.balanceOf(store)));
+		assertNull(ledgerService.balanceOf(999L));
+	}
+
+	@Test
+	void rollForwardKeepsBalancesAndOnlyCountsEntriesOnce() {
+		Long customer = openAccount("customer", "1000.00");
+		Long store = openAccount("store", "0.00");
+		assertTrue(transfer(customer, store, "100.00", 1L));
+		assertTrue(transfer(customer, store, "50.00", 2L));
+
+		snapshotJob().rollForward();
+		assertEquals(2, snapshotRepository.count()); // 항목이 생긴 두 계좌
+		assertEquals(0, new BigDecimal("850.00").compareTo(ledgerService.balanceOf(customer)));
+		assertEquals(0, new BigDecimal("150.00").compareTo(ledgerService.balanceOf(store)));
+
+		// 스냅샷 이후 항목은 스냅샷 위에 더해짐, 새 항목이 없는 계좌는 스냅샷을 다시 만들지 않음
+		deposit(store, "25.00");
+		snapshotJob().rollForward();
+		snapshotJob().rollForward();
+		assertEquals(0, new BigDecimal("850.00").compareTo(ledgerService.balanceOf(customer)));
+		assertEquals(0, new BigDecimal("175.00").compareTo(ledgerService.balanceOf(store)));
+		// 스냅샷에는 원장 항목 합계만 (개설 잔액은 virtual-account.balance)
+		BigDecimal customerSnapshot = jdbcTemplate.queryForObject(
+				"SELECT ledger_balance FROM ledger_snapshots WHERE account_id = ? ORDER BY xid_horizon DESC LIMIT 1",
+				BigDecimal.class, customer);
+		assertEquals(0, new BigDecimal("-150.00").compareTo(customerSnapshot));
+	}
+
+	@Test
+	void entryCommittedAfterRollForwardIsNotLost() throws Exception {
+		Long customer = openAccount("customer", "1000.00");
+		Long store = openAccount("store", "0.00");
+		assertTrue(transfer(customer, store, "100.00", 1L));
+
+		// 스냅샷 갱신 도중 진행 중인 이체: 작은 txid 로 기록됐지만 커밋은 스냅샷 이후
+		CountDownLatch inserted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Boolean> pending = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+			boolean ok = ledgerService.transfer(customer, store, new BigDecimal("40.00"), "PAYMENT", 2L);
+			inserted.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return ok;
+		}));
+		assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+		snapshotJob().rollForward();
+		release.countDown();
+		assertTrue(pending.get(10, TimeUnit.SECONDS));
+
+		snapshotJob().rollForward();
+		assertEquals(0, new BigDecimal("860.00").compareTo(ledgerService.balanceOf(customer)));
+		assertEquals(0, new BigDecimal("140.00").compareTo(ledgerService.balanceOf(store)));
+	}
+
+}
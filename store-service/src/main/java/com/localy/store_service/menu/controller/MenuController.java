@@ -2,10 +2,12 @@ package com.localy.store_service.menu.controller;
 
 // ... (기존 임포트) ...
 import com.localy.store_service.menu.domain.Menu;
+import com.localy.store_service.menu.dto.MenuPriceDto;
 import com.localy.store_service.menu.service.MenuService;
 
 import org.springframework.data.domain.PageRequest; // PageRequest 임포트
 import org.springframework.data.domain.Pageable;    // Pageable 임포트
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import lombok.RequiredArgsConstructor; // Lombok RequiredArgsConstructor 임포트
 import org.springframework.http.HttpStatus;
@@ -21,6 +23,8 @@ import java.util.NoSuchElementException; // 예외 임포트
 import java.lang.IllegalArgumentException; // 예외 임포트
 import java.lang.SecurityException; // 예외 임포트
 import java.util.Arrays; // Arrays 임포트 (스택 트레이스 로깅용)
+import java.time.LocalDateTime;
+import java.util.List;
 
 
 @RestController
@@ -60,6 +64,29 @@ public class MenuController {
                 });
     }
 
+    // GET: 여러 메뉴의 가격/판매 여부 일괄 조회 (주문 서비스의 가격 검증용, 예: ?ids=1,2,3)
+    @GetMapping("/prices")
+    public Mono<ResponseEntity<List<MenuPriceDto>>> getMenuPrices(@RequestParam List<Long> ids) {
+        System.out.println("--- MenuController: GET /api/menus/prices 요청 수신 (" + ids.size() + "개) ---");
+        return menuService.findMenuPrices(ids)
+                .collectList()
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> handleControllerError(e, "메뉴 가격 일괄 조회", false));
+    }
+
+    // GET: (updatedAt, menuId) 커서 이후 변경된 메뉴 가격 목록 (주문 서비스 가격 캐시 적재/동기화용)
+    @GetMapping("/prices/changes")
+    public Mono<ResponseEntity<List<MenuPriceDto>>> getMenuPriceChanges(
+            @RequestParam(defaultValue = "1970-01-01T00:00:00") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return menuService.findMenuPriceChanges(since, afterId, limit)
+                .collectList()
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> handleControllerError(e, "메뉴 가격 변경 조회", false));
+    }
+
     // GET: StoreId로 메뉴 목록 조회 (페이지네이션 및 검색 미포함 버전)
     @GetMapping("/stores/{storeId}/menus")
     public Flux<Menu> getMenusByStoreId(@PathVariable Long storeId) {
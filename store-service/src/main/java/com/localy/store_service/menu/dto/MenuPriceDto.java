@@ -0,0 +1,30 @@
+// 파일 위치: com.localy.store_service.menu.dto.MenuPriceDto.java
+package com.localy.store_service.menu.dto;
+
+import com.localy.store_service.menu.domain.Menu;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 주문 서비스의 가격 검증용 메뉴 정보 (가격/판매 여부만, 설명/이미지 제외)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuPriceDto {
+    private Long menuId;
+    private Long storeId;
+    private String name;
+    private BigDecimal price;
+    private boolean available;
+    private LocalDateTime updatedAt; // 변경 피드 커서 (updatedAt, menuId)
+
+    public static MenuPriceDto from(Menu menu) {
+        return new MenuPriceDto(menu.getId(), menu.getStoreId(), menu.getName(), menu.getPrice(),
+                menu.isAvailable(), menu.getUpdatedAt());
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.repository.query.Param; // Param 임포트
 import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
+
 public interface MenuRepository extends R2dbcRepository<Menu, Long> {
 
     Flux<Menu> findByStoreId(Long storeId);
@@ -26,4 +28,14 @@ public interface MenuRepository extends R2dbcRepository<Menu, Long> {
      */
     @Query("SELECT DISTINCT store_id FROM menus WHERE LOWER(name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Flux<Long> findDistinctStoreIdsByMenuNameContainingIgnoreCase(@Param("keyword") String keyword);
+
+    /**
+     * (updated_at, id) 기준으로 커서 이후에 변경된 메뉴를 순서대로 반환합니다. (주문 서비스 가격 캐시 동기화용)
+     * @param since 마지막으로 받은 메뉴의 updated_at
+     * @param afterId 마지막으로 받은 메뉴의 id (같은 updated_at 안에서의 순서)
+     * @param limit 최대 개수
+     * @return Flux<Menu> 변경된 메뉴 목록
+     */
+    @Query("SELECT * FROM menus WHERE (updated_at, id) > (:since, :afterId) ORDER BY updated_at, id LIMIT :limit")
+    Flux<Menu> findChangedAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, @Param("limit") int limit);
 }
@@ -1,6 +1,7 @@
 package com.localy.store_service.menu.service;
 
 import com.localy.store_service.menu.domain.Menu;
+import com.localy.store_service.menu.dto.MenuPriceDto;
 import com.localy.store_service.menu.repository.MenuRepository;
 import com.localy.store_service.store.repository.StoreRepository;
 import io.micrometer.common.lang.Nullable;
@@ -21,6 +22,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,6 +31,8 @@ import java.util.UUID;
 // @RequiredArgsConstructor
 public class MenuService {
 
+    private static final int MAX_PRICE_BATCH = 1000; // 가격 일괄 조회/변경 피드 한 번의 최대 메뉴 수
+
     private final MenuRepository menuRepository;
     private final StoreRepository storeRepository;
 
@@ -180,6 +184,23 @@ public class MenuService {
                 .switchIfEmpty(Mono.error(new NoSuchElementException("Menu with ID " + menuId + " not found.")));
     }
 
+    // 주문 서비스 가격 검증용 일괄 조회 (없는 ID 는 결과에서 빠짐)
+    public Flux<MenuPriceDto> findMenuPrices(List<Long> menuIds) {
+        if (menuIds == null || menuIds.isEmpty()) {
+            return Flux.empty();
+        }
+        if (menuIds.size() > MAX_PRICE_BATCH) {
+            return Flux.error(new IllegalArgumentException("한 번에 조회할 수 있는 메뉴는 최대 " + MAX_PRICE_BATCH + "개입니다."));
+        }
+        return menuRepository.findAllById(menuIds).map(MenuPriceDto::from);
+    }
+
+    // 커서 이후 변경된 메뉴 (주문 서비스가 since=처음 으로 전체 적재, 이후 주기적으로 변경분만 조회)
+    public Flux<MenuPriceDto> findMenuPriceChanges(LocalDateTime since, long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PRICE_BATCH));
+        return menuRepository.findChangedAfter(since, afterId, pageSize).map(MenuPriceDto::from);
+    }
+
     public Flux<Menu> findMenusByStoreId(Long storeId) { // 페이지네이션 미지원 버전
         return menuRepository.findByStoreId(storeId);
     }
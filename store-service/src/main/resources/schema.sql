@@ -42,6 +42,9 @@ CREATE TABLE menus (
         ON DELETE CASCADE
 );
 
+-- 주문 서비스 가격 캐시의 변경 피드 조회용 ((updated_at, id) 커서)
+CREATE INDEX idx_menus_updated_at_id ON menus (updated_at, id);
+
 -- 'reviews' 테이블 생성
 CREATE TABLE reviews (
     id SERIAL PRIMARY KEY, -- 리뷰 고유 식별자 (SERIAL)